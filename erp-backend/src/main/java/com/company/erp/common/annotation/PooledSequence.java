@@ -0,0 +1,17 @@
+package com.company.erp.common.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a high-volume entity whose id sequence hands out blocks of ids, so inserts can be
+ * JDBC-batched without a sequence round trip per row. The database sequence must use the same
+ * increment (see the V12 migration).
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface PooledSequence {
+    int allocationSize() default 50;
+}
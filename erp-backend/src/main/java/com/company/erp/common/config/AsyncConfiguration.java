@@ -1,9 +1,11 @@
 package com.company.erp.common.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 import java.util.concurrent.Executor;
 
@@ -36,14 +38,114 @@ public class AsyncConfiguration {
     }
 
     @Bean(name = "reportGenerationExecutor")
-    public Executor reportGenerationExecutor() {
+    public Executor reportGenerationExecutor(@Value("${app.report.jobs.max-concurrent:2}") int maxConcurrent,
+                                             @Value("${app.report.jobs.max-queued:20}") int maxQueued) {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(2);
-        executor.setMaxPoolSize(5);
-        executor.setQueueCapacity(25);
+        // Report jobs are long-running: a fixed number run at once, a bounded number wait, and the
+        // rest are rejected so a burst never runs reports on request threads
+        executor.setCorePoolSize(Math.max(1, maxConcurrent));
+        executor.setMaxPoolSize(Math.max(1, maxConcurrent));
+        executor.setQueueCapacity(Math.max(0, maxQueued));
         executor.setThreadNamePrefix("report-gen-");
+        executor.setRejectedExecutionHandler(new java.util.concurrent.ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean(name = "dashboardExecutor")
+    public Executor dashboardExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        // Each dashboard fans out ~10 read-only sections; kept apart from report generation so
+        // long-running reports cannot starve dashboard requests. When saturated the request
+        // thread builds the section itself, degrading to the sequential path.
+        executor.setCorePoolSize(10);
+        executor.setMaxPoolSize(20);
+        executor.setQueueCapacity(50);
+        executor.setThreadNamePrefix("dashboard-");
         executor.setRejectedExecutionHandler(new java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy());
         executor.initialize();
         return executor;
     }
-}
\ No newline at end of file
+
+    @Bean(name = "bulkApprovalExecutor")
+    public Executor bulkApprovalExecutor(@Value("${app.business.approval.bulk.parallelism:4}") int parallelism,
+                                         @Value("${app.business.approval.bulk.max-queued:16}") int maxQueued) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        // Lanes of all bulk requests share these threads; each runs chunk transactions holding one
+        // pooled connection, so concurrent bulk approvals cannot drain the connection pool. When
+        // saturated the request thread runs the lane itself.
+        executor.setCorePoolSize(Math.max(1, parallelism));
+        executor.setMaxPoolSize(Math.max(1, parallelism));
+        executor.setQueueCapacity(Math.max(0, maxQueued));
+        executor.setThreadNamePrefix("bulk-approval-");
+        executor.setRejectedExecutionHandler(new java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean(name = "bankFileExecutor")
+    public Executor bankFileExecutor(@Value("${app.payment.bank-file.parallelism:4}") int parallelism,
+                                     @Value("${app.payment.bank-file.max-queued:16}") int maxQueued) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        // Bank files of all requests share these threads; each holds a connection only while it
+        // reads the next chunk of rows. When saturated the request thread writes the file itself.
+        executor.setCorePoolSize(Math.max(1, parallelism));
+        executor.setMaxPoolSize(Math.max(1, parallelism));
+        executor.setQueueCapacity(Math.max(0, maxQueued));
+        executor.setThreadNamePrefix("bank-file-");
+        executor.setRejectedExecutionHandler(new java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean(name = "financeSnapshotScheduler")
+    public ThreadPoolTaskScheduler financeSnapshotScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        // The per-second dirty-project merge and the hourly rebuild of the finance snapshot; a slow
+        // refresh query delays only the next pass, not other scheduled jobs
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("finance-snapshot-");
+        scheduler.initialize();
+        return scheduler;
+    }
+
+    @Bean(name = "reportJobScheduler")
+    public ThreadPoolTaskScheduler reportJobScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        // Report job heartbeats and the hourly purge of expired jobs and orphaned report files
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("report-jobs-");
+        scheduler.initialize();
+        return scheduler;
+    }
+
+    @Bean(name = "statusCounterScheduler")
+    public ThreadPoolTaskScheduler statusCounterScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        // The ten-minute status counter reconcile; its GROUP BY scans never hold up other scheduled jobs
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("status-counters-");
+        scheduler.initialize();
+        return scheduler;
+    }
+
+    @Bean(name = "approvalQueueScheduler")
+    public ThreadPoolTaskScheduler approvalQueueScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        // The per-minute incremental approval queue reconcile and its hourly full reload
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("approval-queue-");
+        scheduler.initialize();
+        return scheduler;
+    }
+
+    @Bean(name = "approvalHistoryScheduler")
+    public ThreadPoolTaskScheduler approvalHistoryScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        // The five-second approval history flush and the daily creation of its monthly partitions
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("approval-history-");
+        scheduler.initialize();
+        return scheduler;
+    }
+}
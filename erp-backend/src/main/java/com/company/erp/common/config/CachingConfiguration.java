@@ -1,22 +1,36 @@
 package com.company.erp.common.config;
 
+import com.company.erp.common.constants.ApplicationConstants;
+import com.company.erp.common.security.UserPrincipal;
+import com.company.erp.common.service.DashboardCacheService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.interceptor.KeyGenerator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
 
+import java.lang.reflect.Method;
 import java.time.Duration;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 @Configuration
 @EnableCaching
@@ -56,13 +70,23 @@ public class CachingConfiguration {
     }
 
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        // Pub/sub between application nodes for in-memory state that must follow changes made elsewhere
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+
+    @Bean
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                     ObjectProvider<DashboardCacheService> dashboardCacheService) {
         RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(defaultTTL)
                 .serializeKeysWith(org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair
                         .fromSerializer(new StringRedisSerializer()))
                 .serializeValuesWith(org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair
-                        .fromSerializer(new GenericJackson2JsonRedisSerializer()));
+                        .fromSerializer(new GenericJackson2JsonRedisSerializer()
+                                .configure(mapper -> mapper.registerModule(new JavaTimeModule()))));
 
         // Different TTL for different cache types
         Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
@@ -70,20 +94,71 @@ public class CachingConfiguration {
         // Short-lived caches
         cacheConfigurations.put("user-sessions", defaultConfig.entryTtl(Duration.ofMinutes(30)));
         cacheConfigurations.put("search-results", defaultConfig.entryTtl(Duration.ofMinutes(15)));
-        cacheConfigurations.put("dashboard-data", defaultConfig.entryTtl(Duration.ofMinutes(10)));
+        cacheConfigurations.put(ApplicationConstants.Cache.DASHBOARD_DATA, defaultConfig.entryTtl(Duration.ofMinutes(10)));
 
         // Medium-lived caches
         cacheConfigurations.put("user-profiles", defaultConfig.entryTtl(Duration.ofHours(2)));
-        cacheConfigurations.put("project-summaries", defaultConfig.entryTtl(Duration.ofHours(1)));
+        cacheConfigurations.put(ApplicationConstants.Cache.PROJECT_SUMMARIES, defaultConfig.entryTtl(Duration.ofHours(1)));
         cacheConfigurations.put("document-metadata", defaultConfig.entryTtl(Duration.ofHours(4)));
 
         // Long-lived caches
         cacheConfigurations.put("system-config", defaultConfig.entryTtl(Duration.ofHours(24)));
         cacheConfigurations.put("notification-templates", defaultConfig.entryTtl(Duration.ofHours(12)));
 
-        return RedisCacheManager.builder(connectionFactory)
+        // Keys of the dashboard caches are indexed when stored, not on every lookup
+        RedisCacheWriter cacheWriter = new KeyIndexingCacheWriter(
+                RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory),
+                DashboardCacheService.INDEXED_CACHES, key -> dashboardCacheService.getObject().registerKey(key));
+
+        return RedisCacheManager.builder(cacheWriter)
                 .cacheDefaults(defaultConfig)
                 .withInitialCacheConfigurations(cacheConfigurations)
+                .enableStatistics() // hit/miss/put/removal counts, exported to Micrometer by actuator
                 .build();
     }
+
+    /**
+     * Key for role/user scoped caches: method, caller's roles, caller's id and the arguments
+     * (date ranges, user ids). Dashboards differ per role, so the roles are part of the key.
+     * Keys are scoped global, which every data change evicts.
+     */
+    @Bean(ApplicationConstants.Cache.DASHBOARD_KEY_GENERATOR)
+    public KeyGenerator dashboardKeyGenerator() {
+        return (target, method, params) -> DashboardCacheService.scopedKey(
+                DashboardCacheService.GLOBAL_SCOPE, dashboardKey(target, method, params));
+    }
+
+    /**
+     * Same key for dashboards built from one user's projects and quotations (the trailing user id
+     * argument). Keys are scoped to that user, so only changes touching the user evict them.
+     */
+    @Bean(ApplicationConstants.Cache.USER_DASHBOARD_KEY_GENERATOR)
+    public KeyGenerator userDashboardKeyGenerator() {
+        return (target, method, params) -> {
+            Object userId = params.length > 0 ? params[params.length - 1] : null;
+            String scope = userId instanceof Long
+                    ? DashboardCacheService.userScope((Long) userId)
+                    : DashboardCacheService.GLOBAL_SCOPE;
+            return DashboardCacheService.scopedKey(scope, dashboardKey(target, method, params));
+        };
+    }
+
+    private static String dashboardKey(Object target, Method method, Object[] params) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        String roles = "anonymous";
+        Object principalId = null;
+        if (authentication != null) {
+            roles = authentication.getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .sorted()
+                    .collect(Collectors.joining(","));
+            if (authentication.getPrincipal() instanceof UserPrincipal) {
+                principalId = ((UserPrincipal) authentication.getPrincipal()).getId();
+            }
+        }
+
+        return target.getClass().getSimpleName() + "." + method.getName()
+                + ":" + roles + ":" + principalId + ":" + Arrays.deepToString(params);
+    }
 }
\ No newline at end of file
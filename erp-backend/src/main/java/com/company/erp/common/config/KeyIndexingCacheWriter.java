@@ -0,0 +1,109 @@
+package com.company.erp.common.config;
+
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Redis cache writer that reports every key stored in the indexed caches, so that keys are indexed
+ * on a miss (when the value is put) instead of on every lookup. Wrapping the writer rather than the
+ * caches keeps them RedisCache instances, whose statistics actuator exports.
+ */
+final class KeyIndexingCacheWriter implements RedisCacheWriter {
+
+    private final RedisCacheWriter delegate;
+    private final Set<String> indexedCaches;
+    private final Consumer<String> keyIndex;
+
+    KeyIndexingCacheWriter(RedisCacheWriter delegate, Set<String> indexedCaches, Consumer<String> keyIndex) {
+        this.delegate = delegate;
+        this.indexedCaches = indexedCaches;
+        this.keyIndex = keyIndex;
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key) {
+        return delegate.get(name, key);
+    }
+
+    @Override
+    public byte[] get(String name, byte[] key, Duration ttl) {
+        return delegate.get(name, key, ttl);
+    }
+
+    @Override
+    public boolean supportsAsyncRetrieve() {
+        return delegate.supportsAsyncRetrieve();
+    }
+
+    @Override
+    public CompletableFuture<byte[]> retrieve(String name, byte[] key, Duration ttl) {
+        return delegate.retrieve(name, key, ttl);
+    }
+
+    @Override
+    public void put(String name, byte[] key, byte[] value, Duration ttl) {
+        delegate.put(name, key, value, ttl);
+        index(name, key);
+    }
+
+    @Override
+    public CompletableFuture<Void> store(String name, byte[] key, byte[] value, Duration ttl) {
+        return delegate.store(name, key, value, ttl).thenRun(() -> index(name, key));
+    }
+
+    @Override
+    public byte[] putIfAbsent(String name, byte[] key, byte[] value, Duration ttl) {
+        byte[] existing = delegate.putIfAbsent(name, key, value, ttl);
+        if (existing == null) {
+            index(name, key);
+        }
+        return existing;
+    }
+
+    @Override
+    public void remove(String name, byte[] key) {
+        delegate.remove(name, key);
+    }
+
+    @Override
+    public void clean(String name, byte[] pattern) {
+        delegate.clean(name, pattern);
+    }
+
+    @Override
+    public CacheStatistics getCacheStatistics(String cacheName) {
+        return delegate.getCacheStatistics(cacheName);
+    }
+
+    @Override
+    public void clearStatistics(String name) {
+        delegate.clearStatistics(name);
+    }
+
+    @Override
+    public RedisCacheWriter withStatisticsCollector(CacheStatisticsCollector cacheStatisticsCollector) {
+        return new KeyIndexingCacheWriter(delegate.withStatisticsCollector(cacheStatisticsCollector),
+                indexedCaches, keyIndex);
+    }
+
+    // Helper methods
+
+    /**
+     * Stored keys carry the cache prefix ("name::"); the index holds the cache key itself, as passed to evict.
+     */
+    private void index(String name, byte[] key) {
+        if (!indexedCaches.contains(name)) {
+            return;
+        }
+        String storedKey = new String(key, StandardCharsets.UTF_8);
+        String prefix = name + "::";
+        keyIndex.accept(storedKey.startsWith(prefix) ? storedKey.substring(prefix.length()) : storedKey);
+    }
+}
@@ -112,4 +112,12 @@ public final class ApplicationConstants {
         public static final String DEFAULT_SORT_FIELD = "createdDate";
         public static final String DEFAULT_SORT_DIRECTION = "desc";
     }
+
+    // Cache Names
+    public static final class Cache {
+        public static final String DASHBOARD_DATA = "dashboard-data";
+        public static final String PROJECT_SUMMARIES = "project-summaries";
+        public static final String DASHBOARD_KEY_GENERATOR = "dashboardKeyGenerator";
+        public static final String USER_DASHBOARD_KEY_GENERATOR = "userDashboardKeyGenerator";
+    }
 }
\ No newline at end of file
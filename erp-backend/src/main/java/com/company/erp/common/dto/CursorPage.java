@@ -0,0 +1,67 @@
+// CursorPage.java
+package com.company.erp.common.dto;
+
+import com.company.erp.common.util.KeysetCursor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * One page of a keyset-paginated listing. No total count is computed; clients keep requesting
+ * with {@code nextCursor} while {@code hasNext} is true.
+ */
+public class CursorPage<T> {
+
+    public static final int MAX_SIZE = 200;
+
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+
+    // Constructors
+    public CursorPage() {}
+
+    public CursorPage(List<T> content, int size, boolean hasNext, String nextCursor) {
+        this.content = content;
+        this.size = size;
+        this.hasNext = hasNext;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Unsorted first-page request for a keyset query (the ORDER BY lives in the query), size clamped to MAX_SIZE.
+     */
+    public static Pageable request(int size) {
+        return PageRequest.of(0, Math.max(1, Math.min(size, MAX_SIZE)));
+    }
+
+    /**
+     * Build from a slice of entities, taking the next cursor from the last row.
+     */
+    public static <E, T> CursorPage<T> from(Slice<E> slice, Function<E, T> mapper, Function<E, KeysetCursor> cursorOf) {
+        List<E> rows = slice.getContent();
+        String nextCursor = slice.hasNext() && !rows.isEmpty()
+                ? cursorOf.apply(rows.get(rows.size() - 1)).encode()
+                : null;
+        List<T> content = rows.stream().map(mapper).collect(Collectors.toList());
+        return new CursorPage<>(content, slice.getSize(), slice.hasNext(), nextCursor);
+    }
+
+    // Getters and Setters
+    public List<T> getContent() { return content; }
+    public void setContent(List<T> content) { this.content = content; }
+
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+
+    public boolean isHasNext() { return hasNext; }
+    public void setHasNext(boolean hasNext) { this.hasNext = hasNext; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
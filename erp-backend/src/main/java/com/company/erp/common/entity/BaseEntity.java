@@ -1,13 +1,15 @@
 package com.company.erp.common.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
 import java.time.LocalDateTime;
 
 @MappedSuperclass
 public abstract class BaseEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = TableSequenceIdGenerator.NAME)
+    @GenericGenerator(name = TableSequenceIdGenerator.NAME, type = TableSequenceIdGenerator.class)
     private Long id;
 
     @Column(name = "created_date", nullable = false, updatable = false)
@@ -0,0 +1,46 @@
+package com.company.erp.common.event;
+
+/**
+ * Published when data feeding the cached dashboards and summaries changes.
+ * Listeners evict the affected cache keys once the publishing transaction commits:
+ * the global aggregates, plus the per-user dashboards of the project's manager and
+ * of the user the change belongs to (e.g. the quotation creator), when known.
+ */
+public class DashboardDataChangedEvent {
+
+    public enum Source {
+        PROJECT,
+        QUOTATION,
+        BUDGET_TRACKING,
+        PAYMENT
+    }
+
+    private final Source source;
+    private final Long projectId;
+    private final Long userId;
+    private final String action;
+
+    public DashboardDataChangedEvent(Source source, Long projectId, String action) {
+        this(source, projectId, null, action);
+    }
+
+    public DashboardDataChangedEvent(Source source, Long projectId, Long userId, String action) {
+        this.source = source;
+        this.projectId = projectId;
+        this.userId = userId;
+        this.action = action;
+    }
+
+    public Source getSource() { return source; }
+
+    public Long getProjectId() { return projectId; }
+
+    public Long getUserId() { return userId; }
+
+    public String getAction() { return action; }
+
+    @Override
+    public String toString() {
+        return "DashboardDataChangedEvent{source=" + source + ", projectId=" + projectId + ", userId=" + userId + ", action='" + action + "'}";
+    }
+}
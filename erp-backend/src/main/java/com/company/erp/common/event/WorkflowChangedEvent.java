@@ -0,0 +1,28 @@
+package com.company.erp.common.event;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Published when the approval workflow rows of some quotations change (started, moved, claimed
+ * or released). The approval queue re-reads them once the publishing transaction commits.
+ */
+public class WorkflowChangedEvent {
+
+    private final Collection<Long> quotationIds;
+
+    public WorkflowChangedEvent(Long quotationId) {
+        this(List.of(quotationId));
+    }
+
+    public WorkflowChangedEvent(Collection<Long> quotationIds) {
+        this.quotationIds = quotationIds;
+    }
+
+    public Collection<Long> getQuotationIds() { return quotationIds; }
+
+    @Override
+    public String toString() {
+        return "WorkflowChangedEvent{quotationIds=" + quotationIds + "}";
+    }
+}
@@ -0,0 +1,49 @@
+package com.company.erp.common.event;
+
+import com.company.erp.workflow.entity.WorkflowEvent;
+import com.company.erp.workflow.entity.WorkflowState;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published for every approval workflow transition, including the start on (re)submission.
+ * The approval history log records it once the publishing transaction commits.
+ */
+public class WorkflowTransitionEvent {
+
+    private final Long quotationId;
+    private final Long actorId;
+    private final WorkflowEvent event;
+    private final WorkflowState from;
+    private final WorkflowState to;
+    private final LocalDateTime occurredAt;
+
+    public WorkflowTransitionEvent(Long quotationId, Long actorId, WorkflowEvent event,
+                                   WorkflowState from, WorkflowState to, LocalDateTime occurredAt) {
+        this.quotationId = quotationId;
+        this.actorId = actorId;
+        this.event = event;
+        this.from = from;
+        this.to = to;
+        this.occurredAt = occurredAt;
+    }
+
+    public Long getQuotationId() { return quotationId; }
+
+    public Long getActorId() { return actorId; }
+
+    public WorkflowEvent getEvent() { return event; }
+
+    /** Null when the workflow starts. */
+    public WorkflowState getFrom() { return from; }
+
+    public WorkflowState getTo() { return to; }
+
+    public LocalDateTime getOccurredAt() { return occurredAt; }
+
+    @Override
+    public String toString() {
+        return "WorkflowTransitionEvent{quotationId=" + quotationId + ", event=" + event +
+                ", from=" + from + ", to=" + to + "}";
+    }
+}
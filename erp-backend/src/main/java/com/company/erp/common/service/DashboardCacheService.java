@@ -0,0 +1,155 @@
+package com.company.erp.common.service;
+
+import com.company.erp.common.constants.ApplicationConstants;
+import com.company.erp.common.event.DashboardDataChangedEvent;
+import com.company.erp.project.repository.ProjectRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Evicts cached dashboards and summaries when the data behind them changes.
+ *
+ * Cached entries are keyed by role, user and date range, which an event cannot enumerate, so the
+ * dashboard key generators prefix every key with its scope (the global aggregates, or the user
+ * whose projects and quotations a dashboard is built from) and the cache writer records each key
+ * it stores in a Redis set per scope. Cache hits touch no index. An event evicts exactly the keys
+ * of the scopes it touches, on every node. Eviction runs after the publishing transaction
+ * commits, so a concurrent reader cannot repopulate the cache from the pre-commit state.
+ */
+@Service
+public class DashboardCacheService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardCacheService.class);
+
+    // Caches fed by each source. Payments only move quotation statuses, which the summaries don't read.
+    private static final Map<DashboardDataChangedEvent.Source, List<String>> AFFECTED_CACHES =
+            new EnumMap<>(Map.of(
+                    DashboardDataChangedEvent.Source.PROJECT,
+                    List.of(ApplicationConstants.Cache.DASHBOARD_DATA, ApplicationConstants.Cache.PROJECT_SUMMARIES),
+                    DashboardDataChangedEvent.Source.QUOTATION,
+                    List.of(ApplicationConstants.Cache.DASHBOARD_DATA, ApplicationConstants.Cache.PROJECT_SUMMARIES),
+                    DashboardDataChangedEvent.Source.BUDGET_TRACKING,
+                    List.of(ApplicationConstants.Cache.DASHBOARD_DATA, ApplicationConstants.Cache.PROJECT_SUMMARIES),
+                    DashboardDataChangedEvent.Source.PAYMENT,
+                    List.of(ApplicationConstants.Cache.DASHBOARD_DATA)));
+
+    // Caches whose stored keys are indexed by scope
+    public static final Set<String> INDEXED_CACHES =
+            Set.of(ApplicationConstants.Cache.DASHBOARD_DATA, ApplicationConstants.Cache.PROJECT_SUMMARIES);
+
+    public static final String GLOBAL_SCOPE = "global";
+    private static final String SCOPE_SEPARATOR = "|";
+    private static final String KEY_INDEX_PREFIX = "erp:cache-keys:";
+    // Longest TTL of the indexed caches; every put refreshes the index
+    private static final Duration KEY_INDEX_TTL = Duration.ofHours(1);
+
+    private final CacheManager cacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final ProjectRepository projectRepository;
+    private final MeterRegistry meterRegistry;
+
+    public DashboardCacheService(CacheManager cacheManager, StringRedisTemplate redisTemplate,
+                                 ProjectRepository projectRepository, MeterRegistry meterRegistry) {
+        this.cacheManager = cacheManager;
+        this.redisTemplate = redisTemplate;
+        this.projectRepository = projectRepository;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public static String userScope(Long userId) {
+        return "user:" + userId;
+    }
+
+    /**
+     * Cache key for the given scope; the scope is recovered from the key when the value is stored.
+     */
+    public static String scopedKey(String scope, String key) {
+        return scope + SCOPE_SEPARATOR + key;
+    }
+
+    /**
+     * Record a stored cache key under its scope so that events can evict it.
+     */
+    public void registerKey(String key) {
+        int separator = key.indexOf(SCOPE_SEPARATOR);
+        String scope = separator > 0 ? key.substring(0, separator) : GLOBAL_SCOPE;
+        String index = KEY_INDEX_PREFIX + scope;
+        redisTemplate.opsForSet().add(index, key);
+        redisTemplate.expire(index, KEY_INDEX_TTL);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDashboardDataChanged(DashboardDataChangedEvent event) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (String scope : affectedScopes(event)) {
+            keys.addAll(takeKeys(KEY_INDEX_PREFIX + scope));
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        for (String cacheName : AFFECTED_CACHES.get(event.getSource())) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache == null) {
+                continue;
+            }
+
+            for (String key : keys) {
+                cache.evict(key);
+            }
+            evictionCounter(cacheName, event.getSource()).increment(keys.size());
+        }
+
+        logger.debug("{} dashboard cache keys invalidated by {}", keys.size(), event);
+    }
+
+    // Helper methods
+
+    private Set<String> affectedScopes(DashboardDataChangedEvent event) {
+        Set<String> scopes = new LinkedHashSet<>();
+        scopes.add(GLOBAL_SCOPE);
+        if (event.getProjectId() != null) {
+            projectRepository.findManagerIdById(event.getProjectId())
+                    .ifPresent(managerId -> scopes.add(userScope(managerId)));
+        }
+        if (event.getUserId() != null) {
+            scopes.add(userScope(event.getUserId()));
+        }
+        return scopes;
+    }
+
+    /**
+     * Pop the indexed keys; SPOP is atomic, so a key registered concurrently stays indexed for the next event.
+     */
+    private List<String> takeKeys(String index) {
+        Long size = redisTemplate.opsForSet().size(index);
+        if (size == null || size == 0) {
+            return List.of();
+        }
+        List<String> keys = redisTemplate.opsForSet().pop(index, size);
+        return keys != null ? keys : List.of();
+    }
+
+    private Counter evictionCounter(String cacheName, DashboardDataChangedEvent.Source source) {
+        return Counter.builder("erp.cache.invalidations")
+                .description("Event-driven cache invalidations")
+                .tag("cache", cacheName)
+                .tag("source", source.name())
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,370 @@
+package com.company.erp.common.service;
+
+import com.company.erp.common.exception.BusinessException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.Session;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Builds Page responses with a caller-chosen total: exact (COUNT, cached briefly), estimated from
+ * PostgreSQL planner statistics, or none (lower bound only).
+ *
+ * Callers describe the listing once as a CountQuery; the JPQL page, slice and count queries and the
+ * SQL used for the planner estimate are all generated from that one definition. Estimate and none
+ * read the page as a Slice, so no COUNT runs at all; on the last page the total is exact anyway
+ * because the slice shows where the data ends.
+ */
+@Service
+public class PageCountService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PageCountService.class);
+
+    private static final int MAX_CACHED_COUNTS = 10_000;
+    private static final Pattern PLAN_ROWS = Pattern.compile("\"Plan Rows\":\\s*(\\d+)");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.pagination.count-cache-seconds:30}")
+    private long countCacheSeconds;
+
+    private final Map<String, CachedCount> exactCounts = new ConcurrentHashMap<>();
+    private volatile Boolean postgres;
+
+    public enum CountMode {
+        EXACT, ESTIMATE, NONE;
+
+        public static CountMode parse(String value) {
+            if (value == null || value.isBlank()) {
+                return EXACT;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new BusinessException("INVALID_COUNT_MODE", "count must be one of: exact, estimate, none");
+            }
+        }
+    }
+
+    /**
+     * Read one page of the query with the total computed according to the count mode.
+     */
+    public <T> Page<T> page(CountMode mode, Pageable pageable, CountQuery<T> query) {
+        switch (mode) {
+            case NONE:
+                Slice<T> slice = slice(query, pageable);
+                return new PageImpl<>(slice.getContent(), pageable, lowerBound(slice, pageable));
+            case ESTIMATE:
+                Long estimate = estimate(query);
+                if (estimate != null) {
+                    return withTotal(slice(query, pageable), pageable, estimate);
+                }
+                // Not PostgreSQL or no statistics: fall back to the cached exact count
+                return exactPage(pageable, query);
+            default:
+                return exactPage(pageable, query);
+        }
+    }
+
+    // Helper methods
+
+    private <T> Page<T> exactPage(Pageable pageable, CountQuery<T> query) {
+        String key = query.cacheKey();
+        CachedCount cached = exactCounts.get(key);
+        if (cached != null && cached.expiresAt > System.currentTimeMillis()) {
+            return withTotal(slice(query, pageable), pageable, cached.count);
+        }
+
+        List<T> content = rows(query, pageable, pageable.getPageSize());
+        long total = bind(entityManager.createQuery(query.countJpql(), Long.class), query).getSingleResult();
+        cacheCount(key, total);
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    /**
+     * One row past the page tells whether another page exists, instead of a COUNT.
+     */
+    private <T> Slice<T> slice(CountQuery<T> query, Pageable pageable) {
+        List<T> rows = rows(query, pageable, pageable.getPageSize() + 1);
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        List<T> content = hasNext ? rows.subList(0, pageable.getPageSize()) : rows;
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    private <T> List<T> rows(CountQuery<T> query, Pageable pageable, int limit) {
+        String jpql = QueryUtils.applySorting(query.selectJpql(), pageable.getSort(), CountQuery.ALIAS);
+        return bind(entityManager.createQuery(jpql, query.entityClass), query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private <R> TypedQuery<R> bind(TypedQuery<R> typedQuery, CountQuery<?> query) {
+        for (int i = 0; i < query.conditions.size(); i++) {
+            typedQuery.setParameter(CountQuery.parameterName(i), query.conditions.get(i).value);
+        }
+        return typedQuery;
+    }
+
+    private <T> Page<T> withTotal(Slice<T> slice, Pageable pageable, long total) {
+        long atLeast = lowerBound(slice, pageable);
+        long adjusted = slice.hasNext() ? Math.max(total, atLeast) : atLeast;
+        return new PageImpl<>(slice.getContent(), pageable, adjusted);
+    }
+
+    /**
+     * Rows known to exist: everything up to this page, plus one if the slice saw a next row.
+     */
+    private long lowerBound(Slice<?> slice, Pageable pageable) {
+        return pageable.getOffset() + slice.getNumberOfElements() + (slice.hasNext() ? 1 : 0);
+    }
+
+    private void cacheCount(String key, long count) {
+        if (exactCounts.size() >= MAX_CACHED_COUNTS) {
+            long now = System.currentTimeMillis();
+            exactCounts.values().removeIf(entry -> entry.expiresAt <= now);
+            if (exactCounts.size() >= MAX_CACHED_COUNTS) {
+                exactCounts.clear();
+            }
+        }
+        exactCounts.put(key, new CachedCount(count, System.currentTimeMillis() + countCacheSeconds * 1000));
+    }
+
+    /**
+     * Planner row estimate, read on the connection of the caller's transaction (no second pool
+     * connection). Runs under a savepoint so a failed EXPLAIN does not abort that transaction.
+     */
+    private Long estimate(CountQuery<?> query) {
+        if (!isPostgres()) {
+            return null;
+        }
+
+        return entityManager.unwrap(Session.class).doReturningWork(conn -> {
+            Savepoint savepoint = conn.getAutoCommit() ? null : conn.setSavepoint();
+            try {
+                Long estimate = readEstimate(conn, query);
+                if (savepoint != null) {
+                    conn.releaseSavepoint(savepoint);
+                }
+                return estimate;
+            } catch (SQLException e) {
+                if (savepoint != null) {
+                    conn.rollback(savepoint);
+                }
+                logger.warn("Row estimate failed for {}: {}", query.table, e.getMessage());
+                return null;
+            }
+        });
+    }
+
+    private Long readEstimate(Connection conn, CountQuery<?> query) throws SQLException {
+        if (query.conditions.isEmpty()) {
+            // Unfiltered table: the statistics row count is enough
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass(?)")) {
+                stmt.setString(1, query.table);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next() && rs.getLong(1) >= 0) {
+                        return rs.getLong(1);
+                    }
+                }
+            }
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN (FORMAT JSON) " + query.estimateSql())) {
+            for (int i = 0; i < query.conditions.size(); i++) {
+                stmt.setObject(i + 1, query.conditions.get(i).sqlValue());
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    Matcher matcher = PLAN_ROWS.matcher(rs.getString(1));
+                    if (matcher.find()) {
+                        return Long.parseLong(matcher.group(1));
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private boolean isPostgres() {
+        Boolean result = postgres;
+        if (result == null) {
+            result = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+            postgres = result;
+        }
+        return result;
+    }
+
+    private static final class CachedCount {
+        private final long count;
+        private final long expiresAt;
+
+        private CachedCount(long count, long expiresAt) {
+            this.count = count;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * A paged listing of one entity: optional fetch joins plus filters. Each filter names the entity
+     * attribute and its column together, so the JPQL that reads the page and the SQL that the
+     * planner estimates are rendered from the same list and cannot drift apart.
+     */
+    public static final class CountQuery<T> {
+        static final String ALIAS = "e";
+
+        private final Class<T> entityClass;
+        private final String table;
+        private final List<String> fetches = new ArrayList<>();
+        private final List<Condition> conditions = new ArrayList<>();
+
+        private CountQuery(Class<T> entityClass, String table) {
+            this.entityClass = entityClass;
+            this.table = table;
+        }
+
+        public static <T> CountQuery<T> of(Class<T> entityClass, String table) {
+            return new CountQuery<>(entityClass, table);
+        }
+
+        /**
+         * LEFT JOIN FETCH a to-one association on the page query (not on the count).
+         */
+        public CountQuery<T> fetch(String association) {
+            fetches.add(association);
+            return this;
+        }
+
+        /**
+         * attribute = value; skipped when the value is null (optional filter).
+         */
+        public CountQuery<T> equal(String attribute, String column, Object value) {
+            return add(Operator.EQUAL, attribute, column, value);
+        }
+
+        /**
+         * Case-insensitive attribute = value; skipped when the value is null.
+         */
+        public CountQuery<T> equalIgnoreCase(String attribute, String column, String value) {
+            return add(Operator.EQUAL_IGNORE_CASE, attribute, column, value);
+        }
+
+        /**
+         * Case-insensitive substring match; skipped when the value is null.
+         */
+        public CountQuery<T> contains(String attribute, String column, String value) {
+            return add(Operator.CONTAINS, attribute, column, value != null ? "%" + value + "%" : null);
+        }
+
+        private CountQuery<T> add(Operator operator, String attribute, String column, Object value) {
+            if (value != null) {
+                conditions.add(new Condition(operator, attribute, column, value));
+            }
+            return this;
+        }
+
+        String selectJpql() {
+            StringBuilder jpql = new StringBuilder("SELECT ").append(ALIAS).append(" FROM ")
+                    .append(entityClass.getSimpleName()).append(' ').append(ALIAS);
+            for (String association : fetches) {
+                jpql.append(" LEFT JOIN FETCH ").append(ALIAS).append('.').append(association);
+            }
+            return jpql.append(jpqlWhere()).toString();
+        }
+
+        String countJpql() {
+            return "SELECT COUNT(" + ALIAS + ") FROM " + entityClass.getSimpleName() + " " + ALIAS + jpqlWhere();
+        }
+
+        String estimateSql() {
+            StringBuilder sql = new StringBuilder("SELECT 1 FROM ").append(table);
+            for (int i = 0; i < conditions.size(); i++) {
+                Condition condition = conditions.get(i);
+                sql.append(i == 0 ? " WHERE " : " AND ").append(condition.operator.render(condition.column, "?"));
+            }
+            return sql.toString();
+        }
+
+        private String jpqlWhere() {
+            StringBuilder where = new StringBuilder();
+            for (int i = 0; i < conditions.size(); i++) {
+                Condition condition = conditions.get(i);
+                where.append(i == 0 ? " WHERE " : " AND ")
+                        .append(condition.operator.render(ALIAS + "." + condition.attribute, ":" + parameterName(i)));
+            }
+            return where.toString();
+        }
+
+        private String cacheKey() {
+            List<Object> values = new ArrayList<>();
+            conditions.forEach(condition -> values.add(condition.value));
+            return estimateSql() + " " + values;
+        }
+
+        static String parameterName(int index) {
+            return "p" + index;
+        }
+    }
+
+    private enum Operator {
+        EQUAL("%s = %s"),
+        EQUAL_IGNORE_CASE("LOWER(%s) = LOWER(%s)"),
+        CONTAINS("LOWER(%s) LIKE LOWER(%s)");
+
+        private final String template;
+
+        Operator(String template) {
+            this.template = template;
+        }
+
+        String render(String operand, String parameter) {
+            return String.format(template, operand, parameter);
+        }
+    }
+
+    private static final class Condition {
+        private final Operator operator;
+        private final String attribute;
+        private final String column;
+        private final Object value;
+
+        private Condition(Operator operator, String attribute, String column, Object value) {
+            this.operator = operator;
+            this.attribute = attribute;
+            this.column = column;
+            this.value = value;
+        }
+
+        // Enums are mapped as STRING columns
+        private Object sqlValue() {
+            return value instanceof Enum<?> e ? e.name() : value;
+        }
+    }
+}
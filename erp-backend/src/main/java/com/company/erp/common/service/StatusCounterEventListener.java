@@ -0,0 +1,144 @@
+package com.company.erp.common.service;
+
+import com.company.erp.common.entity.BaseEntity;
+import com.company.erp.common.service.StatusCounterService.Changes;
+import com.company.erp.common.service.StatusCounterService.Tally;
+import com.company.erp.financial.entity.Quotation;
+import com.company.erp.financial.entity.QuotationStatus;
+import com.company.erp.payment.entity.Payment;
+import com.company.erp.payment.entity.PaymentStatus;
+import com.company.erp.workflow.entity.Approval;
+import com.company.erp.workflow.entity.ApprovalStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Moves {@link StatusCounterService} counters with quotation, payment and approval changes.
+ *
+ * Runs as a Hibernate post-action listener during flush and collects the changes per session;
+ * they are applied once the transaction has committed, so a rollback never moves a counter and
+ * the write transaction itself touches nothing shared. The previous status and amount come from the state Hibernate loaded
+ * for dirty checking; updates without that state, and bulk JPQL updates (which bypass
+ * listeners), are left to the reconcile.
+ */
+@Component
+public class StatusCounterEventListener implements PostInsertEventListener,
+        PostUpdateEventListener, PostDeleteEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final StatusCounterService statusCounterService;
+    private final Map<EventSource, Changes> pending = new ConcurrentHashMap<>();
+
+    public StatusCounterEventListener(EntityManagerFactory entityManagerFactory,
+                                      StatusCounterService statusCounterService) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.statusCounterService = statusCounterService;
+    }
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        changed(event.getSession(), event.getEntity(), event.getPersister(), null, event.getState());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getOldState() != null) {
+            changed(event.getSession(), event.getEntity(), event.getPersister(), event.getOldState(), event.getState());
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        changed(event.getSession(), event.getEntity(), event.getPersister(), event.getDeletedState(), null);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    // Helper methods
+
+    private void changed(EventSource session, Object entity, EntityPersister persister,
+                         Object[] oldState, Object[] newState) {
+        if (entity instanceof Quotation) {
+            changesOf(session).quotationChanged(
+                    tally(persister, oldState, QuotationStatus.class, "creator", "totalAmount"),
+                    tally(persister, newState, QuotationStatus.class, "creator", "totalAmount"));
+        } else if (entity instanceof Payment) {
+            changesOf(session).paymentChanged(
+                    tally(persister, oldState, PaymentStatus.class, null, "amount"),
+                    tally(persister, newState, PaymentStatus.class, null, "amount"));
+        } else if (entity instanceof Approval) {
+            changesOf(session).approvalChanged(
+                    tally(persister, oldState, ApprovalStatus.class, "approver", null),
+                    tally(persister, newState, ApprovalStatus.class, "approver", null));
+        }
+    }
+
+    /**
+     * The pending changes of the session's transaction. The first change registers a process
+     * after completion that applies them on commit and drops them on rollback.
+     */
+    private Changes changesOf(EventSource session) {
+        return pending.computeIfAbsent(session, s -> {
+            s.getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, completed) -> {
+                Changes changes = pending.remove(s);
+                if (success && changes != null) {
+                    statusCounterService.apply(changes);
+                }
+            });
+            return new Changes();
+        });
+    }
+
+    /**
+     * The counter contribution of one state snapshot, or null when it is absent or inactive.
+     */
+    private <S extends Enum<S>> Tally<S> tally(EntityPersister persister, Object[] state, Class<S> statusType,
+                                              String ownerProperty, String amountProperty) {
+        if (state == null || !Boolean.TRUE.equals(value(persister, state, "active"))) {
+            return null;
+        }
+
+        S status = statusType.cast(value(persister, state, "status"));
+        if (status == null) {
+            return null;
+        }
+
+        Object owner = ownerProperty != null ? value(persister, state, ownerProperty) : null;
+        Long ownerId = owner instanceof BaseEntity ? ((BaseEntity) owner).getId() : null;
+        BigDecimal amount = amountProperty != null ? (BigDecimal) value(persister, state, amountProperty) : null;
+        return Tally.of(ownerId, status, amount);
+    }
+
+    private Object value(EntityPersister persister, Object[] state, String property) {
+        return state[persister.getEntityMetamodel().getPropertyIndex(property)];
+    }
+}
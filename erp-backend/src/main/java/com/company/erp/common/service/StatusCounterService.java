@@ -0,0 +1,413 @@
+package com.company.erp.common.service;
+
+import com.company.erp.financial.entity.QuotationStatus;
+import com.company.erp.financial.repository.QuotationRepository;
+import com.company.erp.payment.entity.PaymentStatus;
+import com.company.erp.payment.repository.PaymentRepository;
+import com.company.erp.workflow.entity.ApprovalStatus;
+import com.company.erp.workflow.repository.ApprovalRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.support.CronTrigger;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.company.erp.common.util.Money.fromMinorUnits;
+import static com.company.erp.common.util.Money.toMinorUnits;
+
+/**
+ * In-memory per-status counts and amounts for quotations, payments and approvals.
+ *
+ * Counters are LongAdders (amounts in long minor units). {@link StatusCounterEventListener}
+ * collects the changes of each transaction and hands them to {@link #apply} after it commits, so
+ * a write transaction never touches a shared row. Each node applies its own changes and publishes
+ * them on a Redis channel; the other nodes apply what they receive, so every node follows the
+ * same figures within the message latency.
+ *
+ * Every ten minutes, on its own scheduler, the counters are reconciled against GROUP BY queries
+ * run without any lock; differences are added as deltas, and counters that moved while the
+ * queries ran are left to the next pass. This also covers bulk JPQL updates, which bypass the
+ * listener, and messages lost while Redis was unavailable. Only active rows are counted,
+ * matching the repository count queries.
+ */
+@Service
+public class StatusCounterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatusCounterService.class);
+
+    static final String CHANGES_CHANNEL = "erp:status-counters:changed";
+    static final long ALL = 0L; // Owner id of the global counters
+    private static final long[] ZERO = new long[2];
+
+    enum Scope {
+        QUOTATIONS,
+        QUOTATIONS_BY_CREATOR,
+        PAYMENTS,
+        APPROVALS_BY_APPROVER
+    }
+
+    private final QuotationRepository quotationRepository;
+    private final PaymentRepository paymentRepository;
+    private final ApprovalRepository approvalRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final TaskScheduler scheduler;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<CounterKey, Cell> cells = new ConcurrentHashMap<>();
+    private final Object reconcileLock = new Object();
+    private final List<ScheduledFuture<?>> tasks = new ArrayList<>();
+    private volatile boolean reconciled;
+
+    public StatusCounterService(QuotationRepository quotationRepository,
+                                PaymentRepository paymentRepository,
+                                ApprovalRepository approvalRepository,
+                                StringRedisTemplate redisTemplate,
+                                RedisMessageListenerContainer listenerContainer,
+                                @Qualifier("statusCounterScheduler") TaskScheduler scheduler) {
+        this.quotationRepository = quotationRepository;
+        this.paymentRepository = paymentRepository;
+        this.approvalRepository = approvalRepository;
+        this.redisTemplate = redisTemplate;
+        this.scheduler = scheduler;
+        listenerContainer.addMessageListener(this::onRemoteChange, new ChannelTopic(CHANGES_CHANNEL));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        tasks.add(scheduler.schedule(this::reconcile, new CronTrigger("0 */10 * * * ?"))); // Every 10 minutes
+    }
+
+    @PreDestroy
+    public void stop() {
+        tasks.forEach(task -> task.cancel(false));
+    }
+
+    public StatusCounters<QuotationStatus> quotations() {
+        return read(Scope.QUOTATIONS, ALL, QuotationStatus.class);
+    }
+
+    public StatusCounters<QuotationStatus> quotationsCreatedBy(Long userId) {
+        return read(Scope.QUOTATIONS_BY_CREATOR, userId, QuotationStatus.class);
+    }
+
+    public StatusCounters<PaymentStatus> payments() {
+        return read(Scope.PAYMENTS, ALL, PaymentStatus.class);
+    }
+
+    public StatusCounters<ApprovalStatus> approvalsBy(Long approverId) {
+        return read(Scope.APPROVALS_BY_APPROVER, approverId, ApprovalStatus.class);
+    }
+
+    /**
+     * Apply one committed transaction's changes locally and publish them to the other nodes.
+     */
+    public void apply(Changes changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        changes.deltas.forEach(this::add);
+
+        try {
+            redisTemplate.convertAndSend(CHANGES_CHANNEL, nodeId + "|" + changes.encode());
+        } catch (RuntimeException e) {
+            // Other nodes catch up on their next reconcile
+            logger.warn("Failed to publish status counter changes: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Bring the counters in line with the rows. The GROUP BY queries run without a lock; each
+     * counter is corrected by the difference as a delta, so changes applied concurrently are kept.
+     * A counter that moved while the queries ran may or may not be in their result, so after the
+     * first load it is left for the next pass.
+     */
+    public void reconcile() {
+        synchronized (reconcileLock) {
+            long startTime = System.currentTimeMillis();
+            Map<CounterKey, long[]> before = snapshot();
+            Changes loaded = load();
+            Map<CounterKey, long[]> after = snapshot();
+
+            Set<CounterKey> keys = new HashSet<>(loaded.deltas.keySet());
+            keys.addAll(after.keySet());
+            int corrected = 0;
+            int skipped = 0;
+            for (CounterKey key : keys) {
+                long[] previous = before.getOrDefault(key, ZERO);
+                long[] current = after.getOrDefault(key, ZERO);
+                if (reconciled && (previous[0] != current[0] || previous[1] != current[1])) {
+                    skipped++;
+                    continue;
+                }
+                long[] target = loaded.deltas.getOrDefault(key, ZERO);
+                if (target[0] != current[0] || target[1] != current[1]) {
+                    add(key, new long[]{target[0] - current[0], target[1] - current[1]});
+                    corrected++;
+                }
+            }
+
+            if (reconciled && corrected > 0) {
+                logger.info("Reconciled {} drifted status counters", corrected);
+            }
+            reconciled = true;
+            logger.debug("Reconciled status counters in {}ms ({} moved during the pass)",
+                    System.currentTimeMillis() - startTime, skipped);
+        }
+    }
+
+    // Helper methods
+
+    private <S extends Enum<S>> StatusCounters<S> read(Scope scope, Long ownerId, Class<S> type) {
+        if (!reconciled) {
+            reconcile(); // First use loads the counters
+        }
+
+        StatusCounters<S> counters = new StatusCounters<>(type);
+        if (ownerId == null) {
+            return counters;
+        }
+        for (S status : type.getEnumConstants()) {
+            Cell cell = cells.get(new CounterKey(scope, ownerId, status.name()));
+            if (cell != null) {
+                counters.add(status, cell.count.sum(), cell.amount.sum());
+            }
+        }
+        return counters;
+    }
+
+    private void add(CounterKey key, long[] delta) {
+        Cell cell = cells.computeIfAbsent(key, k -> new Cell());
+        cell.count.add(delta[0]);
+        cell.amount.add(delta[1]);
+    }
+
+    private Map<CounterKey, long[]> snapshot() {
+        Map<CounterKey, long[]> snapshot = new HashMap<>(cells.size() * 2);
+        cells.forEach((key, cell) -> snapshot.put(key, new long[]{cell.count.sum(), cell.amount.sum()}));
+        return snapshot;
+    }
+
+    private void onRemoteChange(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf('|');
+        if (separator < 0 || body.substring(0, separator).equals(nodeId)) {
+            return; // Own changes are already applied
+        }
+        try {
+            Changes.decode(body.substring(separator + 1)).deltas.forEach(this::add);
+        } catch (RuntimeException e) {
+            logger.warn("Ignoring malformed status counter message: {}", e.getMessage());
+        }
+    }
+
+    private Changes load() {
+        Changes loaded = new Changes();
+
+        for (Object[] row : quotationRepository.countAndSumByCreatorAndStatus()) {
+            Long creatorId = (Long) row[0];
+            QuotationStatus status = (QuotationStatus) row[1];
+            long count = ((Number) row[2]).longValue();
+            long amount = toMinorUnits((BigDecimal) row[3]);
+            loaded.add(Scope.QUOTATIONS, ALL, status, count, amount);
+            if (creatorId != null) {
+                loaded.add(Scope.QUOTATIONS_BY_CREATOR, creatorId, status, count, amount);
+            }
+        }
+
+        for (Object[] row : paymentRepository.countAndSumByStatus()) {
+            loaded.add(Scope.PAYMENTS, ALL, (PaymentStatus) row[0],
+                    ((Number) row[1]).longValue(), toMinorUnits((BigDecimal) row[2]));
+        }
+
+        for (Object[] row : approvalRepository.countByApproverAndStatus()) {
+            if (row[0] != null) {
+                loaded.add(Scope.APPROVALS_BY_APPROVER, (Long) row[0], (ApprovalStatus) row[1],
+                        ((Number) row[2]).longValue(), 0L);
+            }
+        }
+
+        return loaded;
+    }
+
+    private static final class Cell {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder amount = new LongAdder();
+    }
+
+    /**
+     * Counter deltas of one transaction (or a full load), merged per counter.
+     */
+    public static final class Changes {
+        private final Map<CounterKey, long[]> deltas = new HashMap<>();
+
+        public void quotationChanged(Tally<QuotationStatus> before, Tally<QuotationStatus> after) {
+            move(Scope.QUOTATIONS, Scope.QUOTATIONS_BY_CREATOR, before, after);
+        }
+
+        public void paymentChanged(Tally<PaymentStatus> before, Tally<PaymentStatus> after) {
+            move(Scope.PAYMENTS, null, before, after);
+        }
+
+        public void approvalChanged(Tally<ApprovalStatus> before, Tally<ApprovalStatus> after) {
+            move(null, Scope.APPROVALS_BY_APPROVER, before, after);
+        }
+
+        public boolean isEmpty() {
+            deltas.values().removeIf(delta -> delta[0] == 0 && delta[1] == 0);
+            return deltas.isEmpty();
+        }
+
+        // A null side means the row was not counted
+        private <S extends Enum<S>> void move(Scope global, Scope byOwner, Tally<S> before, Tally<S> after) {
+            if (before != null) {
+                apply(global, byOwner, before, -1);
+            }
+            if (after != null) {
+                apply(global, byOwner, after, 1);
+            }
+        }
+
+        private <S extends Enum<S>> void apply(Scope global, Scope byOwner, Tally<S> tally, int sign) {
+            if (global != null) {
+                add(global, ALL, tally.status, sign, sign * tally.amount);
+            }
+            if (byOwner != null && tally.ownerId != null) {
+                add(byOwner, tally.ownerId, tally.status, sign, sign * tally.amount);
+            }
+        }
+
+        private void add(Scope scope, long ownerId, Enum<?> status, long count, long amount) {
+            long[] delta = deltas.computeIfAbsent(new CounterKey(scope, ownerId, status.name()), key -> new long[2]);
+            delta[0] += count;
+            delta[1] += amount;
+        }
+
+        // Wire format: scope,owner,status,count,amount entries separated by ';'
+        private String encode() {
+            StringBuilder out = new StringBuilder();
+            deltas.forEach((key, delta) -> {
+                if (out.length() > 0) {
+                    out.append(';');
+                }
+                out.append(key.scope.name()).append(',').append(key.ownerId).append(',').append(key.status)
+                        .append(',').append(delta[0]).append(',').append(delta[1]);
+            });
+            return out.toString();
+        }
+
+        private static Changes decode(String encoded) {
+            Changes changes = new Changes();
+            if (encoded.isEmpty()) {
+                return changes;
+            }
+            for (String entry : encoded.split(";")) {
+                String[] parts = entry.split(",");
+                changes.deltas.put(new CounterKey(Scope.valueOf(parts[0]), Long.parseLong(parts[1]), parts[2]),
+                        new long[]{Long.parseLong(parts[3]), Long.parseLong(parts[4])});
+            }
+            return changes;
+        }
+    }
+
+    private static final class CounterKey {
+        private final Scope scope;
+        private final long ownerId;
+        private final String status;
+
+        private CounterKey(Scope scope, long ownerId, String status) {
+            this.scope = scope;
+            this.ownerId = ownerId;
+            this.status = status;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof CounterKey)) return false;
+            CounterKey other = (CounterKey) o;
+            return scope == other.scope && ownerId == other.ownerId && status.equals(other.status);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(scope, ownerId, status);
+        }
+    }
+
+    /**
+     * Count and amount per status, read from the counters at one point in time.
+     */
+    public static final class StatusCounters<S extends Enum<S>> {
+        private final Map<S, long[]> values;
+
+        private StatusCounters(Class<S> type) {
+            this.values = new EnumMap<>(type);
+            for (S status : type.getEnumConstants()) {
+                values.put(status, new long[2]);
+            }
+        }
+
+        private void add(S status, long count, long amount) {
+            long[] value = values.get(status);
+            value[0] += count;
+            value[1] += amount;
+        }
+
+        public long count(S status) {
+            return values.get(status)[0];
+        }
+
+        public BigDecimal amount(S status) {
+            return fromMinorUnits(values.get(status)[1]);
+        }
+
+        public long total() {
+            long total = 0;
+            for (long[] value : values.values()) {
+                total += value[0];
+            }
+            return total;
+        }
+    }
+
+    /**
+     * What one row contributes: its owner (creator or approver), status and amount in minor units.
+     */
+    public static final class Tally<S extends Enum<S>> {
+        private final Long ownerId;
+        private final S status;
+        private final long amount;
+
+        private Tally(Long ownerId, S status, long amount) {
+            this.ownerId = ownerId;
+            this.status = status;
+            this.amount = amount;
+        }
+
+        public static <S extends Enum<S>> Tally<S> of(Long ownerId, S status, BigDecimal amount) {
+            return new Tally<>(ownerId, status, toMinorUnits(amount));
+        }
+    }
+}
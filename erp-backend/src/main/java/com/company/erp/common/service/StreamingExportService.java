@@ -0,0 +1,219 @@
+package com.company.erp.common.service;
+
+import com.company.erp.common.exception.BusinessException;
+import com.company.erp.report.enums.ExportFormat;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Streaming tabular export to Excel (SXSSF) or CSV.
+ *
+ * Rows are pulled one at a time from a Stream and written straight to the output, so memory
+ * stays flat regardless of row count: SXSSF keeps only a fixed window of rows in memory and
+ * flushes the rest to a compressed temp file; CSV goes through a small write buffer.
+ */
+@Service
+public class StreamingExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamingExportService.class);
+
+    private static final int EXCEL_MAX_ROWS = 1_048_576;
+    private static final DateTimeFormatter CSV_DATE_TIME = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    private final int rowWindow;
+
+    public StreamingExportService(@Value("${app.export.row-window:100}") int rowWindow) {
+        this.rowWindow = rowWindow;
+    }
+
+    /**
+     * Write rows in the given format; returns the number of data rows written.
+     */
+    public <T> long write(ExportFormat format, OutputStream out, String sheetName, List<String> headers,
+                          Stream<T> rows, Function<T, Object[]> mapper) throws IOException {
+        long startTime = System.currentTimeMillis();
+        long count;
+
+        switch (format) {
+            case EXCEL:
+                count = writeExcel(out, sheetName, headers, rows.iterator(), mapper);
+                break;
+            case CSV:
+                count = writeCsv(out, headers, rows.iterator(), mapper);
+                break;
+            default:
+                throw new BusinessException("INVALID_FORMAT", "Streaming export does not support format: " + format);
+        }
+
+        logger.info("Streamed {} rows as {} in {}ms", count, format, System.currentTimeMillis() - startTime);
+        return count;
+    }
+
+    /**
+     * Parse a request format parameter into a streamable format.
+     */
+    public ExportFormat resolveFormat(String format) {
+        String value = format != null ? format.trim().toUpperCase() : "EXCEL";
+        if ("EXCEL".equals(value) || "XLSX".equals(value)) {
+            return ExportFormat.EXCEL;
+        }
+        if ("CSV".equals(value)) {
+            return ExportFormat.CSV;
+        }
+        throw new BusinessException("INVALID_FORMAT", "Unsupported export format: " + format);
+    }
+
+    // Helper methods
+
+    private <T> long writeExcel(OutputStream out, String sheetName, List<String> headers,
+                                Iterator<T> rows, Function<T, Object[]> mapper) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(rowWindow);
+        workbook.setCompressTempFiles(true);
+
+        try {
+            CellStyle headerStyle = workbook.createCellStyle();
+            Font headerFont = workbook.createFont();
+            headerFont.setBold(true);
+            headerStyle.setFont(headerFont);
+
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd"));
+            CellStyle dateTimeStyle = workbook.createCellStyle();
+            dateTimeStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd hh:mm:ss"));
+
+            SXSSFSheet sheet = workbook.createSheet(sheetName);
+            Row headerRow = sheet.createRow(0);
+            for (int i = 0; i < headers.size(); i++) {
+                Cell cell = headerRow.createCell(i);
+                cell.setCellValue(headers.get(i));
+                cell.setCellStyle(headerStyle);
+            }
+
+            long count = 0;
+            while (rows.hasNext()) {
+                if (count + 1 >= EXCEL_MAX_ROWS) {
+                    throw new BusinessException("EXPORT_TOO_LARGE",
+                            "Export exceeds the Excel row limit; use CSV for more than " + (EXCEL_MAX_ROWS - 1) + " rows");
+                }
+
+                Object[] values = mapper.apply(rows.next());
+                Row row = sheet.createRow((int) ++count);
+                for (int i = 0; i < values.length; i++) {
+                    setCellValue(row.createCell(i), values[i], dateStyle, dateTimeStyle);
+                }
+            }
+
+            workbook.write(out);
+            out.flush();
+            return count;
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private <T> long writeCsv(OutputStream out, List<String> headers, Iterator<T> rows,
+                              Function<T, Object[]> mapper) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        writer.write('\uFEFF'); // BOM so Excel opens UTF-8 (Arabic names) correctly
+        writeCsvLine(writer, headers.toArray());
+
+        long count = 0;
+        while (rows.hasNext()) {
+            writeCsvLine(writer, mapper.apply(rows.next()));
+            count++;
+        }
+
+        writer.flush();
+        return count;
+    }
+
+    private void writeCsvLine(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escapeCsv(values[i]));
+        }
+        writer.write("\r\n");
+    }
+
+    private String escapeCsv(Object value) {
+        if (value == null) {
+            return "";
+        }
+
+        String text;
+        if (value instanceof BigDecimal) {
+            text = ((BigDecimal) value).toPlainString();
+        } else if (value instanceof LocalDateTime) {
+            text = ((LocalDateTime) value).format(CSV_DATE_TIME);
+        } else if (value instanceof Number) {
+            text = value.toString();
+        } else {
+            text = neutralizeFormula(value.toString());
+        }
+
+        boolean quote = text.indexOf(',') >= 0 || text.indexOf('"') >= 0
+                || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0;
+        return quote ? '"' + text.replace("\"", "\"\"") + '"' : text;
+    }
+
+    /**
+     * Text starting with a formula trigger is prefixed with a quote so spreadsheet applications show it
+     * as text instead of evaluating it (CSV injection); numbers are written as-is so negatives stay numeric.
+     */
+    private String neutralizeFormula(String text) {
+        if (text.isEmpty()) {
+            return text;
+        }
+        char first = text.charAt(0);
+        boolean trigger = first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r';
+        return trigger ? "'" + text : text;
+    }
+
+    private void setCellValue(Cell cell, Object value, CellStyle dateStyle, CellStyle dateTimeStyle) {
+        if (value == null) {
+            return;
+        }
+
+        if (value instanceof BigDecimal) {
+            cell.setCellValue(((BigDecimal) value).doubleValue());
+        } else if (value instanceof Number) {
+            cell.setCellValue(((Number) value).doubleValue());
+        } else if (value instanceof Boolean) {
+            cell.setCellValue((Boolean) value);
+        } else if (value instanceof LocalDateTime) {
+            cell.setCellValue((LocalDateTime) value);
+            cell.setCellStyle(dateTimeStyle);
+        } else if (value instanceof LocalDate) {
+            cell.setCellValue((LocalDate) value);
+            cell.setCellStyle(dateStyle);
+        } else {
+            cell.setCellValue(value.toString());
+        }
+    }
+}
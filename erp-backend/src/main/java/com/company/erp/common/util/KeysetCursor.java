@@ -0,0 +1,64 @@
+package com.company.erp.common.util;
+
+import com.company.erp.common.exception.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a keyset-paginated listing: the (sort key, id) of the last row a client has seen.
+ *
+ * Encoded as an opaque URL-safe token so clients pass it back verbatim. The next page seeks past
+ * the cursor on a composite (sort key, id) index, so its cost does not grow with depth.
+ */
+public final class KeysetCursor {
+
+    private static final char SEPARATOR = '|';
+
+    private final LocalDateTime sortKey;
+    private final Long id;
+
+    private KeysetCursor(LocalDateTime sortKey, Long id) {
+        this.sortKey = sortKey;
+        this.id = id;
+    }
+
+    /**
+     * Cursor for the last row of a page. The keyset queries only list rows with a non-null sort
+     * key, so a null here is a programming error rather than bad client input.
+     */
+    public static KeysetCursor of(LocalDateTime sortKey, Long id) {
+        if (sortKey == null || id == null) {
+            throw new IllegalArgumentException("Keyset cursor needs a non-null sort key and id");
+        }
+        return new KeysetCursor(sortKey, id);
+    }
+
+    /**
+     * Decode a client token; null or blank means "first page" and yields null.
+     */
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf(SEPARATOR);
+            return new KeysetCursor(LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new BusinessException("INVALID_CURSOR", "Invalid or expired pagination cursor");
+        }
+    }
+
+    public String encode() {
+        String value = sortKey.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime getSortKey() { return sortKey; }
+
+    public Long getId() { return id; }
+}
@@ -0,0 +1,168 @@
+package com.company.erp.common.util;
+
+import com.company.erp.common.constants.ApplicationConstants;
+import com.company.erp.common.exception.BusinessException;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Objects;
+
+/**
+ * Immutable fixed-point amount in long minor units (halalas/cents, two decimals) with a currency.
+ *
+ * Used on aggregation and percentage hot paths so sums and ratios run on primitive longs;
+ * BigDecimal is only produced at API boundaries via {@link #toBigDecimal()}. Amounts are rounded
+ * HALF_UP to two decimals on the way in, and arithmetic overflow throws instead of wrapping.
+ */
+public final class Money implements Comparable<Money>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final int SCALE = 2;
+
+    private static final long PERCENT_FACTOR = 10_000L; // percentage with two decimals, in hundredths
+    private static final long FAST_PATH_LIMIT = Long.MAX_VALUE / PERCENT_FACTOR;
+    private static final BigDecimal BIG_PERCENT_FACTOR = BigDecimal.valueOf(PERCENT_FACTOR);
+
+    private final long minorUnits;
+    private final String currency;
+
+    private Money(long minorUnits, String currency) {
+        this.minorUnits = minorUnits;
+        this.currency = currency;
+    }
+
+    public static Money of(BigDecimal amount) {
+        return of(amount, ApplicationConstants.DEFAULT_CURRENCY);
+    }
+
+    public static Money of(BigDecimal amount, String currency) {
+        return new Money(toMinorUnits(amount), currency);
+    }
+
+    public static Money ofMinor(long minorUnits) {
+        return new Money(minorUnits, ApplicationConstants.DEFAULT_CURRENCY);
+    }
+
+    public static Money ofMinor(long minorUnits, String currency) {
+        return new Money(minorUnits, currency);
+    }
+
+    public static Money zero() {
+        return ofMinor(0L);
+    }
+
+    public Money plus(Money other) {
+        checkCurrency(other);
+        return new Money(Math.addExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money minus(Money other) {
+        checkCurrency(other);
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money negate() {
+        return new Money(Math.negateExact(minorUnits), currency);
+    }
+
+    public boolean isZero() { return minorUnits == 0; }
+
+    public boolean isPositive() { return minorUnits > 0; }
+
+    public boolean isNegative() { return minorUnits < 0; }
+
+    public boolean isGreaterThan(Money other) {
+        return compareTo(other) > 0;
+    }
+
+    /**
+     * This amount as a percentage of the given whole, two decimals; zero when the whole is not positive.
+     */
+    public BigDecimal percentOf(Money whole) {
+        checkCurrency(whole);
+        return percentage(minorUnits, whole.minorUnits);
+    }
+
+    /**
+     * Integer division by a count, rounded HALF_UP (e.g. averages).
+     */
+    public Money dividedBy(long divisor) {
+        return new Money(divideHalfUp(minorUnits, divisor), currency);
+    }
+
+    public BigDecimal toBigDecimal() {
+        return fromMinorUnits(minorUnits);
+    }
+
+    public long getMinorUnits() { return minorUnits; }
+
+    public String getCurrency() { return currency; }
+
+    @Override
+    public int compareTo(Money other) {
+        checkCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Money)) return false;
+        Money money = (Money) o;
+        return minorUnits == money.minorUnits && Objects.equals(currency, money.currency);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(minorUnits, currency);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString() + " " + currency;
+    }
+
+    // Static helpers for code that keeps amounts in primitive arrays or accumulators
+
+    public static long toMinorUnits(BigDecimal amount) {
+        return amount == null ? 0L : amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal fromMinorUnits(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    /**
+     * part / whole as a percentage with two decimals (HALF_UP), computed in long arithmetic;
+     * zero when the whole is not positive. Falls back to BigDecimal only on overflow.
+     */
+    public static BigDecimal percentage(long part, long whole) {
+        if (whole <= 0) {
+            return BigDecimal.ZERO;
+        }
+        if (part > FAST_PATH_LIMIT || part < -FAST_PATH_LIMIT) {
+            return BigDecimal.valueOf(part).multiply(BIG_PERCENT_FACTOR)
+                    .divide(BigDecimal.valueOf(whole), 0, RoundingMode.HALF_UP)
+                    .movePointLeft(2);
+        }
+        return BigDecimal.valueOf(divideHalfUp(part * PERCENT_FACTOR, whole), 2);
+    }
+
+    private static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = Math.abs(dividend % divisor);
+        if (remainder >= Math.abs(divisor) - remainder) {
+            quotient += (dividend < 0) == (divisor < 0) ? 1 : -1;
+        }
+        return quotient;
+    }
+
+    private void checkCurrency(Money other) {
+        if (!Objects.equals(currency, other.currency)) {
+            throw new BusinessException("CURRENCY_MISMATCH",
+                    "Cannot combine amounts in " + currency + " and " + other.currency);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.company.erp.common.util;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+
+/**
+ * Persistence context helpers for services that mix bulk updates with entities their caller holds.
+ */
+public final class PersistenceUtil {
+
+    private PersistenceUtil() {
+    }
+
+    /**
+     * Bulk JPQL and native updates bypass the persistence context. Refresh the entity with the given
+     * id if the context already loaded it, without loading it otherwise or detaching anything else
+     * the caller holds.
+     */
+    public static void refreshIfLoaded(EntityManager entityManager, Class<?> type, Object id) {
+        Object entity = entityManager.getReference(type, id);
+        if (Hibernate.isInitialized(entity)) {
+            entityManager.refresh(entity);
+        }
+    }
+}
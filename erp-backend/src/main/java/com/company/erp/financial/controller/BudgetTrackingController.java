@@ -1,14 +1,18 @@
 package com.company.erp.financial.controller;
 
 import com.company.erp.common.dto.ApiResponse;
+import com.company.erp.common.dto.CursorPage;
 import com.company.erp.common.security.UserPrincipal;
+import com.company.erp.common.service.StreamingExportService;
 import com.company.erp.financial.dto.request.BudgetTrackingRequest;
 import com.company.erp.financial.dto.response.BudgetAlertResponse;
 import com.company.erp.financial.dto.response.BudgetStatusResponse;
 import com.company.erp.financial.dto.response.BudgetTrackingResponse;
 import com.company.erp.financial.dto.response.BudgetVarianceResponse;
 import com.company.erp.financial.entity.BudgetTrackingType;
+import com.company.erp.financial.service.BudgetRollupService;
 import com.company.erp.financial.service.BudgetTrackingService;
+import com.company.erp.report.enums.ExportFormat;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -16,15 +20,19 @@ import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/financial/budget-tracking")
@@ -33,9 +41,15 @@ import java.util.List;
 public class BudgetTrackingController {
 
     private final BudgetTrackingService budgetTrackingService;
+    private final BudgetRollupService budgetRollupService;
+    private final StreamingExportService streamingExportService;
 
-    public BudgetTrackingController(BudgetTrackingService budgetTrackingService) {
+    public BudgetTrackingController(BudgetTrackingService budgetTrackingService,
+                                    BudgetRollupService budgetRollupService,
+                                    StreamingExportService streamingExportService) {
         this.budgetTrackingService = budgetTrackingService;
+        this.budgetRollupService = budgetRollupService;
+        this.streamingExportService = streamingExportService;
     }
 
     @PostMapping
@@ -74,6 +88,24 @@ public class BudgetTrackingController {
         return ResponseEntity.ok(ApiResponse.success("Project budget tracking retrieved successfully", response));
     }
 
+    @GetMapping("/project/{projectId}/scroll")
+    @PreAuthorize("hasRole('SUPER_ADMIN') or hasRole('ACCOUNT_MANAGER') or " +
+            "(hasRole('PROJECT_MANAGER') and @projectService.isProjectManager(#projectId, authentication.principal.id))")
+    @Operation(summary = "Scroll project budget tracking",
+            description = "Cursor-paginated budget tracking for a project, newest first; pass nextCursor to continue")
+    public ResponseEntity<ApiResponse<CursorPage<BudgetTrackingResponse>>> scrollProjectBudgetTracking(
+            @PathVariable Long projectId,
+            @RequestParam(required = false) BudgetTrackingType type,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+
+        CursorPage<BudgetTrackingResponse> response = budgetTrackingService.getProjectBudgetTracking(
+                projectId, type, startDate, endDate, cursor, size);
+        return ResponseEntity.ok(ApiResponse.success("Project budget tracking retrieved successfully", response));
+    }
+
     @GetMapping("/status/{projectId}")
     @PreAuthorize("hasRole('SUPER_ADMIN') or hasRole('ACCOUNT_MANAGER') or " +
             "(hasRole('PROJECT_MANAGER') and @projectService.isProjectManager(#projectId, authentication.principal.id))")
@@ -157,17 +189,38 @@ public class BudgetTrackingController {
         return ResponseEntity.ok(ApiResponse.success("Project budget recalculated successfully", response));
     }
 
+    @PostMapping("/rollups/rebuild")
+    @PreAuthorize("hasRole('SUPER_ADMIN')")
+    @Operation(summary = "Rebuild budget rollups", description = "Rebuild monthly/daily budget rollups from the ledger, for one project or all")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> rebuildBudgetRollups(
+            @RequestParam(required = false) Long projectId) {
+
+        Map<String, Object> response = budgetRollupService.rebuild(projectId);
+        return ResponseEntity.ok(ApiResponse.success("Budget rollups rebuilt successfully", response));
+    }
+
     @GetMapping("/export/{projectId}")
     @PreAuthorize("hasRole('SUPER_ADMIN') or hasRole('ACCOUNT_MANAGER') or " +
             "(hasRole('PROJECT_MANAGER') and @projectService.isProjectManager(#projectId, authentication.principal.id))")
     @Operation(summary = "Export budget tracking", description = "Export budget tracking data for a project")
-    public ResponseEntity<ApiResponse<String>> exportBudgetTracking(
+    public ResponseEntity<StreamingResponseBody> exportBudgetTracking(
             @PathVariable Long projectId,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
             @RequestParam(defaultValue = "EXCEL") String format) {
 
-        String response = budgetTrackingService.exportBudgetTracking(projectId, startDate, endDate, format);
-        return ResponseEntity.ok(ApiResponse.success("Budget tracking exported successfully", response));
+        ExportFormat exportFormat = streamingExportService.resolveFormat(format);
+        StreamingResponseBody body = budgetTrackingService.exportBudgetTracking(projectId, startDate, endDate, exportFormat);
+
+        String fileName = String.format("budget_tracking_%d_%s_%s%s",
+                projectId,
+                startDate != null ? startDate.toString() : "all",
+                endDate != null ? endDate.toString() : "all",
+                exportFormat.getFileExtension());
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getMimeType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
     }
 }
\ No newline at end of file
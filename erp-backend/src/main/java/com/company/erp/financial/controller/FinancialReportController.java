@@ -3,23 +3,35 @@ package com.company.erp.financial.controller;
 
 import com.company.erp.common.dto.ApiResponse;
 import com.company.erp.common.security.UserPrincipal;
+import com.company.erp.common.service.StreamingExportService;
 import com.company.erp.financial.dto.response.FinancialDashboardResponse;
 import com.company.erp.financial.dto.response.FinancialReportResponse;
+import com.company.erp.financial.dto.response.ReportJobResponse;
 import com.company.erp.financial.service.FinancialReportService;
+import com.company.erp.financial.service.ReportJobService;
 import com.company.erp.report.dto.request.ReportRequest;
+import com.company.erp.report.enums.ExportFormat;
 import com.company.erp.report.service.DashboardService;
 import com.company.erp.report.service.ReportService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
 
@@ -32,14 +44,20 @@ public class FinancialReportController {
     private final FinancialReportService financialReportService;
     private final DashboardService dashboardService;
     private final ReportService reportService;
+    private final ReportJobService reportJobService;
+    private final StreamingExportService streamingExportService;
 
     public FinancialReportController(
             FinancialReportService financialReportService,
             DashboardService dashboardService,
-            ReportService reportService) {
+            ReportService reportService,
+            ReportJobService reportJobService,
+            StreamingExportService streamingExportService) {
         this.financialReportService = financialReportService;
         this.dashboardService = dashboardService;
         this.reportService = reportService;
+        this.reportJobService = reportJobService;
+        this.streamingExportService = streamingExportService;
     }
 
     @GetMapping("/dashboard")
@@ -169,13 +187,59 @@ public class FinancialReportController {
     @PostMapping("/export")
     @PreAuthorize("hasRole('SUPER_ADMIN') or hasRole('ACCOUNT_MANAGER')")
     @Operation(summary = "Export financial report", description = "Export financial report in various formats")
-    public ResponseEntity<ApiResponse<String>> exportFinancialReport(
+    public ResponseEntity<StreamingResponseBody> exportFinancialReport(
             @Valid @RequestBody ReportRequest request,
-            @RequestParam(defaultValue = "EXCEL") String format,
-            @AuthenticationPrincipal UserPrincipal currentUser) {
+            @RequestParam(defaultValue = "EXCEL") String format) {
+
+        ExportFormat exportFormat = streamingExportService.resolveFormat(format);
+        StreamingResponseBody body = financialReportService.exportFinancialReport(request, exportFormat);
+
+        String fileName = "financial_report_" +
+                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + exportFormat.getFileExtension();
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getMimeType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+
+    @PostMapping("/jobs")
+    @PreAuthorize("hasRole('SUPER_ADMIN') or hasRole('ACCOUNT_MANAGER')")
+    @Operation(summary = "Submit report job", description = "Queue a financial report for background generation")
+    public ResponseEntity<ApiResponse<ReportJobResponse>> submitReportJob(
+            @Valid @RequestBody ReportRequest request,
+            @RequestParam(defaultValue = "EXCEL") String format) {
+
+        ReportJobResponse response = reportJobService.submit(request, format);
+        return ResponseEntity.accepted().body(ApiResponse.success("Report job submitted successfully", response));
+    }
 
-        String response = financialReportService.exportFinancialReport(request, format, currentUser.getId());
-        return ResponseEntity.ok(ApiResponse.success("Financial report exported successfully", response));
+    @GetMapping("/jobs/{jobId}")
+    @PreAuthorize("hasRole('SUPER_ADMIN') or hasRole('ACCOUNT_MANAGER')")
+    @Operation(summary = "Get report job status", description = "Get the status of a background report job")
+    public ResponseEntity<ApiResponse<ReportJobResponse>> getReportJob(@PathVariable String jobId) {
+        ReportJobResponse response = reportJobService.getStatus(jobId);
+        return ResponseEntity.ok(ApiResponse.success("Report job retrieved successfully", response));
+    }
+
+    @GetMapping("/jobs/{jobId}/download")
+    @PreAuthorize("hasRole('SUPER_ADMIN') or hasRole('ACCOUNT_MANAGER')")
+    @Operation(summary = "Download report job result", description = "Download the output of a completed report job")
+    public ResponseEntity<Resource> downloadReportJob(@PathVariable String jobId) {
+        Path file = reportJobService.getResultFile(jobId);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getFileName() + "\"")
+                .body(new FileSystemResource(file));
+    }
+
+    @DeleteMapping("/jobs/{jobId}")
+    @PreAuthorize("hasRole('SUPER_ADMIN') or hasRole('ACCOUNT_MANAGER')")
+    @Operation(summary = "Cancel report job", description = "Cancel a queued or running report job")
+    public ResponseEntity<ApiResponse<ReportJobResponse>> cancelReportJob(@PathVariable String jobId) {
+        ReportJobResponse response = reportJobService.cancel(jobId);
+        return ResponseEntity.ok(ApiResponse.success("Report job cancelled successfully", response));
     }
 
     @GetMapping("/kpis")
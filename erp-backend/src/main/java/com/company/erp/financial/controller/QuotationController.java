@@ -1,9 +1,13 @@
 package com.company.erp.financial.controller;
 
+import com.company.erp.common.dto.CursorPage;
+import com.company.erp.common.service.PageCountService.CountMode;
 import com.company.erp.financial.dto.request.CreateQuotationRequest;
 import com.company.erp.financial.dto.request.SubmitQuotationRequest;
+import com.company.erp.financial.dto.response.QuotationImportResponse;
 import com.company.erp.financial.dto.response.QuotationResponse;
 import com.company.erp.financial.dto.response.QuotationSummaryResponse;
+import com.company.erp.financial.service.QuotationImportService;
 import com.company.erp.financial.service.QuotationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -19,10 +23,12 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.util.HashMap;
 import java.util.List;
@@ -39,6 +45,9 @@ public class QuotationController {
     @Autowired
     private QuotationService quotationService;
 
+    @Autowired
+    private QuotationImportService quotationImportService;
+
     @Operation(summary = "Create new quotation", description = "Create a new quotation with line items for a project")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Quotation created successfully"),
@@ -59,6 +68,25 @@ public class QuotationController {
         return ResponseEntity.status(HttpStatus.CREATED).body(quotationResponse);
     }
 
+    @Operation(summary = "Bulk import quotations",
+            description = "Create draft quotations from an .xlsx or .csv file with one line item per row. " +
+                    "Consecutive rows with the same quotation_ref form one quotation. Columns: quotation_ref, " +
+                    "project_id, quotation_description, currency, item_description, amount, item_currency, " +
+                    "category, account_head, item_date (yyyy-MM-dd), vendor_name, vendor_contact. " +
+                    "Invalid quotations are skipped and reported per row.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import processed; see the per-row error report"),
+            @ApiResponse(responseCode = "400", description = "Unsupported or unreadable file, or missing required columns")
+    })
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasAuthority('PROJECT_MANAGER') or hasAuthority('SUPER_ADMIN')")
+    public ResponseEntity<QuotationImportResponse> importQuotations(@RequestParam("file") MultipartFile file) {
+        logger.info("Importing quotations from file: {} ({} bytes)", file.getOriginalFilename(), file.getSize());
+
+        QuotationImportResponse response = quotationImportService.importQuotations(file);
+        return ResponseEntity.ok(response);
+    }
+
     @Operation(summary = "Get quotation by ID", description = "Retrieve detailed quotation information by ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Quotation found"),
@@ -175,18 +203,34 @@ public class QuotationController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "createdDate") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(defaultValue = "exact") String count) {
 
         logger.debug("Fetching quotations - page: {}, size: {}, sortBy: {}, sortDir: {}", page, size, sortBy, sortDir);
 
         Sort sort = sortDir.equalsIgnoreCase("desc") ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         Pageable pageable = PageRequest.of(page, size, sort);
 
-        Page<QuotationSummaryResponse> quotations = quotationService.getMyQuotations(pageable);
+        Page<QuotationSummaryResponse> quotations = quotationService.getMyQuotations(pageable, CountMode.parse(count));
 
         return ResponseEntity.ok(quotations);
     }
 
+    @Operation(summary = "Scroll my quotations",
+            description = "Cursor-paginated quotations, newest first; pass nextCursor from the previous page to continue")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Quotations retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor")
+    })
+    @GetMapping("/my/scroll")
+    @PreAuthorize("hasAuthority('PROJECT_MANAGER') or hasAuthority('SUPER_ADMIN') or hasAuthority('ACCOUNT_MANAGER')")
+    public ResponseEntity<CursorPage<QuotationSummaryResponse>> scrollMyQuotations(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+
+        return ResponseEntity.ok(quotationService.getMyQuotations(cursor, size));
+    }
+
     @Operation(summary = "Get quotations by project", description = "Get all quotations for a specific project")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Project quotations retrieved successfully"),
@@ -216,19 +260,36 @@ public class QuotationController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "submittedDate") String sortBy,
-            @RequestParam(defaultValue = "asc") String sortDir) {
+            @RequestParam(defaultValue = "asc") String sortDir,
+            @RequestParam(defaultValue = "exact") String count) {
 
         logger.debug("Fetching pending quotations - page: {}, size: {}", page, size);
 
         Sort sort = sortDir.equalsIgnoreCase("desc") ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         Pageable pageable = PageRequest.of(page, size, sort);
 
-        Page<QuotationSummaryResponse> quotations = quotationService.getPendingQuotations(pageable);
+        Page<QuotationSummaryResponse> quotations = quotationService.getPendingQuotations(pageable, CountMode.parse(count));
 
         return ResponseEntity.ok(quotations);
     }
 
-    @Operation(summary = "Search quotations", description = "Search quotations with filters")
+    @Operation(summary = "Scroll pending quotations",
+            description = "Cursor-paginated pending quotations, oldest submission first (Account Managers only)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Pending quotations retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor"),
+            @ApiResponse(responseCode = "403", description = "Access denied - Account Managers only")
+    })
+    @GetMapping("/pending/scroll")
+    @PreAuthorize("hasAuthority('ACCOUNT_MANAGER') or hasAuthority('SUPER_ADMIN')")
+    public ResponseEntity<CursorPage<QuotationSummaryResponse>> scrollPendingQuotations(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+
+        return ResponseEntity.ok(quotationService.getPendingQuotations(cursor, size));
+    }
+
+    @Operation(summary = "Search quotations", description = "Search quotations with filters; description searches are ranked by similarity")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Search results retrieved successfully")
     })
@@ -242,7 +303,8 @@ public class QuotationController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "createdDate") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(defaultValue = "exact") String count) {
 
         logger.debug("Searching quotations with filters - projectId: {}, createdById: {}, status: {}, description: {}",
                 projectId, createdById, status, description);
@@ -251,7 +313,7 @@ public class QuotationController {
         Pageable pageable = PageRequest.of(page, size, sort);
 
         Page<QuotationSummaryResponse> quotations = quotationService.searchQuotations(
-                projectId, createdById, status, description, pageable);
+                projectId, createdById, status, description, pageable, CountMode.parse(count));
 
         return ResponseEntity.ok(quotations);
     }
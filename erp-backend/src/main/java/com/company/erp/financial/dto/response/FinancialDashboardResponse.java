@@ -325,5 +325,6 @@ public class FinancialDashboardResponse {
 
     public BigDecimal getRiskScore() { return riskScore; }
     public void setRiskScore(BigDecimal riskScore) { this.riskScore = riskScore; }
+
 }
 
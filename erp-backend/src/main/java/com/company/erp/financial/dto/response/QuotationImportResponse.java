@@ -0,0 +1,73 @@
+// QuotationImportResponse.java
+package com.company.erp.financial.dto.response;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class QuotationImportResponse {
+
+    private long totalRows; // data rows, header excluded
+    private long quotationsCreated;
+    private long itemsImported;
+    private long failedQuotations;
+    private long failedRows;
+    private List<RowError> errors = new ArrayList<>();
+    private boolean errorsTruncated; // true when more errors occurred than are listed
+    private long durationMs;
+
+    // Constructors
+    public QuotationImportResponse() {}
+
+    // Getters and Setters
+    public long getTotalRows() { return totalRows; }
+    public void setTotalRows(long totalRows) { this.totalRows = totalRows; }
+
+    public long getQuotationsCreated() { return quotationsCreated; }
+    public void setQuotationsCreated(long quotationsCreated) { this.quotationsCreated = quotationsCreated; }
+
+    public long getItemsImported() { return itemsImported; }
+    public void setItemsImported(long itemsImported) { this.itemsImported = itemsImported; }
+
+    public long getFailedQuotations() { return failedQuotations; }
+    public void setFailedQuotations(long failedQuotations) { this.failedQuotations = failedQuotations; }
+
+    public long getFailedRows() { return failedRows; }
+    public void setFailedRows(long failedRows) { this.failedRows = failedRows; }
+
+    public List<RowError> getErrors() { return errors; }
+    public void setErrors(List<RowError> errors) { this.errors = errors; }
+
+    public boolean isErrorsTruncated() { return errorsTruncated; }
+    public void setErrorsTruncated(boolean errorsTruncated) { this.errorsTruncated = errorsTruncated; }
+
+    public long getDurationMs() { return durationMs; }
+    public void setDurationMs(long durationMs) { this.durationMs = durationMs; }
+
+    public static class RowError {
+        private long rowNumber;
+        private String quotationReference;
+        private String column;
+        private String message;
+
+        public RowError() {}
+
+        public RowError(long rowNumber, String quotationReference, String column, String message) {
+            this.rowNumber = rowNumber;
+            this.quotationReference = quotationReference;
+            this.column = column;
+            this.message = message;
+        }
+
+        public long getRowNumber() { return rowNumber; }
+        public void setRowNumber(long rowNumber) { this.rowNumber = rowNumber; }
+
+        public String getQuotationReference() { return quotationReference; }
+        public void setQuotationReference(String quotationReference) { this.quotationReference = quotationReference; }
+
+        public String getColumn() { return column; }
+        public void setColumn(String column) { this.column = column; }
+
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+    }
+}
@@ -0,0 +1,56 @@
+// ReportJobResponse.java
+package com.company.erp.financial.dto.response;
+
+import java.time.LocalDateTime;
+
+public class ReportJobResponse {
+
+    private String jobId;
+    private String status; // QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED
+    private String reportType;
+    private String format;
+    private boolean coalesced; // true when the submission joined an identical in-flight job
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+    private String fileName;
+    private Long fileSize;
+    private String errorMessage;
+
+    // Constructors
+    public ReportJobResponse() {}
+
+    // Getters and Setters
+    public String getJobId() { return jobId; }
+    public void setJobId(String jobId) { this.jobId = jobId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getReportType() { return reportType; }
+    public void setReportType(String reportType) { this.reportType = reportType; }
+
+    public String getFormat() { return format; }
+    public void setFormat(String format) { this.format = format; }
+
+    public boolean isCoalesced() { return coalesced; }
+    public void setCoalesced(boolean coalesced) { this.coalesced = coalesced; }
+
+    public LocalDateTime getSubmittedAt() { return submittedAt; }
+    public void setSubmittedAt(LocalDateTime submittedAt) { this.submittedAt = submittedAt; }
+
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+
+    public LocalDateTime getCompletedAt() { return completedAt; }
+    public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+
+    public Long getFileSize() { return fileSize; }
+    public void setFileSize(Long fileSize) { this.fileSize = fileSize; }
+
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+}
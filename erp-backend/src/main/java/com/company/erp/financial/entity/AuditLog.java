@@ -1,17 +1,22 @@
 // AuditLog.java - Entity for audit trail
 package com.company.erp.financial.entity;
 
+import com.company.erp.common.annotation.PooledSequence;
+import com.company.erp.common.entity.TableSequenceIdGenerator;
 import com.company.erp.user.entity.User;
 import jakarta.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
 
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "audit_logs")
+@PooledSequence
 public class AuditLog {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = TableSequenceIdGenerator.NAME)
+    @GenericGenerator(name = TableSequenceIdGenerator.NAME, type = TableSequenceIdGenerator.class)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,68 @@
+package com.company.erp.financial.entity;
+
+import com.company.erp.common.entity.BaseEntity;
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Budget reserved for a submitted quotation until it is approved or rejected.
+ * The project's held_amount is the sum of its HELD rows; both change only through BudgetReservationService.
+ */
+@Entity
+@Table(name = "budget_holds")
+public class BudgetHold extends BaseEntity {
+
+    @Column(name = "project_id", nullable = false)
+    private Long projectId;
+
+    @Column(name = "quotation_id", nullable = false)
+    private Long quotationId;
+
+    @Column(name = "amount", nullable = false, precision = 15, scale = 2)
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private BudgetHoldStatus status = BudgetHoldStatus.HELD;
+
+    @Column(name = "settled_date")
+    private LocalDateTime settledDate;
+
+    // Constructors
+    public BudgetHold() {}
+
+    public BudgetHold(Long projectId, Long quotationId, BigDecimal amount) {
+        this.projectId = projectId;
+        this.quotationId = quotationId;
+        this.amount = amount;
+    }
+
+    // Getters and Setters
+    public Long getProjectId() { return projectId; }
+    public void setProjectId(Long projectId) { this.projectId = projectId; }
+
+    public Long getQuotationId() { return quotationId; }
+    public void setQuotationId(Long quotationId) { this.quotationId = quotationId; }
+
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+
+    public BudgetHoldStatus getStatus() { return status; }
+    public void setStatus(BudgetHoldStatus status) { this.status = status; }
+
+
+    public LocalDateTime getSettledDate() { return settledDate; }
+    public void setSettledDate(LocalDateTime settledDate) { this.settledDate = settledDate; }
+
+    @Override
+    public String toString() {
+        return "BudgetHold{" +
+                "projectId=" + projectId +
+                ", quotationId=" + quotationId +
+                ", amount=" + amount +
+                ", status=" + status +
+                '}';
+    }
+}
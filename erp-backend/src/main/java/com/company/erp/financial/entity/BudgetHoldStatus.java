@@ -0,0 +1,23 @@
+package com.company.erp.financial.entity;
+
+public enum BudgetHoldStatus {
+    HELD("Held", "Budget reserved for a submitted quotation"),
+    CONVERTED("Converted", "Hold turned into spend when the quotation was approved"),
+    RELEASED("Released", "Hold returned to the budget when the quotation was rejected or withdrawn");
+
+    private final String displayName;
+    private final String description;
+
+    BudgetHoldStatus(String displayName, String description) {
+        this.displayName = displayName;
+        this.description = description;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
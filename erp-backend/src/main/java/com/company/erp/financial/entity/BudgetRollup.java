@@ -0,0 +1,71 @@
+package com.company.erp.financial.entity;
+
+import com.company.erp.common.entity.BaseEntity;
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Pre-aggregated budget tracking totals per project, category, tracking type and day.
+ * Rows are maintained by BudgetRollupService in the same transaction as the ledger entry;
+ * longer periods are summed from these day buckets when read.
+ */
+@Entity
+@Table(name = "budget_rollups",
+        uniqueConstraints = @UniqueConstraint(name = "uk_budget_rollups_bucket",
+                columnNames = {"project_id", "category", "tracking_type", "rollup_date"}))
+public class BudgetRollup extends BaseEntity {
+
+    @Column(name = "project_id", nullable = false)
+    private Long projectId;
+
+    @Column(name = "category", nullable = false, length = 50)
+    private String category;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tracking_type", nullable = false, length = 30)
+    private BudgetTrackingType trackingType;
+
+    @Column(name = "rollup_date", nullable = false)
+    private LocalDate rollupDate;
+
+    @Column(name = "transaction_count", nullable = false)
+    private Long transactionCount = 0L;
+
+    @Column(name = "total_amount", nullable = false, precision = 18, scale = 2)
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+
+    // Constructors
+    public BudgetRollup() {}
+
+    // Getters and Setters
+    public Long getProjectId() { return projectId; }
+    public void setProjectId(Long projectId) { this.projectId = projectId; }
+
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+
+    public BudgetTrackingType getTrackingType() { return trackingType; }
+    public void setTrackingType(BudgetTrackingType trackingType) { this.trackingType = trackingType; }
+
+    public LocalDate getRollupDate() { return rollupDate; }
+    public void setRollupDate(LocalDate rollupDate) { this.rollupDate = rollupDate; }
+
+    public Long getTransactionCount() { return transactionCount; }
+    public void setTransactionCount(Long transactionCount) { this.transactionCount = transactionCount; }
+
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+
+    @Override
+    public String toString() {
+        return "BudgetRollup{" +
+                "projectId=" + projectId +
+                ", category='" + category + '\'' +
+                ", trackingType=" + trackingType +
+                ", rollupDate=" + rollupDate +
+                ", totalAmount=" + totalAmount +
+                '}';
+    }
+}
@@ -0,0 +1,71 @@
+package com.company.erp.financial.entity;
+
+import com.company.erp.common.exception.BusinessException;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Reporting period a trend is summed into from the day buckets in budget_rollups.
+ */
+public enum BudgetRollupPeriod {
+    DAY("Day", "DAILY", "day"),
+    WEEK("Week", "WEEKLY", "week"),
+    MONTH("Month", "MONTHLY", "month"),
+    QUARTER("Quarter", "QUARTERLY", "quarter"),
+    YEAR("Year", "YEARLY", "year");
+
+    private final String displayName;
+    private final String reportPeriod;
+    private final String truncUnit; // PostgreSQL DATE_TRUNC unit
+
+    BudgetRollupPeriod(String displayName, String reportPeriod, String truncUnit) {
+        this.displayName = displayName;
+        this.reportPeriod = reportPeriod;
+        this.truncUnit = truncUnit;
+    }
+
+    /**
+     * Map a report period parameter (DAILY, WEEKLY, MONTHLY, QUARTERLY, YEARLY).
+     */
+    public static BudgetRollupPeriod fromReportPeriod(String period) {
+        for (BudgetRollupPeriod value : values()) {
+            if (value.reportPeriod.equalsIgnoreCase(period)) {
+                return value;
+            }
+        }
+        throw new BusinessException("INVALID_PERIOD",
+                "Unsupported period: " + period + " (expected DAILY, WEEKLY, MONTHLY, QUARTERLY or YEARLY)");
+    }
+
+    /**
+     * First day of the period containing the date, as DATE_TRUNC computes it (weeks start on Monday).
+     */
+    public LocalDate startOf(LocalDate date) {
+        switch (this) {
+            case WEEK:
+                return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH:
+                return date.withDayOfMonth(1);
+            case QUARTER:
+                return date.withDayOfMonth(1).withMonth((date.getMonthValue() - 1) / 3 * 3 + 1);
+            case YEAR:
+                return date.withDayOfYear(1);
+            default:
+                return date;
+        }
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public String getReportPeriod() {
+        return reportPeriod;
+    }
+
+    public String getTruncUnit() {
+        return truncUnit;
+    }
+}
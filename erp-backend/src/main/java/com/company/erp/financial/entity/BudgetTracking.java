@@ -1,5 +1,6 @@
 package com.company.erp.financial.entity;
 
+import com.company.erp.common.annotation.PooledSequence;
 import com.company.erp.common.entity.AuditableEntity;
 import com.company.erp.project.entity.Project;
 import com.company.erp.user.entity.User;
@@ -11,6 +12,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "budget_tracking")
+@PooledSequence
 public class BudgetTracking extends AuditableEntity {
 
     @ManyToOne(fetch = FetchType.LAZY)
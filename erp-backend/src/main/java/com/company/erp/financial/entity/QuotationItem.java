@@ -4,6 +4,7 @@
 
 package com.company.erp.financial.entity;
 
+import com.company.erp.common.annotation.PooledSequence;
 import com.company.erp.common.entity.AuditableEntity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
@@ -13,6 +14,7 @@ import java.time.LocalDate;
 
 @Entity
 @Table(name = "quotation_items")
+@PooledSequence
 public class QuotationItem extends AuditableEntity {
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,18 @@
+package com.company.erp.financial.entity;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+public enum ReportJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED,
+    CANCELLED;
+
+    public static final Set<ReportJobStatus> IN_FLIGHT = EnumSet.of(QUEUED, RUNNING);
+
+    public boolean isFinished() {
+        return !IN_FLIGHT.contains(this);
+    }
+}
@@ -0,0 +1,37 @@
+package com.company.erp.financial.repository;
+
+import com.company.erp.financial.entity.BudgetHold;
+import com.company.erp.financial.entity.BudgetHoldStatus;
+import com.company.erp.financial.entity.QuotationStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BudgetHoldRepository extends JpaRepository<BudgetHold, Long> {
+
+    Optional<BudgetHold> findByQuotationIdAndStatus(Long quotationId, BudgetHoldStatus status);
+
+    List<BudgetHold> findByQuotationIdInAndStatus(Collection<Long> quotationIds, BudgetHoldStatus status);
+
+    // Open holds whose quotation no longer awaits a decision (deactivated, or moved by a path that
+    // bypasses BudgetReservationService)
+    @Query("SELECT h FROM BudgetHold h WHERE h.status = 'HELD' AND EXISTS (SELECT 1 FROM Quotation q " +
+            "WHERE q.id = h.quotationId AND (q.active = false OR q.status NOT IN :awaitingDecision)) ORDER BY h.id")
+    List<BudgetHold> findOrphaned(@Param("awaitingDecision") Collection<QuotationStatus> awaitingDecision,
+                                  Pageable pageable);
+
+    // Settle a hold exactly once: only the caller that sees 1 may move the project amounts
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE BudgetHold h SET h.status = :to, h.settledDate = :now, h.lastModifiedDate = :now " +
+            "WHERE h.id = :holdId AND h.status = 'HELD'")
+    int settle(@Param("holdId") Long holdId, @Param("to") BudgetHoldStatus to, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,111 @@
+package com.company.erp.financial.repository;
+
+import com.company.erp.financial.entity.BudgetRollup;
+import com.company.erp.financial.entity.BudgetTrackingType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface BudgetRollupRepository extends JpaRepository<BudgetRollup, Long> {
+
+    // Incremental maintenance (a posting touches exactly one day bucket; 0 means the bucket is new)
+    @Modifying
+    @Query("UPDATE BudgetRollup r SET r.transactionCount = r.transactionCount + :countDelta, " +
+            "r.totalAmount = r.totalAmount + :amountDelta, r.lastModifiedDate = CURRENT_TIMESTAMP " +
+            "WHERE r.projectId = :projectId AND r.category = :category AND r.trackingType = :trackingType " +
+            "AND r.rollupDate = :rollupDate")
+    int applyDelta(@Param("projectId") Long projectId,
+                   @Param("category") String category,
+                   @Param("trackingType") BudgetTrackingType trackingType,
+                   @Param("rollupDate") LocalDate rollupDate,
+                   @Param("countDelta") long countDelta,
+                   @Param("amountDelta") BigDecimal amountDelta);
+
+    // Rebuild from the raw ledger
+    @Modifying
+    @Query("DELETE FROM BudgetRollup r WHERE r.projectId = :projectId")
+    int deleteByProject(@Param("projectId") Long projectId);
+
+    // Day buckets (category, tracking type, day, transaction count, amount) summed from the raw ledger
+    @Query(value = "SELECT bt.category, bt.tracking_type, " +
+            "CAST(COALESCE(bt.transaction_date, bt.created_date) AS DATE), COUNT(*), SUM(bt.amount) " +
+            "FROM budget_tracking bt " +
+            "WHERE bt.active = true AND bt.project_id = :projectId " +
+            "GROUP BY bt.category, bt.tracking_type, CAST(COALESCE(bt.transaction_date, bt.created_date) AS DATE)",
+            nativeQuery = true)
+    List<Object[]> sumLedgerByBucket(@Param("projectId") Long projectId);
+
+    // Trend queries (period start, amount, transaction count), day buckets summed per DATE_TRUNC unit
+    @Query(value = "SELECT CAST(DATE_TRUNC(:truncUnit, r.rollup_date) AS DATE), SUM(r.total_amount), " +
+            "SUM(r.transaction_count) FROM budget_rollups r " +
+            "WHERE r.tracking_type IN (:trackingTypes) AND r.rollup_date BETWEEN :startDate AND :endDate " +
+            "GROUP BY 1 ORDER BY 1",
+            nativeQuery = true)
+    List<Object[]> getSpendingTrend(@Param("truncUnit") String truncUnit,
+                                    @Param("trackingTypes") Collection<String> trackingTypes,
+                                    @Param("startDate") LocalDate startDate,
+                                    @Param("endDate") LocalDate endDate);
+
+    @Query(value = "SELECT CAST(DATE_TRUNC(:truncUnit, r.rollup_date) AS DATE), SUM(r.total_amount), " +
+            "SUM(r.transaction_count) FROM budget_rollups r " +
+            "WHERE r.project_id IN (:projectIds) AND r.tracking_type IN (:trackingTypes) " +
+            "AND r.rollup_date BETWEEN :startDate AND :endDate " +
+            "GROUP BY 1 ORDER BY 1",
+            nativeQuery = true)
+    List<Object[]> getSpendingTrendForProjects(@Param("projectIds") Collection<Long> projectIds,
+                                               @Param("truncUnit") String truncUnit,
+                                               @Param("trackingTypes") Collection<String> trackingTypes,
+                                               @Param("startDate") LocalDate startDate,
+                                               @Param("endDate") LocalDate endDate);
+
+    // Net spending per period (period start, spending minus refunds)
+    @Query(value = "SELECT CAST(DATE_TRUNC(:truncUnit, r.rollup_date) AS DATE), " +
+            "SUM(CASE WHEN r.tracking_type = :refundType THEN -r.total_amount ELSE r.total_amount END) " +
+            "FROM budget_rollups r " +
+            "WHERE (r.tracking_type IN (:trackingTypes) OR r.tracking_type = :refundType) " +
+            "AND r.rollup_date BETWEEN :startDate AND :endDate " +
+            "GROUP BY 1 ORDER BY 1",
+            nativeQuery = true)
+    List<Object[]> getNetSpendingTrend(@Param("truncUnit") String truncUnit,
+                                       @Param("trackingTypes") Collection<String> trackingTypes,
+                                       @Param("refundType") String refundType,
+                                       @Param("startDate") LocalDate startDate,
+                                       @Param("endDate") LocalDate endDate);
+
+    // Per-project series (projectId, period start, amount), ordered for sequential assembly
+    @Query(value = "SELECT r.project_id, CAST(DATE_TRUNC(:truncUnit, r.rollup_date) AS DATE), SUM(r.total_amount) " +
+            "FROM budget_rollups r " +
+            "WHERE r.tracking_type IN (:trackingTypes) AND r.rollup_date >= :startDate " +
+            "GROUP BY 1, 2 ORDER BY 1, 2",
+            nativeQuery = true)
+    List<Object[]> getSpendingSeriesByProject(@Param("truncUnit") String truncUnit,
+                                              @Param("trackingTypes") Collection<String> trackingTypes,
+                                              @Param("startDate") LocalDate startDate);
+
+    @Query(value = "SELECT r.project_id, CAST(DATE_TRUNC(:truncUnit, r.rollup_date) AS DATE), SUM(r.total_amount) " +
+            "FROM budget_rollups r " +
+            "WHERE r.project_id IN (:projectIds) AND r.tracking_type IN (:trackingTypes) " +
+            "AND r.rollup_date >= :startDate " +
+            "GROUP BY 1, 2 ORDER BY 1, 2",
+            nativeQuery = true)
+    List<Object[]> getSpendingSeriesForProjects(@Param("projectIds") Collection<Long> projectIds,
+                                                @Param("truncUnit") String truncUnit,
+                                                @Param("trackingTypes") Collection<String> trackingTypes,
+                                                @Param("startDate") LocalDate startDate);
+
+    // Category queries (category, transaction count, amount)
+    @Query("SELECT r.category, SUM(r.transactionCount), SUM(r.totalAmount) FROM BudgetRollup r " +
+            "WHERE r.category <> :uncategorized AND r.rollupDate BETWEEN :startDate AND :endDate " +
+            "GROUP BY r.category ORDER BY SUM(r.totalAmount) DESC")
+    List<Object[]> getCategoryTotals(@Param("uncategorized") String uncategorized,
+                                     @Param("startDate") LocalDate startDate,
+                                     @Param("endDate") LocalDate endDate);
+}
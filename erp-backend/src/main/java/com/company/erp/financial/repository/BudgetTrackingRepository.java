@@ -2,18 +2,24 @@ package com.company.erp.financial.repository;
 
 import com.company.erp.financial.entity.BudgetTracking;
 import com.company.erp.financial.entity.BudgetTrackingType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface BudgetTrackingRepository extends JpaRepository<BudgetTracking, Long> {
@@ -45,6 +51,34 @@ public interface BudgetTrackingRepository extends JpaRepository<BudgetTracking,
                                                     @Param("endDate") LocalDateTime endDate,
                                                     Pageable pageable);
 
+    // Keyset pagination by (transactionDate, id), newest first. transactionDate is nullable; rows
+    // without one cannot be seeked past, so they are not listed.
+    @Query("SELECT bt FROM BudgetTracking bt WHERE bt.project.id = :projectId AND bt.active = true " +
+            "AND bt.transactionDate IS NOT NULL " +
+            "AND (:trackingType IS NULL OR bt.trackingType = :trackingType) " +
+            "AND (:startDate IS NULL OR bt.transactionDate >= :startDate) " +
+            "AND (:endDate IS NULL OR bt.transactionDate <= :endDate) " +
+            "ORDER BY bt.transactionDate DESC, bt.id DESC")
+    Slice<BudgetTracking> findByProjectIdFirstPage(@Param("projectId") Long projectId,
+                                                   @Param("trackingType") BudgetTrackingType trackingType,
+                                                   @Param("startDate") LocalDateTime startDate,
+                                                   @Param("endDate") LocalDateTime endDate,
+                                                   Pageable pageable);
+
+    @Query("SELECT bt FROM BudgetTracking bt WHERE bt.project.id = :projectId AND bt.active = true " +
+            "AND (:trackingType IS NULL OR bt.trackingType = :trackingType) " +
+            "AND (:startDate IS NULL OR bt.transactionDate >= :startDate) " +
+            "AND (:endDate IS NULL OR bt.transactionDate <= :endDate) " +
+            "AND (bt.transactionDate, bt.id) < (:cursorDate, :cursorId) " +
+            "ORDER BY bt.transactionDate DESC, bt.id DESC")
+    Slice<BudgetTracking> findByProjectIdAfterCursor(@Param("projectId") Long projectId,
+                                                     @Param("trackingType") BudgetTrackingType trackingType,
+                                                     @Param("startDate") LocalDateTime startDate,
+                                                     @Param("endDate") LocalDateTime endDate,
+                                                     @Param("cursorDate") LocalDateTime cursorDate,
+                                                     @Param("cursorId") Long cursorId,
+                                                     Pageable pageable);
+
     // Find by tracking type
     List<BudgetTracking> findByTrackingTypeAndActiveTrue(BudgetTrackingType trackingType);
 
@@ -76,6 +110,14 @@ public interface BudgetTrackingRepository extends JpaRepository<BudgetTracking,
             "FROM BudgetTracking bt WHERE bt.project.id = :projectId AND bt.active = true")
     BigDecimal getCurrentBalance(@Param("projectId") Long projectId);
 
+    // Full-history balance using the same signs as the running ledger; only used to rebuild it
+    @Query("SELECT COALESCE(SUM(CASE " +
+            "WHEN bt.trackingType IN ('REFUND', 'BUDGET_DECREASE') THEN -bt.amount " +
+            "WHEN bt.trackingType = 'ADJUSTMENT' THEN 0 " +
+            "ELSE bt.amount END), 0) " +
+            "FROM BudgetTracking bt WHERE bt.project.id = :projectId AND bt.active = true")
+    BigDecimal computeLedgerBalance(@Param("projectId") Long projectId);
+
     @Query("SELECT COALESCE(SUM(bt.amount), 0) FROM BudgetTracking bt " +
             "WHERE bt.project.id = :projectId AND bt.trackingType = :trackingType AND bt.active = true")
     BigDecimal getTotalAmountByProjectAndType(@Param("projectId") Long projectId, @Param("trackingType") BudgetTrackingType trackingType);
@@ -114,6 +156,17 @@ public interface BudgetTrackingRepository extends JpaRepository<BudgetTracking,
             "ORDER BY bt.transactionDate DESC")
     List<BudgetTracking> findRecentTransactionsByProject(@Param("projectId") Long projectId, Pageable pageable);
 
+    // Dashboard rows: (id, projectId, projectName, trackingType, category, amount, description, transactionDate)
+    @Query("SELECT bt.id, p.id, p.name, bt.trackingType, bt.category, bt.amount, bt.description, bt.transactionDate " +
+            "FROM BudgetTracking bt JOIN bt.project p WHERE bt.active = true " +
+            "ORDER BY bt.transactionDate DESC NULLS LAST, bt.id DESC")
+    List<Object[]> findRecentTransactionRows(Pageable pageable);
+
+    @Query("SELECT bt.id, p.id, p.name, bt.trackingType, bt.category, bt.amount, bt.description, bt.transactionDate " +
+            "FROM BudgetTracking bt JOIN bt.project p WHERE p.id IN :projectIds AND bt.active = true " +
+            "ORDER BY bt.transactionDate DESC NULLS LAST, bt.id DESC")
+    List<Object[]> findRecentTransactionRowsForProjects(@Param("projectIds") Collection<Long> projectIds, Pageable pageable);
+
     // Summary and reporting queries
     @Query("SELECT " +
             "COALESCE(SUM(p.allocatedBudget), 0), " +
@@ -175,6 +228,20 @@ public interface BudgetTrackingRepository extends JpaRepository<BudgetTracking,
                                                   @Param("startDate") LocalDateTime startDate,
                                                   @Param("endDate") LocalDateTime endDate);
 
+    // Server-side cursor for streaming exports; caller must close and detach rows as it goes
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT bt FROM BudgetTracking bt LEFT JOIN FETCH bt.project LEFT JOIN FETCH bt.recordedBy " +
+            "WHERE bt.project.id = :projectId AND bt.active = true " +
+            "AND (:startDate IS NULL OR bt.transactionDate >= :startDate) " +
+            "AND (:endDate IS NULL OR bt.transactionDate <= :endDate) " +
+            "ORDER BY bt.transactionDate ASC")
+    Stream<BudgetTracking> streamByProjectIdForExport(@Param("projectId") Long projectId,
+                                                      @Param("startDate") LocalDateTime startDate,
+                                                      @Param("endDate") LocalDateTime endDate);
+
     // Update methods
     @Modifying
     @Query("UPDATE BudgetTracking bt SET bt.active = false WHERE bt.id = :id")
@@ -4,6 +4,7 @@ import com.company.erp.financial.entity.Quotation;
 import com.company.erp.financial.entity.QuotationStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -12,6 +13,7 @@ import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -54,6 +56,49 @@ public interface QuotationRepository extends JpaRepository<Quotation, Long> {
     @Query("SELECT q FROM Quotation q LEFT JOIN FETCH q.project LEFT JOIN FETCH q.createdBy WHERE q.active = true")
     Page<Quotation> findAllWithProject(Pageable pageable);
 
+    // Keyset pagination: a FirstPage query and an AfterCursor query that seeks strictly past the
+    // (sort key, id) row value, so both are plain index range scans. Pass an unsorted Pageable of
+    // the page size; the Slice return type fetches one extra row instead of a COUNT.
+    @Query("SELECT q FROM Quotation q LEFT JOIN FETCH q.project LEFT JOIN FETCH q.createdBy WHERE q.active = true " +
+            "ORDER BY q.createdDate DESC, q.id DESC")
+    Slice<Quotation> findAllFirstPage(Pageable pageable);
+
+    @Query("SELECT q FROM Quotation q LEFT JOIN FETCH q.project LEFT JOIN FETCH q.createdBy WHERE q.active = true " +
+            "AND (q.createdDate, q.id) < (:cursorDate, :cursorId) " +
+            "ORDER BY q.createdDate DESC, q.id DESC")
+    Slice<Quotation> findAllAfterCursor(@Param("cursorDate") LocalDateTime cursorDate,
+                                        @Param("cursorId") Long cursorId,
+                                        Pageable pageable);
+
+    @Query("SELECT q FROM Quotation q LEFT JOIN FETCH q.project LEFT JOIN FETCH q.createdBy " +
+            "WHERE q.createdBy.id = :createdById AND q.active = true " +
+            "ORDER BY q.createdDate DESC, q.id DESC")
+    Slice<Quotation> findByCreatedByIdFirstPage(@Param("createdById") Long createdById, Pageable pageable);
+
+    @Query("SELECT q FROM Quotation q LEFT JOIN FETCH q.project LEFT JOIN FETCH q.createdBy " +
+            "WHERE q.createdBy.id = :createdById AND q.active = true " +
+            "AND (q.createdDate, q.id) < (:cursorDate, :cursorId) " +
+            "ORDER BY q.createdDate DESC, q.id DESC")
+    Slice<Quotation> findByCreatedByIdAfterCursor(@Param("createdById") Long createdById,
+                                                  @Param("cursorDate") LocalDateTime cursorDate,
+                                                  @Param("cursorId") Long cursorId,
+                                                  Pageable pageable);
+
+    // submittedDate is nullable; rows without one cannot be seeked past, so they are not listed
+    @Query("SELECT q FROM Quotation q LEFT JOIN FETCH q.project LEFT JOIN FETCH q.createdBy " +
+            "WHERE q.status = :status AND q.active = true AND q.submittedDate IS NOT NULL " +
+            "ORDER BY q.submittedDate ASC, q.id ASC")
+    Slice<Quotation> findByStatusFirstPage(@Param("status") QuotationStatus status, Pageable pageable);
+
+    @Query("SELECT q FROM Quotation q LEFT JOIN FETCH q.project LEFT JOIN FETCH q.createdBy " +
+            "WHERE q.status = :status AND q.active = true " +
+            "AND (q.submittedDate, q.id) > (:cursorDate, :cursorId) " +
+            "ORDER BY q.submittedDate ASC, q.id ASC")
+    Slice<Quotation> findByStatusAfterCursor(@Param("status") QuotationStatus status,
+                                             @Param("cursorDate") LocalDateTime cursorDate,
+                                             @Param("cursorId") Long cursorId,
+                                             Pageable pageable);
+
     // Search by multiple criteria
     @Query("SELECT q FROM Quotation q LEFT JOIN FETCH q.project LEFT JOIN FETCH q.createdBy WHERE " +
             "(:projectId IS NULL OR q.project.id = :projectId) AND " +
@@ -67,6 +112,52 @@ public interface QuotationRepository extends JpaRepository<Quotation, Long> {
                                          @Param("description") String description,
                                          Pageable pageable);
 
+    // Similarity-ranked search over description and item vendor names (PostgreSQL only). Each branch
+    // of the union filters one column with ILIKE or <%, which its pg_trgm GIN index serves, and
+    // word_similarity is computed only for the matched rows. Returns ids in rank order; load
+    // entities with findAllWithRelationsByIdIn.
+    String RANKED_MATCHES = "SELECT q.id, word_similarity(:term, q.description) AS score FROM quotations q " +
+            "WHERE q.description ILIKE CONCAT('%', :term, '%') OR :term <% q.description " +
+            "UNION ALL " +
+            "SELECT i.quotation_id, word_similarity(:term, i.vendor_name) FROM quotation_items i " +
+            "WHERE i.active = true AND (i.vendor_name ILIKE CONCAT('%', :term, '%') OR :term <% i.vendor_name)";
+
+    String RANKED_FILTERS = "q.active = true " +
+            "AND (CAST(:projectId AS BIGINT) IS NULL OR q.project_id = :projectId) " +
+            "AND (CAST(:createdById AS BIGINT) IS NULL OR q.created_by = :createdById) " +
+            "AND (CAST(:status AS VARCHAR) IS NULL OR q.status = CAST(:status AS VARCHAR))";
+
+    @Query(value = "SELECT q.id FROM (SELECT m.id, MAX(m.score) AS score FROM (" + RANKED_MATCHES + ") m " +
+            "GROUP BY m.id) r JOIN quotations q ON q.id = r.id WHERE " + RANKED_FILTERS + " " +
+            "ORDER BY r.score DESC, q.created_date DESC, q.id DESC",
+            nativeQuery = true)
+    Slice<Long> searchRankedIds(@Param("projectId") Long projectId,
+                                @Param("createdById") Long createdById,
+                                @Param("status") String status,
+                                @Param("term") String term,
+                                Pageable pageable);
+
+    // Matches of searchRankedIds, counted up to the cap
+    @Query(value = "SELECT COUNT(*) FROM (SELECT q.id FROM (SELECT DISTINCT m.id FROM (" + RANKED_MATCHES + ") m) r " +
+            "JOIN quotations q ON q.id = r.id WHERE " + RANKED_FILTERS + " LIMIT :cap) capped",
+            nativeQuery = true)
+    long countRankedIds(@Param("projectId") Long projectId,
+                        @Param("createdById") Long createdById,
+                        @Param("status") String status,
+                        @Param("term") String term,
+                        @Param("cap") int cap);
+
+    @Query("SELECT q FROM Quotation q LEFT JOIN FETCH q.project LEFT JOIN FETCH q.createdBy WHERE q.id IN :ids")
+    List<Quotation> findAllWithRelationsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Approval queue pages and claims; ids come from the queue in priority order
+    @Query("SELECT q FROM Quotation q JOIN FETCH q.project JOIN FETCH q.creator WHERE q.id IN :ids")
+    List<Quotation> findAllWithProjectAndCreatorByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Bulk approval lanes: [quotationId, projectId]
+    @Query("SELECT q.id, q.project.id FROM Quotation q WHERE q.id IN :ids")
+    List<Object[]> findProjectIdsByIdIn(@Param("ids") Collection<Long> ids);
+
     // Amount-related queries
     @Query("SELECT SUM(q.totalAmount) FROM Quotation q WHERE q.project.id = :projectId AND q.status IN ('APPROVED', 'PAYMENT_FILE_GENERATED', 'SENT_TO_BANK', 'PAID') AND q.active = true")
     BigDecimal getTotalApprovedAmountByProject(@Param("projectId") Long projectId);
@@ -97,6 +188,14 @@ public interface QuotationRepository extends JpaRepository<Quotation, Long> {
     @Query("SELECT COUNT(q) FROM Quotation q WHERE q.project.id = :projectId AND q.active = true")
     long countByProject(@Param("projectId") Long projectId);
 
+    @Query("SELECT q.status, COUNT(q) FROM Quotation q WHERE q.project.id IN :projectIds AND q.active = true GROUP BY q.status")
+    List<Object[]> countByStatusForProjects(@Param("projectIds") Collection<Long> projectIds);
+
+    // (creatorId, status, count, totalAmount) for every active quotation in one pass
+    @Query("SELECT q.creator.id, q.status, COUNT(q), COALESCE(SUM(q.totalAmount), 0) FROM Quotation q " +
+            "WHERE q.active = true GROUP BY q.creator.id, q.status")
+    List<Object[]> countAndSumByCreatorAndStatus();
+
     // Update methods
     @Modifying
     @Query("UPDATE Quotation q SET q.totalAmount = :totalAmount WHERE q.id = :quotationId")
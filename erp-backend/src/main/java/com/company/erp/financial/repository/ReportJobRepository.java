@@ -0,0 +1,51 @@
+package com.company.erp.financial.repository;
+
+import com.company.erp.financial.entity.ReportJob;
+import com.company.erp.financial.entity.ReportJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ReportJobRepository extends JpaRepository<ReportJob, String> {
+
+    Optional<ReportJob> findFirstByDedupKeyAndStatusIn(String dedupKey, Collection<ReportJobStatus> statuses);
+
+    @Query("SELECT j FROM ReportJob j WHERE j.status IN ('COMPLETED', 'FAILED', 'CANCELLED') AND j.completedAt < :cutoff")
+    List<ReportJob> findFinishedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    // Each transition applies only from the expected states, so a cancel racing the worker has one winner
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ReportJob j SET j.status = 'RUNNING', j.startedAt = :now, j.heartbeatAt = :now " +
+            "WHERE j.id = :id AND j.status = 'QUEUED'")
+    int markRunning(@Param("id") String id, @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ReportJob j SET j.status = 'COMPLETED', j.fileName = :fileName, j.completedAt = :now " +
+            "WHERE j.id = :id AND j.status = 'RUNNING'")
+    int markCompleted(@Param("id") String id, @Param("fileName") String fileName, @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ReportJob j SET j.status = :to, j.errorMessage = :message, j.completedAt = :now " +
+            "WHERE j.id = :id AND j.status IN ('QUEUED', 'RUNNING')")
+    int finish(@Param("id") String id, @Param("to") ReportJobStatus to, @Param("message") String message,
+               @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ReportJob j SET j.heartbeatAt = :now WHERE j.id IN :ids AND j.status IN ('QUEUED', 'RUNNING')")
+    int heartbeat(@Param("ids") Collection<String> ids, @Param("now") LocalDateTime now);
+
+    // Jobs whose node stopped heartbeating (restart or crash) will never finish
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ReportJob j SET j.status = 'FAILED', j.errorMessage = :message, j.completedAt = :now " +
+            "WHERE j.status IN ('QUEUED', 'RUNNING') AND j.heartbeatAt < :staleBefore")
+    int failStale(@Param("staleBefore") LocalDateTime staleBefore, @Param("message") String message,
+                  @Param("now") LocalDateTime now);
+}
@@ -1,6 +1,7 @@
 // Enhanced Alert System
 package com.company.erp.financial.service;
 
+import com.company.erp.common.util.Money;
 import com.company.erp.financial.dto.response.BudgetAlertResponse;
 import com.company.erp.notification.service.NotificationService;
 import com.company.erp.project.entity.Project;
@@ -9,7 +10,6 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -17,6 +17,10 @@ import java.util.stream.Collectors;
 @Service
 public class BudgetAlertService {
 
+    private static final BigDecimal FULL_UTILIZATION = new BigDecimal("100");
+    private static final BigDecimal HIGH_UTILIZATION = new BigDecimal("90");
+    private static final BigDecimal WARNING_UTILIZATION = new BigDecimal("80");
+
     private final ProjectService projectService;
     private final NotificationService notificationService;
 
@@ -38,13 +42,13 @@ public class BudgetAlertService {
     private void checkProjectBudgetAlert(Project project) {
         BigDecimal utilizationPercentage = project.getBudgetUtilizationPercentage();
 
-        if (utilizationPercentage.compareTo(new BigDecimal("100")) > 0) {
+        if (utilizationPercentage.compareTo(FULL_UTILIZATION) > 0) {
             // Over budget - critical alert
             sendBudgetAlert(project, "CRITICAL", "Project is over budget", utilizationPercentage);
-        } else if (utilizationPercentage.compareTo(new BigDecimal("90")) >= 0) {
+        } else if (utilizationPercentage.compareTo(HIGH_UTILIZATION) >= 0) {
             // 90% or more - high alert
             sendBudgetAlert(project, "HIGH", "Project approaching budget limit", utilizationPercentage);
-        } else if (utilizationPercentage.compareTo(new BigDecimal("80")) >= 0) {
+        } else if (utilizationPercentage.compareTo(WARNING_UTILIZATION) >= 0) {
             // 80% or more - warning alert
             sendBudgetAlert(project, "WARNING", "Budget utilization warning", utilizationPercentage);
         }
@@ -80,7 +84,7 @@ public class BudgetAlertService {
         List<Project> activeProjects = projectService.getActiveProjects();
 
         return activeProjects.stream()
-                .filter(project -> project.getBudgetUtilizationPercentage().compareTo(new BigDecimal("80")) >= 0)
+                .filter(project -> project.getBudgetUtilizationPercentage().compareTo(WARNING_UTILIZATION) >= 0)
                 .map(this::createBudgetAlertResponse)
                 .collect(Collectors.toList());
     }
@@ -98,24 +102,22 @@ public class BudgetAlertService {
         alert.setUtilizationPercentage(utilization);
 
         // Calculate variance percentage
-        BigDecimal variance = project.getSpentAmount().subtract(project.getAllocatedBudget());
-        if (project.getAllocatedBudget().compareTo(BigDecimal.ZERO) > 0) {
-            BigDecimal variancePercentage = variance.divide(project.getAllocatedBudget(), 4, RoundingMode.HALF_UP)
-                    .multiply(new BigDecimal("100"));
-            alert.setVariancePercentage(variancePercentage);
+        Money allocated = Money.of(project.getAllocatedBudget());
+        if (allocated.isPositive()) {
+            alert.setVariancePercentage(Money.of(project.getSpentAmount()).minus(allocated).percentOf(allocated));
         }
 
         // Set alert level and message
-        if (utilization.compareTo(new BigDecimal("100")) > 0) {
+        if (utilization.compareTo(FULL_UTILIZATION) > 0) {
             alert.setAlertLevel("CRITICAL");
             alert.setAlertMessage("Project is over budget");
             alert.setOverBudget(true);
             alert.setRequiresAttention(true);
-        } else if (utilization.compareTo(new BigDecimal("90")) >= 0) {
+        } else if (utilization.compareTo(HIGH_UTILIZATION) >= 0) {
             alert.setAlertLevel("HIGH");
             alert.setAlertMessage("Project approaching budget limit");
             alert.setRequiresAttention(true);
-        } else if (utilization.compareTo(new BigDecimal("80")) >= 0) {
+        } else if (utilization.compareTo(WARNING_UTILIZATION) >= 0) {
             alert.setAlertLevel("WARNING");
             alert.setAlertMessage("Budget utilization warning");
             alert.setRequiresAttention(true);
@@ -0,0 +1,373 @@
+package com.company.erp.financial.service;
+
+import com.company.erp.common.exception.BusinessException;
+import com.company.erp.financial.entity.BudgetRollupPeriod;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Batch spend forecasting over the budget rollups, summed per month.
+ *
+ * Projects come from the active-project finance snapshot, whether requested explicitly or not. Their
+ * monthly spend is loaded into primitive double arrays, one query per chunk of explicit ids; a
+ * linear trend and Holt exponential smoothing are then fitted per project, with projects spread
+ * over a dedicated ForkJoinPool. Each model reports its in-sample RMSE.
+ */
+@Service
+public class BudgetForecastService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BudgetForecastService.class);
+
+    public enum ForecastMethod {
+        LINEAR,
+        EXPONENTIAL,
+        BEST
+    }
+
+    // Smoothing factors tried for Holt's level (alpha) and trend (beta)
+    private static final double[] SMOOTHING_GRID = {0.1, 0.3, 0.5, 0.7, 0.9};
+
+    // Keeps IN (:ids) lists well below driver/database bind-parameter limits
+    private static final int SERIES_CHUNK_SIZE = 500;
+
+    private final BudgetRollupService budgetRollupService;
+    private final ProjectFinanceSnapshotService projectFinanceSnapshotService;
+    private final ForkJoinPool forecastPool;
+    private final int historyMonths;
+
+    public BudgetForecastService(BudgetRollupService budgetRollupService,
+                                 ProjectFinanceSnapshotService projectFinanceSnapshotService,
+                                 @Value("${app.business.forecast.history-months:24}") int historyMonths,
+                                 @Value("${app.business.forecast.parallelism:0}") int parallelism) {
+        this.budgetRollupService = budgetRollupService;
+        this.projectFinanceSnapshotService = projectFinanceSnapshotService;
+        this.historyMonths = Math.max(2, historyMonths);
+        this.forecastPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        forecastPool.shutdown();
+    }
+
+    /**
+     * Forecast spending for the given projects (all active projects when none are given); inactive or
+     * unknown ids are skipped.
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> forecastProjects(List<Long> projectIds, int monthsAhead, String forecastMethod) {
+        ForecastMethod method = parseMethod(forecastMethod);
+        if (monthsAhead < 1) {
+            throw new BusinessException("INVALID_FORECAST_HORIZON", "monthsAhead must be at least 1");
+        }
+
+        long startTime = System.currentTimeMillis();
+        ProjectColumns projects = loadProjects(projectIds);
+        if (projects.ids.length == 0) {
+            return List.of();
+        }
+        double[][] series = loadSeries(projects.ids, projectIds != null && !projectIds.isEmpty());
+
+        ProjectForecast[] forecasts = new ProjectForecast[projects.ids.length];
+        forecastPool.submit(() -> IntStream.range(0, forecasts.length).parallel()
+                .forEach(i -> forecasts[i] = fit(series[i], monthsAhead))).join();
+
+        List<Map<String, Object>> results = new ArrayList<>(forecasts.length);
+        for (int i = 0; i < forecasts.length; i++) {
+            results.add(toResponse(projects, i, forecasts[i], method));
+        }
+
+        logger.info("Forecast {} projects {} months ahead ({}) in {}ms",
+                forecasts.length, monthsAhead, method, System.currentTimeMillis() - startTime);
+        return results;
+    }
+
+    // Helper methods
+
+    private ForecastMethod parseMethod(String forecastMethod) {
+        try {
+            return forecastMethod != null ? ForecastMethod.valueOf(forecastMethod.toUpperCase()) : ForecastMethod.LINEAR;
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("INVALID_FORECAST_METHOD", "Unsupported forecast method: " + forecastMethod);
+        }
+    }
+
+    private ProjectColumns loadProjects(List<Long> projectIds) {
+        ProjectFinanceSnapshotService.Snapshot snapshot = projectFinanceSnapshotService.current();
+        if (projectIds == null || projectIds.isEmpty()) {
+            ProjectColumns columns = new ProjectColumns(snapshot.size());
+            for (int slot = 0; slot < snapshot.size(); slot++) {
+                setFromSnapshot(columns, slot, snapshot, slot);
+            }
+            return columns;
+        }
+
+        // Snapshot slots are in id order, so the selected columns stay sorted by id
+        int[] slots = projectIds.stream().filter(Objects::nonNull).mapToInt(id -> snapshot.slotOf(id))
+                .filter(slot -> slot >= 0).distinct().sorted().toArray();
+        ProjectColumns columns = new ProjectColumns(slots.length);
+        for (int i = 0; i < slots.length; i++) {
+            setFromSnapshot(columns, i, snapshot, slots[i]);
+        }
+        return columns;
+    }
+
+    private static void setFromSnapshot(ProjectColumns columns, int i, ProjectFinanceSnapshotService.Snapshot snapshot,
+                                        int slot) {
+        columns.set(i, snapshot.getId(slot), snapshot.getName(slot),
+                snapshot.getAllocatedBudget(slot), snapshot.getSpentAmount(slot));
+    }
+
+    /**
+     * Dense monthly spend per project over the completed months of the history window.
+     */
+    private double[][] loadSeries(long[] ids, boolean filterByProject) {
+        LocalDate currentMonth = LocalDate.now().withDayOfMonth(1);
+        LocalDate firstMonth = currentMonth.minusMonths(historyMonths);
+
+        double[][] series = new double[ids.length][historyMonths];
+        if (!filterByProject) {
+            addSeriesRows(series, ids, firstMonth,
+                    budgetRollupService.getSpendingSeries(firstMonth, BudgetRollupPeriod.MONTH, null));
+            return series;
+        }
+
+        for (int from = 0; from < ids.length; from += SERIES_CHUNK_SIZE) {
+            List<Long> chunk = Arrays.stream(ids, from, Math.min(from + SERIES_CHUNK_SIZE, ids.length)).boxed().toList();
+            addSeriesRows(series, ids, firstMonth,
+                    budgetRollupService.getSpendingSeries(firstMonth, BudgetRollupPeriod.MONTH, chunk));
+        }
+        return series;
+    }
+
+    private void addSeriesRows(double[][] series, long[] ids, LocalDate firstMonth, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            int slot = Arrays.binarySearch(ids, ((Number) row[0]).longValue());
+            int month = (int) ChronoUnit.MONTHS.between(firstMonth, (LocalDate) row[1]);
+            if (slot >= 0 && month >= 0 && month < historyMonths) {
+                series[slot][month] = ((BigDecimal) row[2]).doubleValue();
+            }
+        }
+    }
+
+    static ProjectForecast fit(double[] series, int monthsAhead) {
+        // Months before the first recorded spend are not part of the project's history
+        int start = 0;
+        while (start < series.length && series[start] == 0.0) {
+            start++;
+        }
+
+        int observations = series.length - start;
+        if (observations == 0) {
+            ModelFit none = new ModelFit(0, 0, 0, Double.NaN, Double.NaN);
+            return new ProjectForecast(none, none, 0);
+        }
+
+        return new ProjectForecast(fitLinear(series, start, monthsAhead),
+                fitExponential(series, start, monthsAhead), observations);
+    }
+
+    /**
+     * Ordinary least squares on (month index, spend).
+     */
+    static ModelFit fitLinear(double[] y, int start, int monthsAhead) {
+        int n = y.length - start;
+        if (n < 1) {
+            return new ModelFit(0, 0, 0, Double.NaN, Double.NaN);
+        }
+        double meanT = (n - 1) / 2.0;
+        double meanY = 0;
+        for (int i = start; i < y.length; i++) {
+            meanY += y[i];
+        }
+        meanY /= n;
+
+        double covariance = 0;
+        double variance = 0;
+        for (int t = 0; t < n; t++) {
+            double dt = t - meanT;
+            covariance += dt * (y[start + t] - meanY);
+            variance += dt * dt;
+        }
+
+        double slope = variance > 0 ? covariance / variance : 0;
+        double intercept = meanY - slope * meanT;
+
+        double sse = 0;
+        for (int t = 0; t < n; t++) {
+            double error = y[start + t] - (intercept + slope * t);
+            sse += error * error;
+        }
+
+        double total = 0;
+        for (int k = n; k < n + monthsAhead; k++) {
+            total += Math.max(0, intercept + slope * k);
+        }
+
+        return new ModelFit(total, Math.max(0, intercept + slope * n), Math.sqrt(sse / n), Double.NaN, Double.NaN);
+    }
+
+    /**
+     * Holt's linear exponential smoothing, with alpha/beta picked from a small grid by one-step SSE.
+     */
+    static ModelFit fitExponential(double[] y, int start, int monthsAhead) {
+        int n = y.length - start;
+        if (n < 1) {
+            return new ModelFit(0, 0, 0, Double.NaN, Double.NaN);
+        }
+        if (n == 1) {
+            return new ModelFit(Math.max(0, y[start]) * monthsAhead, Math.max(0, y[start]), 0, Double.NaN, Double.NaN);
+        }
+
+        double bestSse = Double.MAX_VALUE;
+        double bestLevel = 0;
+        double bestTrend = 0;
+        double bestAlpha = 0;
+        double bestBeta = 0;
+
+        for (double alpha : SMOOTHING_GRID) {
+            for (double beta : SMOOTHING_GRID) {
+                double level = y[start];
+                double trend = y[start + 1] - y[start];
+                double sse = 0;
+
+                for (int i = start + 1; i < y.length; i++) {
+                    double error = y[i] - (level + trend);
+                    sse += error * error;
+
+                    double previousLevel = level;
+                    level = alpha * y[i] + (1 - alpha) * (level + trend);
+                    trend = beta * (level - previousLevel) + (1 - beta) * trend;
+                }
+
+                if (sse < bestSse) {
+                    bestSse = sse;
+                    bestLevel = level;
+                    bestTrend = trend;
+                    bestAlpha = alpha;
+                    bestBeta = beta;
+                }
+            }
+        }
+
+        double total = 0;
+        for (int k = 1; k <= monthsAhead; k++) {
+            total += Math.max(0, bestLevel + k * bestTrend);
+        }
+
+        return new ModelFit(total, Math.max(0, bestLevel + bestTrend), Math.sqrt(bestSse / (n - 1)), bestAlpha, bestBeta);
+    }
+
+    private Map<String, Object> toResponse(ProjectColumns projects, int i, ProjectForecast forecast, ForecastMethod method) {
+        ForecastMethod resolved = method;
+        if (method == ForecastMethod.BEST) {
+            resolved = forecast.exponential.rmse < forecast.linear.rmse ? ForecastMethod.EXPONENTIAL : ForecastMethod.LINEAR;
+        }
+        ModelFit selected = resolved == ForecastMethod.EXPONENTIAL ? forecast.exponential : forecast.linear;
+
+        BigDecimal projectedSpending = projects.spent[i].add(toAmount(selected.projectedSpend));
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("projectId", projects.ids[i]);
+        result.put("projectName", projects.names[i]);
+        result.put("currentSpent", projects.spent[i]);
+        result.put("allocatedBudget", projects.allocated[i]);
+        result.put("projectedSpending", projectedSpending);
+        result.put("projectedOverrun", projectedSpending.subtract(projects.allocated[i]));
+        result.put("projectedMonthlySpend", toAmount(selected.nextMonth));
+        result.put("forecastMethod", resolved.name());
+        result.put("historyMonths", forecast.observations);
+
+        Map<String, Object> models = new LinkedHashMap<>();
+        models.put(ForecastMethod.LINEAR.name(), toModelResponse(forecast.linear));
+        models.put(ForecastMethod.EXPONENTIAL.name(), toModelResponse(forecast.exponential));
+        result.put("models", models);
+
+        return result;
+    }
+
+    private Map<String, Object> toModelResponse(ModelFit fit) {
+        Map<String, Object> model = new HashMap<>();
+        model.put("projectedSpend", toAmount(fit.projectedSpend));
+        model.put("rmse", toAmount(fit.rmse));
+        if (!Double.isNaN(fit.alpha)) {
+            model.put("alpha", fit.alpha);
+            model.put("beta", fit.beta);
+        }
+        return model;
+    }
+
+    private BigDecimal toAmount(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Project attributes in id order, aligned with the series rows.
+     */
+    private static final class ProjectColumns {
+        private final long[] ids;
+        private final String[] names;
+        private final BigDecimal[] allocated;
+        private final BigDecimal[] spent;
+
+        private ProjectColumns(int size) {
+            this.ids = new long[size];
+            this.names = new String[size];
+            this.allocated = new BigDecimal[size];
+            this.spent = new BigDecimal[size];
+        }
+
+        private void set(int i, long id, String name, BigDecimal allocatedBudget, BigDecimal spentAmount) {
+            ids[i] = id;
+            names[i] = name;
+            allocated[i] = allocatedBudget != null ? allocatedBudget : BigDecimal.ZERO;
+            spent[i] = spentAmount != null ? spentAmount : BigDecimal.ZERO;
+        }
+    }
+
+    static final class ProjectForecast {
+        final ModelFit linear;
+        final ModelFit exponential;
+        final int observations;
+
+        ProjectForecast(ModelFit linear, ModelFit exponential, int observations) {
+            this.linear = linear;
+            this.exponential = exponential;
+            this.observations = observations;
+        }
+    }
+
+    static final class ModelFit {
+        final double projectedSpend;
+        final double nextMonth;
+        final double rmse;
+        final double alpha;
+        final double beta;
+
+        ModelFit(double projectedSpend, double nextMonth, double rmse, double alpha, double beta) {
+            this.projectedSpend = projectedSpend;
+            this.nextMonth = nextMonth;
+            this.rmse = rmse;
+            this.alpha = alpha;
+            this.beta = beta;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.company.erp.financial.service;
+
+import com.company.erp.common.exception.ResourceNotFoundException;
+import com.company.erp.financial.entity.BudgetTrackingType;
+import com.company.erp.financial.repository.BudgetTrackingRepository;
+import com.company.erp.project.entity.Project;
+import com.company.erp.project.repository.ProjectRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static com.company.erp.common.util.PersistenceUtil.refreshIfLoaded;
+
+/**
+ * Running per-project budget ledger.
+ *
+ * Every posting is a single atomic UPDATE of the project row (balance + delta), so a budget
+ * entry costs O(1) instead of a SUM over the project's whole history. Concurrent writers on the
+ * same project queue on that row lock in the database, on every node, until the posting
+ * transaction ends; no application-level lock is taken, so any deadlock stays visible to the
+ * database's detector. The posted balance is read back under the same row lock.
+ *
+ * The project's budget columns are not updatable through the entity, so a full Project save can
+ * never write back a stale balance over a posting.
+ */
+@Service
+public class BudgetLedgerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BudgetLedgerService.class);
+
+    private final ProjectRepository projectRepository;
+    private final BudgetTrackingRepository budgetTrackingRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public BudgetLedgerService(ProjectRepository projectRepository,
+                               BudgetTrackingRepository budgetTrackingRepository) {
+        this.projectRepository = projectRepository;
+        this.budgetTrackingRepository = budgetTrackingRepository;
+    }
+
+    /**
+     * Post a budget tracking entry to the project's running balance.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public LedgerPosting post(Long projectId, BudgetTrackingType type, BigDecimal amount) {
+        return apply(projectId, balanceDelta(type, amount), spentDelta(type, amount), allocatedDelta(type, amount));
+    }
+
+    /**
+     * Reverse a previously posted entry (used for soft deletes).
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public LedgerPosting reverse(Long projectId, BudgetTrackingType type, BigDecimal amount) {
+        return post(projectId, type, amount.negate());
+    }
+
+    /**
+     * Replace a posted entry with a new type/amount in one conditional update.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public LedgerPosting repost(Long projectId, BudgetTrackingType oldType, BigDecimal oldAmount,
+                                BudgetTrackingType newType, BigDecimal newAmount) {
+        return apply(projectId,
+                balanceDelta(newType, newAmount).subtract(balanceDelta(oldType, oldAmount)),
+                spentDelta(newType, newAmount).subtract(spentDelta(oldType, oldAmount)),
+                allocatedDelta(newType, newAmount).subtract(allocatedDelta(oldType, oldAmount)));
+    }
+
+    /**
+     * Rebuild the running balance from the full ledger history.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public BigDecimal rebuild(Long projectId) {
+        // Take the project row lock first so no posting lands between the SUM and the reset
+        if (projectRepository.lockLedger(projectId) == 0) {
+            throw new ResourceNotFoundException("Project", "id", projectId);
+        }
+
+        BigDecimal balance = budgetTrackingRepository.computeLedgerBalance(projectId);
+        projectRepository.resetLedgerBalance(projectId, balance);
+        refreshIfLoaded(entityManager, Project.class, projectId);
+
+        logger.info("Rebuilt budget ledger for project {}: balance {}", projectId, balance);
+        return balance;
+    }
+
+    // Helper methods
+
+    private LedgerPosting apply(Long projectId, BigDecimal balanceDelta, BigDecimal spentDelta, BigDecimal allocatedDelta) {
+        if (projectRepository.applyLedgerPosting(projectId, balanceDelta, spentDelta, allocatedDelta) == 0) {
+            throw new ResourceNotFoundException("Project", "id", projectId);
+        }
+
+        // This transaction holds the row lock now, so the balance read is exactly our posting's result
+        List<Object[]> snapshot = projectRepository.getLedgerSnapshot(projectId);
+        BigDecimal newBalance = (BigDecimal) snapshot.get(0)[0];
+        long version = ((Number) snapshot.get(0)[1]).longValue();
+
+        refreshIfLoaded(entityManager, Project.class, projectId);
+        return new LedgerPosting(newBalance.subtract(balanceDelta), newBalance, version);
+    }
+
+    static BigDecimal balanceDelta(BudgetTrackingType type, BigDecimal amount) {
+        switch (type) {
+            case BUDGET_DECREASE:
+            case REFUND:
+                return amount.negate();
+            case ADJUSTMENT:
+                return BigDecimal.ZERO;
+            default:
+                return amount;
+        }
+    }
+
+    static BigDecimal spentDelta(BudgetTrackingType type, BigDecimal amount) {
+        switch (type) {
+            case EXPENSE:
+            case QUOTATION_APPROVED:
+                return amount;
+            case REFUND:
+                return amount.negate();
+            default:
+                return BigDecimal.ZERO;
+        }
+    }
+
+    static BigDecimal allocatedDelta(BudgetTrackingType type, BigDecimal amount) {
+        switch (type) {
+            case BUDGET_ALLOCATION:
+            case BUDGET_INCREASE:
+                return amount;
+            case BUDGET_DECREASE:
+                return amount.negate();
+            default:
+                return BigDecimal.ZERO;
+        }
+    }
+
+    /**
+     * Result of a single ledger posting.
+     */
+    public static class LedgerPosting {
+        private final BigDecimal previousBalance;
+        private final BigDecimal newBalance;
+        private final long version;
+
+        public LedgerPosting(BigDecimal previousBalance, BigDecimal newBalance, long version) {
+            this.previousBalance = previousBalance;
+            this.newBalance = newBalance;
+            this.version = version;
+        }
+
+        public BigDecimal getPreviousBalance() { return previousBalance; }
+
+        public BigDecimal getNewBalance() { return newBalance; }
+
+        public long getVersion() { return version; }
+    }
+}
@@ -0,0 +1,196 @@
+package com.company.erp.financial.service;
+
+import com.company.erp.common.exception.BusinessException;
+import com.company.erp.financial.entity.BudgetHold;
+import com.company.erp.financial.entity.BudgetHoldStatus;
+import com.company.erp.financial.entity.Quotation;
+import com.company.erp.financial.entity.QuotationStatus;
+import com.company.erp.financial.repository.BudgetHoldRepository;
+import com.company.erp.project.entity.Project;
+import com.company.erp.project.repository.ProjectRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.company.erp.common.util.PersistenceUtil.refreshIfLoaded;
+
+/**
+ * Budget reservations (holds) for submitted quotations.
+ *
+ * Submitting places a hold with one conditional UPDATE on the project row whose WHERE clause is
+ * the budget check (remaining - held + overrun allowance >= amount), so two concurrent submissions
+ * can never both pass against the same headroom. Approval converts the hold into spend and
+ * rejection releases it; a hold lasts until that decision, however long review takes, so an
+ * approval never re-checks a budget it already reserved. Each hold is settled exactly once
+ * through a status-guarded UPDATE. Only the single project row is locked, and only for the
+ * duration of the statement's transaction.
+ */
+@Service
+public class BudgetReservationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BudgetReservationService.class);
+
+    private static final int CLEANUP_BATCH_SIZE = 500;
+    private static final Collection<QuotationStatus> AWAITING_DECISION =
+            EnumSet.of(QuotationStatus.SUBMITTED, QuotationStatus.UNDER_REVIEW);
+
+    private final ProjectRepository projectRepository;
+    private final BudgetHoldRepository budgetHoldRepository;
+    private final BigDecimal overrunAllowance;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public BudgetReservationService(ProjectRepository projectRepository,
+                                    BudgetHoldRepository budgetHoldRepository,
+                                    @Value("${app.business.budget.hold.overrun-allowance:0.10}") BigDecimal overrunAllowance) {
+        this.projectRepository = projectRepository;
+        this.budgetHoldRepository = budgetHoldRepository;
+        this.overrunAllowance = overrunAllowance;
+    }
+
+    /**
+     * Reserve the quotation amount against its project, or fail with BUDGET_EXCEEDED.
+     * A failed check changes nothing, so it does not doom the caller's transaction (bulk approvals).
+     */
+    @Transactional(propagation = Propagation.MANDATORY, noRollbackFor = BusinessException.class)
+    public BudgetHold hold(Quotation quotation) {
+        Project project = quotation.getProject();
+        BigDecimal amount = quotation.getTotalAmount();
+
+        if (projectRepository.placeBudgetHold(project.getId(), amount, overrunAllowance) == 0) {
+            throw budgetExceeded(quotation);
+        }
+        refreshIfLoaded(entityManager, Project.class, project.getId());
+
+        BudgetHold hold = budgetHoldRepository.save(new BudgetHold(project.getId(), quotation.getId(), amount));
+        logger.info("Placed budget hold of SAR {} on project {} for quotation {}", amount, project.getId(), quotation.getId());
+        return hold;
+    }
+
+    /**
+     * Turn the quotation's hold into spend. Without an open hold (submitted before holds existed)
+     * the amount is spent directly under the same budget check.
+     */
+    @Transactional(propagation = Propagation.MANDATORY, noRollbackFor = BusinessException.class)
+    public void convert(Quotation quotation) {
+        convert(quotation, budgetHoldRepository.findByQuotationIdAndStatus(quotation.getId(), BudgetHoldStatus.HELD)
+                .orElse(null));
+    }
+
+    /**
+     * {@link #convert(Quotation)} with the open hold already looked up ({@link #openHolds}); null if none.
+     */
+    @Transactional(propagation = Propagation.MANDATORY, noRollbackFor = BusinessException.class)
+    public void convert(Quotation quotation, BudgetHold hold) {
+        Long projectId = quotation.getProject().getId();
+        BigDecimal amount = quotation.getTotalAmount();
+
+        if (hold != null) {
+            if (budgetHoldRepository.settle(hold.getId(), BudgetHoldStatus.CONVERTED, LocalDateTime.now()) == 0) {
+                throw new BusinessException("BUDGET_HOLD_CONFLICT",
+                        "Quotation " + quotation.getId() + " is being processed concurrently, please retry");
+            }
+            projectRepository.convertBudgetHold(projectId, hold.getAmount(), amount);
+        } else if (projectRepository.spendWithinBudget(projectId, amount, overrunAllowance) == 0) {
+            throw budgetExceeded(quotation);
+        }
+        refreshIfLoaded(entityManager, Project.class, projectId);
+
+        logger.info("Converted budget for quotation {} into SAR {} spend on project {}", quotation.getId(), amount, projectId);
+    }
+
+    /**
+     * Return the quotation's hold, if any, to the project budget.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(Quotation quotation) {
+        budgetHoldRepository.findByQuotationIdAndStatus(quotation.getId(), BudgetHoldStatus.HELD)
+                .ifPresent(hold -> settleAndRelease(hold, BudgetHoldStatus.RELEASED));
+    }
+
+    /**
+     * {@link #release(Quotation)} with the open hold already looked up; null if none.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(Quotation quotation, BudgetHold hold) {
+        if (hold != null) {
+            settleAndRelease(hold, BudgetHoldStatus.RELEASED);
+        }
+    }
+
+    /**
+     * Open holds of the given quotations by quotation id, in one query.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Map<Long, BudgetHold> openHolds(Collection<Long> quotationIds) {
+        Map<Long, BudgetHold> holds = new HashMap<>();
+        for (BudgetHold hold : budgetHoldRepository.findByQuotationIdInAndStatus(quotationIds, BudgetHoldStatus.HELD)) {
+            holds.put(hold.getQuotationId(), hold);
+        }
+        return holds;
+    }
+
+    /**
+     * Release holds left open on quotations that no longer await a decision: deactivated, or moved
+     * out of review by a path that bypasses this service. Holds of quotations still under review
+     * are never released by time.
+     */
+    @Scheduled(cron = "0 */15 * * * ?") // Every 15 minutes
+    @Transactional
+    public void releaseOrphanedHolds() {
+        List<BudgetHold> orphaned = budgetHoldRepository.findOrphaned(AWAITING_DECISION,
+                PageRequest.of(0, CLEANUP_BATCH_SIZE));
+
+        int released = 0;
+        for (BudgetHold hold : orphaned) {
+            if (settleAndRelease(hold, BudgetHoldStatus.RELEASED)) {
+                released++;
+            }
+        }
+
+        if (released > 0) {
+            logger.info("Released {} budget holds of quotations no longer awaiting a decision", released);
+        }
+    }
+
+    // Helper methods
+
+    private boolean settleAndRelease(BudgetHold hold, BudgetHoldStatus outcome) {
+        if (budgetHoldRepository.settle(hold.getId(), outcome, LocalDateTime.now()) == 0) {
+            return false; // Settled concurrently
+        }
+
+        projectRepository.releaseBudgetHold(hold.getProjectId(), hold.getAmount());
+        refreshIfLoaded(entityManager, Project.class, hold.getProjectId());
+        logger.debug("Budget hold {} on project {} {}", hold.getId(), hold.getProjectId(), outcome);
+        return true;
+    }
+
+    private BusinessException budgetExceeded(Quotation quotation) {
+        Project project = quotation.getProject();
+        refreshIfLoaded(entityManager, Project.class, project.getId());
+        BigDecimal maxExceedLimit = project.getAllocatedBudget().multiply(overrunAllowance);
+        return new BusinessException("BUDGET_EXCEEDED",
+                String.format("Quotation amount (SAR %.2f) exceeds project budget limit. " +
+                                "Remaining budget: SAR %.2f, Reserved by pending quotations: SAR %.2f, " +
+                                "Maximum allowed excess: SAR %.2f",
+                        quotation.getTotalAmount().doubleValue(), project.getRemainingBudget().doubleValue(),
+                        project.getHeldAmount().doubleValue(), maxExceedLimit.doubleValue()));
+    }
+}
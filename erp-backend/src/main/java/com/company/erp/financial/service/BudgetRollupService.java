@@ -0,0 +1,243 @@
+package com.company.erp.financial.service;
+
+import com.company.erp.financial.entity.BudgetRollup;
+import com.company.erp.financial.entity.BudgetRollupPeriod;
+import com.company.erp.financial.entity.BudgetTracking;
+import com.company.erp.financial.entity.BudgetTrackingType;
+import com.company.erp.financial.repository.BudgetRollupRepository;
+import com.company.erp.project.repository.ProjectRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Maintains the project x category x type x day budget rollups.
+ *
+ * Writes happen in the caller's transaction so the rollups never disagree with budget_tracking;
+ * a posting touches only its day bucket, and week/month/quarter/year trends are summed from
+ * the day buckets at read time instead of scanning the raw ledger.
+ *
+ * Every writer holds the project row lock (taken by the budget or ledger update it makes first)
+ * while it touches that project's buckets, so the update-then-insert of a bucket never races
+ * another writer, and a rebuild that takes the same lock never interleaves with one.
+ */
+@Service
+@Transactional(readOnly = true)
+public class BudgetRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BudgetRollupService.class);
+
+    public static final String UNCATEGORIZED = "UNCATEGORIZED";
+    public static final Set<BudgetTrackingType> SPENDING_TYPES =
+            EnumSet.of(BudgetTrackingType.EXPENSE, BudgetTrackingType.QUOTATION_APPROVED);
+    private static final List<String> SPENDING_TYPE_NAMES =
+            SPENDING_TYPES.stream().map(Enum::name).toList();
+
+    private final BudgetRollupRepository budgetRollupRepository;
+    private final ProjectRepository projectRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public BudgetRollupService(BudgetRollupRepository budgetRollupRepository, ProjectRepository projectRepository,
+                               PlatformTransactionManager transactionManager) {
+        this.budgetRollupRepository = budgetRollupRepository;
+        this.projectRepository = projectRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Add a newly recorded entry to its day bucket.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAdded(BudgetTracking tracking) {
+        apply(tracking.getProject().getId(), tracking.getCategory(), tracking.getTrackingType(),
+                tracking.getTransactionDate(), 1, tracking.getAmount());
+    }
+
+    /**
+     * Remove a soft-deleted entry from its day bucket.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordRemoved(BudgetTracking tracking) {
+        apply(tracking.getProject().getId(), tracking.getCategory(), tracking.getTrackingType(),
+                tracking.getTransactionDate(), -1, tracking.getAmount().negate());
+    }
+
+    /**
+     * Move an edited entry from the bucket of its previous values to that of its current values.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordChanged(Long projectId, String oldCategory, BudgetTrackingType oldType,
+                              LocalDateTime oldTransactionDate, BigDecimal oldAmount, BudgetTracking current) {
+        boolean sameBucket = Objects.equals(oldCategory, current.getCategory())
+                && oldType == current.getTrackingType()
+                && oldAmount.compareTo(current.getAmount()) == 0
+                && oldTransactionDate != null && current.getTransactionDate() != null
+                && oldTransactionDate.toLocalDate().equals(current.getTransactionDate().toLocalDate());
+        if (sameBucket) {
+            return;
+        }
+
+        // A category or date edit makes no budget update, so take the project lock here
+        projectRepository.lockRow(projectId);
+        apply(projectId, oldCategory, oldType, oldTransactionDate, -1, oldAmount.negate());
+        recordAdded(current);
+    }
+
+    /**
+     * Rebuild rollups from budget_tracking, for one project or (projectId == null) for all.
+     * Each project is rebuilt in its own short transaction under its row lock.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<String, Object> rebuild(Long projectId) {
+        logger.info("Rebuilding budget rollups for {}", projectId != null ? "project " + projectId : "all projects");
+
+        List<Long> projectIds = projectId != null ? List.of(projectId) : projectRepository.findAllIds();
+        int deleted = 0;
+        int dayBuckets = 0;
+        for (Long id : projectIds) {
+            int[] counts = transactionTemplate.execute(status -> rebuildProject(id));
+            deleted += counts[0];
+            dayBuckets += counts[1];
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("projectId", projectId);
+        result.put("deletedBuckets", deleted);
+        result.put("dayBuckets", dayBuckets);
+        result.put("rebuiltAt", LocalDateTime.now());
+
+        logger.info("Budget rollups rebuilt: {} day buckets", dayBuckets);
+        return result;
+    }
+
+    /**
+     * Spending per period as (periodStart, amount, transactionCount) rows.
+     */
+    public List<Object[]> getSpendingTrend(LocalDateTime start, LocalDateTime end, BudgetRollupPeriod period,
+                                           List<Long> projectIds) {
+        LocalDate from = period.startOf(start.toLocalDate());
+        LocalDate to = end.toLocalDate();
+
+        List<Object[]> rows = projectIds != null && !projectIds.isEmpty()
+                ? budgetRollupRepository.getSpendingTrendForProjects(projectIds, period.getTruncUnit(),
+                        SPENDING_TYPE_NAMES, from, to)
+                : budgetRollupRepository.getSpendingTrend(period.getTruncUnit(), SPENDING_TYPE_NAMES, from, to);
+
+        for (Object[] row : rows) {
+            row[0] = toLocalDate(row[0]);
+            row[2] = ((Number) row[2]).longValue();
+        }
+        return rows;
+    }
+
+    /**
+     * Spending net of refunds per period as (periodStart, amount) rows, for periods starting in [from, to].
+     */
+    public List<Object[]> getNetSpendingTrend(LocalDate from, LocalDate to, BudgetRollupPeriod period) {
+        List<Object[]> rows = budgetRollupRepository.getNetSpendingTrend(period.getTruncUnit(), SPENDING_TYPE_NAMES,
+                BudgetTrackingType.REFUND.name(), period.startOf(from), to);
+
+        for (Object[] row : rows) {
+            row[0] = toLocalDate(row[0]);
+        }
+        return rows;
+    }
+
+    /**
+     * Spending per project and period as (projectId, periodStart, amount) rows, ordered by project then period.
+     */
+    public List<Object[]> getSpendingSeries(LocalDate from, BudgetRollupPeriod period, Collection<Long> projectIds) {
+        LocalDate start = period.startOf(from);
+
+        List<Object[]> rows = projectIds != null && !projectIds.isEmpty()
+                ? budgetRollupRepository.getSpendingSeriesForProjects(projectIds, period.getTruncUnit(),
+                        SPENDING_TYPE_NAMES, start)
+                : budgetRollupRepository.getSpendingSeriesByProject(period.getTruncUnit(), SPENDING_TYPE_NAMES, start);
+
+        for (Object[] row : rows) {
+            row[0] = ((Number) row[0]).longValue();
+            row[1] = toLocalDate(row[1]);
+        }
+        return rows;
+    }
+
+    /**
+     * Category totals as (category, transactionCount, amount) rows, exact to the day.
+     */
+    public List<Object[]> getCategoryTotals(LocalDateTime start, LocalDateTime end) {
+        return budgetRollupRepository.getCategoryTotals(UNCATEGORIZED, start.toLocalDate(), end.toLocalDate());
+    }
+
+    // Helper methods
+
+    private void apply(Long projectId, String category, BudgetTrackingType type, LocalDateTime transactionDate,
+                       long countDelta, BigDecimal amountDelta) {
+        String bucketCategory = category != null ? category : UNCATEGORIZED;
+        LocalDate day = (transactionDate != null ? transactionDate : LocalDateTime.now()).toLocalDate();
+
+        if (budgetRollupRepository.applyDelta(projectId, bucketCategory, type, day, countDelta, amountDelta) == 0) {
+            budgetRollupRepository.saveAndFlush(bucket(projectId, bucketCategory, type, day, countDelta, amountDelta));
+        }
+    }
+
+    /**
+     * Replace the project's buckets with sums from the ledger; returns {deleted, inserted}.
+     */
+    private int[] rebuildProject(Long projectId) {
+        projectRepository.lockRow(projectId);
+        int deleted = budgetRollupRepository.deleteByProject(projectId);
+
+        // A null category and an explicit UNCATEGORIZED share one bucket
+        Map<List<Object>, BudgetRollup> buckets = new LinkedHashMap<>();
+        for (Object[] row : budgetRollupRepository.sumLedgerByBucket(projectId)) {
+            String category = row[0] != null ? (String) row[0] : UNCATEGORIZED;
+            BudgetTrackingType type = BudgetTrackingType.valueOf((String) row[1]);
+            LocalDate day = toLocalDate(row[2]);
+            long count = ((Number) row[3]).longValue();
+            BigDecimal amount = (BigDecimal) row[4];
+
+            BudgetRollup bucket = buckets.get(List.of(category, type, day));
+            if (bucket == null) {
+                buckets.put(List.of(category, type, day), bucket(projectId, category, type, day, count, amount));
+            } else {
+                bucket.setTransactionCount(bucket.getTransactionCount() + count);
+                bucket.setTotalAmount(bucket.getTotalAmount().add(amount));
+            }
+        }
+        budgetRollupRepository.saveAll(new ArrayList<>(buckets.values()));
+        return new int[]{deleted, buckets.size()};
+    }
+
+    private static BudgetRollup bucket(Long projectId, String category, BudgetTrackingType type, LocalDate day,
+                                       long count, BigDecimal amount) {
+        BudgetRollup bucket = new BudgetRollup();
+        bucket.setProjectId(projectId);
+        bucket.setCategory(category);
+        bucket.setTrackingType(type);
+        bucket.setRollupDate(day);
+        bucket.setTransactionCount(count);
+        bucket.setTotalAmount(amount);
+        return bucket;
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        return value instanceof java.sql.Date sqlDate ? sqlDate.toLocalDate() : (LocalDate) value;
+    }
+}
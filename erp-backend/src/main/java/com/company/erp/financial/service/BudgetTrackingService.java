@@ -1,9 +1,15 @@
 package com.company.erp.financial.service;
 
+import com.company.erp.common.constants.ApplicationConstants;
+import com.company.erp.common.dto.CursorPage;
+import com.company.erp.common.event.DashboardDataChangedEvent;
 import com.company.erp.common.exception.BusinessException;
 import com.company.erp.common.exception.ResourceNotFoundException;
 import com.company.erp.common.exception.UnauthorizedAccessException;
 import com.company.erp.common.security.UserPrincipal;
+import com.company.erp.common.service.StreamingExportService;
+import com.company.erp.common.util.KeysetCursor;
+import com.company.erp.common.util.Money;
 import com.company.erp.financial.dto.request.BudgetTrackingRequest;
 import com.company.erp.financial.dto.response.*;
 import com.company.erp.financial.entity.BudgetTracking;
@@ -17,18 +23,31 @@ import com.company.erp.project.repository.ProjectRepository;
 import com.company.erp.user.entity.User;
 import com.company.erp.user.repository.UserRepository;
 import com.company.erp.notification.service.NotificationService;
+import com.company.erp.report.enums.ExportFormat;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
@@ -37,6 +56,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
@@ -45,6 +65,10 @@ public class BudgetTrackingService {
     private static final Logger logger = LoggerFactory.getLogger(BudgetTrackingService.class);
     private static final BigDecimal WARNING_THRESHOLD = new BigDecimal("80.00");
     private static final BigDecimal CRITICAL_THRESHOLD = new BigDecimal("90.00");
+    private static final BigDecimal FULL_UTILIZATION = new BigDecimal("100");
+    private static final List<String> EXPORT_HEADERS = List.of(
+            "Transaction Date", "Type", "Reference Type", "Reference ID", "Category", "Description",
+            "Amount", "Currency", "Previous Balance", "New Balance", "Variance %", "Budget Exceeded", "Recorded By");
 
     @Autowired
     private BudgetTrackingRepository budgetTrackingRepository;
@@ -61,6 +85,27 @@ public class BudgetTrackingService {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private BudgetLedgerService budgetLedgerService;
+
+    @Autowired
+    private BudgetRollupService budgetRollupService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private StreamingExportService streamingExportService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.business.budget.ledger.enabled:true}")
+    private boolean ledgerEnabled;
+
     /**
      * Create new budget tracking entry
      */
@@ -70,6 +115,10 @@ public class BudgetTrackingService {
         UserPrincipal currentUser = getCurrentUser();
         validateBudgetTrackingAccess(currentUser);
 
+        if (ledgerEnabled) {
+            return createLedgerBudgetTracking(request, userId);
+        }
+
         // Validate project exists
         Project project = projectRepository.findByIdAndActiveTrue(request.getProjectId())
                 .orElseThrow(() -> new ResourceNotFoundException("Project", "id", request.getProjectId()));
@@ -108,6 +157,8 @@ public class BudgetTrackingService {
         budgetTracking.calculateVariance();
 
         BudgetTracking savedTracking = budgetTrackingRepository.save(budgetTracking);
+        budgetRollupService.recordAdded(savedTracking);
+        publishDashboardChange(savedTracking.getProject().getId(), "CREATED");
 
         // Check for budget alerts
         checkAndSendBudgetAlerts(project, savedTracking);
@@ -117,6 +168,49 @@ public class BudgetTrackingService {
         return convertToBudgetTrackingResponse(savedTracking);
     }
 
+    /**
+     * Ledger mode: post to the project's running balance with one conditional update,
+     * then record the entry against the freshly posted project state.
+     */
+    private BudgetTrackingResponse createLedgerBudgetTracking(BudgetTrackingRequest request, Long userId) {
+        BudgetLedgerService.LedgerPosting posting = budgetLedgerService.post(
+                request.getProjectId(), request.getTrackingType(), request.getAmount());
+
+        // Loaded after the posting so the alert check sees the posted amounts
+        Project project = projectRepository.findByIdAndActiveTrue(request.getProjectId())
+                .orElseThrow(() -> new ResourceNotFoundException("Project", "id", request.getProjectId()));
+        User recordedBy = getUserById(userId);
+
+        BudgetTracking budgetTracking = new BudgetTracking(project, request.getTrackingType(),
+                request.getAmount());
+
+        budgetTracking.setRecordedBy(recordedBy);
+        budgetTracking.setDescription(request.getDescription());
+        budgetTracking.setCategory(request.getCategory());
+        budgetTracking.setReferenceType(request.getReferenceType());
+        budgetTracking.setReferenceId(request.getReferenceId());
+        budgetTracking.setPreviousBalance(posting.getPreviousBalance());
+        budgetTracking.setNewBalance(posting.getNewBalance());
+        budgetTracking.setCurrency(request.getCurrency() != null ? request.getCurrency() : "SAR");
+
+        if (request.getTransactionDate() != null) {
+            budgetTracking.setTransactionDate(request.getTransactionDate().atStartOfDay());
+        }
+
+        budgetTracking.calculateVariance();
+
+        BudgetTracking savedTracking = budgetTrackingRepository.save(budgetTracking);
+        budgetRollupService.recordAdded(savedTracking);
+        publishDashboardChange(savedTracking.getProject().getId(), "CREATED");
+
+        checkAndSendBudgetAlerts(project, savedTracking);
+
+        logger.info("Budget tracking entry created successfully with ID: {} (ledger version {})",
+                savedTracking.getId(), posting.getVersion());
+
+        return convertToBudgetTrackingResponse(savedTracking);
+    }
+
     /**
      * Get budget tracking by ID
      */
@@ -158,6 +252,32 @@ public class BudgetTrackingService {
         return budgetTrackings.map(this::convertToBudgetTrackingResponse);
     }
 
+    /**
+     * Get budget tracking for a project newest first, keyset-paginated
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<BudgetTrackingResponse> getProjectBudgetTracking(Long projectId, BudgetTrackingType type,
+                                                                       LocalDate startDate, LocalDate endDate,
+                                                                       String cursor, int size) {
+        UserPrincipal currentUser = getCurrentUser();
+
+        // Validate project access for project managers
+        if (!currentUser.hasAnyRole("SUPER_ADMIN", "ACCOUNT_MANAGER")) {
+            validateProjectManagerAccess(projectId, currentUser.getId());
+        }
+
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        LocalDateTime from = startDate != null ? startDate.atStartOfDay() : null;
+        LocalDateTime to = endDate != null ? endDate.atTime(23, 59, 59) : null;
+        Slice<BudgetTracking> budgetTrackings = after == null
+                ? budgetTrackingRepository.findByProjectIdFirstPage(projectId, type, from, to, CursorPage.request(size))
+                : budgetTrackingRepository.findByProjectIdAfterCursor(projectId, type, from, to,
+                        after.getSortKey(), after.getId(), CursorPage.request(size));
+
+        return CursorPage.from(budgetTrackings, this::convertToBudgetTrackingResponse,
+                bt -> KeysetCursor.of(bt.getTransactionDate(), bt.getId()));
+    }
+
     /**
      * Get project budget status and utilization
      */
@@ -176,13 +296,11 @@ public class BudgetTrackingService {
 
         // Calculate utilization percentage
         if (project.getAllocatedBudget() != null && project.getAllocatedBudget().compareTo(BigDecimal.ZERO) > 0) {
-            BigDecimal utilization = project.getSpentAmount()
-                    .divide(project.getAllocatedBudget(), 4, RoundingMode.HALF_UP)
-                    .multiply(new BigDecimal("100"));
+            BigDecimal utilization = utilizationPercentage(project.getSpentAmount(), project.getAllocatedBudget());
             response.setUtilizationPercentage(utilization);
 
             // Set budget status
-            if (utilization.compareTo(new BigDecimal("100")) > 0) {
+            if (utilization.compareTo(FULL_UTILIZATION) > 0) {
                 response.setBudgetStatus("OVER_BUDGET");
             } else if (utilization.compareTo(CRITICAL_THRESHOLD) >= 0) {
                 response.setBudgetStatus("CRITICAL");
@@ -220,9 +338,7 @@ public class BudgetTrackingService {
         BigDecimal threshold = warningThreshold != null ? warningThreshold : WARNING_THRESHOLD;
 
         if (project.getAllocatedBudget() != null && project.getAllocatedBudget().compareTo(BigDecimal.ZERO) > 0) {
-            BigDecimal utilization = project.getSpentAmount()
-                    .divide(project.getAllocatedBudget(), 4, RoundingMode.HALF_UP)
-                    .multiply(new BigDecimal("100"));
+            BigDecimal utilization = utilizationPercentage(project.getSpentAmount(), project.getAllocatedBudget());
 
             BudgetAlertResponse alert = new BudgetAlertResponse();
             alert.setProjectId(project.getId());
@@ -232,10 +348,10 @@ public class BudgetTrackingService {
             alert.setSpentAmount(project.getSpentAmount());
             alert.setRemainingBudget(project.getRemainingBudget());
 
-            if (utilization.compareTo(new BigDecimal("100")) > 0) {
+            if (utilization.compareTo(FULL_UTILIZATION) > 0) {
                 alert.setAlertLevel("CRITICAL");
                 alert.setMessage("Project is over budget by " +
-                        utilization.subtract(new BigDecimal("100")).setScale(2, RoundingMode.HALF_UP) + "%");
+                        utilization.subtract(FULL_UTILIZATION).setScale(2, RoundingMode.HALF_UP) + "%");
                 alerts.add(alert);
             } else if (utilization.compareTo(threshold) >= 0) {
                 alert.setAlertLevel("WARNING");
@@ -252,6 +368,8 @@ public class BudgetTrackingService {
      * Get overall budget summary
      */
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = ApplicationConstants.Cache.PROJECT_SUMMARIES,
+            keyGenerator = ApplicationConstants.Cache.DASHBOARD_KEY_GENERATOR)
     public Object getBudgetSummary(LocalDate startDate, LocalDate endDate) {
         UserPrincipal currentUser = getCurrentUser();
         validateBudgetTrackingAccess(currentUser);
@@ -295,13 +413,27 @@ public class BudgetTrackingService {
         // Store original values for reversion if needed
         BigDecimal originalAmount = budgetTracking.getAmount();
         BudgetTrackingType originalType = budgetTracking.getTrackingType();
+        String originalCategory = budgetTracking.getCategory();
+        LocalDateTime originalTransactionDate = budgetTracking.getTransactionDate();
 
         // Update fields
         budgetTracking.setDescription(request.getDescription());
         budgetTracking.setCategory(request.getCategory());
 
         // If amount or type changed, update project budget
-        if (!originalAmount.equals(request.getAmount()) || !originalType.equals(request.getTrackingType())) {
+        boolean amountOrTypeChanged = !originalAmount.equals(request.getAmount())
+                || !originalType.equals(request.getTrackingType());
+
+        if (amountOrTypeChanged && ledgerEnabled) {
+            Long projectId = budgetTracking.getProject().getId();
+            BudgetLedgerService.LedgerPosting posting = budgetLedgerService.repost(
+                    projectId, originalType, originalAmount, request.getTrackingType(), request.getAmount());
+
+            budgetTracking.setAmount(request.getAmount());
+            budgetTracking.setTrackingType(request.getTrackingType());
+            budgetTracking.setPreviousBalance(posting.getPreviousBalance());
+            budgetTracking.setNewBalance(posting.getNewBalance());
+        } else if (amountOrTypeChanged) {
             // Revert original transaction
             updateProjectBudget(budgetTracking.getProject(), originalType, originalAmount.negate());
 
@@ -324,6 +456,9 @@ public class BudgetTrackingService {
         budgetTracking.calculateVariance();
 
         BudgetTracking savedTracking = budgetTrackingRepository.save(budgetTracking);
+        budgetRollupService.recordChanged(savedTracking.getProject().getId(), originalCategory, originalType,
+                originalTransactionDate, originalAmount, savedTracking);
+        publishDashboardChange(savedTracking.getProject().getId(), "UPDATED");
 
         logger.info("Budget tracking entry updated successfully: {}", id);
 
@@ -345,13 +480,21 @@ public class BudgetTrackingService {
                 .orElseThrow(() -> new ResourceNotFoundException("Budget Tracking", "id", id));
 
         // Revert the transaction from project budget
-        updateProjectBudget(budgetTracking.getProject(),
-                budgetTracking.getTrackingType(),
-                budgetTracking.getAmount().negate());
+        if (ledgerEnabled) {
+            budgetLedgerService.reverse(budgetTracking.getProject().getId(),
+                    budgetTracking.getTrackingType(),
+                    budgetTracking.getAmount());
+        } else {
+            updateProjectBudget(budgetTracking.getProject(),
+                    budgetTracking.getTrackingType(),
+                    budgetTracking.getAmount().negate());
+        }
 
         // Soft delete
         budgetTracking.setActive(false);
         budgetTrackingRepository.save(budgetTracking);
+        budgetRollupService.recordRemoved(budgetTracking);
+        publishDashboardChange(budgetTracking.getProject().getId(), "DELETED");
 
         logger.info("Budget tracking entry deleted successfully: {}", id);
     }
@@ -374,11 +517,9 @@ public class BudgetTrackingService {
             totalApprovedAmount = BigDecimal.ZERO;
         }
 
-        // Update project spent amount
+        // Update project spent amount in one statement; mirror it on the loaded entity for the audit entry
+        projectRepository.updateProjectBudgetSpent(projectId, totalApprovedAmount);
         project.setSpentAmount(totalApprovedAmount);
-        project.setRemainingBudget(project.getAllocatedBudget().subtract(totalApprovedAmount));
-
-        projectRepository.save(project);
 
         // Create audit trail entry
         User recordedBy = getUserById(userId);
@@ -390,6 +531,12 @@ public class BudgetTrackingService {
         auditEntry.setPreviousBalance(project.getSpentAmount());
         auditEntry.setNewBalance(project.getSpentAmount());
         budgetTrackingRepository.save(auditEntry);
+        budgetRollupService.recordAdded(auditEntry);
+
+        if (ledgerEnabled) {
+            budgetLedgerService.rebuild(projectId);
+        }
+        publishDashboardChange(projectId, "RECALCULATED");
 
         logger.info("Budget recalculated for project: {}. New spent amount: {}",
                 projectId, totalApprovedAmount);
@@ -398,10 +545,14 @@ public class BudgetTrackingService {
     }
 
     /**
-     * Export budget tracking data
+     * Export budget tracking data as a streamed Excel or CSV body.
+     *
+     * Access is checked up front; the rows are read through a server-side cursor inside the
+     * returned body and written as they arrive, detaching each entity once written.
      */
-    @Transactional(readOnly = true)
-    public String exportBudgetTracking(Long projectId, LocalDate startDate, LocalDate endDate, String format) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public StreamingResponseBody exportBudgetTracking(Long projectId, LocalDate startDate, LocalDate endDate,
+                                                      ExportFormat format) {
         logger.info("Exporting budget tracking data for project: {} in format: {}", projectId, format);
 
         UserPrincipal currentUser = getCurrentUser();
@@ -411,27 +562,54 @@ public class BudgetTrackingService {
             validateProjectManagerAccess(projectId, currentUser.getId());
         }
 
-        // Get tracking data
         LocalDateTime startDateTime = startDate != null ? startDate.atStartOfDay() : null;
         LocalDateTime endDateTime = endDate != null ? endDate.atTime(23, 59, 59) : null;
 
-        List<BudgetTracking> trackingData = budgetTrackingRepository.findByProjectIdForExport(
-                projectId, startDateTime, endDateTime);
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+
+        return out -> readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<BudgetTracking> rows = budgetTrackingRepository.streamByProjectIdForExport(
+                    projectId, startDateTime, endDateTime)) {
+                long count = streamingExportService.write(format, out, "Budget Tracking", EXPORT_HEADERS,
+                        rows, this::toExportRow);
+                logger.info("Budget tracking export completed for project {}: {} rows", projectId, count);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
 
-        // For now, return a placeholder file path
-        // In real implementation, you would generate Excel/CSV files
-        String fileName = String.format("budget_tracking_%d_%s_%s.%s",
-                projectId,
-                startDate != null ? startDate.toString() : "all",
-                endDate != null ? endDate.toString() : "all",
-                format.toLowerCase());
+    // Helper methods
 
-        logger.info("Budget tracking export completed: {}", fileName);
+    private BigDecimal utilizationPercentage(BigDecimal spentAmount, BigDecimal allocatedBudget) {
+        return Money.percentage(Money.toMinorUnits(spentAmount), Money.toMinorUnits(allocatedBudget));
+    }
 
-        return fileName;
+    private Object[] toExportRow(BudgetTracking tracking) {
+        Object[] row = {
+                tracking.getTransactionDate(),
+                tracking.getTrackingType() != null ? tracking.getTrackingType().getDisplayName() : null,
+                tracking.getReferenceType(),
+                tracking.getReferenceId(),
+                tracking.getCategory(),
+                tracking.getDescription(),
+                tracking.getAmount(),
+                tracking.getCurrency(),
+                tracking.getPreviousBalance(),
+                tracking.getNewBalance(),
+                tracking.getVariancePercentage(),
+                tracking.getIsBudgetExceeded(),
+                tracking.getRecordedBy() != null ? tracking.getRecordedBy().getFullName() : null
+        };
+        entityManager.detach(tracking); // Keep the persistence context flat while streaming
+        return row;
     }
 
-    // Helper methods
+    private void publishDashboardChange(Long projectId, String action) {
+        eventPublisher.publishEvent(new DashboardDataChangedEvent(
+                DashboardDataChangedEvent.Source.BUDGET_TRACKING, projectId, action));
+    }
 
     private UserPrincipal getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -479,6 +657,10 @@ public class BudgetTrackingService {
     }
 
     private void updateProjectBudget(Project project, BudgetTrackingType type, BigDecimal amount) {
+        projectRepository.applyBudgetDelta(project.getId(),
+                BudgetLedgerService.spentDelta(type, amount), BudgetLedgerService.allocatedDelta(type, amount));
+
+        // Mirror the delta on the loaded entity for the alert check (the columns are not updatable)
         switch (type) {
             case EXPENSE:
             case QUOTATION_APPROVED:
@@ -499,23 +681,19 @@ public class BudgetTrackingService {
                 project.setRemainingBudget(project.getAllocatedBudget().subtract(project.getSpentAmount()));
                 break;
         }
-
-        projectRepository.save(project);
     }
 
     private void checkAndSendBudgetAlerts(Project project, BudgetTracking tracking) {
         if (project.getAllocatedBudget() != null && project.getAllocatedBudget().compareTo(BigDecimal.ZERO) > 0) {
-            BigDecimal utilization = project.getSpentAmount()
-                    .divide(project.getAllocatedBudget(), 4, RoundingMode.HALF_UP)
-                    .multiply(new BigDecimal("100"));
+            BigDecimal utilization = utilizationPercentage(project.getSpentAmount(), project.getAllocatedBudget());
 
             String alertLevel = null;
             String message = null;
 
-            if (utilization.compareTo(new BigDecimal("100")) > 0) {
+            if (utilization.compareTo(FULL_UTILIZATION) > 0) {
                 alertLevel = "CRITICAL";
                 message = String.format("Project '%s' is over budget by %.2f%%",
-                        project.getName(), utilization.subtract(new BigDecimal("100")).doubleValue());
+                        project.getName(), utilization.subtract(FULL_UTILIZATION).doubleValue());
             } else if (utilization.compareTo(CRITICAL_THRESHOLD) >= 0) {
                 alertLevel = "HIGH";
                 message = String.format("Project '%s' has reached %.2f%% budget utilization",
@@ -595,9 +773,7 @@ public class BudgetTrackingService {
         summary.setRemainingBudget((BigDecimal) data[4]);
 
         if (summary.getAllocatedBudget() != null && summary.getAllocatedBudget().compareTo(BigDecimal.ZERO) > 0) {
-            BigDecimal utilization = summary.getSpentAmount()
-                    .divide(summary.getAllocatedBudget(), 4, RoundingMode.HALF_UP)
-                    .multiply(new BigDecimal("100"));
+            BigDecimal utilization = utilizationPercentage(summary.getSpentAmount(), summary.getAllocatedBudget());
             summary.setUtilizationPercentage(utilization);
         }
 
@@ -0,0 +1,289 @@
+package com.company.erp.financial.service;
+
+import com.company.erp.common.util.Money;
+import com.company.erp.financial.entity.BudgetRollupPeriod;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.company.erp.common.util.Money.fromMinorUnits;
+import static com.company.erp.common.util.Money.percentage;
+import static com.company.erp.common.util.Money.toMinorUnits;
+
+/**
+ * Single-pass KPI aggregation for the executive summary, KPI and performance endpoints.
+ *
+ * Project figures come from one loop over the in-memory project finance snapshot and spending
+ * figures from the day-bucket budget rollups, so no endpoint re-reads the projects table or the
+ * raw ledger. Amounts are accumulated as long minor units and converted once at the end.
+ */
+@Service
+@Transactional(readOnly = true)
+public class FinancialKpiAggregator {
+
+    private static final Logger logger = LoggerFactory.getLogger(FinancialKpiAggregator.class);
+
+    private static final int ALERT_UTILIZATION = 80;
+    private static final int HIGH_RISK_UTILIZATION = 90;
+
+    private final ProjectFinanceSnapshotService projectFinanceSnapshotService;
+    private final BudgetRollupService budgetRollupService;
+    private final BigDecimal varianceThreshold;
+
+    public FinancialKpiAggregator(ProjectFinanceSnapshotService projectFinanceSnapshotService,
+                                  BudgetRollupService budgetRollupService,
+                                  @Value("${app.business.project.budget-variance-threshold:10.00}") BigDecimal varianceThreshold) {
+        this.projectFinanceSnapshotService = projectFinanceSnapshotService;
+        this.budgetRollupService = budgetRollupService;
+        this.varianceThreshold = varianceThreshold;
+    }
+
+    /**
+     * Aggregate all KPIs for a reporting window. Project totals cover all active projects; the
+     * window-scoped figures follow the existing budget summary (projects created in the window).
+     */
+    public KpiSnapshot aggregate(LocalDateTime start, LocalDateTime end) {
+        long startTime = System.currentTimeMillis();
+        KpiSnapshot kpis = new KpiSnapshot(start, end, LocalDate.now(), varianceThreshold);
+
+        ProjectFinanceSnapshotService.Snapshot projects = projectFinanceSnapshotService.current();
+        for (int slot = 0; slot < projects.size(); slot++) {
+            kpis.acceptProject(projects, slot);
+        }
+
+        kpis.monthlySpendingTrend = budgetRollupService.getSpendingTrend(start, end, BudgetRollupPeriod.MONTH, null);
+        for (Object[] row : budgetRollupService.getNetSpendingTrend(kpis.previousQuarterStart,
+                kpis.currentQuarterStart.plusMonths(3).minusDays(1), BudgetRollupPeriod.QUARTER)) {
+            kpis.acceptQuarter((LocalDate) row[0], (BigDecimal) row[1]);
+        }
+
+        logger.debug("Aggregated KPIs over {} projects in {}ms",
+                kpis.projectCount, System.currentTimeMillis() - startTime);
+        return kpis;
+    }
+
+    /**
+     * Accumulators filled by one pass, with read accessors for the finished figures.
+     */
+    public static final class KpiSnapshot {
+        private final long windowStartSecond;
+        private final long windowEndSecond;
+        private final long todayEpochDay;
+        private final LocalDate currentQuarterStart;
+        private final LocalDate previousQuarterStart;
+        private final BigDecimal varianceThreshold;
+
+        private long projectCount;
+        private long completedCount;
+        private long overdueCount;
+        private long totalAllocated;
+        private long totalSpent;
+
+        private long windowProjectCount;
+        private long windowAllocated;
+        private long windowSpent;
+
+        private long budgetAlertCount;
+        private long withinBudgetCount;
+        private long completedWithinBudgetCount;
+        private long accuracyEligibleCount;
+        private long accurateCount;
+        private long durationDays;
+        private long durationCount;
+
+        private final List<Map<String, Object>> overBudgetProjects = new ArrayList<>();
+        private final List<Map<String, Object>> highRiskProjects = new ArrayList<>();
+
+        private long currentQuarterSpend;
+        private long previousQuarterSpend;
+        private List<Object[]> monthlySpendingTrend = List.of();
+
+        private KpiSnapshot(LocalDateTime windowStart, LocalDateTime windowEnd, LocalDate today,
+                            BigDecimal varianceThreshold) {
+            this.windowStartSecond = ProjectFinanceSnapshotService.Snapshot.toEpochSecond(windowStart);
+            this.windowEndSecond = ProjectFinanceSnapshotService.Snapshot.toEpochSecond(windowEnd);
+            this.todayEpochDay = today.toEpochDay();
+            this.currentQuarterStart = today.with(IsoFields.DAY_OF_QUARTER, 1);
+            this.previousQuarterStart = currentQuarterStart.minusMonths(3);
+            this.varianceThreshold = varianceThreshold;
+        }
+
+        private void acceptProject(ProjectFinanceSnapshotService.Snapshot projects, int slot) {
+            long allocated = projects.allocatedMinor(slot);
+            long spent = projects.spentMinor(slot);
+            boolean completed = projects.isCompleted(slot);
+            long startDay = projects.startEpochDay(slot);
+            long endDay = projects.endEpochDay(slot);
+            long created = projects.createdEpochSecond(slot);
+
+            projectCount++;
+            totalAllocated += allocated;
+            totalSpent += spent;
+
+            if (created != ProjectFinanceSnapshotService.Snapshot.NO_DATE
+                    && created >= windowStartSecond && created <= windowEndSecond) {
+                windowProjectCount++;
+                windowAllocated += allocated;
+                windowSpent += spent;
+            }
+
+            if (completed) {
+                completedCount++;
+            } else if (endDay != ProjectFinanceSnapshotService.Snapshot.NO_DATE && endDay < todayEpochDay) {
+                overdueCount++;
+            }
+
+            if (spent <= allocated) {
+                withinBudgetCount++;
+                if (completed) {
+                    completedWithinBudgetCount++;
+                }
+            } else {
+                Map<String, Object> overBudget = new HashMap<>();
+                overBudget.put("projectId", projects.getId(slot));
+                overBudget.put("projectName", projects.getName(slot));
+                overBudget.put("overrun", fromMinorUnits(spent - allocated));
+                overBudgetProjects.add(overBudget);
+            }
+
+            if (allocated > 0) {
+                if (spent * 100 >= allocated * ALERT_UTILIZATION) {
+                    budgetAlertCount++;
+                }
+                if (spent * 100 >= allocated * HIGH_RISK_UTILIZATION) {
+                    Map<String, Object> riskProject = new HashMap<>();
+                    riskProject.put("projectId", projects.getId(slot));
+                    riskProject.put("projectName", projects.getName(slot));
+                    riskProject.put("riskLevel", "HIGH");
+                    highRiskProjects.add(riskProject);
+                }
+                if (completed) {
+                    accuracyEligibleCount++;
+                    BigDecimal variance = percentage(Math.abs(spent - allocated), allocated);
+                    if (variance.compareTo(varianceThreshold) <= 0) {
+                        accurateCount++;
+                    }
+                }
+            }
+
+            if (completed && startDay != ProjectFinanceSnapshotService.Snapshot.NO_DATE
+                    && endDay != ProjectFinanceSnapshotService.Snapshot.NO_DATE && endDay >= startDay) {
+                durationDays += endDay - startDay;
+                durationCount++;
+            }
+        }
+
+        private void acceptQuarter(LocalDate quarterStart, BigDecimal netSpending) {
+            if (quarterStart.equals(currentQuarterStart)) {
+                currentQuarterSpend = toMinorUnits(netSpending);
+            } else if (quarterStart.equals(previousQuarterStart)) {
+                previousQuarterSpend = toMinorUnits(netSpending);
+            }
+        }
+
+        public long getProjectCount() { return projectCount; }
+
+        public long getCompletedCount() { return completedCount; }
+
+        public long getOverdueCount() { return overdueCount; }
+
+        public long getBudgetAlertCount() { return budgetAlertCount; }
+
+        public BigDecimal getWindowAllocated() { return fromMinorUnits(windowAllocated); }
+
+        public BigDecimal getWindowSpent() { return fromMinorUnits(windowSpent); }
+
+        public long getWindowProjectCount() { return windowProjectCount; }
+
+        public List<Map<String, Object>> getOverBudgetProjects() { return overBudgetProjects; }
+
+        public List<Map<String, Object>> getHighRiskProjects() { return highRiskProjects; }
+
+        /**
+         * Spent / allocated across all active projects, as a percentage.
+         */
+        public BigDecimal getUtilizationRate() {
+            return percentage(totalSpent, totalAllocated);
+        }
+
+        /**
+         * (Spent - allocated) / allocated across all active projects; negative means under budget.
+         */
+        public BigDecimal getBudgetVariance() {
+            return percentage(totalSpent - totalAllocated, totalAllocated);
+        }
+
+        public BigDecimal getAverageCostPerProject() {
+            if (projectCount == 0) {
+                return BigDecimal.ZERO;
+            }
+            return Money.ofMinor(totalSpent).dividedBy(projectCount).toBigDecimal();
+        }
+
+        /**
+         * Share of projects spending within their allocation.
+         */
+        public BigDecimal getCostEfficiencyRatio() {
+            return percentage(withinBudgetCount, projectCount);
+        }
+
+        /**
+         * Share of completed projects that finished within the budget variance threshold.
+         */
+        public BigDecimal getBudgetAccuracy() {
+            return percentage(accurateCount, accuracyEligibleCount);
+        }
+
+        /**
+         * Share of completed projects that finished within budget.
+         */
+        public BigDecimal getProjectSuccessRate() {
+            return percentage(completedWithinBudgetCount, completedCount);
+        }
+
+        /**
+         * Average planned duration of completed projects, in months.
+         */
+        public Double getAverageProjectDurationMonths() {
+            if (durationCount == 0) {
+                return 0.0;
+            }
+            double months = durationDays / (double) durationCount / 30.4375;
+            return Math.round(months * 10.0) / 10.0;
+        }
+
+        /**
+         * Monthly spending in the window as (periodStart, amount, transactionCount) rows.
+         */
+        public List<Object[]> getMonthlySpendingTrend() {
+            return monthlySpendingTrend;
+        }
+
+        public Map<String, Object> getQuarterlyComparison() {
+            Map<String, Object> comparison = new HashMap<>();
+            comparison.put("currentQuarter", quarterLabel(currentQuarterStart));
+            comparison.put("previousQuarter", quarterLabel(previousQuarterStart));
+            comparison.put("currentQuarterSpending", fromMinorUnits(currentQuarterSpend));
+            comparison.put("previousQuarterSpending", fromMinorUnits(previousQuarterSpend));
+            comparison.put("growthRate", previousQuarterSpend != 0
+                    ? percentage(currentQuarterSpend - previousQuarterSpend, Math.abs(previousQuarterSpend))
+                    : null);
+            return comparison;
+        }
+
+        private String quarterLabel(LocalDate quarterStart) {
+            return "Q" + quarterStart.get(IsoFields.QUARTER_OF_YEAR) + " " + quarterStart.getYear();
+        }
+    }
+}
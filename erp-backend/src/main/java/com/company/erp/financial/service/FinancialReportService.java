@@ -1,10 +1,15 @@
 package com.company.erp.financial.service;
 
+import com.company.erp.common.constants.ApplicationConstants;
 import com.company.erp.common.exception.BusinessException;
 import com.company.erp.common.exception.ResourceNotFoundException;
 import com.company.erp.common.security.UserPrincipal;
+import com.company.erp.common.service.StatusCounterService;
+import com.company.erp.common.service.StreamingExportService;
+import com.company.erp.common.util.Money;
 import com.company.erp.financial.dto.response.FinancialDashboardResponse;
 import com.company.erp.financial.dto.response.FinancialReportResponse;
+import com.company.erp.financial.entity.BudgetRollupPeriod;
 import com.company.erp.financial.entity.Quotation;
 import com.company.erp.financial.entity.QuotationStatus;
 import com.company.erp.financial.repository.QuotationRepository;
@@ -12,23 +17,28 @@ import com.company.erp.financial.repository.BudgetTrackingRepository;
 import com.company.erp.project.entity.Project;
 import com.company.erp.project.repository.ProjectRepository;
 import com.company.erp.report.dto.request.ReportRequest;
+import com.company.erp.report.enums.ExportFormat;
 import com.company.erp.user.entity.User;
 import com.company.erp.user.repository.UserRepository;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -36,7 +46,13 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional(readOnly = true)
@@ -44,6 +60,15 @@ public class FinancialReportService {
 
     private static final Logger logger = LoggerFactory.getLogger(FinancialReportService.class);
 
+    // Keeps IN (:ids) lists well below driver/database bind-parameter limits
+    private static final int IN_CLAUSE_CHUNK_SIZE = 500;
+    private static final BigDecimal FULL_UTILIZATION = new BigDecimal("100");
+    private static final BigDecimal HIGH_UTILIZATION = new BigDecimal("90");
+    private static final BigDecimal VARIANCE_TOLERANCE = new BigDecimal("10");
+    private static final List<String> PROJECT_SUMMARY_HEADERS = List.of(
+            "Project ID", "Project Name", "Manager", "Allocated Budget", "Spent Amount",
+            "Remaining Budget", "Utilization %", "Status");
+
     @Autowired
     private QuotationRepository quotationRepository;
 
@@ -56,12 +81,44 @@ public class FinancialReportService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private BudgetRollupService budgetRollupService;
+
+    @Autowired
+    private ProjectFinanceSnapshotService projectFinanceSnapshotService;
+
+    @Autowired
+    private BudgetForecastService budgetForecastService;
+
+    @Autowired
+    private FinancialKpiAggregator financialKpiAggregator;
+
+    @Autowired
+    private StreamingExportService streamingExportService;
+
+    @Autowired
+    private StatusCounterService statusCounterService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("dashboardExecutor")
+    private Executor dashboardExecutor;
+
     @Value("${app.file.upload-dir:./uploads}")
     private String uploadDir;
 
     /**
-     * Get comprehensive financial dashboard
+     * Get comprehensive financial dashboard.
+     *
+     * Sections are independent, so they run in parallel on the report executor, each in its own
+     * read-only transaction; the caller holds no connection while waiting. Identical repository
+     * calls across sections are collapsed through a per-request memo.
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @Cacheable(cacheNames = ApplicationConstants.Cache.DASHBOARD_DATA,
+            keyGenerator = ApplicationConstants.Cache.DASHBOARD_KEY_GENERATOR)
     public FinancialDashboardResponse getFinancialDashboard(LocalDate startDate, LocalDate endDate, Long userId) {
         logger.info("Generating financial dashboard for date range: {} to {}", startDate, endDate);
 
@@ -71,44 +128,76 @@ public class FinancialReportService {
         LocalDateTime start = startDate != null ? startDate.atStartOfDay() : LocalDateTime.now().minusMonths(6);
         LocalDateTime end = endDate != null ? endDate.atTime(23, 59, 59) : LocalDateTime.now();
 
-        FinancialDashboardResponse dashboard = new FinancialDashboardResponse();
+        QueryMemo memo = new QueryMemo();
+        Map<String, Long> sectionTimings = new ConcurrentHashMap<>();
 
         // Key Financial Metrics
-        dashboard.setTotalAllocatedBudget(getTotalAllocatedBudget(start, end));
-        dashboard.setTotalSpentAmount(getTotalSpentAmount(start, end));
+        CompletableFuture<BigDecimal> allocated = runSection("totalAllocatedBudget", sectionTimings,
+                () -> getTotalAllocatedBudget(start, end, memo));
+        CompletableFuture<BigDecimal> spent = runSection("totalSpentAmount", sectionTimings,
+                () -> getTotalSpentAmount(start, end, memo));
+
+        // Quotation Statistics (in-memory counters)
+        CompletableFuture<Long> pendingCount = runSection("pendingQuotations", sectionTimings,
+                () -> statusCounterService.quotations().count(QuotationStatus.SUBMITTED));
+        CompletableFuture<Long> approvedCount = runSection("approvedQuotations", sectionTimings,
+                () -> statusCounterService.quotations().count(QuotationStatus.APPROVED));
+        CompletableFuture<Long> totalCount = runSection("totalQuotations", sectionTimings,
+                () -> statusCounterService.quotations().total());
+
+        // Recent Activity
+        CompletableFuture<List<Map<String, Object>>> recentTransactions = runSection("recentTransactions", sectionTimings,
+                () -> getRecentTransactions(10));
+        CompletableFuture<List<Map<String, Object>>> budgetAlerts = runSection("budgetAlerts", sectionTimings,
+                this::getBudgetAlerts);
+        CompletableFuture<List<Map<String, Object>>> topSpending = runSection("topSpendingProjects", sectionTimings,
+                () -> getTopSpendingProjects(5));
+
+        // Monthly Trends
+        CompletableFuture<List<Object[]>> monthlyTrend = runSection("monthlySpendingTrend", sectionTimings,
+                () -> getMonthlySpendingTrend(start, end));
+        CompletableFuture<Map<String, BigDecimal>> categorySpending = runSection("categoryWiseSpending", sectionTimings,
+                () -> getCategoryWiseSpending(start, end));
+
+        awaitSections(allocated, spent, pendingCount, approvedCount, totalCount,
+                recentTransactions, budgetAlerts, topSpending, monthlyTrend, categorySpending);
+
+        FinancialDashboardResponse dashboard = new FinancialDashboardResponse();
+
+        dashboard.setTotalAllocatedBudget(allocated.join());
+        dashboard.setTotalSpentAmount(spent.join());
         dashboard.setTotalRemainingBudget(dashboard.getTotalAllocatedBudget().subtract(dashboard.getTotalSpentAmount()));
 
         // Calculate utilization percentage
         if (dashboard.getTotalAllocatedBudget().compareTo(BigDecimal.ZERO) > 0) {
-            BigDecimal utilization = dashboard.getTotalSpentAmount()
-                    .divide(dashboard.getTotalAllocatedBudget(), 4, RoundingMode.HALF_UP)
-                    .multiply(new BigDecimal("100"));
-            dashboard.setOverallUtilizationPercentage(utilization);
+            dashboard.setOverallUtilizationPercentage(Money.of(dashboard.getTotalSpentAmount())
+                    .percentOf(Money.of(dashboard.getTotalAllocatedBudget())));
         }
 
-        // Quotation Statistics
-        dashboard.setPendingQuotationsCount(quotationRepository.countByStatus(QuotationStatus.SUBMITTED));
-        dashboard.setApprovedQuotationsCount(quotationRepository.countByStatus(QuotationStatus.APPROVED));
-        dashboard.setTotalQuotationsCount(quotationRepository.countActiveQuotations());
+        dashboard.setPendingQuotationsCount(pendingCount.join());
+        dashboard.setApprovedQuotationsCount(approvedCount.join());
+        dashboard.setTotalQuotationsCount(totalCount.join());
 
-        // Recent Activity
-        dashboard.setRecentTransactions(getRecentTransactions(10));
-        dashboard.setBudgetAlerts(getBudgetAlerts());
-        dashboard.setTopSpendingProjects(getTopSpendingProjects(5));
+        dashboard.setRecentTransactions(recentTransactions.join());
+        dashboard.setBudgetAlerts(budgetAlerts.join());
+        dashboard.setTopSpendingProjects(topSpending.join());
 
-        // Monthly Trends
-        dashboard.setMonthlySpendingTrend(getMonthlySpendingTrend(start, end));
-        dashboard.setCategoryWiseSpending(getCategoryWiseSpending(start, end));
+        dashboard.setMonthlySpendingTrend(monthlyTrend.join());
+        dashboard.setCategoryWiseSpending(categorySpending.join());
 
         dashboard.setGeneratedAt(LocalDateTime.now());
 
-        logger.info("Financial dashboard generated successfully");
+        // Timings are logged, not returned: the response is cached and would replay them on every hit
+        logger.info("Financial dashboard generated successfully, section timings (ms): {}",
+                new TreeMap<>(sectionTimings));
         return dashboard;
     }
 
     /**
      * Get project manager specific dashboard
      */
+    @Cacheable(cacheNames = ApplicationConstants.Cache.DASHBOARD_DATA,
+            keyGenerator = ApplicationConstants.Cache.USER_DASHBOARD_KEY_GENERATOR)
     public FinancialDashboardResponse getProjectManagerDashboard(LocalDate startDate, LocalDate endDate, Long userId) {
         logger.info("Generating project manager dashboard for user: {}", userId);
 
@@ -117,25 +206,35 @@ public class FinancialReportService {
         LocalDateTime start = startDate != null ? startDate.atStartOfDay() : LocalDateTime.now().minusMonths(3);
         LocalDateTime end = endDate != null ? endDate.atTime(23, 59, 59) : LocalDateTime.now();
 
-        // Get projects managed by this user
-        List<Project> managedProjects = projectRepository.findByManagerIdAndActiveTrue(userId);
-        List<Long> projectIds = managedProjects.stream().map(Project::getId).collect(Collectors.toList());
+        // Budget figures of the managed projects, read once and reused for the totals
+        List<Map<String, Object>> budgetStatus = getProjectBudgetStatusList(userId);
+        List<Long> projectIds = new ArrayList<>(budgetStatus.size());
+        long allocatedMinor = 0;
+        long spentMinor = 0;
+        for (Map<String, Object> status : budgetStatus) {
+            projectIds.add((Long) status.get("projectId"));
+            allocatedMinor = Math.addExact(allocatedMinor, Money.toMinorUnits((BigDecimal) status.get("allocatedBudget")));
+            spentMinor = Math.addExact(spentMinor, Money.toMinorUnits((BigDecimal) status.get("spentAmount")));
+        }
+        BigDecimal totalAllocated = Money.fromMinorUnits(allocatedMinor);
+        BigDecimal totalSpent = Money.fromMinorUnits(spentMinor);
 
         FinancialDashboardResponse dashboard = new FinancialDashboardResponse();
 
         // Calculate totals for managed projects only
-        dashboard.setTotalAllocatedBudget(getTotalAllocatedBudgetForProjects(projectIds));
-        dashboard.setTotalSpentAmount(getTotalSpentAmountForProjects(projectIds));
-        dashboard.setTotalRemainingBudget(dashboard.getTotalAllocatedBudget().subtract(dashboard.getTotalSpentAmount()));
+        dashboard.setTotalAllocatedBudget(totalAllocated);
+        dashboard.setTotalSpentAmount(totalSpent);
+        dashboard.setTotalRemainingBudget(totalAllocated.subtract(totalSpent));
 
         // Project-specific metrics
-        dashboard.setActiveProjectsCount((long) managedProjects.size());
-        dashboard.setPendingQuotationsCount(getPendingQuotationsCountForProjects(projectIds));
-        dashboard.setApprovedQuotationsCount(getApprovedQuotationsCountForProjects(projectIds));
+        Map<QuotationStatus, Long> quotationCounts = getQuotationCountsForProjects(projectIds);
+        dashboard.setActiveProjectsCount((long) projectIds.size());
+        dashboard.setPendingQuotationsCount(quotationCounts.getOrDefault(QuotationStatus.SUBMITTED, 0L));
+        dashboard.setApprovedQuotationsCount(quotationCounts.getOrDefault(QuotationStatus.APPROVED, 0L));
 
         // Recent activity for managed projects
         dashboard.setRecentTransactions(getRecentTransactionsForProjects(projectIds, 10));
-        dashboard.setProjectBudgetStatus(getProjectBudgetStatusList(projectIds));
+        dashboard.setProjectBudgetStatus(budgetStatus);
 
         dashboard.setGeneratedAt(LocalDateTime.now());
 
@@ -245,7 +344,7 @@ public class FinancialReportService {
         Map<String, Object> analysis = new HashMap<>();
 
         // Category-wise analysis
-        List<Object[]> categoryData = budgetTrackingRepository.getBudgetTrackingByCategory();
+        List<Object[]> categoryData = budgetRollupService.getCategoryTotals(start, end);
         analysis.put("categoryBreakdown", categoryData);
 
         // Project-wise analysis if specified
@@ -275,38 +374,30 @@ public class FinancialReportService {
         Map<String, Object> analysis = new HashMap<>();
         List<Map<String, Object>> projectVariances = new ArrayList<>();
 
-        List<Project> projects;
+        Money totalAllocated = Money.zero();
+        Money totalSpent = Money.zero();
+
         if (projectIds != null && !projectIds.isEmpty()) {
-            projects = projectRepository.findAllById(projectIds);
+            for (Project project : projectRepository.findAllById(projectIds)) {
+                Money allocated = Money.of(project.getAllocatedBudget());
+                Money spent = Money.of(project.getSpentAmount());
+                projectVariances.add(buildVariance(project.getId(), project.getName(), allocated, spent));
+                totalAllocated = totalAllocated.plus(allocated);
+                totalSpent = totalSpent.plus(spent);
+            }
         } else {
-            projects = projectRepository.findByActiveTrue();
-        }
-
-        for (Project project : projects) {
-            Map<String, Object> variance = new HashMap<>();
-            variance.put("projectId", project.getId());
-            variance.put("projectName", project.getName());
-            variance.put("allocatedBudget", project.getAllocatedBudget());
-            variance.put("spentAmount", project.getSpentAmount());
-            variance.put("remainingBudget", project.getRemainingBudget());
-
-            // Calculate variance
-            BigDecimal varianceAmount = project.getSpentAmount().subtract(project.getAllocatedBudget());
-            BigDecimal variancePercentage = BigDecimal.ZERO;
-            if (project.getAllocatedBudget().compareTo(BigDecimal.ZERO) > 0) {
-                variancePercentage = varianceAmount.divide(project.getAllocatedBudget(), 4, RoundingMode.HALF_UP)
-                        .multiply(new BigDecimal("100"));
+            ProjectFinanceSnapshotService.Snapshot snapshot = projectFinanceSnapshotService.current();
+            for (int slot = 0; slot < snapshot.size(); slot++) {
+                Money allocated = snapshot.allocatedMoney(slot);
+                Money spent = snapshot.spentMoney(slot);
+                projectVariances.add(buildVariance(snapshot.getId(slot), snapshot.getName(slot), allocated, spent));
+                totalAllocated = totalAllocated.plus(allocated);
+                totalSpent = totalSpent.plus(spent);
             }
-
-            variance.put("varianceAmount", varianceAmount);
-            variance.put("variancePercentage", variancePercentage);
-            variance.put("status", getVarianceStatus(variancePercentage));
-
-            projectVariances.add(variance);
         }
 
         analysis.put("projectVariances", projectVariances);
-        analysis.put("overallVariance", calculateOverallVariance(projectVariances));
+        analysis.put("overallVariance", calculateOverallVariance(totalAllocated, totalSpent));
         analysis.put("analysisDate", LocalDateTime.now());
 
         return analysis;
@@ -318,19 +409,8 @@ public class FinancialReportService {
     public Object getFinancialForecasting(List<Long> projectIds, int monthsAhead, String forecastMethod) {
         Map<String, Object> forecast = new HashMap<>();
 
-        List<Project> projects;
-        if (projectIds != null && !projectIds.isEmpty()) {
-            projects = projectRepository.findAllById(projectIds);
-        } else {
-            projects = projectRepository.findByActiveTrue();
-        }
-
-        List<Map<String, Object>> projectForecasts = new ArrayList<>();
-
-        for (Project project : projects) {
-            Map<String, Object> projectForecast = generateProjectForecast(project, monthsAhead, forecastMethod);
-            projectForecasts.add(projectForecast);
-        }
+        List<Map<String, Object>> projectForecasts =
+                budgetForecastService.forecastProjects(projectIds, monthsAhead, forecastMethod);
 
         forecast.put("projectForecasts", projectForecasts);
         forecast.put("overallForecast", calculateOverallForecast(projectForecasts));
@@ -344,31 +424,35 @@ public class FinancialReportService {
     /**
      * Get executive summary
      */
+    @Cacheable(cacheNames = ApplicationConstants.Cache.PROJECT_SUMMARIES,
+            keyGenerator = ApplicationConstants.Cache.DASHBOARD_KEY_GENERATOR)
     public Object getExecutiveSummary(LocalDate startDate, LocalDate endDate) {
         LocalDateTime start = startDate != null ? startDate.atStartOfDay() : LocalDateTime.now().minusMonths(6);
         LocalDateTime end = endDate != null ? endDate.atTime(23, 59, 59) : LocalDateTime.now();
 
         Map<String, Object> summary = new HashMap<>();
+        FinancialKpiAggregator.KpiSnapshot kpis = financialKpiAggregator.aggregate(start, end);
 
         // High-level metrics
-        summary.put("totalBudgetAllocated", getTotalAllocatedBudget(start, end));
-        summary.put("totalAmountSpent", getTotalSpentAmount(start, end));
-        summary.put("activeProjectsCount", projectRepository.countByActiveTrue());
-        summary.put("completedProjectsCount", projectRepository.countByStatusAndActiveTrue("COMPLETED"));
+        summary.put("totalBudgetAllocated", kpis.getWindowAllocated());
+        summary.put("totalAmountSpent", kpis.getWindowSpent());
+        summary.put("activeProjectsCount", kpis.getProjectCount());
+        summary.put("completedProjectsCount", kpis.getCompletedCount());
+        summary.put("overdueProjectsCount", kpis.getOverdueCount());
 
         // Performance indicators
-        summary.put("budgetUtilizationRate", calculateOverallUtilizationRate());
-        summary.put("averageProjectDuration", calculateAverageProjectDuration());
-        summary.put("costEfficiencyRatio", calculateCostEfficiencyRatio());
+        summary.put("budgetUtilizationRate", kpis.getUtilizationRate());
+        summary.put("averageProjectDuration", kpis.getAverageProjectDurationMonths());
+        summary.put("costEfficiencyRatio", kpis.getCostEfficiencyRatio());
 
         // Risk indicators
-        summary.put("projectsOverBudget", getProjectsOverBudget());
-        summary.put("budgetAlertsCount", getBudgetAlertsCount());
-        summary.put("riskProjects", getHighRiskProjects());
+        summary.put("projectsOverBudget", kpis.getOverBudgetProjects());
+        summary.put("budgetAlertsCount", kpis.getBudgetAlertCount());
+        summary.put("riskProjects", kpis.getHighRiskProjects());
 
         // Trends
-        summary.put("spendingTrend", getExecutiveSpendingTrend(start, end));
-        summary.put("quarterComparison", getQuarterlyComparison());
+        summary.put("spendingTrend", kpis.getMonthlySpendingTrend());
+        summary.put("quarterComparison", kpis.getQuarterlyComparison());
 
         return summary;
     }
@@ -393,28 +477,34 @@ public class FinancialReportService {
     }
 
     /**
-     * Export financial report
+     * Export the project financial summary as a streamed Excel or CSV body.
+     *
+     * Access is checked up front; the summary rows are read through a server-side cursor inside
+     * the returned body and written as they arrive, so nothing is collected in memory or on disk.
      */
-    public String exportFinancialReport(ReportRequest request, String format, Long userId) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public StreamingResponseBody exportFinancialReport(ReportRequest request, ExportFormat format) {
         logger.info("Exporting financial report in format: {}", format);
 
-        try {
-            FinancialReportResponse report = generateFinancialReport(request, userId);
-
-            switch (format.toUpperCase()) {
-                case "EXCEL":
-                    return exportToExcel(report);
-                case "PDF":
-                    return exportToPDF(report);
-                case "CSV":
-                    return exportToCSV(report);
-                default:
-                    throw new BusinessException("INVALID_FORMAT", "Unsupported export format: " + format);
+        UserPrincipal currentUser = getCurrentUser();
+        validateReportAccess(currentUser);
+
+        List<Long> projectIds = request.getProjectIds();
+
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+
+        return out -> readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<Object[]> rows = projectIds != null && !projectIds.isEmpty()
+                    ? projectRepository.streamFinancialSummaryRowsForProjects(projectIds)
+                    : projectRepository.streamFinancialSummaryRows()) {
+                long count = streamingExportService.write(format, out, "Project Summary", PROJECT_SUMMARY_HEADERS,
+                        rows, this::toProjectSummaryRow);
+                logger.info("Financial report export completed: {} projects", count);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
-        } catch (Exception e) {
-            logger.error("Failed to export financial report", e);
-            throw new BusinessException("EXPORT_FAILED", "Failed to export report: " + e.getMessage());
-        }
+        });
     }
 
     /**
@@ -425,11 +515,12 @@ public class FinancialReportService {
         LocalDateTime end = endDate != null ? endDate.atTime(23, 59, 59) : LocalDateTime.now();
 
         Map<String, Object> kpis = new HashMap<>();
+        FinancialKpiAggregator.KpiSnapshot aggregate = financialKpiAggregator.aggregate(start, end);
 
         // Budget KPIs
-        kpis.put("budgetUtilizationRate", calculateOverallUtilizationRate());
-        kpis.put("budgetVariancePercentage", calculateOverallBudgetVariance());
-        kpis.put("costPerProject", calculateAverageCostPerProject());
+        kpis.put("budgetUtilizationRate", aggregate.getUtilizationRate());
+        kpis.put("budgetVariancePercentage", aggregate.getBudgetVariance());
+        kpis.put("costPerProject", aggregate.getAverageCostPerProject());
 
         // Efficiency KPIs
         kpis.put("approvalCycleTime", calculateAverageApprovalTime());
@@ -437,7 +528,7 @@ public class FinancialReportService {
         kpis.put("documentProcessingEfficiency", calculateDocumentEfficiency());
 
         // Quality KPIs
-        kpis.put("budgetAccuracyRate", calculateBudgetAccuracy());
+        kpis.put("budgetAccuracyRate", aggregate.getBudgetAccuracy());
         kpis.put("forecastAccuracy", calculateForecastAccuracy());
         kpis.put("complianceScore", calculateComplianceScore());
 
@@ -449,21 +540,27 @@ public class FinancialReportService {
      */
     public Object getPerformanceMetrics(LocalDate startDate, LocalDate endDate, String metricType) {
         Map<String, Object> metrics = new HashMap<>();
+        String type = metricType != null ? metricType.toUpperCase() : "ALL";
+
+        // One aggregation pass shared by the financial and project sections
+        FinancialKpiAggregator.KpiSnapshot kpis = "OPERATIONAL".equals(type) ? null : financialKpiAggregator.aggregate(
+                startDate != null ? startDate.atStartOfDay() : LocalDateTime.now().minusMonths(3),
+                endDate != null ? endDate.atTime(23, 59, 59) : LocalDateTime.now());
 
-        switch (metricType != null ? metricType.toUpperCase() : "ALL") {
+        switch (type) {
             case "FINANCIAL":
-                metrics.put("financialMetrics", getFinancialPerformanceMetrics(startDate, endDate));
+                metrics.put("financialMetrics", getFinancialPerformanceMetrics(kpis));
                 break;
             case "OPERATIONAL":
                 metrics.put("operationalMetrics", getOperationalPerformanceMetrics(startDate, endDate));
                 break;
             case "PROJECT":
-                metrics.put("projectMetrics", getProjectPerformanceMetrics(startDate, endDate));
+                metrics.put("projectMetrics", getProjectPerformanceMetrics(kpis));
                 break;
             default:
-                metrics.put("financialMetrics", getFinancialPerformanceMetrics(startDate, endDate));
+                metrics.put("financialMetrics", getFinancialPerformanceMetrics(kpis));
                 metrics.put("operationalMetrics", getOperationalPerformanceMetrics(startDate, endDate));
-                metrics.put("projectMetrics", getProjectPerformanceMetrics(startDate, endDate));
+                metrics.put("projectMetrics", getProjectPerformanceMetrics(kpis));
         }
 
         return metrics;
@@ -493,137 +590,161 @@ public class FinancialReportService {
         }
     }
 
-    private BigDecimal getTotalAllocatedBudget(LocalDateTime start, LocalDateTime end) {
-        List<Object[]> summary = budgetTrackingRepository.getBudgetSummary(start, end);
+    private BigDecimal getTotalAllocatedBudget(LocalDateTime start, LocalDateTime end, QueryMemo memo) {
+        List<Object[]> summary = getBudgetSummary(start, end, memo);
         return !summary.isEmpty() ? (BigDecimal) summary.get(0)[0] : BigDecimal.ZERO;
     }
 
-    private BigDecimal getTotalSpentAmount(LocalDateTime start, LocalDateTime end) {
-        List<Object[]> summary = budgetTrackingRepository.getBudgetSummary(start, end);
+    private BigDecimal getTotalSpentAmount(LocalDateTime start, LocalDateTime end, QueryMemo memo) {
+        List<Object[]> summary = getBudgetSummary(start, end, memo);
         return !summary.isEmpty() ? (BigDecimal) summary.get(0)[1] : BigDecimal.ZERO;
     }
 
-    private BigDecimal getTotalAllocatedBudgetForProjects(List<Long> projectIds) {
-        if (projectIds.isEmpty()) return BigDecimal.ZERO;
-
-        return projectIds.stream()
-                .map(id -> projectRepository.findById(id))
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .map(Project::getAllocatedBudget)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    private List<Object[]> getBudgetSummary(LocalDateTime start, LocalDateTime end, QueryMemo memo) {
+        return memo.get("budgetSummary:" + start + ":" + end,
+                () -> budgetTrackingRepository.getBudgetSummary(start, end));
     }
 
-    private BigDecimal getTotalSpentAmountForProjects(List<Long> projectIds) {
-        if (projectIds.isEmpty()) return BigDecimal.ZERO;
+    private <T> CompletableFuture<T> runSection(String section, Map<String, Long> timings, Supplier<T> query) {
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
 
-        return projectIds.stream()
-                .map(id -> projectRepository.findById(id))
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .map(Project::getSpentAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return CompletableFuture.supplyAsync(() -> {
+            long startTime = System.currentTimeMillis();
+            try {
+                return readOnlyTransaction.execute(status -> query.get());
+            } finally {
+                timings.put(section, System.currentTimeMillis() - startTime);
+            }
+        }, dashboardExecutor);
     }
 
-    private long getPendingQuotationsCountForProjects(List<Long> projectIds) {
-        // This would need a custom repository method
-        return 0; // Placeholder
+    private void awaitSections(CompletableFuture<?>... sections) {
+        try {
+            CompletableFuture.allOf(sections).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new BusinessException("DASHBOARD_FAILED", "Failed to assemble dashboard: " + e.getMessage());
+        }
     }
 
-    private long getApprovedQuotationsCountForProjects(List<Long> projectIds) {
-        // This would need a custom repository method
-        return 0; // Placeholder
+    private Map<QuotationStatus, Long> getQuotationCountsForProjects(List<Long> projectIds) {
+        Map<QuotationStatus, Long> counts = new EnumMap<>(QuotationStatus.class);
+        for (List<Long> chunk : chunkIds(projectIds)) {
+            for (Object[] row : quotationRepository.countByStatusForProjects(chunk)) {
+                counts.merge((QuotationStatus) row[0], ((Number) row[1]).longValue(), Long::sum);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Split an id list into IN-clause sized chunks; an empty list yields no chunks (and no queries).
+     */
+    private List<List<Long>> chunkIds(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+            chunks.add(ids.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, ids.size())));
+        }
+        return chunks;
     }
 
     private List<Map<String, Object>> getRecentTransactions(int limit) {
-        // Get recent budget tracking transactions
-        List<Map<String, Object>> transactions = new ArrayList<>();
-        // Implementation would fetch from BudgetTrackingRepository
-        return transactions;
+        return budgetTrackingRepository.findRecentTransactionRows(PageRequest.of(0, limit)).stream()
+                .map(this::toTransactionMap)
+                .collect(Collectors.toList());
     }
 
     private List<Map<String, Object>> getRecentTransactionsForProjects(List<Long> projectIds, int limit) {
-        // Get recent transactions for specific projects
-        List<Map<String, Object>> transactions = new ArrayList<>();
-        // Implementation would fetch from BudgetTrackingRepository
-        return transactions;
+        // Each chunk returns its own newest rows; the overall newest are among them
+        List<Object[]> rows = new ArrayList<>();
+        for (List<Long> chunk : chunkIds(projectIds)) {
+            rows.addAll(budgetTrackingRepository.findRecentTransactionRowsForProjects(chunk, PageRequest.of(0, limit)));
+        }
+        rows.sort(Comparator.comparing((Object[] row) -> (LocalDateTime) row[7], Comparator.nullsLast(Comparator.reverseOrder()))
+                .thenComparing(row -> (Long) row[0], Comparator.reverseOrder()));
+        return rows.stream().limit(limit).map(this::toTransactionMap).collect(Collectors.toList());
+    }
+
+    private Map<String, Object> toTransactionMap(Object[] row) {
+        Map<String, Object> transaction = new HashMap<>();
+        transaction.put("id", row[0]);
+        transaction.put("projectId", row[1]);
+        transaction.put("projectName", row[2]);
+        transaction.put("trackingType", row[3]);
+        transaction.put("category", row[4]);
+        transaction.put("amount", row[5]);
+        transaction.put("description", row[6]);
+        transaction.put("transactionDate", row[7]);
+        return transaction;
     }
 
     private List<Map<String, Object>> getBudgetAlerts() {
         List<Map<String, Object>> alerts = new ArrayList<>();
 
-        List<Project> projects = projectRepository.findByActiveTrue();
-        for (Project project : projects) {
-            BigDecimal utilizationPercentage = BigDecimal.ZERO;
-            if (project.getAllocatedBudget().compareTo(BigDecimal.ZERO) > 0) {
-                utilizationPercentage = project.getSpentAmount()
-                        .divide(project.getAllocatedBudget(), 4, RoundingMode.HALF_UP)
-                        .multiply(new BigDecimal("100"));
-            }
-
-            if (utilizationPercentage.compareTo(new BigDecimal("80")) >= 0) {
-                Map<String, Object> alert = new HashMap<>();
-                alert.put("projectId", project.getId());
-                alert.put("projectName", project.getName());
-                alert.put("utilization", utilizationPercentage);
-                alert.put("alertLevel", utilizationPercentage.compareTo(new BigDecimal("100")) > 0 ? "CRITICAL" :
-                        utilizationPercentage.compareTo(new BigDecimal("90")) >= 0 ? "HIGH" : "WARNING");
-                alerts.add(alert);
-            }
+        ProjectFinanceSnapshotService.Snapshot snapshot = projectFinanceSnapshotService.current();
+        for (int slot : snapshot.slotsAtOrAboveUtilization(80)) {
+            BigDecimal utilizationPercentage = snapshot.utilization(slot);
+
+            Map<String, Object> alert = new HashMap<>();
+            alert.put("projectId", snapshot.getId(slot));
+            alert.put("projectName", snapshot.getName(slot));
+            alert.put("utilization", utilizationPercentage);
+            alert.put("alertLevel", utilizationPercentage.compareTo(FULL_UTILIZATION) > 0 ? "CRITICAL" :
+                    utilizationPercentage.compareTo(HIGH_UTILIZATION) >= 0 ? "HIGH" : "WARNING");
+            alerts.add(alert);
         }
 
         return alerts;
     }
 
     private List<Map<String, Object>> getTopSpendingProjects(int limit) {
-        List<Project> projects = projectRepository.findByActiveTrueOrderBySpentAmountDesc();
+        List<Map<String, Object>> topProjects = new ArrayList<>();
+
+        ProjectFinanceSnapshotService.Snapshot snapshot = projectFinanceSnapshotService.current();
+        for (int slot : snapshot.topSpendingSlots(limit)) {
+            Map<String, Object> projectData = new HashMap<>();
+            projectData.put("projectId", snapshot.getId(slot));
+            projectData.put("projectName", snapshot.getName(slot));
+            projectData.put("spentAmount", snapshot.getSpentAmount(slot));
+            projectData.put("allocatedBudget", snapshot.getAllocatedBudget(slot));
+            topProjects.add(projectData);
+        }
 
-        return projects.stream()
-                .limit(limit)
-                .map(project -> {
-                    Map<String, Object> projectData = new HashMap<>();
-                    projectData.put("projectId", project.getId());
-                    projectData.put("projectName", project.getName());
-                    projectData.put("spentAmount", project.getSpentAmount());
-                    projectData.put("allocatedBudget", project.getAllocatedBudget());
-                    return projectData;
-                })
-                .collect(Collectors.toList());
+        return topProjects;
     }
 
-    private List<Map<String, Object>> getProjectBudgetStatusList(List<Long> projectIds) {
-        return projectIds.stream()
-                .map(projectRepository::findById)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .map(project -> {
-                    Map<String, Object> status = new HashMap<>();
-                    status.put("projectId", project.getId());
-                    status.put("projectName", project.getName());
-                    status.put("allocatedBudget", project.getAllocatedBudget());
-                    status.put("spentAmount", project.getSpentAmount());
-                    status.put("remainingBudget", project.getRemainingBudget());
-
-                    BigDecimal utilization = BigDecimal.ZERO;
-                    if (project.getAllocatedBudget().compareTo(BigDecimal.ZERO) > 0) {
-                        utilization = project.getSpentAmount()
-                                .divide(project.getAllocatedBudget(), 4, RoundingMode.HALF_UP)
-                                .multiply(new BigDecimal("100"));
-                    }
-                    status.put("utilizationPercentage", utilization);
-
-                    return status;
-                })
-                .collect(Collectors.toList());
+    private List<Map<String, Object>> getProjectBudgetStatusList(Long managerId) {
+        List<Object[]> rows = projectRepository.getBudgetStatusForManager(managerId);
+        List<Map<String, Object>> statusList = new ArrayList<>(rows.size());
+
+        for (Object[] row : rows) {
+            BigDecimal allocatedBudget = (BigDecimal) row[2];
+            BigDecimal spentAmount = (BigDecimal) row[3];
+
+            Map<String, Object> status = new HashMap<>();
+            status.put("projectId", row[0]);
+            status.put("projectName", row[1]);
+            status.put("allocatedBudget", allocatedBudget);
+            status.put("spentAmount", spentAmount);
+            status.put("remainingBudget", row[4]);
+            status.put("utilizationPercentage",
+                    Money.percentage(Money.toMinorUnits(spentAmount), Money.toMinorUnits(allocatedBudget)));
+
+            statusList.add(status);
+        }
+
+        return statusList;
     }
 
     private List<Object[]> getMonthlySpendingTrend(LocalDateTime start, LocalDateTime end) {
-        // This would call a custom repository method for monthly aggregation
-        return new ArrayList<>();
+        return budgetRollupService.getSpendingTrend(start, end, BudgetRollupPeriod.MONTH, null);
     }
 
     private Map<String, BigDecimal> getCategoryWiseSpending(LocalDateTime start, LocalDateTime end) {
-        List<Object[]> categoryData = budgetTrackingRepository.getBudgetTrackingByCategory();
+        List<Object[]> categoryData = budgetRollupService.getCategoryTotals(start, end);
         Map<String, BigDecimal> categorySpending = new HashMap<>();
 
         for (Object[] data : categoryData) {
@@ -657,31 +778,48 @@ public class FinancialReportService {
         return new FinancialReportResponse();
     }
 
-    private String exportToCSV(FinancialReportResponse report) {
-        // CSV export implementation
-        return "csv_export_placeholder.csv";
+    private Object[] toProjectSummaryRow(Object[] row) {
+        BigDecimal allocatedBudget = (BigDecimal) row[3];
+        BigDecimal spentAmount = (BigDecimal) row[4];
+        return new Object[]{
+                row[0],
+                row[1],
+                row[2],
+                allocatedBudget,
+                spentAmount,
+                row[5],
+                Money.percentage(Money.toMinorUnits(spentAmount), Money.toMinorUnits(allocatedBudget)),
+                row[6]
+        };
     }
 
     private List<Object[]> getSpendingTrendsByProjects(List<Long> projectIds, LocalDateTime start, LocalDateTime end, String period) {
-        // Implementation for project-specific spending trends
-        return new ArrayList<>();
+        return budgetRollupService.getSpendingTrend(start, end, toRollupPeriod(period), projectIds);
     }
 
     private List<Object[]> getSpendingTrendsByPeriod(LocalDateTime start, LocalDateTime end, String period) {
-        // Implementation for overall spending trends
-        return new ArrayList<>();
+        return budgetRollupService.getSpendingTrend(start, end, toRollupPeriod(period), null);
+    }
+
+    private BudgetRollupPeriod toRollupPeriod(String period) {
+        return BudgetRollupPeriod.fromReportPeriod(period);
     }
 
     private BigDecimal calculateTotalSpending(List<Object[]> trendData) {
-        return trendData.stream()
-                .map(data -> (BigDecimal) data[1])
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return Money.fromMinorUnits(sumSpendingMinorUnits(trendData));
     }
 
     private BigDecimal calculateAverageSpending(List<Object[]> trendData) {
         if (trendData.isEmpty()) return BigDecimal.ZERO;
-        BigDecimal total = calculateTotalSpending(trendData);
-        return total.divide(new BigDecimal(trendData.size()), RoundingMode.HALF_UP);
+        return Money.ofMinor(sumSpendingMinorUnits(trendData)).dividedBy(trendData.size()).toBigDecimal();
+    }
+
+    private long sumSpendingMinorUnits(List<Object[]> trendData) {
+        long total = 0;
+        for (Object[] data : trendData) {
+            total = Math.addExact(total, Money.toMinorUnits((BigDecimal) data[1]));
+        }
+        return total;
     }
 
     private BigDecimal calculateProjectedSpending(List<Object[]> trendData, String period) {
@@ -702,77 +840,53 @@ public class FinancialReportService {
     }
 
     private List<Object[]> getTopCostCategories(LocalDateTime start, LocalDateTime end, int limit) {
-        List<Object[]> categoryData = budgetTrackingRepository.getBudgetTrackingByCategory();
+        List<Object[]> categoryData = budgetRollupService.getCategoryTotals(start, end);
         return categoryData.stream()
                 .sorted((a, b) -> ((BigDecimal) b[2]).compareTo((BigDecimal) a[2]))
                 .limit(limit)
                 .collect(Collectors.toList());
     }
 
+    private Map<String, Object> buildVariance(Long projectId, String projectName, Money allocatedBudget,
+                                              Money spentAmount) {
+        Money varianceAmount = spentAmount.minus(allocatedBudget);
+        BigDecimal variancePercentage = varianceAmount.percentOf(allocatedBudget);
+
+        Map<String, Object> variance = new HashMap<>();
+        variance.put("projectId", projectId);
+        variance.put("projectName", projectName);
+        variance.put("allocatedBudget", allocatedBudget.toBigDecimal());
+        variance.put("spentAmount", spentAmount.toBigDecimal());
+        variance.put("remainingBudget", varianceAmount.negate().toBigDecimal());
+        variance.put("varianceAmount", varianceAmount.toBigDecimal());
+        variance.put("variancePercentage", variancePercentage);
+        variance.put("status", getVarianceStatus(variancePercentage));
+
+        return variance;
+    }
+
     private String getVarianceStatus(BigDecimal variancePercentage) {
-        if (variancePercentage.compareTo(new BigDecimal("10")) > 0) {
+        if (variancePercentage.compareTo(VARIANCE_TOLERANCE) > 0) {
             return "OVER_BUDGET";
-        } else if (variancePercentage.compareTo(new BigDecimal("-10")) < 0) {
+        } else if (variancePercentage.compareTo(VARIANCE_TOLERANCE.negate()) < 0) {
             return "UNDER_BUDGET";
         } else {
             return "ON_TARGET";
         }
     }
 
-    private Map<String, Object> calculateOverallVariance(List<Map<String, Object>> projectVariances) {
-        Map<String, Object> overall = new HashMap<>();
-
-        BigDecimal totalAllocated = BigDecimal.ZERO;
-        BigDecimal totalSpent = BigDecimal.ZERO;
+    private Map<String, Object> calculateOverallVariance(Money totalAllocated, Money totalSpent) {
+        Money overallVariance = totalSpent.minus(totalAllocated);
 
-        for (Map<String, Object> variance : projectVariances) {
-            totalAllocated = totalAllocated.add((BigDecimal) variance.get("allocatedBudget"));
-            totalSpent = totalSpent.add((BigDecimal) variance.get("spentAmount"));
-        }
-
-        BigDecimal overallVariance = totalSpent.subtract(totalAllocated);
-        BigDecimal overallVariancePercentage = BigDecimal.ZERO;
-
-        if (totalAllocated.compareTo(BigDecimal.ZERO) > 0) {
-            overallVariancePercentage = overallVariance.divide(totalAllocated, 4, RoundingMode.HALF_UP)
-                    .multiply(new BigDecimal("100"));
-        }
-
-        overall.put("totalAllocated", totalAllocated);
-        overall.put("totalSpent", totalSpent);
-        overall.put("variance", overallVariance);
-        overall.put("variancePercentage", overallVariancePercentage);
+        Map<String, Object> overall = new HashMap<>();
+        overall.put("totalAllocated", totalAllocated.toBigDecimal());
+        overall.put("totalSpent", totalSpent.toBigDecimal());
+        overall.put("variance", overallVariance.toBigDecimal());
+        overall.put("variancePercentage", overallVariance.percentOf(totalAllocated));
 
         return overall;
     }
 
-    private Map<String, Object> generateProjectForecast(Project project, int monthsAhead, String forecastMethod) {
-        Map<String, Object> forecast = new HashMap<>();
-
-        forecast.put("projectId", project.getId());
-        forecast.put("projectName", project.getName());
-        forecast.put("currentSpent", project.getSpentAmount());
-        forecast.put("allocatedBudget", project.getAllocatedBudget());
-
-        // Simple linear forecasting - could be enhanced with more sophisticated methods
-        BigDecimal monthlySpendingRate = calculateMonthlySpendingRate(project);
-        BigDecimal projectedSpending = project.getSpentAmount().add(
-                monthlySpendingRate.multiply(new BigDecimal(monthsAhead))
-        );
-
-        forecast.put("projectedSpending", projectedSpending);
-        forecast.put("projectedOverrun", projectedSpending.subtract(project.getAllocatedBudget()));
-        forecast.put("forecastMethod", forecastMethod);
-
-        return forecast;
-    }
-
-    private BigDecimal calculateMonthlySpendingRate(Project project) {
-        // This would analyze historical spending patterns
-        // Placeholder implementation
-        return project.getSpentAmount().divide(new BigDecimal("6"), RoundingMode.HALF_UP);
-    }
-
     private Map<String, Object> calculateOverallForecast(List<Map<String, Object>> projectForecasts) {
         Map<String, Object> overall = new HashMap<>();
 
@@ -791,103 +905,7 @@ public class FinancialReportService {
         return overall;
     }
 
-    // Executive summary helper methods
-    private BigDecimal calculateOverallUtilizationRate() {
-        List<Project> projects = projectRepository.findByActiveTrue();
-        BigDecimal totalAllocated = BigDecimal.ZERO;
-        BigDecimal totalSpent = BigDecimal.ZERO;
-
-        for (Project project : projects) {
-            totalAllocated = totalAllocated.add(project.getAllocatedBudget());
-            totalSpent = totalSpent.add(project.getSpentAmount());
-        }
-
-        if (totalAllocated.compareTo(BigDecimal.ZERO) > 0) {
-            return totalSpent.divide(totalAllocated, 4, RoundingMode.HALF_UP).multiply(new BigDecimal("100"));
-        }
-
-        return BigDecimal.ZERO;
-    }
-
-    private Double calculateAverageProjectDuration() {
-        // Implementation for average project duration calculation
-        return 6.0; // Placeholder
-    }
-
-    private BigDecimal calculateCostEfficiencyRatio() {
-        // Implementation for cost efficiency ratio
-        return new BigDecimal("85.5"); // Placeholder
-    }
-
-    private List<Map<String, Object>> getProjectsOverBudget() {
-        return projectRepository.findByActiveTrue().stream()
-                .filter(project -> project.getSpentAmount().compareTo(project.getAllocatedBudget()) > 0)
-                .map(project -> {
-                    Map<String, Object> overBudget = new HashMap<>();
-                    overBudget.put("projectId", project.getId());
-                    overBudget.put("projectName", project.getName());
-                    overBudget.put("overrun", project.getSpentAmount().subtract(project.getAllocatedBudget()));
-                    return overBudget;
-                })
-                .collect(Collectors.toList());
-    }
-
-    private long getBudgetAlertsCount() {
-        return getBudgetAlerts().size();
-    }
-
-    private List<Map<String, Object>> getHighRiskProjects() {
-        return projectRepository.findByActiveTrue().stream()
-                .filter(project -> {
-                    BigDecimal utilization = BigDecimal.ZERO;
-                    if (project.getAllocatedBudget().compareTo(BigDecimal.ZERO) > 0) {
-                        utilization = project.getSpentAmount()
-                                .divide(project.getAllocatedBudget(), 4, RoundingMode.HALF_UP)
-                                .multiply(new BigDecimal("100"));
-                    }
-                    return utilization.compareTo(new BigDecimal("90")) >= 0;
-                })
-                .map(project -> {
-                    Map<String, Object> riskProject = new HashMap<>();
-                    riskProject.put("projectId", project.getId());
-                    riskProject.put("projectName", project.getName());
-                    riskProject.put("riskLevel", "HIGH");
-                    return riskProject;
-                })
-                .collect(Collectors.toList());
-    }
-
-    private List<Object[]> getExecutiveSpendingTrend(LocalDateTime start, LocalDateTime end) {
-        // Implementation for executive-level spending trends
-        return new ArrayList<>();
-    }
-
-    private Map<String, Object> getQuarterlyComparison() {
-        // Implementation for quarterly comparison
-        Map<String, Object> comparison = new HashMap<>();
-        comparison.put("currentQuarter", "Q4 2024");
-        comparison.put("previousQuarter", "Q3 2024");
-        comparison.put("growthRate", new BigDecimal("12.5"));
-        return comparison;
-    }
-
     // KPI calculation methods
-    private BigDecimal calculateOverallBudgetVariance() {
-        // Implementation for overall budget variance
-        return new BigDecimal("5.2"); // Placeholder
-    }
-
-    private BigDecimal calculateAverageCostPerProject() {
-        List<Project> projects = projectRepository.findByActiveTrue();
-        if (projects.isEmpty()) return BigDecimal.ZERO;
-
-        BigDecimal totalCost = projects.stream()
-                .map(Project::getSpentAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        return totalCost.divide(new BigDecimal(projects.size()), RoundingMode.HALF_UP);
-    }
-
     private Double calculateAverageApprovalTime() {
         // Implementation for average approval time calculation
         return 2.5; // days - Placeholder
@@ -903,11 +921,6 @@ public class FinancialReportService {
         return new BigDecimal("92.3"); // Placeholder
     }
 
-    private BigDecimal calculateBudgetAccuracy() {
-        // Implementation for budget accuracy calculation
-        return new BigDecimal("87.8"); // Placeholder
-    }
-
     private BigDecimal calculateForecastAccuracy() {
         // Implementation for forecast accuracy calculation
         return new BigDecimal("84.5"); // Placeholder
@@ -919,11 +932,11 @@ public class FinancialReportService {
     }
 
     // Performance metrics methods
-    private Map<String, Object> getFinancialPerformanceMetrics(LocalDate startDate, LocalDate endDate) {
+    private Map<String, Object> getFinancialPerformanceMetrics(FinancialKpiAggregator.KpiSnapshot kpis) {
         Map<String, Object> metrics = new HashMap<>();
-        metrics.put("budgetUtilization", calculateOverallUtilizationRate());
-        metrics.put("costEfficiency", calculateCostEfficiencyRatio());
-        metrics.put("budgetAccuracy", calculateBudgetAccuracy());
+        metrics.put("budgetUtilization", kpis.getUtilizationRate());
+        metrics.put("costEfficiency", kpis.getCostEfficiencyRatio());
+        metrics.put("budgetAccuracy", kpis.getBudgetAccuracy());
         return metrics;
     }
 
@@ -935,11 +948,37 @@ public class FinancialReportService {
         return metrics;
     }
 
-    private Map<String, Object> getProjectPerformanceMetrics(LocalDate startDate, LocalDate endDate) {
+    private Map<String, Object> getProjectPerformanceMetrics(FinancialKpiAggregator.KpiSnapshot kpis) {
         Map<String, Object> metrics = new HashMap<>();
-        metrics.put("averageProjectDuration", calculateAverageProjectDuration());
-        metrics.put("projectSuccessRate", new BigDecimal("89.5")); // Placeholder
+        metrics.put("averageProjectDuration", kpis.getAverageProjectDurationMonths());
+        metrics.put("projectSuccessRate", kpis.getProjectSuccessRate());
         metrics.put("resourceUtilization", new BigDecimal("78.3")); // Placeholder
         return metrics;
     }
+
+    /**
+     * Per-request memo collapsing identical repository calls, including calls racing on
+     * different threads: the first caller computes, the others wait for the same result.
+     */
+    static class QueryMemo {
+        private final Map<String, CompletableFuture<Object>> results = new ConcurrentHashMap<>();
+
+        @SuppressWarnings("unchecked")
+        <T> T get(String key, Supplier<T> query) {
+            CompletableFuture<Object> created = new CompletableFuture<>();
+            CompletableFuture<Object> existing = results.putIfAbsent(key, created);
+            if (existing != null) {
+                return (T) existing.join();
+            }
+
+            try {
+                T value = query.get();
+                created.complete(value);
+                return value;
+            } catch (RuntimeException e) {
+                created.completeExceptionally(e);
+                throw e;
+            }
+        }
+    }
 }
\ No newline at end of file
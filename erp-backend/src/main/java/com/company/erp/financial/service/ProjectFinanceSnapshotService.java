@@ -0,0 +1,406 @@
+package com.company.erp.financial.service;
+
+import com.company.erp.common.event.DashboardDataChangedEvent;
+import com.company.erp.common.util.Money;
+import com.company.erp.project.entity.ProjectStatus;
+import com.company.erp.project.repository.ProjectRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.support.CronTrigger;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.stream.Collectors;
+
+import static com.company.erp.common.util.Money.fromMinorUnits;
+import static com.company.erp.common.util.Money.toMinorUnits;
+
+/**
+ * Columnar in-memory snapshot of active project finances.
+ *
+ * Ids, amounts (long minor units), status codes and dates sit in parallel primitive arrays
+ * sorted by id, so utilization, variance, over-budget, top-N and KPI figures are computed in one
+ * tight loop without hydrating Project entities. The snapshot is built on first use and fully
+ * rebuilt hourly as a safety net. Committed project/budget changes only mark the project dirty;
+ * a background pass on its own scheduler re-reads the dirty projects in one query and merges them
+ * into a new snapshot, so the copy cost is paid once per pass instead of once per commit.
+ *
+ * Each node holds its own snapshot (the KPI aggregator reads it too). The pass announces the
+ * projects changed on this node on a Redis channel and every other node marks them dirty, so a
+ * node follows remote changes within about a second. If Redis is unavailable the hourly rebuild
+ * bounds how stale a node can get.
+ */
+@Service
+public class ProjectFinanceSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProjectFinanceSnapshotService.class);
+
+    static final String CHANGES_CHANNEL = "erp:project-finance:changed";
+
+    // Keeps IN (:ids) lists well below driver/database bind-parameter limits
+    private static final int REFRESH_CHUNK_SIZE = 500;
+
+    private final ProjectRepository projectRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final TaskScheduler scheduler;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Object lock = new Object();
+    private final Set<Long> dirtyProjectIds = ConcurrentHashMap.newKeySet();
+    private final Set<Long> unannouncedProjectIds = ConcurrentHashMap.newKeySet();
+    private final List<ScheduledFuture<?>> tasks = new ArrayList<>();
+    private volatile Snapshot snapshot;
+
+    public ProjectFinanceSnapshotService(ProjectRepository projectRepository,
+                                         StringRedisTemplate redisTemplate,
+                                         RedisMessageListenerContainer listenerContainer,
+                                         @Qualifier("financeSnapshotScheduler") TaskScheduler scheduler) {
+        this.projectRepository = projectRepository;
+        this.redisTemplate = redisTemplate;
+        this.scheduler = scheduler;
+        listenerContainer.addMessageListener(this::onRemoteChange, new ChannelTopic(CHANGES_CHANNEL));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        tasks.add(scheduler.scheduleWithFixedDelay(this::refreshDirtyProjects, Duration.ofSeconds(1)));
+        tasks.add(scheduler.schedule(this::rebuild, new CronTrigger("0 15 * * * ?"))); // Hourly full rebuild
+    }
+
+    @PreDestroy
+    public void stop() {
+        tasks.forEach(task -> task.cancel(false));
+    }
+
+    /**
+     * Current snapshot, loading it on first use.
+     */
+    public Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+
+        synchronized (lock) {
+            if (snapshot == null) {
+                snapshot = load();
+            }
+            return snapshot;
+        }
+    }
+
+    public void rebuild() {
+        synchronized (lock) {
+            snapshot = load();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDashboardDataChanged(DashboardDataChangedEvent event) {
+        if (event.getProjectId() != null) {
+            dirtyProjectIds.add(event.getProjectId());
+            unannouncedProjectIds.add(event.getProjectId());
+        }
+    }
+
+    /**
+     * Announce this node's changes to the other nodes, then re-read the projects changed since the
+     * last pass and merge them (insert, replace or remove) into a new snapshot. Ids whose re-read
+     * fails stay dirty for the next pass.
+     */
+    public void refreshDirtyProjects() {
+        announceChanges();
+        if (dirtyProjectIds.isEmpty()) {
+            return;
+        }
+
+        synchronized (lock) {
+            Snapshot current = snapshot;
+            if (current == null) {
+                return; // Loaded on next read; ids changed during that load are merged next pass
+            }
+
+            long[] changedIds = drain(dirtyProjectIds);
+            try {
+                List<Object[]> rows = new ArrayList<>(changedIds.length);
+                for (int from = 0; from < changedIds.length; from += REFRESH_CHUNK_SIZE) {
+                    List<Long> chunk = new ArrayList<>(REFRESH_CHUNK_SIZE);
+                    for (int i = from; i < Math.min(from + REFRESH_CHUNK_SIZE, changedIds.length); i++) {
+                        chunk.add(changedIds[i]);
+                    }
+                    rows.addAll(projectRepository.findFinanceSnapshotRowsByIds(chunk));
+                }
+
+                snapshot = current.merge(changedIds, rows);
+            } catch (RuntimeException e) {
+                for (long id : changedIds) {
+                    dirtyProjectIds.add(id);
+                }
+                logger.warn("Project finance snapshot refresh failed, {} projects kept for the next pass: {}",
+                        changedIds.length, e.getMessage());
+            }
+        }
+    }
+
+    // Helper methods
+
+    private static long[] drain(Set<Long> ids) {
+        List<Long> drained = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            if (ids.remove(id)) {
+                drained.add(id);
+            }
+        }
+
+        long[] sorted = drained.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    /**
+     * Publish "nodeId:id,id,..." for the projects changed on this node since the last pass.
+     */
+    private void announceChanges() {
+        if (unannouncedProjectIds.isEmpty()) {
+            return;
+        }
+
+        long[] changedIds = drain(unannouncedProjectIds);
+        try {
+            redisTemplate.convertAndSend(CHANGES_CHANNEL, nodeId + ":"
+                    + Arrays.stream(changedIds).mapToObj(Long::toString).collect(Collectors.joining(",")));
+        } catch (RuntimeException e) {
+            // Other nodes pick these projects up at their next hourly rebuild
+            logger.warn("Could not announce {} project finance changes: {}", changedIds.length, e.getMessage());
+        }
+    }
+
+    private void onRemoteChange(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(':');
+        if (separator < 0 || body.substring(0, separator).equals(nodeId)) {
+            return;
+        }
+
+        for (String id : body.substring(separator + 1).split(",")) {
+            if (!id.isEmpty()) {
+                dirtyProjectIds.add(Long.parseLong(id));
+            }
+        }
+    }
+
+    private Snapshot load() {
+        long startTime = System.currentTimeMillis();
+        Snapshot loaded = Snapshot.of(projectRepository.findFinanceSnapshotRows());
+
+        logger.info("Loaded project finance snapshot: {} projects in {}ms",
+                loaded.size(), System.currentTimeMillis() - startTime);
+        return loaded;
+    }
+
+    /**
+     * Immutable columnar view; updates produce a copy.
+     */
+    public static final class Snapshot {
+        static final long NO_DATE = Long.MIN_VALUE;
+        private static final byte COMPLETED = (byte) ProjectStatus.COMPLETED.ordinal();
+
+        private final long[] ids;
+        private final String[] names;
+        private final long[] allocated;
+        private final long[] spent;
+        private final byte[] statusCodes;
+        private final long[] startDates; // epoch day
+        private final long[] endDates; // epoch day
+        private final long[] createdDates; // epoch second of the local date-time, for ordering only
+
+        private Snapshot(int size) {
+            this.ids = new long[size];
+            this.names = new String[size];
+            this.allocated = new long[size];
+            this.spent = new long[size];
+            this.statusCodes = new byte[size];
+            this.startDates = new long[size];
+            this.endDates = new long[size];
+            this.createdDates = new long[size];
+        }
+
+        /**
+         * Snapshot of (id, name, allocatedBudget, spentAmount, status, startDate, endDate, createdDate)
+         * rows sorted by id.
+         */
+        static Snapshot of(List<Object[]> rows) {
+            Snapshot snapshot = new Snapshot(rows.size());
+            for (int i = 0; i < rows.size(); i++) {
+                snapshot.set(i, rows.get(i));
+            }
+            return snapshot;
+        }
+
+        public int size() { return ids.length; }
+
+        public long getId(int slot) { return ids[slot]; }
+
+        /**
+         * Slot of the project, or a negative value when it is not in the snapshot (inactive or unknown).
+         */
+        public int slotOf(long id) { return Arrays.binarySearch(ids, id); }
+
+        public String getName(int slot) { return names[slot]; }
+
+        public BigDecimal getAllocatedBudget(int slot) { return fromMinorUnits(allocated[slot]); }
+
+        public BigDecimal getSpentAmount(int slot) { return fromMinorUnits(spent[slot]); }
+
+        public BigDecimal getRemainingBudget(int slot) { return fromMinorUnits(allocated[slot] - spent[slot]); }
+
+        public Money allocatedMoney(int slot) { return Money.ofMinor(allocated[slot]); }
+
+        public Money spentMoney(int slot) { return Money.ofMinor(spent[slot]); }
+
+        // Raw column reads for single-pass aggregation in this package
+
+        long allocatedMinor(int slot) { return allocated[slot]; }
+
+        long spentMinor(int slot) { return spent[slot]; }
+
+        boolean isCompleted(int slot) { return statusCodes[slot] == COMPLETED; }
+
+        long startEpochDay(int slot) { return startDates[slot]; }
+
+        long endEpochDay(int slot) { return endDates[slot]; }
+
+        long createdEpochSecond(int slot) { return createdDates[slot]; }
+
+        static long toEpochSecond(LocalDateTime dateTime) { return dateTime.toEpochSecond(ZoneOffset.UTC); }
+
+        /**
+         * Slots whose utilization is at least the given percentage (integer compare, no division).
+         */
+        public int[] slotsAtOrAboveUtilization(int percent) {
+            int[] matches = new int[ids.length];
+            int count = 0;
+            for (int i = 0; i < ids.length; i++) {
+                if (allocated[i] > 0 && spent[i] * 100 >= allocated[i] * percent) {
+                    matches[count++] = i;
+                }
+            }
+            return Arrays.copyOf(matches, count);
+        }
+
+        /**
+         * Utilization percentage of one slot, rounded like the report output.
+         */
+        public BigDecimal utilization(int slot) {
+            return Money.percentage(spent[slot], allocated[slot]);
+        }
+
+        /**
+         * Slots of the highest spenders, descending, via a bounded insertion pass.
+         */
+        public int[] topSpendingSlots(int limit) {
+            int[] top = new int[Math.max(0, Math.min(limit, ids.length))];
+            int filled = 0;
+
+            for (int i = 0; i < ids.length && top.length > 0; i++) {
+                if (filled == top.length && spent[i] <= spent[top[filled - 1]]) {
+                    continue;
+                }
+
+                int position = filled < top.length ? filled++ : filled - 1;
+                while (position > 0 && spent[top[position - 1]] < spent[i]) {
+                    top[position] = top[position - 1];
+                    position--;
+                }
+                top[position] = i;
+            }
+            return top;
+        }
+
+        private void set(int slot, Object[] row) {
+            ids[slot] = ((Number) row[0]).longValue();
+            names[slot] = (String) row[1];
+            allocated[slot] = toMinorUnits((BigDecimal) row[2]);
+            spent[slot] = toMinorUnits((BigDecimal) row[3]);
+            statusCodes[slot] = (byte) ((ProjectStatus) row[4]).ordinal();
+            startDates[slot] = row[5] != null ? ((LocalDate) row[5]).toEpochDay() : NO_DATE;
+            endDates[slot] = row[6] != null ? ((LocalDate) row[6]).toEpochDay() : NO_DATE;
+            createdDates[slot] = row[7] != null ? toEpochSecond((LocalDateTime) row[7]) : NO_DATE;
+        }
+
+        /**
+         * One merge pass over the sorted changed ids: each is replaced or inserted from its row
+         * (rows sorted by id), or removed when it has no row (deleted or deactivated). Untouched
+         * runs between changed ids are block-copied.
+         */
+        Snapshot merge(long[] changedIds, List<Object[]> rows) {
+            if (changedIds.length == 0) {
+                return this;
+            }
+
+            int n = ids.length;
+            int size = n;
+            int rowIndex = 0;
+            for (long changedId : changedIds) {
+                boolean present = Arrays.binarySearch(ids, changedId) >= 0;
+                boolean hasRow = rowIndex < rows.size() && ((Number) rows.get(rowIndex)[0]).longValue() == changedId;
+                if (hasRow) {
+                    rowIndex++;
+                }
+                size += (hasRow ? 1 : 0) - (present ? 1 : 0);
+            }
+
+            Snapshot merged = new Snapshot(size);
+            int from = 0;
+            int to = 0;
+            rowIndex = 0;
+            for (long changedId : changedIds) {
+                int slot = Arrays.binarySearch(ids, from, n, changedId);
+                int insertAt = slot >= 0 ? slot : -slot - 1;
+
+                copyColumns(this, from, merged, to, insertAt - from);
+                to += insertAt - from;
+                from = slot >= 0 ? slot + 1 : insertAt;
+
+                if (rowIndex < rows.size() && ((Number) rows.get(rowIndex)[0]).longValue() == changedId) {
+                    merged.set(to++, rows.get(rowIndex++));
+                }
+            }
+            copyColumns(this, from, merged, to, n - from);
+            return merged;
+        }
+
+        private static void copyColumns(Snapshot from, int fromPos, Snapshot to, int toPos, int length) {
+            System.arraycopy(from.ids, fromPos, to.ids, toPos, length);
+            System.arraycopy(from.names, fromPos, to.names, toPos, length);
+            System.arraycopy(from.allocated, fromPos, to.allocated, toPos, length);
+            System.arraycopy(from.spent, fromPos, to.spent, toPos, length);
+            System.arraycopy(from.statusCodes, fromPos, to.statusCodes, toPos, length);
+            System.arraycopy(from.startDates, fromPos, to.startDates, toPos, length);
+            System.arraycopy(from.endDates, fromPos, to.endDates, toPos, length);
+            System.arraycopy(from.createdDates, fromPos, to.createdDates, toPos, length);
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package com.company.erp.financial.service;
+
+import com.company.erp.common.exception.BusinessException;
+import com.company.erp.common.service.StreamingImportService;
+import com.company.erp.financial.dto.request.CreateQuotationRequest;
+import com.company.erp.financial.dto.request.CreateQuotationRequest.QuotationItemRequest;
+import com.company.erp.financial.dto.response.QuotationImportResponse;
+import com.company.erp.financial.dto.response.QuotationImportResponse.RowError;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Bulk quotation import from a spreadsheet with one line item per row.
+ *
+ * Consecutive rows sharing a quotation_ref form one draft quotation; its project, description
+ * and currency come from the group's first row. Each quotation is validated with the same
+ * rules as POST /quotations and saved in transactions of batch-size quotations, so memory is
+ * bounded by one batch and the capped error list, not by the file. A group longer than
+ * max-items rows fails as a whole rather than growing one request without bound. Invalid
+ * quotations are skipped and reported per row; a batch that fails to save is reported as a whole.
+ */
+@Service
+public class QuotationImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuotationImportService.class);
+
+    private static final List<String> REQUIRED_COLUMNS = List.of("quotation_ref", "project_id", "item_description", "amount");
+    private static final Pattern ITEM_PATH = Pattern.compile("items\\[(\\d+)]\\.?(.*)");
+
+    // Request property -> import column
+    private static final Map<String, String> QUOTATION_COLUMNS = Map.of(
+            "projectId", "project_id",
+            "description", "quotation_description",
+            "currency", "currency",
+            "items", "quotation_ref");
+    private static final Map<String, String> ITEM_COLUMNS = Map.of(
+            "description", "item_description",
+            "amount", "amount",
+            "currency", "item_currency",
+            "category", "category",
+            "accountHead", "account_head",
+            "itemDate", "item_date",
+            "vendorName", "vendor_name",
+            "vendorContact", "vendor_contact");
+
+    private final QuotationService quotationService;
+    private final StreamingImportService streamingImportService;
+    private final Validator validator;
+    private final int batchSize;
+    private final int maxErrors;
+    private final int maxItems;
+
+    public QuotationImportService(QuotationService quotationService,
+                                  StreamingImportService streamingImportService,
+                                  Validator validator,
+                                  @Value("${app.business.quotation.import.batch-size:50}") int batchSize,
+                                  @Value("${app.business.quotation.import.max-errors:1000}") int maxErrors,
+                                  @Value("${app.business.quotation.import.max-items:500}") int maxItems) {
+        this.quotationService = quotationService;
+        this.streamingImportService = streamingImportService;
+        this.validator = validator;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxErrors = Math.max(0, maxErrors);
+        this.maxItems = Math.max(1, maxItems);
+    }
+
+    /**
+     * Import draft quotations for the current user from an .xlsx or .csv file.
+     */
+    public QuotationImportResponse importQuotations(MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            throw new BusinessException("INVALID_IMPORT_FILE", "Import file is empty");
+        }
+
+        long startTime = System.currentTimeMillis();
+        ImportRun run = new ImportRun();
+        try {
+            streamingImportService.read(file, run::accept);
+        } catch (IOException e) {
+            throw new BusinessException("IMPORT_FAILED", "Could not read import file: " + e.getMessage());
+        }
+        run.finish();
+
+        QuotationImportResponse response = run.response;
+        response.setDurationMs(System.currentTimeMillis() - startTime);
+        logger.info("Imported {} quotations ({} items) from {} rows; {} rows failed in {}ms",
+                response.getQuotationsCreated(), response.getItemsImported(), response.getTotalRows(),
+                response.getFailedRows(), response.getDurationMs());
+        return response;
+    }
+
+    /**
+     * State of one import: the header mapping, the quotation being grouped and the pending batch.
+     */
+    private final class ImportRun {
+        private final QuotationImportResponse response = new QuotationImportResponse();
+        private final Map<Long, Boolean> projectAccess = new HashMap<>();
+        private final List<PendingQuotation> batch = new ArrayList<>(batchSize);
+        private Map<String, Integer> columns;
+        private PendingQuotation current;
+
+        private void accept(long rowNumber, List<String> cells) {
+            if (columns == null) {
+                readHeader(cells);
+                return;
+            }
+
+            response.setTotalRows(response.getTotalRows() + 1);
+            String reference = cell(cells, "quotation_ref");
+            if (reference == null) {
+                error(rowNumber, null, "quotation_ref", "Quotation reference is required");
+                response.setFailedRows(response.getFailedRows() + 1);
+                return;
+            }
+
+            if (current == null || !current.reference.equals(reference)) {
+                complete();
+                current = startQuotation(rowNumber, reference, cells);
+            }
+            if (current.rows.size() >= maxItems) {
+                if (!current.oversized) {
+                    current.oversized = true;
+                    current.invalid = true;
+                    error(rowNumber, reference, "quotation_ref", "Quotation has more than " + maxItems + " items");
+                }
+                current.droppedRows++;
+                return;
+            }
+            current.rows.add(rowNumber);
+            current.request.getItems().add(parseItem(rowNumber, cells));
+        }
+
+        private void finish() {
+            if (columns == null) {
+                throw new BusinessException("INVALID_IMPORT_FILE", "Import file has no header row");
+            }
+            complete();
+            flushBatch();
+        }
+
+        private void readHeader(List<String> cells) {
+            columns = new HashMap<>();
+            for (int i = 0; i < cells.size(); i++) {
+                String name = cells.get(i).trim().toLowerCase().replace(' ', '_').replace('-', '_');
+                if (!name.isEmpty()) {
+                    columns.putIfAbsent(name, i);
+                }
+            }
+
+            List<String> missing = new ArrayList<>();
+            for (String column : REQUIRED_COLUMNS) {
+                if (!columns.containsKey(column)) {
+                    missing.add(column);
+                }
+            }
+            if (!missing.isEmpty()) {
+                throw new BusinessException("INVALID_IMPORT_FILE", "Missing required columns: " + String.join(", ", missing));
+            }
+        }
+
+        private PendingQuotation startQuotation(long rowNumber, String reference, List<String> cells) {
+            PendingQuotation quotation = new PendingQuotation(reference);
+            CreateQuotationRequest request = quotation.request;
+            request.setItems(new ArrayList<>());
+            request.setDescription(cell(cells, "quotation_description"));
+            if (cell(cells, "currency") != null) {
+                request.setCurrency(cell(cells, "currency"));
+            }
+
+            String projectId = cell(cells, "project_id");
+            try {
+                request.setProjectId(projectId != null ? Long.valueOf(projectId) : null);
+            } catch (NumberFormatException e) {
+                quotation.invalid = true;
+                error(rowNumber, reference, "project_id", "Invalid project id: " + projectId);
+            }
+            return quotation;
+        }
+
+        private QuotationItemRequest parseItem(long rowNumber, List<String> cells) {
+            QuotationItemRequest item = new QuotationItemRequest();
+            item.setDescription(cell(cells, "item_description"));
+            item.setCategory(cell(cells, "category"));
+            item.setAccountHead(cell(cells, "account_head"));
+            item.setVendorName(cell(cells, "vendor_name"));
+            item.setVendorContact(cell(cells, "vendor_contact"));
+            if (cell(cells, "item_currency") != null) {
+                item.setCurrency(cell(cells, "item_currency"));
+            }
+
+            String amount = cell(cells, "amount");
+            try {
+                item.setAmount(amount != null ? new BigDecimal(amount.replace(",", "")) : null);
+            } catch (NumberFormatException e) {
+                current.invalid = true;
+                error(rowNumber, current.reference, "amount", "Invalid amount: " + amount);
+            }
+
+            String itemDate = cell(cells, "item_date");
+            try {
+                item.setItemDate(itemDate != null ? LocalDate.parse(itemDate) : null);
+            } catch (DateTimeParseException e) {
+                current.invalid = true;
+                error(rowNumber, current.reference, "item_date", "Invalid date, expected yyyy-MM-dd: " + itemDate);
+            }
+            return item;
+        }
+
+        private void complete() {
+            PendingQuotation quotation = current;
+            current = null;
+            if (quotation == null) {
+                return;
+            }
+
+            if (!quotation.invalid) {
+                for (ConstraintViolation<CreateQuotationRequest> violation : validator.validate(quotation.request)) {
+                    quotation.invalid = true;
+                    reportViolation(quotation, violation);
+                }
+            }
+
+            if (!quotation.invalid) {
+                Long projectId = quotation.request.getProjectId();
+                if (!projectAccess.computeIfAbsent(projectId, quotationService::canCreateQuotationsFor)) {
+                    quotation.invalid = true;
+                    error(quotation.rows.get(0), quotation.reference, "project_id",
+                            "Project not found or not accessible: " + projectId);
+                }
+            }
+
+            if (quotation.invalid) {
+                fail(quotation);
+                return;
+            }
+
+            batch.add(quotation);
+            if (batch.size() >= batchSize) {
+                flushBatch();
+            }
+        }
+
+        private void flushBatch() {
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            List<CreateQuotationRequest> requests = new ArrayList<>(batch.size());
+            for (PendingQuotation quotation : batch) {
+                requests.add(quotation.request);
+            }
+
+            try {
+                int items = quotationService.createQuotations(requests);
+                response.setQuotationsCreated(response.getQuotationsCreated() + batch.size());
+                response.setItemsImported(response.getItemsImported() + items);
+            } catch (RuntimeException e) {
+                logger.warn("Quotation import batch of {} failed: {}", batch.size(), e.getMessage());
+                for (PendingQuotation quotation : batch) {
+                    error(quotation.rows.get(0), quotation.reference, null, "Batch not saved: " + e.getMessage());
+                    fail(quotation);
+                }
+            }
+            batch.clear();
+        }
+
+        private void reportViolation(PendingQuotation quotation, ConstraintViolation<CreateQuotationRequest> violation) {
+            String path = violation.getPropertyPath().toString();
+            Matcher item = ITEM_PATH.matcher(path);
+            if (item.matches()) {
+                int index = Integer.parseInt(item.group(1));
+                error(quotation.rows.get(Math.min(index, quotation.rows.size() - 1)), quotation.reference,
+                        ITEM_COLUMNS.getOrDefault(item.group(2), item.group(2)), violation.getMessage());
+            } else {
+                error(quotation.rows.get(0), quotation.reference,
+                        QUOTATION_COLUMNS.getOrDefault(path, path), violation.getMessage());
+            }
+        }
+
+        private void fail(PendingQuotation quotation) {
+            response.setFailedQuotations(response.getFailedQuotations() + 1);
+            response.setFailedRows(response.getFailedRows() + quotation.rows.size() + quotation.droppedRows);
+        }
+
+        private void error(long rowNumber, String reference, String column, String message) {
+            if (response.getErrors().size() < maxErrors) {
+                response.getErrors().add(new RowError(rowNumber, reference, column, message));
+            } else {
+                response.setErrorsTruncated(true);
+            }
+        }
+
+        private String cell(List<String> cells, String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= cells.size()) {
+                return null;
+            }
+            String value = cells.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+    }
+
+    private static final class PendingQuotation {
+        private final String reference;
+        private final CreateQuotationRequest request = new CreateQuotationRequest();
+        private final List<Long> rows = new ArrayList<>();
+        private boolean invalid;
+        private boolean oversized;
+        private long droppedRows; // Rows past max-items, counted but not kept
+
+        private PendingQuotation(String reference) {
+            this.reference = reference;
+        }
+    }
+}
@@ -1,9 +1,17 @@
 package com.company.erp.financial.service;
 
+import com.company.erp.common.dto.CursorPage;
+import com.company.erp.common.event.DashboardDataChangedEvent;
 import com.company.erp.common.exception.BusinessException;
 import com.company.erp.common.exception.ResourceNotFoundException;
 import com.company.erp.common.exception.UnauthorizedAccessException;
 import com.company.erp.common.security.UserPrincipal;
+import com.company.erp.common.service.PageCountService;
+import com.company.erp.common.service.PageCountService.CountMode;
+import com.company.erp.common.service.PageCountService.CountQuery;
+import com.company.erp.common.service.StatusCounterService;
+import com.company.erp.common.service.StatusCounterService.StatusCounters;
+import com.company.erp.common.util.KeysetCursor;
 import com.company.erp.financial.dto.request.CreateQuotationRequest;
 import com.company.erp.financial.dto.request.SubmitQuotationRequest;
 import com.company.erp.financial.dto.response.QuotationResponse;
@@ -17,11 +25,20 @@ import com.company.erp.project.entity.Project;
 import com.company.erp.project.repository.ProjectRepository;
 import com.company.erp.user.entity.User;
 import com.company.erp.user.repository.UserRepository;
+import com.company.erp.workflow.entity.WorkflowEvent;
+import com.company.erp.workflow.entity.WorkflowState;
+import com.company.erp.workflow.service.WorkflowEngine;
+import com.company.erp.workflow.service.WorkflowEngine.Step;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
@@ -29,7 +46,12 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -38,6 +60,8 @@ public class QuotationService {
 
     private static final Logger logger = LoggerFactory.getLogger(QuotationService.class);
 
+    private static final int RANKED_COUNT_CAP = 1000; // exact search totals stop counting here
+
     @Autowired
     private QuotationRepository quotationRepository;
 
@@ -50,6 +74,24 @@ public class QuotationService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PageCountService pageCountService;
+
+    @Autowired
+    private StatusCounterService statusCounterService;
+
+    @Autowired
+    private BudgetReservationService budgetReservationService;
+
+    @Autowired
+    private WorkflowEngine workflowEngine;
+
+    @Value("${app.search.trigram.enabled:true}")
+    private boolean trigramSearchEnabled;
+
     /**
      * Create new quotation with line items
      */
@@ -62,22 +104,8 @@ public class QuotationService {
         Project project = validateProjectAccess(request.getProjectId(), currentUser.getId());
         User creator = getUserById(currentUser.getId());
 
-        // Create quotation entity
-        Quotation quotation = new Quotation(project, creator);
-        quotation.setDescription(request.getDescription());
-        quotation.setCurrency(request.getCurrency() != null ? request.getCurrency() : "SAR");
-        quotation.setStatus(QuotationStatus.DRAFT);
-
-        // Save quotation first to get ID
-        Quotation savedQuotation = quotationRepository.save(quotation);
-
-        // Add line items
-        if (request.getItems() != null && !request.getItems().isEmpty()) {
-            addQuotationItems(savedQuotation, request.getItems());
-            // Update total amount after adding items
-            savedQuotation.updateTotalAmount();
-            quotationRepository.save(savedQuotation);
-        }
+        Quotation savedQuotation = createDraftQuotation(project, creator, request);
+        publishDashboardChange(savedQuotation, "CREATED");
 
         logger.info("Quotation created successfully with ID: {} and total amount: SAR {}",
                 savedQuotation.getId(), savedQuotation.getTotalAmount());
@@ -85,6 +113,44 @@ public class QuotationService {
         return convertToQuotationResponse(savedQuotation);
     }
 
+    /**
+     * Create a batch of draft quotations in one transaction (bulk import); returns the number of items saved
+     */
+    public int createQuotations(List<CreateQuotationRequest> requests) {
+        UserPrincipal currentUser = getCurrentUser();
+        User creator = getUserById(currentUser.getId());
+        Map<Long, Project> projects = new HashMap<>();
+
+        int itemCount = 0;
+        for (CreateQuotationRequest request : requests) {
+            Project project = projects.computeIfAbsent(request.getProjectId(),
+                    projectId -> validateProjectAccess(projectId, currentUser.getId()));
+            createDraftQuotation(project, creator, request);
+            itemCount += request.getItems().size();
+        }
+
+        for (Long projectId : projects.keySet()) {
+            eventPublisher.publishEvent(new DashboardDataChangedEvent(
+                    DashboardDataChangedEvent.Source.QUOTATION, projectId, creator.getId(), "CREATED"));
+        }
+
+        logger.info("Created {} quotations with {} items in one batch", requests.size(), itemCount);
+        return itemCount;
+    }
+
+    /**
+     * Whether the current user may create quotations for the project (bulk import pre-check)
+     */
+    @Transactional(readOnly = true)
+    public boolean canCreateQuotationsFor(Long projectId) {
+        try {
+            validateProjectAccess(projectId, getCurrentUser().getId());
+            return true;
+        } catch (ResourceNotFoundException | UnauthorizedAccessException e) {
+            return false;
+        }
+    }
+
     /**
      * Update existing quotation (only if in DRAFT status)
      */
@@ -114,6 +180,7 @@ public class QuotationService {
         // Update total amount
         quotation.updateTotalAmount();
         Quotation savedQuotation = quotationRepository.save(quotation);
+        publishDashboardChange(savedQuotation, "UPDATED");
 
         logger.info("Quotation {} updated successfully with new total: SAR {}",
                 quotationId, savedQuotation.getTotalAmount());
@@ -142,15 +209,24 @@ public class QuotationService {
                     "Cannot submit quotation without line items");
         }
 
-        // Validate against project budget
-        validateBudgetCompliance(quotation);
+        // Reserve the amount against the project budget (fails with BUDGET_EXCEEDED)
+        budgetReservationService.hold(quotation);
 
         // Update quotation status
         quotation.submit(request.getSubmissionNotes());
-        Quotation savedQuotation = quotationRepository.save(quotation);
 
-        // TODO: Trigger notification to account managers
-        logger.info("Notification would be sent to account managers for quotation {}", quotationId);
+        // Route by amount; small quotations are approved on submission
+        if (workflowEngine.start(quotation) == WorkflowState.APPROVED) {
+            quotation.approve(null);
+            budgetReservationService.convert(quotation);
+            logger.info("Quotation {} auto-approved for SAR {}", quotationId, quotation.getTotalAmount());
+        } else {
+            // TODO: Trigger notification to account managers
+            logger.info("Notification would be sent to account managers for quotation {}", quotationId);
+        }
+
+        Quotation savedQuotation = quotationRepository.save(quotation);
+        publishDashboardChange(savedQuotation, savedQuotation.getStatus().name());
 
         logger.info("Quotation {} submitted successfully for SAR {}",
                 quotationId, savedQuotation.getTotalAmount());
@@ -180,13 +256,23 @@ public class QuotationService {
         }
 
         User approver = getUserById(currentUser.getId());
+        Step step = workflowEngine.fire(quotation, WorkflowEvent.APPROVE, currentUser);
+        if (!step.isApproved()) {
+            // Intermediate stage; the quotation stays submitted until the final stage approves
+            logger.info("Quotation {} passed {} by {}, now at {}",
+                    quotationId, step.getFrom(), approver.getFullName(), step.getTo());
+            return convertToQuotationResponse(quotation);
+        }
+
         quotation.approve(approver);
 
-        // Update project budget
-        updateProjectBudget(quotation);
+        // Turn the budget hold into spend
+        budgetReservationService.convert(quotation);
 
         Quotation savedQuotation = quotationRepository.save(quotation);
 
+        publishDashboardChange(savedQuotation, "APPROVED");
+
         logger.info("Quotation {} approved successfully by {} for SAR {}",
                 quotationId, approver.getFullName(), savedQuotation.getTotalAmount());
 
@@ -222,22 +308,54 @@ public class QuotationService {
      * Get quotations for current user (with pagination)
      */
     @Transactional(readOnly = true)
-    public Page<QuotationSummaryResponse> getMyQuotations(Pageable pageable) {
+    public Page<QuotationSummaryResponse> getMyQuotations(Pageable pageable, CountMode countMode) {
         UserPrincipal currentUser = getCurrentUser();
 
-        Page<Quotation> quotations;
+        CountQuery<Quotation> query;
 
         if (currentUser.hasAnyRole("SUPER_ADMIN", "ACCOUNT_MANAGER")) {
             // Can view all quotations
-            quotations = quotationRepository.findAllWithProject(pageable);
+            query = CountQuery.of(Quotation.class, "quotations")
+                    .fetch("project").fetch("creator")
+                    .equal("active", "active", true);
         } else {
             // Project managers see only their quotations
-            quotations = quotationRepository.findByCreatedByIdWithProject(currentUser.getId(), pageable);
+            Long userId = currentUser.getId();
+            query = CountQuery.of(Quotation.class, "quotations")
+                    .fetch("project").fetch("creator")
+                    .equal("active", "active", true)
+                    .equal("creator.id", "created_by", userId);
         }
 
+        Page<Quotation> quotations = pageCountService.page(countMode, pageable, query);
+
         return quotations.map(this::convertToQuotationSummaryResponse);
     }
 
+    /**
+     * Get current user's quotations newest first, keyset-paginated
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<QuotationSummaryResponse> getMyQuotations(String cursor, int size) {
+        UserPrincipal currentUser = getCurrentUser();
+        KeysetCursor after = KeysetCursor.decode(cursor);
+
+        Slice<Quotation> quotations;
+        if (currentUser.hasAnyRole("SUPER_ADMIN", "ACCOUNT_MANAGER")) {
+            quotations = after == null
+                    ? quotationRepository.findAllFirstPage(CursorPage.request(size))
+                    : quotationRepository.findAllAfterCursor(after.getSortKey(), after.getId(), CursorPage.request(size));
+        } else {
+            quotations = after == null
+                    ? quotationRepository.findByCreatedByIdFirstPage(currentUser.getId(), CursorPage.request(size))
+                    : quotationRepository.findByCreatedByIdAfterCursor(currentUser.getId(),
+                            after.getSortKey(), after.getId(), CursorPage.request(size));
+        }
+
+        return CursorPage.from(quotations, this::convertToQuotationSummaryResponse,
+                q -> KeysetCursor.of(q.getCreatedDate(), q.getId()));
+    }
+
     /**
      * Get quotations by project
      */
@@ -261,26 +379,50 @@ public class QuotationService {
      * Get pending quotations for approval (Account Managers only)
      */
     @Transactional(readOnly = true)
-    public Page<QuotationSummaryResponse> getPendingQuotations(Pageable pageable) {
+    public Page<QuotationSummaryResponse> getPendingQuotations(Pageable pageable, CountMode countMode) {
         UserPrincipal currentUser = getCurrentUser();
 
         if (!currentUser.hasAnyRole("SUPER_ADMIN", "ACCOUNT_MANAGER")) {
             throw new UnauthorizedAccessException("Only Account Managers can view pending quotations");
         }
 
-        Page<Quotation> quotations = quotationRepository.findByStatusWithProject(
-                QuotationStatus.SUBMITTED, pageable);
+        Page<Quotation> quotations = pageCountService.page(countMode, pageable,
+                CountQuery.of(Quotation.class, "quotations")
+                        .fetch("project").fetch("creator")
+                        .equal("active", "active", true)
+                        .equal("status", "status", QuotationStatus.SUBMITTED));
 
         return quotations.map(this::convertToQuotationSummaryResponse);
     }
 
+    /**
+     * Get pending quotations oldest submission first, keyset-paginated (Account Managers only)
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<QuotationSummaryResponse> getPendingQuotations(String cursor, int size) {
+        UserPrincipal currentUser = getCurrentUser();
+
+        if (!currentUser.hasAnyRole("SUPER_ADMIN", "ACCOUNT_MANAGER")) {
+            throw new UnauthorizedAccessException("Only Account Managers can view pending quotations");
+        }
+
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Slice<Quotation> quotations = after == null
+                ? quotationRepository.findByStatusFirstPage(QuotationStatus.SUBMITTED, CursorPage.request(size))
+                : quotationRepository.findByStatusAfterCursor(QuotationStatus.SUBMITTED,
+                        after.getSortKey(), after.getId(), CursorPage.request(size));
+
+        return CursorPage.from(quotations, this::convertToQuotationSummaryResponse,
+                q -> KeysetCursor.of(q.getSubmittedDate(), q.getId()));
+    }
+
     /**
      * Search quotations with filters
      */
     @Transactional(readOnly = true)
     public Page<QuotationSummaryResponse> searchQuotations(Long projectId, Long createdById,
                                                            String status, String description,
-                                                           Pageable pageable) {
+                                                           Pageable pageable, CountMode countMode) {
         UserPrincipal currentUser = getCurrentUser();
 
         // Project managers can only search their own quotations
@@ -297,8 +439,19 @@ public class QuotationService {
             }
         }
 
-        Page<Quotation> quotations = quotationRepository.findBySearchCriteria(
-                projectId, createdById, quotationStatus, description, pageable);
+        if (trigramSearchEnabled && description != null && !description.isBlank()) {
+            return searchQuotationsRanked(projectId, createdById, quotationStatus, description.trim(), pageable,
+                    countMode);
+        }
+
+        Page<Quotation> quotations = pageCountService.page(countMode, pageable,
+                CountQuery.of(Quotation.class, "quotations")
+                        .fetch("project").fetch("creator")
+                        .equal("active", "active", true)
+                        .equal("project.id", "project_id", projectId)
+                        .equal("creator.id", "created_by", createdById)
+                        .equal("status", "status", quotationStatus)
+                        .contains("description", "description", description));
 
         return quotations.map(this::convertToQuotationSummaryResponse);
     }
@@ -323,9 +476,12 @@ public class QuotationService {
         }
 
         User approver = getUserById(currentUser.getId());
+        workflowEngine.fire(quotation, WorkflowEvent.REJECT, currentUser);
         quotation.reject(approver, rejectionReason);
+        budgetReservationService.release(quotation);
 
         Quotation savedQuotation = quotationRepository.save(quotation);
+        publishDashboardChange(savedQuotation, "REJECTED");
 
         logger.info("Quotation {} rejected successfully by {}", quotationId, approver.getFullName());
 
@@ -348,6 +504,7 @@ public class QuotationService {
 
         quotation.setActive(false);
         quotationRepository.save(quotation);
+        publishDashboardChange(quotation, "DELETED");
 
         logger.info("Quotation {} deleted successfully", quotationId);
     }
@@ -374,23 +531,20 @@ public class QuotationService {
 
         QuotationStatistics stats = new QuotationStatistics();
 
+        // Manager-specific or system-wide (for admins), both read from the in-memory counters
+        StatusCounters<QuotationStatus> counters = projectManagerId != null
+                ? statusCounterService.quotationsCreatedBy(projectManagerId)
+                : statusCounterService.quotations();
+
+        stats.setTotalQuotations(counters.total());
+        stats.setDraftQuotations(counters.count(QuotationStatus.DRAFT));
+        stats.setPendingQuotations(counters.count(QuotationStatus.SUBMITTED));
+        stats.setApprovedQuotations(counters.count(QuotationStatus.APPROVED));
+        stats.setRejectedQuotations(counters.count(QuotationStatus.REJECTED));
+
         if (projectManagerId != null) {
-            // Manager-specific statistics
-            stats.setTotalQuotations(quotationRepository.countByCreatedBy(projectManagerId));
-            stats.setDraftQuotations(getQuotationCountByStatus(projectManagerId, QuotationStatus.DRAFT));
-            stats.setPendingQuotations(getQuotationCountByStatus(projectManagerId, QuotationStatus.SUBMITTED));
-            stats.setApprovedQuotations(getQuotationCountByStatus(projectManagerId, QuotationStatus.APPROVED));
-            stats.setRejectedQuotations(getQuotationCountByStatus(projectManagerId, QuotationStatus.REJECTED));
-
-            stats.setTotalAmount(getTotalAmountByStatus(projectManagerId, QuotationStatus.APPROVED));
-            stats.setPendingAmount(getTotalAmountByStatus(projectManagerId, QuotationStatus.SUBMITTED));
-        } else {
-            // System-wide statistics (for admins)
-            stats.setTotalQuotations(quotationRepository.countActiveQuotations());
-            stats.setDraftQuotations(quotationRepository.countByStatus(QuotationStatus.DRAFT));
-            stats.setPendingQuotations(quotationRepository.countByStatus(QuotationStatus.SUBMITTED));
-            stats.setApprovedQuotations(quotationRepository.countByStatus(QuotationStatus.APPROVED));
-            stats.setRejectedQuotations(quotationRepository.countByStatus(QuotationStatus.REJECTED));
+            stats.setTotalAmount(counters.amount(QuotationStatus.APPROVED));
+            stats.setPendingAmount(counters.amount(QuotationStatus.SUBMITTED));
         }
 
         return stats;
@@ -398,7 +552,59 @@ public class QuotationService {
 
     // Private helper methods
 
+    /**
+     * Trigram-indexed search ordered by similarity; the requested sort is replaced by the ranking.
+     * Exact totals are capped at RANKED_COUNT_CAP matches; estimate and none report the rows known
+     * to exist, which is exact on the last page.
+     */
+    private Page<QuotationSummaryResponse> searchQuotationsRanked(Long projectId, Long createdById,
+                                                                  QuotationStatus status, String term,
+                                                                  Pageable pageable, CountMode countMode) {
+        String statusName = status != null ? status.name() : null;
+        Slice<Long> ids = quotationRepository.searchRankedIds(projectId, createdById, statusName, term,
+                PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()));
+
+        long total = pageable.getOffset() + ids.getNumberOfElements() + (ids.hasNext() ? 1 : 0);
+        if (countMode == CountMode.EXACT && ids.hasNext()) {
+            total = Math.max(total, quotationRepository.countRankedIds(projectId, createdById, statusName, term,
+                    RANKED_COUNT_CAP));
+        }
+        if (ids.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, total);
+        }
+
+        Map<Long, Quotation> byId = quotationRepository.findAllWithRelationsByIdIn(ids.getContent()).stream()
+                .collect(Collectors.toMap(Quotation::getId, Function.identity()));
+        // A quotation deleted between the two queries has no entity; skip it rather than fail the page
+        List<QuotationSummaryResponse> content = ids.getContent().stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .map(this::convertToQuotationSummaryResponse)
+                .collect(Collectors.toList());
+        return new PageImpl<>(content, ids.getPageable(), total);
+    }
+
+    private Quotation createDraftQuotation(Project project, User creator, CreateQuotationRequest request) {
+        Quotation quotation = new Quotation(project, creator);
+        quotation.setDescription(request.getDescription());
+        quotation.setCurrency(request.getCurrency() != null ? request.getCurrency() : "SAR");
+        quotation.setStatus(QuotationStatus.DRAFT);
+
+        // Save quotation first to get ID
+        Quotation savedQuotation = quotationRepository.save(quotation);
+
+        // Add line items
+        if (request.getItems() != null && !request.getItems().isEmpty()) {
+            addQuotationItems(savedQuotation, request.getItems());
+            // Update total amount after adding items
+            savedQuotation.updateTotalAmount();
+            quotationRepository.save(savedQuotation);
+        }
+        return savedQuotation;
+    }
+
     private void addQuotationItems(Quotation quotation, List<CreateQuotationRequest.QuotationItemRequest> itemRequests) {
+        List<QuotationItem> items = new ArrayList<>(itemRequests.size());
         for (int i = 0; i < itemRequests.size(); i++) {
             CreateQuotationRequest.QuotationItemRequest itemRequest = itemRequests.get(i);
 
@@ -415,8 +621,9 @@ public class QuotationService {
             item.setItemOrder(i + 1);
 
             quotation.addItem(item);
-            quotationItemRepository.save(item);
+            items.add(item);
         }
+        quotationItemRepository.saveAll(items); // ids come from a pooled sequence, so this is one JDBC batch
     }
 
     private Project validateProjectAccess(Long projectId, Long userId) {
@@ -439,41 +646,6 @@ public class QuotationService {
         return project;
     }
 
-    private void validateBudgetCompliance(Quotation quotation) {
-        Project project = quotation.getProject();
-        BigDecimal quotationAmount = quotation.getTotalAmount();
-        BigDecimal remainingBudget = project.getRemainingBudget();
-
-        // Check if quotation exceeds remaining budget
-        if (quotationAmount.compareTo(remainingBudget) > 0) {
-            BigDecimal exceedAmount = quotationAmount.subtract(remainingBudget);
-
-            // Hard limit: Cannot exceed budget by more than 10%
-            BigDecimal maxExceedLimit = project.getAllocatedBudget().multiply(new BigDecimal("0.10"));
-
-            if (exceedAmount.compareTo(maxExceedLimit) > 0) {
-                throw new BusinessException("BUDGET_EXCEEDED",
-                        String.format("Quotation amount (SAR %.2f) exceeds project budget limit. " +
-                                        "Remaining budget: SAR %.2f, Maximum allowed excess: SAR %.2f",
-                                quotationAmount.doubleValue(), remainingBudget.doubleValue(), maxExceedLimit.doubleValue()));
-            }
-
-            // Soft warning: Log budget warning
-            logger.warn("Quotation {} exceeds remaining budget by SAR {} but within allowed limit",
-                    quotation.getId(), exceedAmount);
-        }
-    }
-
-    private void updateProjectBudget(Quotation quotation) {
-        Project project = quotation.getProject();
-        BigDecimal newSpentAmount = project.getSpentAmount().add(quotation.getTotalAmount());
-        project.setSpentAmount(newSpentAmount);
-        projectRepository.save(project);
-
-        logger.info("Updated project {} budget. Spent: SAR {}, Remaining: SAR {}",
-                project.getId(), newSpentAmount, project.getRemainingBudget());
-    }
-
     private Quotation getQuotationWithAccess(Long quotationId, Long userId) {
         Quotation quotation = quotationRepository.findByIdWithProjectAndItems(quotationId)
                 .orElseThrow(() -> new ResourceNotFoundException("Quotation", "id", quotationId));
@@ -493,6 +665,11 @@ public class QuotationService {
         return quotation;
     }
 
+    private void publishDashboardChange(Quotation quotation, String action) {
+        eventPublisher.publishEvent(new DashboardDataChangedEvent(DashboardDataChangedEvent.Source.QUOTATION,
+                quotation.getProject().getId(), quotation.getCreator().getId(), action));
+    }
+
     private UserPrincipal getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication == null || !authentication.isAuthenticated() ||
@@ -507,16 +684,6 @@ public class QuotationService {
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
     }
 
-    private long getQuotationCountByStatus(Long userId, QuotationStatus status) {
-        return quotationRepository.findByCreatedByIdAndActiveTrue(userId).stream()
-                .mapToLong(q -> q.getStatus() == status ? 1L : 0L)
-                .sum();
-    }
-
-    private BigDecimal getTotalAmountByStatus(Long userId, QuotationStatus status) {
-        return quotationRepository.getTotalAmountByCreatorAndStatus(userId, status);
-    }
-
     private QuotationResponse convertToQuotationResponse(Quotation quotation) {
         QuotationResponse response = new QuotationResponse();
         response.setId(quotation.getId());
@@ -0,0 +1,499 @@
+package com.company.erp.financial.service;
+
+import com.company.erp.common.exception.BusinessException;
+import com.company.erp.common.exception.ResourceNotFoundException;
+import com.company.erp.common.exception.UnauthorizedAccessException;
+import com.company.erp.common.security.UserPrincipal;
+import com.company.erp.common.service.StreamingExportService;
+import com.company.erp.financial.dto.response.ReportJobResponse;
+import com.company.erp.financial.entity.ReportJob;
+import com.company.erp.financial.entity.ReportJobStatus;
+import com.company.erp.financial.repository.ReportJobRepository;
+import com.company.erp.report.dto.request.ReportRequest;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.support.CronTrigger;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.stream.Stream;
+
+/**
+ * Asynchronous financial report jobs.
+ *
+ * Submissions return immediately with a job id; the report runs on the bounded report executor
+ * (max-concurrent threads, max-queued waiting jobs) and its Excel or CSV output is written under
+ * upload-dir/reports. When the executor is saturated the submission is rejected instead of
+ * running on the request thread. An identical request from the same user (same canonical
+ * ReportRequest hash and format) that is still queued or running joins the existing job instead
+ * of starting a new one; jobs are only visible to their owner.
+ *
+ * Job state lives in report_jobs, so status and downloads survive a restart and any node can serve
+ * them. The node running a job heartbeats it every minute; a queued or running job whose heartbeat
+ * is older than five minutes was left behind by a stopped node and is failed. The hourly purge
+ * deletes finished jobs past the retention period with their files, and any report file no job owns.
+ */
+@Service
+public class ReportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportJobService.class);
+
+    private static final Duration HEARTBEAT_INTERVAL = Duration.ofMinutes(1);
+    private static final Duration STALE_AFTER = Duration.ofMinutes(5);
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final FinancialReportService financialReportService;
+    private final StreamingExportService streamingExportService;
+    private final ReportJobRepository reportJobRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor reportGenerationExecutor;
+    private final TaskScheduler scheduler;
+    private final ObjectMapper canonicalMapper;
+    private final Path reportDirectory;
+    private final long retentionHours;
+
+    // Jobs queued or running on this node, by id and by dedup key
+    private final Map<String, LocalJob> localJobs = new ConcurrentHashMap<>();
+    private final Map<String, LocalJob> inFlightByKey = new ConcurrentHashMap<>();
+    private final List<ScheduledFuture<?>> tasks = new ArrayList<>();
+
+    public ReportJobService(FinancialReportService financialReportService,
+                            StreamingExportService streamingExportService,
+                            ReportJobRepository reportJobRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Qualifier("reportGenerationExecutor") Executor reportGenerationExecutor,
+                            @Qualifier("reportJobScheduler") TaskScheduler scheduler,
+                            @Value("${app.file.upload-dir:./uploads}") String uploadDir,
+                            @Value("${app.report.jobs.retention-hours:24}") long retentionHours) {
+        this.financialReportService = financialReportService;
+        this.streamingExportService = streamingExportService;
+        this.reportJobRepository = reportJobRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.reportGenerationExecutor = reportGenerationExecutor;
+        this.scheduler = scheduler;
+        this.reportDirectory = Paths.get(uploadDir, "reports").toAbsolutePath().normalize();
+        this.retentionHours = retentionHours;
+        this.canonicalMapper = JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+                .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+                .build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        tasks.add(scheduler.scheduleWithFixedDelay(this::heartbeat, HEARTBEAT_INTERVAL));
+        tasks.add(scheduler.schedule(this::purgeExpiredJobs, new CronTrigger("0 0 * * * ?"))); // Hourly
+    }
+
+    @PreDestroy
+    public void stop() {
+        tasks.forEach(task -> task.cancel(false));
+    }
+
+    /**
+     * Submit a report job, or join the same user's identical job that is still queued or running.
+     */
+    public ReportJobResponse submit(ReportRequest request, String format) {
+        UserPrincipal currentUser = getCurrentUser();
+        // Reject unsupported formats before queueing
+        String outputFormat = streamingExportService.resolveFormat(format).name();
+        String dedupKey = dedupKey(currentUser.getId(), request, outputFormat);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        if (!inFlightByKey.containsKey(dedupKey)) {
+            Optional<ReportJob> remote = reportJobRepository.findFirstByDedupKeyAndStatusIn(dedupKey,
+                    ReportJobStatus.IN_FLIGHT);
+            if (remote.isPresent()) {
+                logger.info("Report request coalesced into in-flight job {}", remote.get().getId());
+                return toResponse(remote.get(), true);
+            }
+        }
+
+        boolean[] created = new boolean[1];
+        LocalJob job = inFlightByKey.computeIfAbsent(dedupKey, key -> {
+            created[0] = true;
+            return new LocalJob(new ReportJob(UUID.randomUUID().toString(), currentUser.getId(),
+                    request.getReportType(), outputFormat, key, LocalDateTime.now()), request, authentication);
+        });
+
+        if (!created[0]) {
+            logger.info("Report request coalesced into in-flight job {}", job.id);
+            return toResponse(job.record, true);
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> reportJobRepository.save(job.record));
+        } catch (RuntimeException e) {
+            inFlightByKey.remove(dedupKey, job);
+            throw e;
+        }
+        localJobs.put(job.id, job);
+        schedule(job);
+        logger.info("Report job {} queued: {} as {}", job.id, request.getReportType(), outputFormat);
+
+        return toResponse(job.record, false);
+    }
+
+    public ReportJobResponse getStatus(String jobId) {
+        return toResponse(getAccessibleJob(jobId), false);
+    }
+
+    /**
+     * Path of a completed job's output.
+     */
+    public Path getResultFile(String jobId) {
+        ReportJob job = getAccessibleJob(jobId);
+        if (job.getStatus() != ReportJobStatus.COMPLETED) {
+            throw new BusinessException("REPORT_NOT_READY", "Report job is " + job.getStatus());
+        }
+        Path file = reportDirectory.resolve(job.getFileName());
+        if (!Files.exists(file)) {
+            throw new ResourceNotFoundException("Report file for job " + jobId + " no longer exists");
+        }
+        return file;
+    }
+
+    public ReportJobResponse cancel(String jobId) {
+        ReportJob job = getAccessibleJob(jobId);
+
+        Integer cancelled = transactionTemplate.execute(status ->
+                reportJobRepository.finish(jobId, ReportJobStatus.CANCELLED, null, LocalDateTime.now()));
+        if (cancelled == null || cancelled == 0) {
+            ReportJobStatus current = reportJobRepository.findById(jobId).map(ReportJob::getStatus).orElse(job.getStatus());
+            throw new BusinessException("REPORT_JOB_FINISHED", "Report job is already " + current);
+        }
+
+        // A job running on another node is stopped by that node's next heartbeat
+        LocalJob local = localJobs.get(jobId);
+        if (local != null) {
+            interrupt(local);
+        }
+        logger.info("Report job {} cancelled", jobId);
+
+        return toResponse(reportJobRepository.findById(jobId).orElse(job), false);
+    }
+
+    /**
+     * Keep this node's jobs alive, fail jobs whose node stopped heartbeating, and stop local jobs
+     * cancelled through another node.
+     */
+    public void heartbeat() {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            List<String> localIds = new ArrayList<>(localJobs.keySet());
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!localIds.isEmpty()) {
+                    reportJobRepository.heartbeat(localIds, now);
+                }
+                int failed = reportJobRepository.failStale(now.minus(STALE_AFTER),
+                        "Interrupted: the node running this job stopped", now);
+                if (failed > 0) {
+                    logger.warn("Failed {} report jobs left behind by a stopped node", failed);
+                }
+            });
+
+            if (!localIds.isEmpty()) {
+                for (ReportJob job : reportJobRepository.findAllById(localIds)) {
+                    LocalJob local = localJobs.get(job.getId());
+                    if (local != null && job.getStatus().isFinished()) {
+                        interrupt(local);
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Report job heartbeat failed: {}", e.getMessage());
+        }
+    }
+
+    public void purgeExpiredJobs() {
+        try {
+            List<ReportJob> expired = reportJobRepository.findFinishedBefore(LocalDateTime.now().minusHours(retentionHours));
+            for (ReportJob job : expired) {
+                if (job.getFileName() != null) {
+                    deleteQuietly(reportDirectory.resolve(job.getFileName()));
+                }
+            }
+            if (!expired.isEmpty()) {
+                transactionTemplate.executeWithoutResult(status -> reportJobRepository.deleteAllInBatch(expired));
+            }
+
+            deleteOrphanedFiles();
+        } catch (RuntimeException e) {
+            logger.warn("Report job purge failed: {}", e.getMessage());
+        }
+    }
+
+    // Helper methods
+
+    private void schedule(LocalJob job) {
+        job.task = new FutureTask<>(new DelegatingSecurityContextRunnable(() -> run(job), contextFor(job)), null);
+
+        try {
+            reportGenerationExecutor.execute(() -> {
+                try {
+                    job.task.run();
+                } finally {
+                    release(job);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Requests that coalesced in the meantime see the job as failed rather than vanished
+            transactionTemplate.executeWithoutResult(status -> reportJobRepository.finish(job.id,
+                    ReportJobStatus.FAILED, "Report queue is full", LocalDateTime.now()));
+            release(job);
+            throw new BusinessException("REPORT_QUEUE_FULL",
+                    "Too many report jobs are queued; please retry once running jobs finish");
+        }
+    }
+
+    private void run(LocalJob job) {
+        Integer started = transactionTemplate.execute(status ->
+                reportJobRepository.markRunning(job.id, LocalDateTime.now()));
+        if (started == null || started == 0) {
+            return; // Cancelled while queued
+        }
+
+        long startTime = System.currentTimeMillis();
+        Path target = reportDirectory.resolve(job.id + "." + extensionFor(job.format));
+        Path partial = reportDirectory.resolve(job.id + ".part");
+
+        try {
+            Files.createDirectories(reportDirectory);
+            writeReport(job, partial);
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            Integer completed = transactionTemplate.execute(status -> reportJobRepository.markCompleted(job.id,
+                    target.getFileName().toString(), LocalDateTime.now()));
+            if (completed == null || completed == 0) {
+                deleteQuietly(target); // Cancelled, or failed as stale, while running
+                return;
+            }
+            logger.info("Report job {} completed in {}ms", job.id, System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            deleteQuietly(partial);
+            transactionTemplate.executeWithoutResult(status -> reportJobRepository.finish(job.id,
+                    ReportJobStatus.FAILED, truncate(e.getMessage()), LocalDateTime.now()));
+            logger.error("Report job {} failed", job.id, e);
+        }
+    }
+
+    private void writeReport(LocalJob job, Path target) throws IOException {
+        StreamingResponseBody export = financialReportService.exportFinancialReport(job.request,
+                streamingExportService.resolveFormat(job.format));
+        try (OutputStream out = Files.newOutputStream(target)) {
+            export.writeTo(out);
+        }
+    }
+
+    private void release(LocalJob job) {
+        inFlightByKey.remove(job.dedupKey, job);
+        localJobs.remove(job.id, job);
+    }
+
+    private void interrupt(LocalJob job) {
+        FutureTask<Void> task = job.task;
+        if (task != null) {
+            task.cancel(true);
+        }
+        inFlightByKey.remove(job.dedupKey, job);
+    }
+
+    /**
+     * Deletes files under the report directory that belong to no known job, or to a finished job
+     * that does not own them (partial output of a failed or cancelled run).
+     */
+    private void deleteOrphanedFiles() {
+        if (!Files.isDirectory(reportDirectory)) {
+            return;
+        }
+
+        Map<String, List<Path>> filesByJob = new HashMap<>();
+        try (Stream<Path> files = Files.list(reportDirectory)) {
+            files.filter(Files::isRegularFile).forEach(file ->
+                    filesByJob.computeIfAbsent(jobIdOf(file), id -> new ArrayList<>()).add(file));
+        } catch (IOException e) {
+            logger.warn("Failed to list report directory {}: {}", reportDirectory, e.getMessage());
+            return;
+        }
+        if (filesByJob.isEmpty()) {
+            return;
+        }
+
+        Map<String, ReportJob> jobs = new HashMap<>();
+        reportJobRepository.findAllById(filesByJob.keySet()).forEach(job -> jobs.put(job.getId(), job));
+
+        int deleted = 0;
+        for (Map.Entry<String, List<Path>> entry : filesByJob.entrySet()) {
+            if (localJobs.containsKey(entry.getKey())) {
+                continue;
+            }
+            ReportJob job = jobs.get(entry.getKey());
+            for (Path file : entry.getValue()) {
+                if (!owns(job, file)) {
+                    deleteQuietly(file);
+                    deleted++;
+                }
+            }
+        }
+        if (deleted > 0) {
+            logger.info("Deleted {} orphaned report files", deleted);
+        }
+    }
+
+    private boolean owns(ReportJob job, Path file) {
+        if (job == null) {
+            return false;
+        }
+        if (!job.getStatus().isFinished()) {
+            return true; // Possibly being written by another node
+        }
+        return job.getStatus() == ReportJobStatus.COMPLETED && file.getFileName().toString().equals(job.getFileName());
+    }
+
+    private String jobIdOf(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.indexOf('.');
+        return dot >= 0 ? name.substring(0, dot) : name;
+    }
+
+    private SecurityContext contextFor(LocalJob job) {
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(job.authentication);
+        return context;
+    }
+
+    private ReportJob getAccessibleJob(String jobId) {
+        ReportJob job = reportJobRepository.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("Report job", "id", jobId));
+
+        UserPrincipal currentUser = getCurrentUser();
+        if (!job.getOwnerId().equals(currentUser.getId()) && !currentUser.hasRole("SUPER_ADMIN")) {
+            throw new UnauthorizedAccessException("You don't have access to this report job");
+        }
+        return job;
+    }
+
+    private String dedupKey(Long userId, ReportRequest request, String format) {
+        try {
+            byte[] canonical = canonicalMapper.writeValueAsBytes(request);
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(String.valueOf(userId).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(format.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            return HexFormat.of().formatHex(digest.digest(canonical));
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new BusinessException("REPORT_REQUEST_INVALID", "Unable to fingerprint report request: " + e.getMessage());
+        }
+    }
+
+    private String extensionFor(String format) {
+        return "EXCEL".equals(format) ? "xlsx" : "csv";
+    }
+
+    private String truncate(String message) {
+        if (message == null || message.length() <= MAX_ERROR_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Failed to delete report file {}: {}", file, e.getMessage());
+        }
+    }
+
+    private UserPrincipal getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return (UserPrincipal) authentication.getPrincipal();
+    }
+
+    private ReportJobResponse toResponse(ReportJob job, boolean coalesced) {
+        ReportJobResponse response = new ReportJobResponse();
+        response.setJobId(job.getId());
+        response.setStatus(job.getStatus().name());
+        response.setReportType(job.getReportType());
+        response.setFormat(job.getFormat());
+        response.setCoalesced(coalesced);
+        response.setSubmittedAt(job.getSubmittedAt());
+        response.setStartedAt(job.getStartedAt());
+        response.setCompletedAt(job.getCompletedAt());
+        response.setErrorMessage(job.getErrorMessage());
+        if (job.getFileName() != null) {
+            response.setFileName(job.getFileName());
+            try {
+                response.setFileSize(Files.size(reportDirectory.resolve(job.getFileName())));
+            } catch (IOException e) {
+                response.setFileSize(null);
+            }
+        }
+        return response;
+    }
+
+    /**
+     * What only the submitting node holds for a job: the request and the submitter's authentication
+     * it runs under, and the task to interrupt on cancel.
+     */
+    private static final class LocalJob {
+        private final String id;
+        private final String dedupKey;
+        private final String format;
+        private final ReportJob record; // As submitted; the table holds the current status
+        private final ReportRequest request;
+        private final Authentication authentication;
+        private volatile FutureTask<Void> task;
+
+        private LocalJob(ReportJob record, ReportRequest request, Authentication authentication) {
+            this.id = record.getId();
+            this.dedupKey = record.getDedupKey();
+            this.format = record.getFormat();
+            this.record = record;
+            this.request = request;
+            this.authentication = authentication;
+        }
+    }
+}
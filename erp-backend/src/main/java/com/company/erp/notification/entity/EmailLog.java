@@ -1,5 +1,6 @@
 package com.company.erp.notification.entity;
 
+import com.company.erp.common.annotation.PooledSequence;
 import com.company.erp.common.entity.AuditableEntity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
@@ -13,6 +14,7 @@ import java.time.LocalDateTime;
         @Index(name = "idx_email_logs_success", columnList = "success"),
         @Index(name = "idx_email_logs_sent_at", columnList = "sent_at")
 })
+@PooledSequence
 public class EmailLog extends AuditableEntity {
 
     @NotNull
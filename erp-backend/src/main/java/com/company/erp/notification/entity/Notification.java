@@ -1,6 +1,7 @@
 
 package com.company.erp.notification.entity;
 
+import com.company.erp.common.annotation.PooledSequence;
 import com.company.erp.common.entity.AuditableEntity;
 import com.company.erp.user.entity.User;
 import jakarta.persistence.*;
@@ -18,6 +19,7 @@ import java.util.Map;
         @Index(name = "idx_notifications_sent_scheduled", columnList = "sent, scheduled_time"),
         @Index(name = "idx_notifications_created_date", columnList = "created_date")
 })
+@PooledSequence
 public class Notification extends AuditableEntity {
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -42,6 +42,7 @@ public enum NotificationType {
     APPROVAL_APPROVED("Approval Approved", "Request approved"),
     APPROVAL_REJECTED("Approval Rejected", "Request rejected"),
     APPROVAL_DELEGATED("Approval Delegated", "Approval delegated"),
+    APPROVAL_ESCALATED("Approval Escalated", "Approval passed its SLA deadline"),
 
     // Payment Processing
     PAYMENT_CREATED("Payment Created", "Payment created"),
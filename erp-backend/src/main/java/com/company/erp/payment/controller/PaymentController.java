@@ -1,7 +1,9 @@
 package com.company.erp.payment.controller;
 
+import com.company.erp.common.dto.CursorPage;
 import com.company.erp.payment.dto.request.ConfirmPaymentRequest;
 import com.company.erp.payment.dto.request.GenerateBankFileRequest;
+import com.company.erp.payment.dto.request.GenerateBankFilesRequest;
 import com.company.erp.payment.dto.response.BankFileResponse;
 import com.company.erp.payment.dto.response.PaymentSummaryResponse;
 import com.company.erp.payment.entity.PaymentBatch;
@@ -90,6 +92,26 @@ public class PaymentController {
         return ResponseEntity.ok(response);
     }
 
+    @Operation(summary = "Generate Saudi bank files per bank",
+            description = "Generate one Excel file per bank for selected payments; files are written concurrently")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Bank files generated successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid payments or bank validation failed"),
+            @ApiResponse(responseCode = "403", description = "Access denied - Account Managers only")
+    })
+    @PostMapping("/generate-bank-files")
+    @PreAuthorize("hasAuthority('ACCOUNT_MANAGER') or hasAuthority('SUPER_ADMIN')")
+    public ResponseEntity<List<BankFileResponse>> generateBankFiles(@Valid @RequestBody GenerateBankFilesRequest request) {
+
+        logger.info("Generating bank files for {} payments", request.getPaymentIds().size());
+
+        List<BankFileResponse> responses = paymentService.generateBankFiles(request);
+
+        logger.info("Generated {} bank files", responses.size());
+
+        return ResponseEntity.ok(responses);
+    }
+
     @Operation(summary = "Download bank file",
             description = "Download the generated Excel file for bank processing")
     @ApiResponses(value = {
@@ -188,6 +210,22 @@ public class PaymentController {
         return ResponseEntity.ok(payments);
     }
 
+    @Operation(summary = "Scroll payments ready for processing",
+            description = "Cursor-paginated pending payments, oldest first; pass nextCursor from the previous page to continue")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Payments retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor"),
+            @ApiResponse(responseCode = "403", description = "Access denied")
+    })
+    @GetMapping("/ready-for-processing/scroll")
+    @PreAuthorize("hasAuthority('ACCOUNT_MANAGER') or hasAuthority('SUPER_ADMIN')")
+    public ResponseEntity<CursorPage<PaymentSummaryResponse>> scrollPaymentsReadyForProcessing(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+
+        return ResponseEntity.ok(paymentService.getPaymentsReadyForProcessing(cursor, size));
+    }
+
     @Operation(summary = "Get payments by status",
             description = "Get paginated list of payments filtered by status")
     @ApiResponses(value = {
@@ -214,6 +252,24 @@ public class PaymentController {
         return ResponseEntity.ok(payments);
     }
 
+    @Operation(summary = "Scroll payments by status",
+            description = "Cursor-paginated payments with the given status, newest first")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Payments retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor"),
+            @ApiResponse(responseCode = "403", description = "Access denied")
+    })
+    @GetMapping("/by-status/{status}/scroll")
+    @PreAuthorize("hasAuthority('ACCOUNT_MANAGER') or hasAuthority('SUPER_ADMIN')")
+    public ResponseEntity<CursorPage<PaymentSummaryResponse>> scrollPaymentsByStatus(
+            @Parameter(description = "Payment Status") @PathVariable String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+
+        PaymentStatus paymentStatus = PaymentStatus.valueOf(status.toUpperCase());
+        return ResponseEntity.ok(paymentService.getPaymentsByStatus(paymentStatus, cursor, size));
+    }
+
     @Operation(summary = "Get payment batches",
             description = "Get paginated list of payment batches")
     @ApiResponses(value = {
@@ -14,6 +14,8 @@ public class GenerateBankFileRequest {
     @Size(max = 100, message = "Bank name must not exceed 100 characters")
     private String bankName;
 
+    private String format; // EXCEL, SARIE or SWIFT; defaults to app.payment.bank-file.format
+
     @Size(max = 500, message = "Notes must not exceed 500 characters")
     private String notes;
 
@@ -27,6 +29,9 @@ public class GenerateBankFileRequest {
     public String getBankName() { return bankName; }
     public void setBankName(String bankName) { this.bankName = bankName; }
 
+    public String getFormat() { return format; }
+    public void setFormat(String format) { this.format = format; }
+
     public String getNotes() { return notes; }
     public void setNotes(String notes) { this.notes = notes; }
 }
@@ -0,0 +1,29 @@
+package com.company.erp.payment.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public class GenerateBankFilesRequest {
+
+    @NotEmpty(message = "At least one payment ID is required")
+    private List<Long> paymentIds; // may span several banks; one file is generated per bank
+
+    private String format; // EXCEL, SARIE or SWIFT; defaults to app.payment.bank-file.format
+
+    @Size(max = 500, message = "Notes must not exceed 500 characters")
+    private String notes;
+
+    // Constructors
+    public GenerateBankFilesRequest() {}
+
+    // Getters and Setters
+    public List<Long> getPaymentIds() { return paymentIds; }
+    public void setPaymentIds(List<Long> paymentIds) { this.paymentIds = paymentIds; }
+
+    public String getFormat() { return format; }
+    public void setFormat(String format) { this.format = format; }
+
+    public String getNotes() { return notes; }
+    public void setNotes(String notes) { this.notes = notes; }
+}
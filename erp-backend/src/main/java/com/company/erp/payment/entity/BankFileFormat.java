@@ -0,0 +1,54 @@
+package com.company.erp.payment.entity;
+
+import com.company.erp.common.exception.BusinessException;
+
+public enum BankFileFormat {
+    EXCEL("Excel", ".xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"),
+    SARIE("SARIE", ".txt", "text/plain"),
+    SWIFT("SWIFT MT", ".fin", "text/plain");
+
+    private final String displayName;
+    private final String extension;
+    private final String contentType;
+
+    BankFileFormat(String displayName, String extension, String contentType) {
+        this.displayName = displayName;
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+
+    /**
+     * Parse a request or configuration value; blank means the given default.
+     */
+    public static BankFileFormat fromString(String value, BankFileFormat defaultFormat) {
+        if (value == null || value.trim().isEmpty()) {
+            return defaultFormat;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("INVALID_FORMAT", "Unsupported bank file format: " + value);
+        }
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public boolean isText() {
+        return this != EXCEL;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
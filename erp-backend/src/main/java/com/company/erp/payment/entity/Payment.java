@@ -1,5 +1,6 @@
 package com.company.erp.payment.entity;
 
+import com.company.erp.common.annotation.PooledSequence;
 import com.company.erp.common.entity.AuditableEntity;
 import com.company.erp.financial.entity.Quotation;
 import com.company.erp.user.entity.User;
@@ -12,6 +13,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "payments")
+@PooledSequence
 public class Payment extends AuditableEntity {
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -9,6 +9,7 @@ import jakarta.validation.constraints.Positive;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 @Entity
@@ -41,6 +42,11 @@ public class PaymentBatch extends AuditableEntity {
     @JoinColumn(name = "created_by_user_id", nullable = false)
     private User creator;
 
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "file_format", nullable = false, length = 10)
+    private BankFileFormat fileFormat = BankFileFormat.EXCEL;
+
     @Column(name = "file_name", length = 200)
     private String fileName;
 
@@ -82,6 +88,14 @@ public class PaymentBatch extends AuditableEntity {
         recalculateTotals();
     }
 
+    public void addPayments(Collection<Payment> newPayments) {
+        for (Payment payment : newPayments) {
+            payments.add(payment);
+            payment.setBatch(this);
+        }
+        recalculateTotals(); // Once, not per payment
+    }
+
     public void removePayment(Payment payment) {
         payments.remove(payment);
         payment.setBatch(null);
@@ -199,6 +213,14 @@ public class PaymentBatch extends AuditableEntity {
         this.creator = creator;
     }
 
+    public BankFileFormat getFileFormat() {
+        return fileFormat;
+    }
+
+    public void setFileFormat(BankFileFormat fileFormat) {
+        this.fileFormat = fileFormat;
+    }
+
     public String getFileName() {
         return fileName;
     }
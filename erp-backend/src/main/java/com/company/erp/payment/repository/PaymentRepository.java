@@ -4,12 +4,15 @@ import com.company.erp.payment.entity.Payment;
 import com.company.erp.payment.entity.PaymentStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -24,6 +27,44 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
             "WHERE p.status = :status AND p.active = true")
     Page<Payment> findByStatusWithDetails(@Param("status") PaymentStatus status, Pageable pageable);
 
+    // Keyset pagination by (createdDate, id): a FirstPage query and an AfterCursor query seeking past the row value
+    @Query("SELECT p FROM Payment p LEFT JOIN FETCH p.quotation q LEFT JOIN FETCH q.project LEFT JOIN FETCH p.payee " +
+            "WHERE p.status = :status AND p.active = true " +
+            "ORDER BY p.createdDate ASC, p.id ASC")
+    Slice<Payment> findByStatusFirstPageAsc(@Param("status") PaymentStatus status, Pageable pageable);
+
+    @Query("SELECT p FROM Payment p LEFT JOIN FETCH p.quotation q LEFT JOIN FETCH q.project LEFT JOIN FETCH p.payee " +
+            "WHERE p.status = :status AND p.active = true " +
+            "AND (p.createdDate, p.id) > (:cursorDate, :cursorId) " +
+            "ORDER BY p.createdDate ASC, p.id ASC")
+    Slice<Payment> findByStatusAfterCursorAsc(@Param("status") PaymentStatus status,
+                                              @Param("cursorDate") LocalDateTime cursorDate,
+                                              @Param("cursorId") Long cursorId,
+                                              Pageable pageable);
+
+    @Query("SELECT p FROM Payment p LEFT JOIN FETCH p.quotation q LEFT JOIN FETCH q.project LEFT JOIN FETCH p.payee " +
+            "WHERE p.status = :status AND p.active = true " +
+            "ORDER BY p.createdDate DESC, p.id DESC")
+    Slice<Payment> findByStatusFirstPageDesc(@Param("status") PaymentStatus status, Pageable pageable);
+
+    @Query("SELECT p FROM Payment p LEFT JOIN FETCH p.quotation q LEFT JOIN FETCH q.project LEFT JOIN FETCH p.payee " +
+            "WHERE p.status = :status AND p.active = true " +
+            "AND (p.createdDate, p.id) < (:cursorDate, :cursorId) " +
+            "ORDER BY p.createdDate DESC, p.id DESC")
+    Slice<Payment> findByStatusAfterCursorDesc(@Param("status") PaymentStatus status,
+                                               @Param("cursorDate") LocalDateTime cursorDate,
+                                               @Param("cursorId") Long cursorId,
+                                               Pageable pageable);
+
+    // (id, bankName) rows, to group a bank file request by bank without loading the payments
+    @Query("SELECT p.id, p.bankName FROM Payment p WHERE p.id IN :ids")
+    List<Object[]> findBankNamesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Next chunk of a batch's payments in id order, seeking past the last id read
+    @Query("SELECT p FROM Payment p LEFT JOIN FETCH p.quotation q LEFT JOIN FETCH q.project LEFT JOIN FETCH p.payee " +
+            "WHERE p.batch.id = :batchId AND p.id > :afterId ORDER BY p.id ASC")
+    List<Payment> findBankFileChunk(@Param("batchId") Long batchId, @Param("afterId") Long afterId, Pageable pageable);
+
     // Find payments by payee
     List<Payment> findByPayeeIdAndActiveTrue(Long payeeId);
     Page<Payment> findByPayeeIdAndActiveTrue(Long payeeId, Pageable pageable);
@@ -43,6 +84,10 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     @Query("SELECT COALESCE(SUM(p.amount), 0) FROM Payment p WHERE p.status = :status AND p.active = true")
     BigDecimal getTotalAmountByStatus(@Param("status") PaymentStatus status);
 
+    // (status, count, totalAmount) for every active payment in one pass
+    @Query("SELECT p.status, COUNT(p), COALESCE(SUM(p.amount), 0) FROM Payment p WHERE p.active = true GROUP BY p.status")
+    List<Object[]> countAndSumByStatus();
+
     // Find failed payments that can be retried
     @Query("SELECT p FROM Payment p WHERE p.status = 'FAILED' AND p.retryCount < 3 AND p.active = true")
     List<Payment> findFailedPaymentsForRetry();
@@ -7,21 +7,34 @@ import com.company.erp.payment.entity.BankFile;
 import com.company.erp.payment.entity.PaymentBatch;
 import com.company.erp.payment.repository.BankFileRepository;
 import com.company.erp.payment.repository.PaymentBatchRepository;
+import com.company.erp.payment.service.SaudiBankFileGenerator.BankFileContent;
 import com.company.erp.user.entity.User;
 import com.company.erp.user.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 @Service
 @Transactional
@@ -44,52 +57,85 @@ public class BankFileService {
     @Autowired
     private SaudiBankFileGenerator bankFileGenerator;
 
-    /**
-     * Generate bank file and save to disk
-     */
-    public BankFileResponse generateBankFile(PaymentBatch batch) {
-        logger.info("Generating and saving bank file for batch: {}", batch.getBatchNumber());
+    @Autowired
+    private FixedWidthBankFileWriter fixedWidthBankFileWriter;
 
-        try {
-            // Generate the file content
-            byte[] fileContent = bankFileGenerator.generateBankFile(batch, batch.getBankName());
+    @Autowired
+    @Qualifier("bankFileExecutor")
+    private Executor bankFileExecutor;
 
-            // Generate file name
-            String fileName = bankFileGenerator.generateFileName(batch);
+    @Autowired
+    private PlatformTransactionManager transactionManager;
 
-            // Save file to disk
-            String filePath = saveFileToDisk(fileName, fileContent);
+    /**
+     * Generate bank file and save to disk
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BankFileResponse generateBankFile(Long batchId) {
+        return generateBankFiles(List.of(batchId)).get(0);
+    }
 
-            // Update batch with file information
-            batch.markAsGenerated(fileName, filePath);
-            paymentBatchRepository.save(batch);
+    /**
+     * Generate and save the files of several batches (typically one per bank) at once. The batch
+     * headers are snapshotted in a short read-only transaction; the files are then streamed to
+     * disk in parallel on the shared bank file executor with no transaction open, each reading its
+     * payments a chunk at a time, and all batches are updated in a second short transaction once
+     * every file is written. If any file fails, the files already written are deleted and nothing
+     * is recorded.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<BankFileResponse> generateBankFiles(List<Long> batchIds) {
+        logger.info("Generating and saving bank files for {} batches", batchIds.size());
+        long startTime = System.currentTimeMillis();
+
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+
+        List<String> fileNames = new ArrayList<>(batchIds.size());
+        List<BankFileContent> contents = readOnlyTransaction.execute(status -> {
+            List<BankFileContent> prepared = new ArrayList<>(batchIds.size());
+            for (Long batchId : batchIds) {
+                PaymentBatch batch = paymentBatchRepository.findById(batchId)
+                        .orElseThrow(() -> new ResourceNotFoundException("PaymentBatch", "id", batchId));
+                prepared.add(bankFileGenerator.prepare(batch));
+                fileNames.add(bankFileGenerator.generateFileName(batch));
+            }
+            return prepared;
+        });
+
+        List<CompletableFuture<WrittenFile>> running = new ArrayList<>(batchIds.size());
+        for (int i = 0; i < batchIds.size(); i++) {
+            String fileName = fileNames.get(i);
+            BankFileContent content = contents.get(i);
+            running.add(CompletableFuture.supplyAsync(() -> writeFileToDisk(fileName, content), bankFileExecutor));
+        }
 
-            // Create bank file record
-            BankFile bankFile = createBankFileRecord(batch, fileName, filePath, fileContent.length);
-            bankFileRepository.save(bankFile);
+        List<WrittenFile> written = new ArrayList<>(batchIds.size());
+        RuntimeException failure = null;
+        for (CompletableFuture<WrittenFile> file : running) {
+            try {
+                written.add(file.join());
+            } catch (CompletionException e) {
+                failure = failure != null ? failure : unwrap(e);
+            }
+        }
+        if (failure != null) {
+            written.forEach(this::deleteQuietly);
+            logger.error("Error generating bank files: {}", failure.getMessage(), failure);
+            throw failure instanceof BusinessException ? failure : new BusinessException("BANK_FILE_GENERATION_ERROR",
+                    "Failed to generate bank file: " + failure.getMessage());
+        }
 
-            // Create response
-            BankFileResponse response = new BankFileResponse();
-            response.setBatchId(batch.getId());
-            response.setBatchNumber(batch.getBatchNumber());
-            response.setFileName(fileName);
-            response.setDownloadUrl("/api/payments/download-bank-file/" + batch.getId());
-            response.setBankName(batch.getBankName());
-            response.setPaymentCount(batch.getPaymentCount());
-            response.setTotalAmount(batch.getTotalAmount());
-            response.setCurrency(batch.getCurrency());
-            response.setGeneratedDate(batch.getGeneratedDate());
-            response.setStatus(batch.getStatus().name());
-
-            logger.info("Bank file generated and saved successfully: {}", fileName);
-
-            return response;
-
-        } catch (Exception e) {
-            logger.error("Error generating bank file for batch: {}", batch.getBatchNumber(), e);
-            throw new BusinessException("BANK_FILE_GENERATION_ERROR",
-                    "Failed to generate bank file: " + e.getMessage());
+        List<BankFileResponse> responses;
+        try {
+            responses = new TransactionTemplate(transactionManager).execute(status -> recordFiles(batchIds, written));
+        } catch (RuntimeException e) {
+            written.forEach(this::deleteQuietly);
+            throw e;
         }
+
+        logger.info("Generated {} bank files in {}ms", batchIds.size(), System.currentTimeMillis() - startTime);
+        return responses;
     }
 
     /**
@@ -142,7 +188,7 @@ public class BankFileService {
                 .orElseThrow(() -> new ResourceNotFoundException("PaymentBatch", "id", batchId));
 
         return batch.getFileName() != null ? batch.getFileName() :
-                "payment_file_" + batch.getBatchNumber() + ".xlsx";
+                "payment_file_" + batch.getBatchNumber() + batch.getFileFormat().getExtension();
     }
 
     /**
@@ -219,23 +265,97 @@ public class BankFileService {
 
     // Private helper methods
 
-    private String saveFileToDisk(String fileName, byte[] fileContent) throws IOException {
-        // Ensure upload directory exists
-        Path uploadPath = Paths.get(uploadDir);
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
+    private List<BankFileResponse> recordFiles(List<Long> batchIds, List<WrittenFile> written) {
+        List<BankFileResponse> responses = new ArrayList<>(batchIds.size());
+        for (int i = 0; i < batchIds.size(); i++) {
+            Long batchId = batchIds.get(i);
+            PaymentBatch batch = paymentBatchRepository.findById(batchId)
+                    .orElseThrow(() -> new ResourceNotFoundException("PaymentBatch", "id", batchId));
+            WrittenFile file = written.get(i);
+
+            // Update batch with file information
+            batch.markAsGenerated(file.fileName, file.path.toString());
+            paymentBatchRepository.save(batch);
+
+            // Create bank file record
+            BankFile bankFile = createBankFileRecord(batch, file.fileName, file.path.toString(), file.size);
+            bankFileRepository.save(bankFile);
+
+            responses.add(toResponse(batch, file.fileName));
+            logger.info("Bank file generated and saved successfully: {}", file.fileName);
         }
+        return responses;
+    }
+
+    /**
+     * Stream one file into a temp file through a FileChannel and move it into place, so a failed
+     * or partial write never leaves a file under the final name.
+     */
+    private WrittenFile writeFileToDisk(String fileName, BankFileContent content) {
+        Path temp = null;
+        try {
+            // Ensure upload directory exists
+            Path uploadPath = Paths.get(uploadDir);
+            Files.createDirectories(uploadPath);
+
+            // Create file path with timestamp to avoid conflicts
+            Path filePath = uploadPath.resolve(addTimestampToFileName(fileName));
+            temp = uploadPath.resolve(filePath.getFileName() + ".part");
+
+            long size;
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                if (content.getFormat().isText()) {
+                    fixedWidthBankFileWriter.write(content, channel);
+                } else {
+                    bankFileGenerator.write(content, channel);
+                }
+                channel.force(false);
+                size = channel.size();
+            }
+            Files.move(temp, filePath, StandardCopyOption.ATOMIC_MOVE);
+
+            logger.debug("File saved to disk: {}", filePath);
+            return new WrittenFile(fileName, filePath, size);
 
-        // Create file path with timestamp to avoid conflicts
-        String timestampedFileName = addTimestampToFileName(fileName);
-        Path filePath = uploadPath.resolve(timestampedFileName);
+        } catch (IOException e) {
+            throw new BusinessException("BANK_FILE_GENERATION_ERROR",
+                    "Failed to write bank file " + fileName + ": " + e.getMessage());
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException e) {
+                    logger.warn("Could not delete partial bank file {}", temp);
+                }
+            }
+        }
+    }
 
-        // Write file to disk
-        Files.write(filePath, fileContent);
+    private void deleteQuietly(WrittenFile file) {
+        try {
+            Files.deleteIfExists(file.path);
+        } catch (IOException e) {
+            logger.warn("Could not delete bank file {} after a failed generation", file.path);
+        }
+    }
 
-        logger.debug("File saved to disk: {}", filePath.toString());
+    private RuntimeException unwrap(CompletionException e) {
+        return e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+    }
 
-        return filePath.toString();
+    private BankFileResponse toResponse(PaymentBatch batch, String fileName) {
+        BankFileResponse response = new BankFileResponse();
+        response.setBatchId(batch.getId());
+        response.setBatchNumber(batch.getBatchNumber());
+        response.setFileName(fileName);
+        response.setDownloadUrl("/api/payments/download-bank-file/" + batch.getId());
+        response.setBankName(batch.getBankName());
+        response.setPaymentCount(batch.getPaymentCount());
+        response.setTotalAmount(batch.getTotalAmount());
+        response.setCurrency(batch.getCurrency());
+        response.setGeneratedDate(batch.getGeneratedDate());
+        response.setStatus(batch.getStatus().name());
+        return response;
     }
 
     private String addTimestampToFileName(String fileName) {
@@ -256,7 +376,7 @@ public class BankFileService {
         bankFile.setFileName(fileName);
         bankFile.setFilePath(filePath);
         bankFile.setFileSize(fileSize);
-        bankFile.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+        bankFile.setContentType(batch.getFileFormat().getContentType());
         bankFile.setBankName(batch.getBankName());
 
         // Set generator from current user
@@ -282,4 +402,16 @@ public class BankFileService {
         // For now, just log the cleanup attempt
         logger.info("Bank file cleanup completed for files older than {}", cutoffDate);
     }
-}
\ No newline at end of file
+
+    private static final class WrittenFile {
+        private final String fileName;
+        private final Path path;
+        private final long size;
+
+        private WrittenFile(String fileName, Path path, long size) {
+            this.fileName = fileName;
+            this.path = path;
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,407 @@
+package com.company.erp.payment.service;
+
+import com.company.erp.common.exception.BusinessException;
+import com.company.erp.payment.entity.BankFileFormat;
+import com.company.erp.payment.service.SaudiBankFileGenerator.BankFileContent;
+import com.company.erp.payment.service.SaudiBankFileGenerator.BankFileRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.time.LocalDateTime;
+import java.util.zip.CRC32;
+
+/**
+ * Text bank files: SARIE fixed-width records and SWIFT MT101-style messages.
+ *
+ * Records are encoded byte by byte into one direct ByteBuffer per file that is drained to the
+ * channel whenever it fills, so writing allocates nothing per payment: amounts come precomputed in
+ * halalas and are written as digits, text fields are checked against the SWIFT X character set
+ * and padded in place. Payments are validated against that set before their rows are written, so
+ * a character outside it (e.g. Arabic) fails the file instead of being blanked. The record count,
+ * control total and a CRC32 of everything before the trailer are accumulated in the same pass and
+ * written to the trailer; the control total is also checked against the batch total.
+ *
+ * SARIE layout, 160-byte records plus CRLF, text left-aligned and space padded, numbers zero padded:
+ * <pre>
+ * H  sender id(12) bank code(4) branch code(4) batch number(20) date yyyyMMdd(8) time HHmmss(6) currency(3)
+ * D  sequence(6) IBAN(24) amount in halalas(15) currency(3) beneficiary name(35) national id(15)
+ *    payment reference(16) narrative(35)
+ * T  record count(6) total in halalas(18) CRC32 of all preceding bytes, hex(8)
+ * </pre>
+ */
+@Service
+public class FixedWidthBankFileWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(FixedWidthBankFileWriter.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int SARIE_RECORD_LENGTH = 160;
+    private static final int MAX_SWIFT_TRANSACTION_LENGTH = 256;
+    private static final int MAX_SWIFT_TRAILER_LENGTH = 32; // :19: total, -} and line breaks
+    private static final byte[] HEX = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F'};
+
+    // SWIFT X character set: letters, digits, space and / - ? : ( ) . , ' +
+    private static final boolean[] SWIFT_X = new boolean[128];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            SWIFT_X[c] = true;
+            SWIFT_X[Character.toUpperCase(c)] = true;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            SWIFT_X[c] = true;
+        }
+        for (char c : " /-?:().,'+".toCharArray()) {
+            SWIFT_X[c] = true;
+        }
+    }
+
+    private final String senderId;
+    private final String bankCode;
+    private final String branchCode;
+
+    /**
+     * Whether every character of the value is in the SWIFT X character set, which both text
+     * formats are limited to.
+     */
+    static boolean isSwiftText(String value) {
+        if (value == null) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 128 || !SWIFT_X[c]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public FixedWidthBankFileWriter(@Value("${app.payment.sarie.sender-id:}") String senderId,
+                                    @Value("${app.payment.sarie.bank-code:}") String bankCode,
+                                    @Value("${app.payment.sarie.branch-code:}") String branchCode) {
+        this.senderId = senderId;
+        this.bankCode = bankCode;
+        this.branchCode = branchCode;
+    }
+
+    /**
+     * Write the batch in its text format to the channel. The channel is not closed.
+     */
+    public void write(BankFileContent content, WritableByteChannel channel) throws IOException {
+        long startTime = System.currentTimeMillis();
+        Encoder out = new Encoder(channel);
+        LocalDateTime now = LocalDateTime.now();
+
+        long total;
+        switch (content.getFormat()) {
+            case SARIE:
+                total = writeSarie(content, out, now);
+                break;
+            case SWIFT:
+                total = writeSwift(content, out, now);
+                break;
+            default:
+                throw new BusinessException("INVALID_FORMAT", "Not a text bank file format: " + content.getFormat());
+        }
+
+        logger.info("{} bank file for batch {} written: {} records, total {} halalas, {} bytes in {}ms",
+                content.getFormat(), content.getBatchNumber(), content.getPaymentCount(), total,
+                out.written, System.currentTimeMillis() - startTime);
+    }
+
+    // Helper methods
+
+    private long writeSarie(BankFileContent content, Encoder out, LocalDateTime now) throws IOException {
+        out.startRecord(SARIE_RECORD_LENGTH);
+        out.ascii("H");
+        out.text(senderId, 12);
+        out.text(bankCode, 4);
+        out.text(branchCode, 4);
+        out.text(content.getBatchNumber(), 20);
+        out.number(now.getYear(), 4);
+        out.number(now.getMonthValue(), 2);
+        out.number(now.getDayOfMonth(), 2);
+        out.number(now.getHour(), 2);
+        out.number(now.getMinute(), 2);
+        out.number(now.getSecond(), 2);
+        out.text(content.getCurrency(), 3);
+        out.endRecord(SARIE_RECORD_LENGTH);
+
+        long total = 0;
+        int count = 0;
+        for (BankFileRow row : content.getRows()) {
+            total += row.getAmountMinor();
+
+            out.startRecord(SARIE_RECORD_LENGTH);
+            out.ascii("D");
+            out.number(++count, 6);
+            out.compact(row.getIban(), 24);
+            out.number(row.getAmountMinor(), 15);
+            out.text(content.getCurrency(), 3);
+            out.text(row.getEmployeeName(), 35);
+            out.text(row.getNationalId(), 15);
+            out.number(row.getPaymentId(), 16);
+            out.text(row.getComments(), 35);
+            out.endRecord(SARIE_RECORD_LENGTH);
+        }
+        checkTotal(content, total);
+
+        long checksum = out.checksum();
+        out.startRecord(SARIE_RECORD_LENGTH);
+        out.ascii("T");
+        out.number(count, 6);
+        out.number(total, 18);
+        out.hex(checksum, 8);
+        out.endRecord(SARIE_RECORD_LENGTH);
+        out.flush();
+        return total;
+    }
+
+    /**
+     * MT101-style message: one :21:/:32B:/:59:/:70: sequence per payment, the control total in
+     * :19: (as in MT102) and the CRC32 in the trailer block's CHK tag.
+     */
+    private long writeSwift(BankFileContent content, Encoder out, LocalDateTime now) throws IOException {
+        out.ascii("{1:F01");
+        out.text(senderId, 12);
+        out.ascii("}{2:I101");
+        out.compact(bankCode, 11);
+        out.ascii("N}{4:");
+        out.newLine();
+        out.ascii(":20:");
+        out.trimmed(content.getBatchNumber(), 16);
+        out.newLine();
+        out.ascii(":28D:1/1");
+        out.newLine();
+        out.ascii(":30:");
+        out.number(now.getYear() % 100, 2);
+        out.number(now.getMonthValue(), 2);
+        out.number(now.getDayOfMonth(), 2);
+        out.newLine();
+
+        long total = 0;
+        for (BankFileRow row : content.getRows()) {
+            total += row.getAmountMinor();
+            out.reserve(MAX_SWIFT_TRANSACTION_LENGTH);
+
+            out.ascii(":21:");
+            out.digits(row.getPaymentId());
+            out.newLine();
+            out.ascii(":32B:");
+            out.trimmed(content.getCurrency(), 3);
+            out.swiftAmount(row.getAmountMinor());
+            out.newLine();
+            out.ascii(":59:/");
+            out.compactUnpadded(row.getIban(), 34);
+            out.newLine();
+            out.trimmed(row.getEmployeeName(), 35);
+            out.newLine();
+            out.ascii(":70:");
+            out.trimmed(row.getComments(), 35);
+            out.newLine();
+        }
+        checkTotal(content, total);
+
+        out.reserve(MAX_SWIFT_TRAILER_LENGTH);
+        out.ascii(":19:");
+        out.swiftAmount(total);
+        out.newLine();
+        out.ascii("-}");
+
+        long checksum = out.checksum();
+        out.ascii("{5:{CHK:");
+        out.hex(checksum, 12);
+        out.ascii("}}");
+        out.newLine();
+        out.flush();
+        return total;
+    }
+
+    private void checkTotal(BankFileContent content, long total) {
+        if (total != SaudiBankFileGenerator.toMinorUnits(content.getTotalAmount())) {
+            throw new BusinessException("BANK_FILE_TOTAL_MISMATCH",
+                    "Payments of batch " + content.getBatchNumber() + " do not add up to the batch total");
+        }
+    }
+
+    /**
+     * Encodes fields into a reused buffer and drains it to the channel, checksumming what it drains
+     * until {@link #checksum()} seals the checksum.
+     */
+    private static final class Encoder {
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final byte[] digits = new byte[20];
+        private final CRC32 crc = new CRC32();
+        private boolean sealed;
+        private int recordStart;
+        private long written;
+
+        private Encoder(WritableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        private void startRecord(int length) throws IOException {
+            reserve(length + 2);
+            recordStart = buffer.position();
+        }
+
+        /** Pad the current fixed-width record to its length and terminate it. */
+        private void endRecord(int length) {
+            int end = recordStart + length;
+            while (buffer.position() < end) {
+                buffer.put((byte) ' ');
+            }
+            newLine();
+        }
+
+        private void newLine() {
+            buffer.put((byte) '\r');
+            buffer.put((byte) '\n');
+        }
+
+        /** A constant made of SWIFT X characters. */
+        private void ascii(String constant) {
+            for (int i = 0; i < constant.length(); i++) {
+                buffer.put((byte) constant.charAt(i));
+            }
+        }
+
+        /** Left-aligned, space padded, truncated to width. */
+        private void text(String value, int width) {
+            int n = putFiltered(value, width, false);
+            for (; n < width; n++) {
+                buffer.put((byte) ' ');
+            }
+        }
+
+        /** Up to width characters, without padding or trailing spaces. */
+        private void trimmed(String value, int width) {
+            int length = value != null ? Math.min(value.length(), width) : 0;
+            while (length > 0 && Character.isWhitespace(value.charAt(length - 1))) {
+                length--;
+            }
+            putFiltered(value, length, false);
+        }
+
+        /** Account identifiers: whitespace dropped, letters upper-cased, space padded. */
+        private void compact(String value, int width) {
+            int n = putFiltered(value, width, true);
+            for (; n < width; n++) {
+                buffer.put((byte) ' ');
+            }
+        }
+
+        /** Account identifiers in variable-length SWIFT fields: as compact, without padding. */
+        private void compactUnpadded(String value, int width) {
+            putFiltered(value, width, true);
+        }
+
+        private int putFiltered(String value, int width, boolean compact) {
+            if (value == null) {
+                return 0;
+            }
+            int n = 0;
+            for (int i = 0; i < value.length() && n < width; i++) {
+                char c = value.charAt(i);
+                if (compact) {
+                    if (Character.isWhitespace(c)) {
+                        continue;
+                    }
+                    c = Character.toUpperCase(c);
+                }
+                if (c >= 128 || !SWIFT_X[c]) {
+                    throw new BusinessException("INVALID_BANK_FILE_TEXT",
+                            "'" + value + "' contains characters outside the SWIFT character set");
+                }
+                buffer.put((byte) c);
+                n++;
+            }
+            return n;
+        }
+
+        /** Right-aligned, zero padded; fails rather than truncate. */
+        private void number(long value, int width) {
+            if (value < 0) {
+                throw new BusinessException("BANK_FILE_FIELD_OVERFLOW", "Negative value in bank file numeric field");
+            }
+            int start = buffer.position();
+            for (int i = start + width - 1; i >= start; i--) {
+                buffer.put(i, (byte) ('0' + value % 10));
+                value /= 10;
+            }
+            if (value != 0) {
+                throw new BusinessException("BANK_FILE_FIELD_OVERFLOW", "Value does not fit a " + width + "-digit field");
+            }
+            buffer.position(start + width);
+        }
+
+        private void number(Long value, int width) {
+            number(value != null ? value : 0L, width);
+        }
+
+        /** Variable-length decimal digits. */
+        private void digits(long value) {
+            int n = digits.length;
+            do {
+                digits[--n] = (byte) ('0' + value % 10);
+                value /= 10;
+            } while (value > 0);
+            buffer.put(digits, n, digits.length - n);
+        }
+
+        private void digits(Long value) {
+            digits(value != null ? value : 0L);
+        }
+
+        /** SWIFT amount: whole units, a decimal comma and two decimals. */
+        private void swiftAmount(long minor) {
+            digits(minor / 100);
+            buffer.put((byte) ',');
+            buffer.put((byte) ('0' + (minor % 100) / 10));
+            buffer.put((byte) ('0' + minor % 10));
+        }
+
+        private void hex(long value, int width) {
+            int start = buffer.position();
+            for (int i = start + width - 1; i >= start; i--) {
+                buffer.put(i, HEX[(int) (value & 0xF)]);
+                value >>>= 4;
+            }
+            buffer.position(start + width);
+        }
+
+        /** Make room for at least the given number of bytes. */
+        private void reserve(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        /** CRC32 of everything encoded so far; later output is not checksummed. */
+        private long checksum() throws IOException {
+            flush();
+            sealed = true;
+            return crc.getValue();
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            if (!sealed) {
+                buffer.mark();
+                crc.update(buffer);
+                buffer.reset();
+            }
+            while (buffer.hasRemaining()) {
+                written += channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
@@ -1,38 +1,59 @@
 package com.company.erp.payment.service;
 
+import com.company.erp.common.dto.CursorPage;
+import com.company.erp.common.event.DashboardDataChangedEvent;
 import com.company.erp.common.exception.BusinessException;
 import com.company.erp.common.exception.ResourceNotFoundException;
 import com.company.erp.common.exception.UnauthorizedAccessException;
 import com.company.erp.common.security.UserPrincipal;
+import com.company.erp.common.service.StatusCounterService;
+import com.company.erp.common.service.StatusCounterService.StatusCounters;
+import com.company.erp.common.util.KeysetCursor;
 import com.company.erp.financial.entity.Quotation;
 import com.company.erp.financial.entity.QuotationStatus;
 import com.company.erp.financial.repository.QuotationRepository;
 import com.company.erp.payment.dto.request.ConfirmPaymentRequest;
 import com.company.erp.payment.dto.request.GenerateBankFileRequest;
+import com.company.erp.payment.dto.request.GenerateBankFilesRequest;
 import com.company.erp.payment.dto.response.BankFileResponse;
 import com.company.erp.payment.dto.response.PaymentStatusResponse;
 import com.company.erp.payment.dto.response.PaymentSummaryResponse;
+import com.company.erp.payment.entity.BankFileFormat;
 import com.company.erp.payment.entity.Payment;
 import com.company.erp.payment.entity.PaymentBatch;
+import com.company.erp.payment.entity.PaymentBatchStatus;
 import com.company.erp.payment.entity.PaymentStatus;
 import com.company.erp.payment.repository.PaymentBatchRepository;
 import com.company.erp.payment.repository.PaymentRepository;
 import com.company.erp.user.entity.User;
 import com.company.erp.user.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 @Service
@@ -41,6 +62,8 @@ public class PaymentService {
 
     private static final Logger logger = LoggerFactory.getLogger(PaymentService.class);
 
+    private static final int PAYMENT_LOAD_CHUNK_SIZE = 1000;
+
     @Autowired
     private PaymentRepository paymentRepository;
 
@@ -56,6 +79,21 @@ public class PaymentService {
     @Autowired
     private BankFileService bankFileService;
 
+    @Autowired
+    private StatusCounterService statusCounterService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.payment.bank-file.format:EXCEL}")
+    private String defaultFileFormat;
+
     /**
      * Create payments for approved quotations
      */
@@ -85,6 +123,8 @@ public class PaymentService {
             quotationRepository.save(q);
         });
 
+        publishDashboardChange("PAYMENTS_CREATED");
+
         logger.info("Created {} payments successfully", savedPayments.size());
 
         return savedPayments.stream()
@@ -95,41 +135,43 @@ public class PaymentService {
     /**
      * Generate bank file for selected payments
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public BankFileResponse generateBankFile(GenerateBankFileRequest request) {
         logger.info("Generating bank file for {} payments, bank: {}",
                 request.getPaymentIds().size(), request.getBankName());
 
         UserPrincipal currentUser = getCurrentUser();
         validatePaymentAccess(currentUser);
+        BankFileFormat format = resolveFileFormat(request.getFormat());
 
-        List<Payment> payments = paymentRepository.findAllById(request.getPaymentIds());
+        List<Long> batchIds = createBatches(request.getPaymentIds(), request.getBankName(), format, currentUser.getId());
 
-        if (payments.isEmpty()) {
-            throw new BusinessException("NO_PAYMENTS_FOUND", "No payments found for bank file generation");
-        }
+        // Generate the actual file
+        BankFileResponse fileResponse = generateFilesOrRelease(batchIds).get(0);
 
-        // Validate all payments are ready
-        validatePaymentsForBankFile(payments, request.getBankName());
+        logger.info("Bank file generated successfully for batch: {}", fileResponse.getBatchNumber());
 
-        // Create payment batch
-        User creator = getUserById(currentUser.getId());
-        PaymentBatch batch = new PaymentBatch(request.getBankName(), creator);
+        return fileResponse;
+    }
 
-        // Add payments to batch
-        for (Payment payment : payments) {
-            batch.addPayment(payment);
-            payment.setStatus(PaymentStatus.FILE_GENERATED);
-        }
+    /**
+     * Generate one bank file per bank for selected payments; the files are written concurrently
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<BankFileResponse> generateBankFiles(GenerateBankFilesRequest request) {
+        logger.info("Generating bank files for {} payments", request.getPaymentIds().size());
 
-        PaymentBatch savedBatch = paymentBatchRepository.save(batch);
-        paymentRepository.saveAll(payments);
+        UserPrincipal currentUser = getCurrentUser();
+        validatePaymentAccess(currentUser);
+        BankFileFormat format = resolveFileFormat(request.getFormat());
 
-        // Generate the actual file
-        BankFileResponse fileResponse = bankFileService.generateBankFile(savedBatch);
+        List<Long> batchIds = createBatches(request.getPaymentIds(), null, format, currentUser.getId());
 
-        logger.info("Bank file generated successfully for batch: {}", savedBatch.getBatchNumber());
+        List<BankFileResponse> fileResponses = generateFilesOrRelease(batchIds);
 
-        return fileResponse;
+        logger.info("Bank files generated successfully for {} banks", batchIds.size());
+
+        return fileResponses;
     }
 
     /**
@@ -158,6 +200,8 @@ public class PaymentService {
             quotationRepository.save(payment.getQuotation());
         }
 
+        publishDashboardChange("SENT_TO_BANK");
+
         logger.info("Payment batch {} confirmed as sent to bank", batchId);
     }
 
@@ -193,6 +237,8 @@ public class PaymentService {
             }
         }
 
+        publishDashboardChange("PAID");
+
         logger.info("Confirmed {} payments as completed", payments.size());
     }
 
@@ -223,6 +269,42 @@ public class PaymentService {
         return payments.map(this::convertToPaymentSummaryResponse);
     }
 
+    /**
+     * Get payments ready for processing oldest first, keyset-paginated
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<PaymentSummaryResponse> getPaymentsReadyForProcessing(String cursor, int size) {
+        UserPrincipal currentUser = getCurrentUser();
+        validatePaymentAccess(currentUser);
+
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Slice<Payment> payments = after == null
+                ? paymentRepository.findByStatusFirstPageAsc(PaymentStatus.PENDING, CursorPage.request(size))
+                : paymentRepository.findByStatusAfterCursorAsc(PaymentStatus.PENDING,
+                        after.getSortKey(), after.getId(), CursorPage.request(size));
+
+        return CursorPage.from(payments, this::convertToPaymentSummaryResponse,
+                p -> KeysetCursor.of(p.getCreatedDate(), p.getId()));
+    }
+
+    /**
+     * Get payments by status newest first, keyset-paginated
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<PaymentSummaryResponse> getPaymentsByStatus(PaymentStatus status, String cursor, int size) {
+        UserPrincipal currentUser = getCurrentUser();
+        validatePaymentAccess(currentUser);
+
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Slice<Payment> payments = after == null
+                ? paymentRepository.findByStatusFirstPageDesc(status, CursorPage.request(size))
+                : paymentRepository.findByStatusAfterCursorDesc(status,
+                        after.getSortKey(), after.getId(), CursorPage.request(size));
+
+        return CursorPage.from(payments, this::convertToPaymentSummaryResponse,
+                p -> KeysetCursor.of(p.getCreatedDate(), p.getId()));
+    }
+
     /**
      * Get payment batches
      */
@@ -242,15 +324,17 @@ public class PaymentService {
         UserPrincipal currentUser = getCurrentUser();
         validatePaymentAccess(currentUser);
 
+        StatusCounters<PaymentStatus> counters = statusCounterService.payments();
+
         PaymentStatistics stats = new PaymentStatistics();
-        stats.setPendingPayments(paymentRepository.countByStatus(PaymentStatus.PENDING));
-        stats.setProcessingPayments(paymentRepository.countByStatus(PaymentStatus.PROCESSING));
-        stats.setCompletedPayments(paymentRepository.countByStatus(PaymentStatus.PAID));
-        stats.setFailedPayments(paymentRepository.countByStatus(PaymentStatus.FAILED));
+        stats.setPendingPayments(counters.count(PaymentStatus.PENDING));
+        stats.setProcessingPayments(counters.count(PaymentStatus.PROCESSING));
+        stats.setCompletedPayments(counters.count(PaymentStatus.PAID));
+        stats.setFailedPayments(counters.count(PaymentStatus.FAILED));
 
-        stats.setTotalPendingAmount(paymentRepository.getTotalAmountByStatus(PaymentStatus.PENDING));
-        stats.setTotalProcessingAmount(paymentRepository.getTotalAmountByStatus(PaymentStatus.PROCESSING));
-        stats.setTotalCompletedAmount(paymentRepository.getTotalAmountByStatus(PaymentStatus.PAID));
+        stats.setTotalPendingAmount(counters.amount(PaymentStatus.PENDING));
+        stats.setTotalProcessingAmount(counters.amount(PaymentStatus.PROCESSING));
+        stats.setTotalCompletedAmount(counters.amount(PaymentStatus.PAID));
 
         return stats;
     }
@@ -278,6 +362,122 @@ public class PaymentService {
         return payment;
     }
 
+    /**
+     * Create the batches of a bank file request in one short transaction and return their ids.
+     * Payments are grouped by bank from (id, bankName) rows, then validated and assigned to their
+     * batch a chunk of ids at a time, flushing and clearing after each chunk so the persistence
+     * context never holds more than one chunk. With a bank name all payments must belong to it.
+     */
+    private List<Long> createBatches(List<Long> paymentIds, String bankName, BankFileFormat format, Long creatorId) {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(paymentIds));
+        return newTransaction().execute(status -> {
+            Map<String, List<Long>> idsByBank = new TreeMap<>();
+            for (int from = 0; from < ids.size(); from += PAYMENT_LOAD_CHUNK_SIZE) {
+                for (Object[] row : paymentRepository.findBankNamesByIdIn(
+                        ids.subList(from, Math.min(from + PAYMENT_LOAD_CHUNK_SIZE, ids.size())))) {
+                    String paymentBank = bankName != null ? bankName : (String) row[1];
+                    if (paymentBank == null) {
+                        throw new BusinessException("INVALID_BANK_DETAILS",
+                                "Payment " + row[0] + " has incomplete bank details");
+                    }
+                    idsByBank.computeIfAbsent(paymentBank, bank -> new ArrayList<>()).add((Long) row[0]);
+                }
+            }
+
+            if (idsByBank.isEmpty()) {
+                throw new BusinessException("NO_PAYMENTS_FOUND", "No payments found for bank file generation");
+            }
+
+            User creator = getUserById(creatorId);
+            List<Long> batchIds = new ArrayList<>(idsByBank.size());
+            for (Map.Entry<String, List<Long>> bank : idsByBank.entrySet()) {
+                batchIds.add(createBatch(bank.getKey(), bank.getValue(), format, creator));
+            }
+            publishDashboardChange("FILE_GENERATED");
+            return batchIds;
+        });
+    }
+
+    private Long createBatch(String bankName, List<Long> paymentIds, BankFileFormat format, User creator) {
+        PaymentBatch batch = new PaymentBatch(bankName, creator);
+        batch.setFileFormat(format);
+        Long batchId = paymentBatchRepository.save(batch).getId();
+
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        int paymentCount = 0;
+        for (int from = 0; from < paymentIds.size(); from += PAYMENT_LOAD_CHUNK_SIZE) {
+            PaymentBatch batchReference = entityManager.getReference(PaymentBatch.class, batchId);
+            List<Payment> payments = paymentRepository.findAllById(
+                    paymentIds.subList(from, Math.min(from + PAYMENT_LOAD_CHUNK_SIZE, paymentIds.size())));
+            validatePaymentsForBankFile(payments, bankName);
+            for (Payment payment : payments) {
+                payment.setBatch(batchReference);
+                payment.setStatus(PaymentStatus.FILE_GENERATED);
+                totalAmount = totalAmount.add(payment.getAmount());
+                paymentCount++;
+            }
+            entityManager.flush();
+            entityManager.clear();
+        }
+
+        PaymentBatch savedBatch = paymentBatchRepository.findById(batchId)
+                .orElseThrow(() -> new ResourceNotFoundException("PaymentBatch", "id", batchId));
+        savedBatch.setTotalAmount(totalAmount);
+        savedBatch.setPaymentCount(paymentCount);
+        return batchId;
+    }
+
+    /**
+     * Write the files of freshly created batches. No transaction is open while they are written;
+     * if any file fails the batches are cancelled and their payments released back to PENDING.
+     */
+    private List<BankFileResponse> generateFilesOrRelease(List<Long> batchIds) {
+        try {
+            return bankFileService.generateBankFiles(batchIds);
+        } catch (RuntimeException e) {
+            try {
+                newTransaction().executeWithoutResult(status -> {
+                    batchIds.forEach(this::releaseBatch);
+                    publishDashboardChange("FILE_GENERATION_FAILED");
+                });
+            } catch (RuntimeException releaseFailure) {
+                logger.error("Could not release payment batches {} after a failed bank file generation",
+                        batchIds, releaseFailure);
+                e.addSuppressed(releaseFailure);
+            }
+            throw e;
+        }
+    }
+
+    private void releaseBatch(Long batchId) {
+        PaymentBatch batch = paymentBatchRepository.findById(batchId)
+                .orElseThrow(() -> new ResourceNotFoundException("PaymentBatch", "id", batchId));
+        batch.setStatus(PaymentBatchStatus.CANCELLED);
+        entityManager.flush();
+
+        List<Payment> payments;
+        do {
+            // Released payments leave the batch, so each query returns the next chunk
+            payments = paymentRepository.findBankFileChunk(batchId, 0L, PageRequest.of(0, PAYMENT_LOAD_CHUNK_SIZE));
+            for (Payment payment : payments) {
+                payment.setBatch(null);
+                payment.setStatus(PaymentStatus.PENDING);
+            }
+            entityManager.flush();
+            entityManager.clear();
+        } while (!payments.isEmpty());
+    }
+
+    private TransactionTemplate newTransaction() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return transaction;
+    }
+
+    private BankFileFormat resolveFileFormat(String requested) {
+        return BankFileFormat.fromString(requested, BankFileFormat.fromString(defaultFileFormat, BankFileFormat.EXCEL));
+    }
+
     private void validatePaymentsForBankFile(List<Payment> payments, String bankName) {
         for (Payment payment : payments) {
             if (!payment.canBeProcessed()) {
@@ -303,6 +503,12 @@ public class PaymentService {
         }
     }
 
+    private void publishDashboardChange(String action) {
+        // Payment operations span projects, so no single project id is attached
+        eventPublisher.publishEvent(new DashboardDataChangedEvent(
+                DashboardDataChangedEvent.Source.PAYMENT, null, action));
+    }
+
     private UserPrincipal getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication == null || !authentication.isAuthenticated() ||
@@ -1,21 +1,47 @@
 package com.company.erp.payment.service;
 
 import com.company.erp.common.exception.BusinessException;
+import com.company.erp.payment.entity.BankFileFormat;
 import com.company.erp.payment.entity.Payment;
 import com.company.erp.payment.entity.PaymentBatch;
+import com.company.erp.payment.repository.PaymentRepository;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
-
+import java.util.NoSuchElementException;
+
+/**
+ * Saudi bank bulk payment files (.xlsx).
+ *
+ * Generation is split in two. {@link #prepare} snapshots the batch header on the calling thread.
+ * {@link #write} then streams the batch's payments through SXSSF, which keeps only a fixed window
+ * of rows in memory and spills the rest to a compressed temp file, straight to the target channel.
+ * Payments are read in id order, ROW_CHUNK_SIZE at a time, each chunk in its own short read-only
+ * transaction, and validated as they are turned into rows; so writing holds no connection between
+ * chunks and no more than one chunk of payments, and files for several banks can be written in
+ * parallel. Batches in a text format are written from the same rows by
+ * {@link FixedWidthBankFileWriter}.
+ */
 @Service
 public class SaudiBankFileGenerator {
 
@@ -24,26 +50,69 @@ public class SaudiBankFileGenerator {
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss");
 
+    private static final int FIRST_DATA_ROW = 4;
+    private static final int SUMMARY_ROWS = 7;
+    private static final int EXCEL_MAX_ROWS = 1_048_576;
+    private static final int ROW_CHUNK_SIZE = 1000;
+
+    private final PaymentRepository paymentRepository;
+    private final TransactionTemplate readTransaction;
+    private final int rowWindow;
+
+    public SaudiBankFileGenerator(PaymentRepository paymentRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${app.export.row-window:100}") int rowWindow) {
+        this.paymentRepository = paymentRepository;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.rowWindow = rowWindow;
+    }
+
     /**
-     * Generate Excel file in Saudi bank format
+     * Snapshot the batch header; the payments are read while the file is written. Fails if the
+     * batch cannot fit the file format.
      */
-    public byte[] generateBankFile(PaymentBatch batch, String bankName) {
-        logger.info("Generating bank file for batch: {} with {} payments",
-                batch.getBatchNumber(), batch.getPaymentCount());
-
-        try (Workbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = createMainSheet(workbook, bankName);
-            populateHeaders(sheet, bankName);
-            populatePaymentData(sheet, batch.getPayments());
-            addSummarySection(sheet, batch);
+    public BankFileContent prepare(PaymentBatch batch) {
+        int paymentCount = batch.getPaymentCount() != null ? batch.getPaymentCount() : 0;
+        if (!batch.getFileFormat().isText() && FIRST_DATA_ROW + paymentCount + SUMMARY_ROWS > EXCEL_MAX_ROWS) {
+            throw new BusinessException("BANK_FILE_TOO_LARGE",
+                    "Batch " + batch.getBatchNumber() + " exceeds the Excel row limit; split it into smaller batches");
+        }
 
-            return convertWorkbookToBytes(workbook);
+        Long batchId = batch.getId();
+        BankFileFormat format = batch.getFileFormat();
+        return new BankFileContent(batch.getBatchNumber(), batch.getBankName(), batch.getCurrency(),
+                batch.getTotalAmount(), format, paymentCount, () -> new RowCursor(batchId, format));
+    }
 
-        } catch (IOException e) {
-            logger.error("Error generating bank file for batch: {}", batch.getBatchNumber(), e);
-            throw new BusinessException("BANK_FILE_GENERATION_ERROR",
-                    "Failed to generate bank file: " + e.getMessage());
+    /**
+     * Stream the file in Saudi bank format to the channel. The channel is flushed, not closed.
+     */
+    public void write(BankFileContent content, WritableByteChannel channel) throws IOException {
+        logger.info("Generating bank file for batch: {} with {} payments",
+                content.getBatchNumber(), content.getPaymentCount());
+        long startTime = System.currentTimeMillis();
+
+        SXSSFWorkbook workbook = new SXSSFWorkbook(rowWindow);
+        workbook.setCompressTempFiles(true);
+        try {
+            Sheet sheet = createMainSheet(workbook, content.getBankName());
+            populateHeaders(sheet, content.getBankName());
+            int written = populatePaymentData(sheet, content.getRows());
+            addSummarySection(sheet, content, written);
+
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024);
+            workbook.write(out);
+            out.flush();
+        } finally {
+            workbook.dispose();
+            workbook.close();
         }
+
+        Runtime runtime = Runtime.getRuntime();
+        logger.info("Bank file for batch {} written: {} rows in {}ms, heap used {} MB",
+                content.getBatchNumber(), content.getPaymentCount(), System.currentTimeMillis() - startTime,
+                (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024));
     }
 
     private Sheet createMainSheet(Workbook workbook, String bankName) {
@@ -63,11 +132,13 @@ public class SaudiBankFileGenerator {
     }
 
     private void populateHeaders(Sheet sheet, String bankName) {
+        CellStyle headerStyle = createHeaderStyle(sheet.getWorkbook());
+
         // Create title row
         Row titleRow = sheet.createRow(0);
         Cell titleCell = titleRow.createCell(0);
         titleCell.setCellValue("Bulk Payment File - " + bankName);
-        titleCell.setCellStyle(createHeaderStyle(sheet.getWorkbook()));
+        titleCell.setCellStyle(headerStyle);
 
         // Merge title across columns
         sheet.addMergedRegion(new org.apache.poi.ss.util.CellRangeAddress(0, 0, 0, 6));
@@ -81,7 +152,6 @@ public class SaudiBankFileGenerator {
         Row headerRow = sheet.createRow(3);
         String[] headers = getHeadersForBank(bankName);
 
-        CellStyle headerStyle = createHeaderStyle(sheet.getWorkbook());
         for (int i = 0; i < headers.length; i++) {
             Cell cell = headerRow.createCell(i);
             cell.setCellValue(headers[i]);
@@ -102,65 +172,59 @@ public class SaudiBankFileGenerator {
         };
     }
 
-    private void populatePaymentData(Sheet sheet, List<Payment> payments) {
-        int rowNum = 4; // Start after headers
+    private int populatePaymentData(Sheet sheet, Iterable<BankFileRow> rows) {
+        int rowNum = FIRST_DATA_ROW; // Start after headers
 
         CellStyle amountStyle = createAmountStyle(sheet.getWorkbook());
         CellStyle textStyle = createTextStyle(sheet.getWorkbook());
 
-        for (Payment payment : payments) {
+        for (BankFileRow paymentRow : rows) {
             Row row = sheet.createRow(rowNum++);
-            populatePaymentRow(row, payment, amountStyle, textStyle);
+            populatePaymentRow(row, paymentRow, amountStyle, textStyle);
         }
+        return rowNum - FIRST_DATA_ROW;
     }
 
-    private void populatePaymentRow(Row row, Payment payment, CellStyle amountStyle, CellStyle textStyle) {
-        // Validate payment data
-        validatePaymentData(payment);
-
+    private void populatePaymentRow(Row row, BankFileRow payment, CellStyle amountStyle, CellStyle textStyle) {
         int colNum = 0;
 
         // Bank
         Cell bankCell = row.createCell(colNum++);
-        bankCell.setCellValue(payment.getBankName());
+        bankCell.setCellValue(payment.bankName);
         bankCell.setCellStyle(textStyle);
 
         // Account Number
         Cell accountCell = row.createCell(colNum++);
-        accountCell.setCellValue(payment.getAccountNumber());
+        accountCell.setCellValue(payment.accountNumber);
         accountCell.setCellStyle(textStyle);
 
         // Amount (formatted for Saudi banks)
         Cell amountCell = row.createCell(colNum++);
-        amountCell.setCellValue(payment.getAmount().doubleValue());
+        amountCell.setCellValue(payment.amount.doubleValue());
         amountCell.setCellStyle(amountStyle);
 
         // Comments (Quotation description)
         Cell commentsCell = row.createCell(colNum++);
-        String comments = generatePaymentComments(payment);
-        commentsCell.setCellValue(comments);
+        commentsCell.setCellValue(payment.comments);
         commentsCell.setCellStyle(textStyle);
 
         // Employee Name
         Cell nameCell = row.createCell(colNum++);
-        nameCell.setCellValue(payment.getPayee().getFullName());
+        nameCell.setCellValue(payment.employeeName);
         nameCell.setCellStyle(textStyle);
 
         // National ID/Iqama ID
         Cell idCell = row.createCell(colNum++);
-        String nationalId = payment.getPayee().getNationalId() != null ?
-                payment.getPayee().getNationalId() : payment.getPayee().getIqamaId();
-        idCell.setCellValue(nationalId != null ? nationalId : "");
+        idCell.setCellValue(payment.nationalId);
         idCell.setCellStyle(textStyle);
 
         // Beneficiary Address
         Cell addressCell = row.createCell(colNum++);
-        addressCell.setCellValue(payment.getBeneficiaryAddress() != null ?
-                payment.getBeneficiaryAddress() : "");
+        addressCell.setCellValue(payment.beneficiaryAddress);
         addressCell.setCellStyle(textStyle);
     }
 
-    private void addSummarySection(Sheet sheet, PaymentBatch batch) {
+    private void addSummarySection(Sheet sheet, BankFileContent content, int paymentCount) {
         int lastRowNum = sheet.getLastRowNum();
         int summaryStartRow = lastRowNum + 3;
 
@@ -175,25 +239,25 @@ public class SaudiBankFileGenerator {
         // Total payments count
         Row countRow = sheet.createRow(summaryStartRow + 1);
         countRow.createCell(0).setCellValue("Total Payments:");
-        countRow.createCell(1).setCellValue(batch.getPaymentCount());
+        countRow.createCell(1).setCellValue(paymentCount);
 
         // Total amount
         Row amountRow = sheet.createRow(summaryStartRow + 2);
         amountRow.createCell(0).setCellValue("Total Amount:");
         Cell totalAmountCell = amountRow.createCell(1);
-        totalAmountCell.setCellValue(batch.getTotalAmount().doubleValue() + " " + batch.getCurrency());
+        totalAmountCell.setCellValue(content.getTotalAmount().doubleValue() + " " + content.getCurrency());
 
         // Batch info
         Row batchRow = sheet.createRow(summaryStartRow + 3);
         batchRow.createCell(0).setCellValue("Batch Number:");
-        batchRow.createCell(1).setCellValue(batch.getBatchNumber());
+        batchRow.createCell(1).setCellValue(content.getBatchNumber());
 
         Row bankRow = sheet.createRow(summaryStartRow + 4);
         bankRow.createCell(0).setCellValue("Bank:");
-        bankRow.createCell(1).setCellValue(batch.getBankName());
+        bankRow.createCell(1).setCellValue(content.getBankName());
     }
 
-    private void validatePaymentData(Payment payment) {
+    private void validatePaymentData(Payment payment, BankFileFormat format) {
         if (!payment.hasValidBankDetails()) {
             throw new BusinessException("INVALID_BANK_DETAILS",
                     "Payment " + payment.getId() + " has incomplete bank details");
@@ -208,6 +272,39 @@ public class SaudiBankFileGenerator {
             throw new BusinessException("INVALID_PAYMENT_AMOUNT",
                     "Payment " + payment.getId() + " has invalid amount");
         }
+
+        // Text formats carry only the SWIFT X character set; the beneficiary must not be garbled
+        if (format.isText()) {
+            validateSwiftText(payment, "payee name", payment.getPayee().getFullName());
+            validateSwiftText(payment, "national ID", getNationalId(payment));
+            validateSwiftText(payment, "IBAN", payment.getIban().replaceAll("\\s", "").toUpperCase());
+        }
+    }
+
+    private void validateSwiftText(Payment payment, String field, String value) {
+        if (!FixedWidthBankFileWriter.isSwiftText(value)) {
+            throw new BusinessException("INVALID_PAYMENT_DATA",
+                    "Payment " + payment.getId() + " has a " + field +
+                            " outside the SWIFT character set; record it in Latin script for SARIE and SWIFT files");
+        }
+    }
+
+    private BankFileRow toRow(Payment payment, BankFileFormat format) {
+        String comments = generatePaymentComments(payment);
+        if (format.isText() && !FixedWidthBankFileWriter.isSwiftText(comments)) {
+            // The narrative is only a reference for the payee; fall back to one the format can carry
+            comments = "Payment " + payment.getId();
+        }
+        return new BankFileRow(payment.getId(), payment.getBankName(), payment.getAccountNumber(),
+                payment.getIban(), payment.getAmount(), comments,
+                payment.getPayee().getFullName(), getNationalId(payment),
+                payment.getBeneficiaryAddress() != null ? payment.getBeneficiaryAddress() : "");
+    }
+
+    private String getNationalId(Payment payment) {
+        String nationalId = payment.getPayee().getNationalId() != null ?
+                payment.getPayee().getNationalId() : payment.getPayee().getIqamaId();
+        return nationalId != null ? nationalId : "";
     }
 
     private String generatePaymentComments(Payment payment) {
@@ -235,13 +332,6 @@ public class SaudiBankFileGenerator {
         return bankName.replaceAll("[^a-zA-Z0-9]", "_");
     }
 
-    private byte[] convertWorkbookToBytes(Workbook workbook) throws IOException {
-        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-            workbook.write(outputStream);
-            return outputStream.toByteArray();
-        }
-    }
-
     // Style creation methods
     private CellStyle createHeaderStyle(Workbook workbook) {
         CellStyle style = workbook.createCellStyle();
@@ -298,8 +388,8 @@ public class SaudiBankFileGenerator {
     public String generateFileName(PaymentBatch batch) {
         String sanitizedBankName = getSanitizedBankName(batch.getBankName());
         String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-        return String.format("%s_Payments_%s_%s.xlsx",
-                sanitizedBankName, batch.getBatchNumber(), timestamp);
+        return String.format("%s_Payments_%s_%s%s",
+                sanitizedBankName, batch.getBatchNumber(), timestamp, batch.getFileFormat().getExtension());
     }
 
     /**
@@ -329,6 +419,158 @@ public class SaudiBankFileGenerator {
         if (amount == null) {
             return "0.00";
         }
-        return String.format("%.2f", amount.doubleValue());
+        long minor = toMinorUnits(amount);
+        long units = Math.abs(minor / 100);
+        int cents = (int) Math.abs(minor % 100);
+        StringBuilder formatted = new StringBuilder(24);
+        if (minor < 0) {
+            formatted.append('-');
+        }
+        return formatted.append(units).append('.').append((char) ('0' + cents / 10)).append((char) ('0' + cents % 10))
+                .toString();
+    }
+
+    /**
+     * Amount in halalas (hundredths), rounded half-up; what every bank format is built from.
+     */
+    public static long toMinorUnits(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Rows of one batch in payment id order, read a chunk at a time in short read-only
+     * transactions. Each chunk is validated and turned into rows before the entities are released.
+     */
+    private final class RowCursor implements Iterator<BankFileRow> {
+        private final Long batchId;
+        private final BankFileFormat format;
+        private List<BankFileRow> chunk = Collections.emptyList();
+        private int position;
+        private long lastPaymentId;
+        private boolean exhausted;
+
+        private RowCursor(Long batchId, BankFileFormat format) {
+            this.batchId = batchId;
+            this.format = format;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (position < chunk.size()) {
+                return true;
+            }
+            if (exhausted) {
+                return false;
+            }
+            chunk = readTransaction.execute(status -> {
+                List<Payment> payments = paymentRepository.findBankFileChunk(batchId, lastPaymentId,
+                        PageRequest.of(0, ROW_CHUNK_SIZE));
+                List<BankFileRow> rows = new ArrayList<>(payments.size());
+                for (Payment payment : payments) {
+                    validatePaymentData(payment, format);
+                    rows.add(toRow(payment, format));
+                }
+                return rows;
+            });
+            position = 0;
+            exhausted = chunk.size() < ROW_CHUNK_SIZE;
+            if (!chunk.isEmpty()) {
+                lastPaymentId = chunk.get(chunk.size() - 1).paymentId;
+            }
+            return !chunk.isEmpty();
+        }
+
+        @Override
+        public BankFileRow next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return chunk.get(position++);
+        }
+    }
+
+    /**
+     * A batch's file header, detached from the persistence context, and its rows, read as they
+     * are iterated. The rows can be iterated once per file written.
+     */
+    public static final class BankFileContent {
+        private final String batchNumber;
+        private final String bankName;
+        private final String currency;
+        private final BigDecimal totalAmount;
+        private final BankFileFormat format;
+        private final int paymentCount;
+        private final Iterable<BankFileRow> rows;
+
+        BankFileContent(String batchNumber, String bankName, String currency, BigDecimal totalAmount,
+                        BankFileFormat format, int paymentCount, Iterable<BankFileRow> rows) {
+            this.batchNumber = batchNumber;
+            this.bankName = bankName;
+            this.currency = currency;
+            this.totalAmount = totalAmount;
+            this.format = format;
+            this.paymentCount = paymentCount;
+            this.rows = rows;
+        }
+
+        public String getBatchNumber() { return batchNumber; }
+
+        public String getBankName() { return bankName; }
+
+        public String getCurrency() { return currency; }
+
+        public BigDecimal getTotalAmount() { return totalAmount; }
+
+        public BankFileFormat getFormat() { return format; }
+
+        /** Payment count recorded on the batch; the files count the rows they actually write. */
+        public int getPaymentCount() { return paymentCount; }
+
+        public Iterable<BankFileRow> getRows() { return rows; }
+    }
+
+    /**
+     * One payment line as written to the file.
+     */
+    public static final class BankFileRow {
+        private final Long paymentId;
+        private final String bankName;
+        private final String accountNumber;
+        private final String iban;
+        private final BigDecimal amount;
+        private final long amountMinor;
+        private final String comments;
+        private final String employeeName;
+        private final String nationalId;
+        private final String beneficiaryAddress;
+
+        BankFileRow(Long paymentId, String bankName, String accountNumber, String iban, BigDecimal amount,
+                    String comments, String employeeName, String nationalId, String beneficiaryAddress) {
+            this.paymentId = paymentId;
+            this.bankName = bankName;
+            this.accountNumber = accountNumber;
+            this.iban = iban;
+            this.amount = amount;
+            this.amountMinor = toMinorUnits(amount);
+            this.comments = comments;
+            this.employeeName = employeeName;
+            this.nationalId = nationalId;
+            this.beneficiaryAddress = beneficiaryAddress;
+        }
+
+        public Long getPaymentId() { return paymentId; }
+
+        public String getAccountNumber() { return accountNumber; }
+
+        public String getIban() { return iban; }
+
+        /** Amount in halalas, precomputed so text writers never touch BigDecimal. */
+        public long getAmountMinor() { return amountMinor; }
+
+        public String getComments() { return comments; }
+
+        public String getEmployeeName() { return employeeName; }
+
+        public String getNationalId() { return nationalId; }
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,7 @@
 package com.company.erp.project.controller;
 
 import com.company.erp.common.security.UserPrincipal;
+import com.company.erp.common.service.PageCountService.CountMode;
 import com.company.erp.project.dto.request.AssignManagerRequest;
 import com.company.erp.project.dto.request.CreateProjectRequest;
 import com.company.erp.project.dto.request.UpdateBudgetRequest;
@@ -89,16 +90,17 @@ public class ProjectController {
             @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size,
             @Parameter(description = "Sort field") @RequestParam(defaultValue = "name") String sortBy,
-            @Parameter(description = "Sort direction") @RequestParam(defaultValue = "asc") String sortDir) {
+            @Parameter(description = "Sort direction") @RequestParam(defaultValue = "asc") String sortDir,
+            @Parameter(description = "Total count mode: exact, estimate or none") @RequestParam(defaultValue = "exact") String count) {
 
         Sort sort = Sort.by(Sort.Direction.fromString(sortDir), sortBy);
         Pageable pageable = PageRequest.of(page, size, sort);
 
-        Page<ProjectResponse> projects = projectService.getAllProjects(pageable);
+        Page<ProjectResponse> projects = projectService.getAllProjects(pageable, CountMode.parse(count));
         return ResponseEntity.ok(projects);
     }
 
-    @Operation(summary = "Search projects", description = "Search projects by name, location, status, and manager")
+    @Operation(summary = "Search projects", description = "Search projects by name, location, status, and manager; text searches are ranked by similarity")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Search completed successfully"),
             @ApiResponse(responseCode = "403", description = "Access denied")
@@ -111,7 +113,8 @@ public class ProjectController {
             @Parameter(description = "Status filter") @RequestParam(required = false) String status,
             @Parameter(description = "Manager ID filter") @RequestParam(required = false) Long managerId,
             @Parameter(description = "Page number") @RequestParam(defaultValue = "0") int page,
-            @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size) {
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Total count mode: exact, estimate or none") @RequestParam(defaultValue = "exact") String count) {
 
         ProjectStatus projectStatus = null;
         if (status != null) {
@@ -123,7 +126,8 @@ public class ProjectController {
         }
 
         Pageable pageable = PageRequest.of(page, size, Sort.by("name"));
-        Page<ProjectResponse> projects = projectService.searchProjects(name, location, projectStatus, managerId, pageable);
+        Page<ProjectResponse> projects = projectService.searchProjects(name, location, projectStatus, managerId,
+                pageable, CountMode.parse(count));
         return ResponseEntity.ok(projects);
     }
 
@@ -1,6 +1,7 @@
 package com.company.erp.project.entity;
 
 import com.company.erp.common.entity.AuditableEntity;
+import com.company.erp.common.util.Money;
 import com.company.erp.user.entity.User;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
@@ -26,22 +27,24 @@ public class Project extends AuditableEntity {
     @Column(name = "location", length = 200)
     private String location;
 
+    // Budget columns are written on insert only; afterwards they change solely through the atomic
+    // updates in ProjectRepository, so saving a stale Project cannot undo a concurrent posting
     @NotNull
     @DecimalMin(value = "0.0", inclusive = true)
     @Digits(integer = 13, fraction = 2)
-    @Column(name = "allocated_budget", nullable = false, precision = 15, scale = 2)
+    @Column(name = "allocated_budget", nullable = false, updatable = false, precision = 15, scale = 2)
     private BigDecimal allocatedBudget = BigDecimal.ZERO;
 
     @NotNull
     @DecimalMin(value = "0.0", inclusive = true)
     @Digits(integer = 13, fraction = 2)
-    @Column(name = "spent_amount", nullable = false, precision = 15, scale = 2)
+    @Column(name = "spent_amount", nullable = false, updatable = false, precision = 15, scale = 2)
     private BigDecimal spentAmount = BigDecimal.ZERO;
 
     @NotNull
     @DecimalMin(value = "0.0", inclusive = true)
     @Digits(integer = 13, fraction = 2)
-    @Column(name = "remaining_budget", nullable = false, precision = 15, scale = 2)
+    @Column(name = "remaining_budget", nullable = false, updatable = false, precision = 15, scale = 2)
     private BigDecimal remainingBudget = BigDecimal.ZERO;
 
     @NotNull
@@ -66,6 +69,20 @@ public class Project extends AuditableEntity {
     @Column(name = "completion_percentage", precision = 5, scale = 2)
     private BigDecimal completionPercentage = BigDecimal.ZERO;
 
+    // Running ledger balance, maintained only by BudgetLedgerService through atomic updates
+    @Column(name = "ledger_balance", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "DECIMAL(15,2) DEFAULT 0")
+    private BigDecimal ledgerBalance = BigDecimal.ZERO;
+
+    @Column(name = "ledger_version", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "BIGINT DEFAULT 0")
+    private Long ledgerVersion = 0L;
+
+    // Budget reserved by submitted quotations, maintained only by BudgetReservationService
+    @Column(name = "held_amount", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "DECIMAL(15,2) DEFAULT 0")
+    private BigDecimal heldAmount = BigDecimal.ZERO;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "manager_id")
     private User manager;
@@ -132,7 +149,7 @@ public class Project extends AuditableEntity {
         if (allocatedBudget.compareTo(BigDecimal.ZERO) == 0) {
             return BigDecimal.ZERO;
         }
-        return spentAmount.multiply(new BigDecimal("100")).divide(allocatedBudget, 2, BigDecimal.ROUND_HALF_UP);
+        return Money.percentage(Money.toMinorUnits(spentAmount), Money.toMinorUnits(allocatedBudget));
     }
 
     public void updateCompletionPercentage(BigDecimal percentage) {
@@ -254,6 +271,18 @@ public class Project extends AuditableEntity {
         this.completionPercentage = completionPercentage;
     }
 
+    public BigDecimal getLedgerBalance() {
+        return ledgerBalance;
+    }
+
+    public Long getLedgerVersion() {
+        return ledgerVersion;
+    }
+
+    public BigDecimal getHeldAmount() {
+        return heldAmount;
+    }
+
     public User getManager() {
         return manager;
     }
@@ -3,18 +3,23 @@ package com.company.erp.project.repository;
 import com.company.erp.project.entity.Project;
 import com.company.erp.project.entity.ProjectStatus;
 import com.company.erp.user.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProjectRepository extends JpaRepository<Project, Long> {
@@ -43,6 +48,9 @@ public interface ProjectRepository extends JpaRepository<Project, Long> {
     @Query("SELECT p FROM Project p WHERE p.manager.id = :managerId AND p.active = true")
     List<Project> findByManagerIdAndActiveTrue(@Param("managerId") Long managerId);
 
+    @Query("SELECT p.manager.id FROM Project p WHERE p.id = :projectId")
+    Optional<Long> findManagerIdById(@Param("projectId") Long projectId);
+
     @Query("SELECT p FROM Project p WHERE p.manager.id = :managerId AND p.active = true")
     Page<Project> findByManagerIdAndActiveTrue(@Param("managerId") Long managerId, Pageable pageable);
 
@@ -59,6 +67,30 @@ public interface ProjectRepository extends JpaRepository<Project, Long> {
                                        @Param("managerId") Long managerId,
                                        Pageable pageable);
 
+    // Similarity-ranked search over name and location, served by the pg_trgm GIN indexes (PostgreSQL only)
+    @Query(value = "SELECT p.* FROM projects p WHERE p.active = true " +
+            "AND (CAST(:status AS VARCHAR) IS NULL OR p.status = CAST(:status AS VARCHAR)) " +
+            "AND (CAST(:managerId AS BIGINT) IS NULL OR p.manager_id = :managerId) " +
+            "AND (CAST(:name AS VARCHAR) IS NULL OR p.name ILIKE CONCAT('%', CAST(:name AS VARCHAR), '%') " +
+            "     OR CAST(:name AS VARCHAR) <% p.name) " +
+            "AND (CAST(:location AS VARCHAR) IS NULL OR p.location ILIKE CONCAT('%', CAST(:location AS VARCHAR), '%') " +
+            "     OR CAST(:location AS VARCHAR) <% p.location) " +
+            "ORDER BY COALESCE(word_similarity(CAST(:name AS VARCHAR), p.name), 0) " +
+            "       + COALESCE(word_similarity(CAST(:location AS VARCHAR), p.location), 0) DESC, p.name",
+            countQuery = "SELECT COUNT(*) FROM projects p WHERE p.active = true " +
+                    "AND (CAST(:status AS VARCHAR) IS NULL OR p.status = CAST(:status AS VARCHAR)) " +
+                    "AND (CAST(:managerId AS BIGINT) IS NULL OR p.manager_id = :managerId) " +
+                    "AND (CAST(:name AS VARCHAR) IS NULL OR p.name ILIKE CONCAT('%', CAST(:name AS VARCHAR), '%') " +
+                    "     OR CAST(:name AS VARCHAR) <% p.name) " +
+                    "AND (CAST(:location AS VARCHAR) IS NULL OR p.location ILIKE CONCAT('%', CAST(:location AS VARCHAR), '%') " +
+                    "     OR CAST(:location AS VARCHAR) <% p.location)",
+            nativeQuery = true)
+    Page<Project> searchRanked(@Param("name") String name,
+                               @Param("location") String location,
+                               @Param("status") String status,
+                               @Param("managerId") Long managerId,
+                               Pageable pageable);
+
     // Budget-related queries
     @Query("SELECT p FROM Project p WHERE p.spentAmount > p.allocatedBudget AND p.active = true")
     List<Project> findOverBudgetProjects();
@@ -100,6 +132,40 @@ public interface ProjectRepository extends JpaRepository<Project, Long> {
     @Query("SELECT SUM(p.spentAmount) FROM Project p WHERE p.active = true")
     BigDecimal getTotalSpentAmount();
 
+    // Columnar finance snapshot rows: (id, name, allocatedBudget, spentAmount, status, startDate, endDate, createdDate)
+    @Query("SELECT p.id, p.name, p.allocatedBudget, p.spentAmount, p.status, p.startDate, p.endDate, p.createdDate " +
+            "FROM Project p WHERE p.active = true ORDER BY p.id")
+    List<Object[]> findFinanceSnapshotRows();
+
+    @Query("SELECT p.id, p.name, p.allocatedBudget, p.spentAmount, p.status, p.startDate, p.endDate, p.createdDate " +
+            "FROM Project p WHERE p.id IN :projectIds AND p.active = true ORDER BY p.id")
+    List<Object[]> findFinanceSnapshotRowsByIds(@Param("projectIds") Collection<Long> projectIds);
+
+    // Export cursor rows: (id, name, managerName, allocatedBudget, spentAmount, remainingBudget, status); caller must close
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p.id, p.name, m.fullName, p.allocatedBudget, p.spentAmount, p.remainingBudget, p.status " +
+            "FROM Project p LEFT JOIN p.manager m WHERE p.active = true ORDER BY p.id")
+    Stream<Object[]> streamFinancialSummaryRows();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p.id, p.name, m.fullName, p.allocatedBudget, p.spentAmount, p.remainingBudget, p.status " +
+            "FROM Project p LEFT JOIN p.manager m WHERE p.id IN :projectIds AND p.active = true ORDER BY p.id")
+    Stream<Object[]> streamFinancialSummaryRowsForProjects(@Param("projectIds") Collection<Long> projectIds);
+
+    // (id, name, allocatedBudget, spentAmount, remainingBudget) per project
+    @Query("SELECT p.id, p.name, p.allocatedBudget, p.spentAmount, p.remainingBudget FROM Project p WHERE p.id IN :projectIds")
+    List<Object[]> getBudgetStatusForProjects(@Param("projectIds") Collection<Long> projectIds);
+
+    @Query("SELECT p.id, p.name, p.allocatedBudget, p.spentAmount, p.remainingBudget FROM Project p " +
+            "WHERE p.manager.id = :managerId AND p.active = true ORDER BY p.id")
+    List<Object[]> getBudgetStatusForManager(@Param("managerId") Long managerId);
+
     @Query("SELECT AVG(p.completionPercentage) FROM Project p WHERE p.active = true")
     BigDecimal getAverageCompletionPercentage();
 
@@ -113,14 +179,90 @@ public interface ProjectRepository extends JpaRepository<Project, Long> {
     @Query("SELECT p FROM Project p WHERE p.manager IS NULL AND p.active = true")
     List<Project> findUnassignedProjects();
 
-    // Update methods
-    @Modifying
+    // Budget columns are not updatable through the entity; every change is one of these atomic updates
+    @Modifying(flushAutomatically = true)
     @Query("UPDATE Project p SET p.spentAmount = :spentAmount, p.remainingBudget = p.allocatedBudget - :spentAmount WHERE p.id = :projectId")
-    void updateProjectBudgetSpent(@Param("projectId") Long projectId, @Param("spentAmount") BigDecimal spentAmount);
-
-    @Modifying
-    @Query("UPDATE Project p SET p.allocatedBudget = :allocatedBudget, p.remainingBudget = :allocatedBudget - p.spentAmount WHERE p.id = :projectId")
-    void updateProjectAllocatedBudget(@Param("projectId") Long projectId, @Param("allocatedBudget") BigDecimal allocatedBudget);
+    int updateProjectBudgetSpent(@Param("projectId") Long projectId, @Param("spentAmount") BigDecimal spentAmount);
+
+    // Refuses (returns 0) a budget below the amount already spent, checked against the current row
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Project p SET p.allocatedBudget = :allocatedBudget, p.remainingBudget = :allocatedBudget - p.spentAmount " +
+            "WHERE p.id = :projectId AND p.spentAmount <= :allocatedBudget")
+    int updateProjectAllocatedBudget(@Param("projectId") Long projectId, @Param("allocatedBudget") BigDecimal allocatedBudget);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Project p SET " +
+            "p.spentAmount = p.spentAmount + :spentDelta, " +
+            "p.allocatedBudget = p.allocatedBudget + :allocatedDelta, " +
+            "p.remainingBudget = (p.allocatedBudget + :allocatedDelta) - (p.spentAmount + :spentDelta) " +
+            "WHERE p.id = :projectId")
+    int applyBudgetDelta(@Param("projectId") Long projectId,
+                         @Param("spentDelta") BigDecimal spentDelta,
+                         @Param("allocatedDelta") BigDecimal allocatedDelta);
+
+    // Budget ledger (atomic single-row updates; the row lock serializes writers on a project)
+    @Query("SELECT p.ledgerBalance, p.ledgerVersion FROM Project p WHERE p.id = :projectId AND p.active = true")
+    List<Object[]> getLedgerSnapshot(@Param("projectId") Long projectId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Project p SET " +
+            "p.ledgerBalance = p.ledgerBalance + :balanceDelta, " +
+            "p.ledgerVersion = p.ledgerVersion + 1, " +
+            "p.spentAmount = p.spentAmount + :spentDelta, " +
+            "p.allocatedBudget = p.allocatedBudget + :allocatedDelta, " +
+            "p.remainingBudget = (p.allocatedBudget + :allocatedDelta) - (p.spentAmount + :spentDelta) " +
+            "WHERE p.id = :projectId AND p.active = true")
+    int applyLedgerPosting(@Param("projectId") Long projectId,
+                           @Param("balanceDelta") BigDecimal balanceDelta,
+                           @Param("spentDelta") BigDecimal spentDelta,
+                           @Param("allocatedDelta") BigDecimal allocatedDelta);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Project p SET p.ledgerVersion = p.ledgerVersion + 1 WHERE p.id = :projectId AND p.active = true")
+    int lockLedger(@Param("projectId") Long projectId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Project p SET p.ledgerBalance = :balance, p.ledgerVersion = p.ledgerVersion + 1 WHERE p.id = :projectId")
+    int resetLedgerBalance(@Param("projectId") Long projectId, @Param("balance") BigDecimal balance);
+
+    // Row lock without changing anything, for rebuilds that must not interleave with a project's writers
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Project p SET p.ledgerVersion = p.ledgerVersion WHERE p.id = :projectId")
+    int lockRow(@Param("projectId") Long projectId);
+
+    @Query("SELECT p.id FROM Project p ORDER BY p.id")
+    List<Long> findAllIds();
+
+    // Budget holds (single-row conditional updates; the WHERE clause is the budget check)
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Project p SET p.heldAmount = p.heldAmount + :amount " +
+            "WHERE p.id = :projectId AND p.active = true " +
+            "AND p.remainingBudget - p.heldAmount + p.allocatedBudget * :overrunAllowance >= :amount")
+    int placeBudgetHold(@Param("projectId") Long projectId,
+                        @Param("amount") BigDecimal amount,
+                        @Param("overrunAllowance") BigDecimal overrunAllowance);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Project p SET p.heldAmount = p.heldAmount - :heldAmount, " +
+            "p.spentAmount = p.spentAmount + :spentAmount, " +
+            "p.remainingBudget = p.remainingBudget - :spentAmount " +
+            "WHERE p.id = :projectId")
+    int convertBudgetHold(@Param("projectId") Long projectId,
+                          @Param("heldAmount") BigDecimal heldAmount,
+                          @Param("spentAmount") BigDecimal spentAmount);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Project p SET p.spentAmount = p.spentAmount + :amount, " +
+            "p.remainingBudget = p.remainingBudget - :amount " +
+            "WHERE p.id = :projectId AND p.active = true " +
+            "AND p.remainingBudget - p.heldAmount + p.allocatedBudget * :overrunAllowance >= :amount")
+    int spendWithinBudget(@Param("projectId") Long projectId,
+                          @Param("amount") BigDecimal amount,
+                          @Param("overrunAllowance") BigDecimal overrunAllowance);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Project p SET p.heldAmount = p.heldAmount - :amount WHERE p.id = :projectId")
+    int releaseBudgetHold(@Param("projectId") Long projectId, @Param("amount") BigDecimal amount);
 
     @Modifying
     @Query("UPDATE Project p SET p.completionPercentage = :percentage WHERE p.id = :projectId")
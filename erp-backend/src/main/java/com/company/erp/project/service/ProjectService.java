@@ -1,8 +1,12 @@
 package com.company.erp.project.service;
 
+import com.company.erp.common.event.DashboardDataChangedEvent;
 import com.company.erp.common.exception.BusinessException;
 import com.company.erp.common.exception.DuplicateResourceException;
 import com.company.erp.common.exception.ResourceNotFoundException;
+import com.company.erp.common.service.PageCountService;
+import com.company.erp.common.service.PageCountService.CountMode;
+import com.company.erp.common.service.PageCountService.CountQuery;
 import com.company.erp.project.dto.request.CreateProjectRequest;
 import com.company.erp.project.dto.request.UpdateProjectRequest;
 import com.company.erp.project.dto.response.ProjectResponse;
@@ -14,7 +18,10 @@ import com.company.erp.user.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -36,6 +43,15 @@ public class ProjectService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PageCountService pageCountService;
+
+    @Value("${app.search.trigram.enabled:true}")
+    private boolean trigramSearchEnabled;
+
     /**
      * Create new project
      */
@@ -60,6 +76,7 @@ public class ProjectService {
         project.setStatus(ProjectStatus.ACTIVE);
 
         Project savedProject = projectRepository.save(project);
+        publishProjectChange(savedProject.getId(), "CREATED");
         logger.info("Project created successfully with ID: {}", savedProject.getId());
 
         return convertToProjectResponse(savedProject);
@@ -84,6 +101,7 @@ public class ProjectService {
 
         project.assignManager(manager);
         Project savedProject = projectRepository.save(project);
+        publishProjectChange(projectId, "MANAGER_ASSIGNED");
 
         logger.info("Manager assigned successfully to project: {}", savedProject.getName());
         return convertToProjectResponse(savedProject);
@@ -113,11 +131,7 @@ public class ProjectService {
 
         // Update budget if provided and valid
         if (request.getAllocatedBudget() != null) {
-            if (request.getAllocatedBudget().compareTo(project.getSpentAmount()) < 0) {
-                throw new BusinessException("INVALID_BUDGET",
-                        "Allocated budget cannot be less than already spent amount");
-            }
-            project.setAllocatedBudget(request.getAllocatedBudget());
+            reallocateBudget(project, request.getAllocatedBudget(), "Allocated budget cannot be less than already spent amount");
         }
 
         // Update completion percentage if provided
@@ -126,6 +140,7 @@ public class ProjectService {
         }
 
         Project savedProject = projectRepository.save(project);
+        publishProjectChange(projectId, "UPDATED");
         logger.info("Project updated successfully: {}", savedProject.getName());
 
         return convertToProjectResponse(savedProject);
@@ -146,8 +161,10 @@ public class ProjectService {
      * Get all projects with pagination
      */
     @Transactional(readOnly = true)
-    public Page<ProjectResponse> getAllProjects(Pageable pageable) {
-        Page<Project> projects = projectRepository.findByActiveTrue(pageable);
+    public Page<ProjectResponse> getAllProjects(Pageable pageable, CountMode countMode) {
+        Page<Project> projects = pageCountService.page(countMode, pageable,
+                CountQuery.of(Project.class, "projects")
+                        .equal("active", "active", true));
         return projects.map(this::convertToProjectResponse);
     }
 
@@ -168,9 +185,23 @@ public class ProjectService {
     @Transactional(readOnly = true)
     public Page<ProjectResponse> searchProjects(String name, String location,
                                                 ProjectStatus status, Long managerId,
-                                                Pageable pageable) {
-        Page<Project> projects = projectRepository.findBySearchCriteria(
-                name, location, status, managerId, pageable);
+                                                Pageable pageable, CountMode countMode) {
+        boolean hasText = (name != null && !name.isBlank()) || (location != null && !location.isBlank());
+        if (trigramSearchEnabled && hasText) {
+            // Ranked by similarity, so the requested sort does not apply
+            Page<Project> ranked = projectRepository.searchRanked(blankToNull(name), blankToNull(location),
+                    status != null ? status.name() : null, managerId,
+                    PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()));
+            return ranked.map(this::convertToProjectResponse);
+        }
+
+        Page<Project> projects = pageCountService.page(countMode, pageable,
+                CountQuery.of(Project.class, "projects")
+                        .equal("active", "active", true)
+                        .contains("name", "name", name)
+                        .contains("location", "location", location)
+                        .equal("status", "status", status)
+                        .equal("manager.id", "manager_id", managerId));
         return projects.map(this::convertToProjectResponse);
     }
 
@@ -210,6 +241,7 @@ public class ProjectService {
         }
 
         Project savedProject = projectRepository.save(project);
+        publishProjectChange(projectId, "STATUS_CHANGED");
         logger.info("Project status updated successfully");
 
         return convertToProjectResponse(savedProject);
@@ -224,13 +256,9 @@ public class ProjectService {
         Project project = projectRepository.findByIdAndActiveTrue(projectId)
                 .orElseThrow(() -> new ResourceNotFoundException("Project", "id", projectId));
 
-        if (newBudget.compareTo(project.getSpentAmount()) < 0) {
-            throw new BusinessException("INVALID_BUDGET",
-                    "New budget cannot be less than already spent amount");
-        }
-
-        project.setAllocatedBudget(newBudget);
+        reallocateBudget(project, newBudget, "New budget cannot be less than already spent amount");
         Project savedProject = projectRepository.save(project);
+        publishProjectChange(projectId, "BUDGET_CHANGED");
 
         logger.info("Project budget updated successfully");
         return convertToProjectResponse(savedProject);
@@ -281,6 +309,7 @@ public class ProjectService {
         project.setActive(false);
         project.setStatus(ProjectStatus.CANCELLED);
         projectRepository.save(project);
+        publishProjectChange(projectId, "DEACTIVATED");
 
         logger.info("Project deactivated: {}", project.getName());
     }
@@ -306,6 +335,26 @@ public class ProjectService {
         return project.isAssigned(userRepository.findById(userId).orElse(null));
     }
 
+    private String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    /**
+     * Change the allocated budget in one statement; the spent-amount check runs against the current
+     * row, not the possibly stale loaded entity. The entity is updated in memory for the response.
+     */
+    private void reallocateBudget(Project project, BigDecimal newBudget, String rejection) {
+        if (projectRepository.updateProjectAllocatedBudget(project.getId(), newBudget) == 0) {
+            throw new BusinessException("INVALID_BUDGET", rejection);
+        }
+        project.setAllocatedBudget(newBudget);
+    }
+
+    private void publishProjectChange(Long projectId, String action) {
+        eventPublisher.publishEvent(new DashboardDataChangedEvent(
+                DashboardDataChangedEvent.Source.PROJECT, projectId, action));
+    }
+
     /**
      * Convert Project entity to ProjectResponse DTO
      */
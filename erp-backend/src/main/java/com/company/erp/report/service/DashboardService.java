@@ -1,13 +1,16 @@
 package com.company.erp.report.service;
 
+import com.company.erp.common.constants.ApplicationConstants;
 import com.company.erp.common.security.UserPrincipal;
-import com.company.erp.financial.repository.QuotationRepository;
+import com.company.erp.common.service.StatusCounterService;
+import com.company.erp.common.util.Money;
 import com.company.erp.project.repository.ProjectRepository;
 import com.company.erp.report.dto.response.DashboardResponse;
 import com.company.erp.user.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
@@ -29,14 +32,16 @@ public class DashboardService {
     private ProjectRepository projectRepository;
 
     @Autowired
-    private QuotationRepository quotationRepository;
+    private UserRepository userRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private StatusCounterService statusCounterService;
 
     /**
      * Get main dashboard data
      */
+    @Cacheable(cacheNames = ApplicationConstants.Cache.DASHBOARD_DATA,
+            keyGenerator = ApplicationConstants.Cache.DASHBOARD_KEY_GENERATOR)
     public DashboardResponse getMainDashboard(Long userId) {
         logger.info("Generating main dashboard for user: {}", userId);
 
@@ -65,6 +70,8 @@ public class DashboardService {
     /**
      * Get user-specific dashboard
      */
+    @Cacheable(cacheNames = ApplicationConstants.Cache.DASHBOARD_DATA,
+            keyGenerator = ApplicationConstants.Cache.USER_DASHBOARD_KEY_GENERATOR)
     public DashboardResponse getUserDashboard(Long userId) {
         DashboardResponse dashboard = new DashboardResponse();
         dashboard.setUserId(userId);
@@ -72,7 +79,7 @@ public class DashboardService {
 
         // User-specific metrics
         dashboard.setMyProjectsCount(projectRepository.countByManagerIdAndActiveTrue(userId));
-        dashboard.setMyQuotationsCount(quotationRepository.countByCreatedBy(userId));
+        dashboard.setMyQuotationsCount(statusCounterService.quotationsCreatedBy(userId).total());
         dashboard.setPendingTasksCount(getPendingTasksForUser(userId));
 
         return dashboard;
@@ -142,7 +149,7 @@ public class DashboardService {
 
     private Long getPendingApprovalsCount(Long userId, UserPrincipal currentUser) {
         if (currentUser.hasAnyRole("SUPER_ADMIN", "ACCOUNT_MANAGER")) {
-            return quotationRepository.countByStatus(com.company.erp.financial.entity.QuotationStatus.SUBMITTED);
+            return statusCounterService.quotations().count(com.company.erp.financial.entity.QuotationStatus.SUBMITTED);
         }
         return 0L; // Project managers don't have approval rights
     }
@@ -201,10 +208,7 @@ public class DashboardService {
         BigDecimal total = getTotalBudgetAllocated();
         BigDecimal spent = getTotalSpentAmount();
 
-        if (total.compareTo(BigDecimal.ZERO) > 0) {
-            return spent.divide(total, 4, BigDecimal.ROUND_HALF_UP).multiply(new BigDecimal("100"));
-        }
-        return BigDecimal.ZERO;
+        return Money.of(spent).percentOf(Money.of(total));
     }
 
     private BigDecimal calculateSystemHealthScore() {
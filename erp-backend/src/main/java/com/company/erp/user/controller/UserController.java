@@ -1,5 +1,6 @@
 package com.company.erp.user.controller;
 
+import com.company.erp.common.service.PageCountService.CountMode;
 import com.company.erp.user.dto.request.AssignRolesRequest;
 import com.company.erp.user.dto.request.CreateUserRequest;
 import com.company.erp.user.dto.request.UpdateUserRequest;
@@ -84,12 +85,13 @@ public class UserController {
             @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size,
             @Parameter(description = "Sort field") @RequestParam(defaultValue = "fullName") String sortBy,
-            @Parameter(description = "Sort direction") @RequestParam(defaultValue = "asc") String sortDir) {
+            @Parameter(description = "Sort direction") @RequestParam(defaultValue = "asc") String sortDir,
+            @Parameter(description = "Total count mode: exact, estimate or none") @RequestParam(defaultValue = "exact") String count) {
 
         Sort sort = Sort.by(Sort.Direction.fromString(sortDir), sortBy);
         Pageable pageable = PageRequest.of(page, size, sort);
 
-        Page<UserResponse> users = userService.getAllUsers(pageable);
+        Page<UserResponse> users = userService.getAllUsers(pageable, CountMode.parse(count));
         return ResponseEntity.ok(users);
     }
 
@@ -105,10 +107,11 @@ public class UserController {
             @Parameter(description = "Department filter") @RequestParam(required = false) String department,
             @Parameter(description = "Active status filter") @RequestParam(required = false) Boolean active,
             @Parameter(description = "Page number") @RequestParam(defaultValue = "0") int page,
-            @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size) {
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Total count mode: exact, estimate or none") @RequestParam(defaultValue = "exact") String count) {
 
         Pageable pageable = PageRequest.of(page, size, Sort.by("fullName"));
-        Page<UserResponse> users = userService.searchUsers(fullName, department, active, pageable);
+        Page<UserResponse> users = userService.searchUsers(fullName, department, active, pageable, CountMode.parse(count));
         return ResponseEntity.ok(users);
     }
 
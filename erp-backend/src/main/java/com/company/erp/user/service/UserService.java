@@ -3,6 +3,9 @@ package com.company.erp.user.service;
 import com.company.erp.common.exception.BusinessException;
 import com.company.erp.common.exception.DuplicateResourceException;
 import com.company.erp.common.exception.ResourceNotFoundException;
+import com.company.erp.common.service.PageCountService;
+import com.company.erp.common.service.PageCountService.CountMode;
+import com.company.erp.common.service.PageCountService.CountQuery;
 import com.company.erp.user.dto.request.CreateUserRequest;
 import com.company.erp.user.dto.request.UpdateUserRequest;
 import com.company.erp.user.dto.response.UserResponse;
@@ -40,6 +43,9 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private PageCountService pageCountService;
+
     /**
      * Create new user
      */
@@ -194,8 +200,9 @@ public class UserService {
      * Get all users with pagination
      */
     @Transactional(readOnly = true)
-    public Page<UserResponse> getAllUsers(Pageable pageable) {
-        Page<User> users = userRepository.findAll(pageable);
+    public Page<UserResponse> getAllUsers(Pageable pageable, CountMode countMode) {
+        Page<User> users = pageCountService.page(countMode, pageable,
+                CountQuery.of(User.class, "users"));
         return users.map(this::convertToUserResponse);
     }
 
@@ -203,8 +210,13 @@ public class UserService {
      * Search users by criteria
      */
     @Transactional(readOnly = true)
-    public Page<UserResponse> searchUsers(String fullName, String department, Boolean active, Pageable pageable) {
-        Page<User> users = userRepository.findBySearchCriteria(fullName, department, active, pageable);
+    public Page<UserResponse> searchUsers(String fullName, String department, Boolean active,
+                                          Pageable pageable, CountMode countMode) {
+        Page<User> users = pageCountService.page(countMode, pageable,
+                CountQuery.of(User.class, "users")
+                        .contains("fullName", "full_name", fullName)
+                        .equalIgnoreCase("department", "department", department)
+                        .equal("active", "active", active));
         return users.map(this::convertToUserResponse);
     }
 
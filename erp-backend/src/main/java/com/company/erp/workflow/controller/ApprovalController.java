@@ -1,10 +1,14 @@
 package com.company.erp.workflow.controller;
 
+import com.company.erp.common.dto.CursorPage;
 import com.company.erp.workflow.dto.request.ApprovalRequest;
 import com.company.erp.workflow.dto.request.BulkApprovalRequest;
+import com.company.erp.workflow.dto.response.ApprovalHistoryResponse;
 import com.company.erp.workflow.dto.response.ApprovalResponse;
+import com.company.erp.workflow.dto.response.BulkApprovalResponse;
 import com.company.erp.workflow.dto.response.PendingApprovalsResponse;
 import com.company.erp.workflow.service.ApprovalService;
+import com.company.erp.workflow.service.BulkApprovalService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -38,6 +42,9 @@ public class ApprovalController {
     @Autowired
     private ApprovalService approvalService;
 
+    @Autowired
+    private BulkApprovalService bulkApprovalService;
+
     @Operation(summary = "Process single approval", description = "Approve, reject, or request changes for a quotation")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Approval processed successfully"),
@@ -58,7 +65,8 @@ public class ApprovalController {
         return ResponseEntity.ok(response);
     }
 
-    @Operation(summary = "Process bulk approvals", description = "Process multiple quotations with the same action")
+    @Operation(summary = "Process bulk approvals",
+            description = "Process multiple quotations with the same action, one transaction per chunk; reports each quotation")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Bulk approvals processed successfully"),
             @ApiResponse(responseCode = "400", description = "Invalid bulk approval request"),
@@ -66,24 +74,21 @@ public class ApprovalController {
     })
     @PostMapping("/bulk")
     @PreAuthorize("hasAuthority('ACCOUNT_MANAGER') or hasAuthority('SUPER_ADMIN')")
-    public ResponseEntity<Map<String, Object>> processBulkApprovals(@Valid @RequestBody BulkApprovalRequest request) {
+    public ResponseEntity<BulkApprovalResponse> processBulkApprovals(@Valid @RequestBody BulkApprovalRequest request) {
         logger.info("Processing bulk approval for {} quotations with action: {}",
                 request.getQuotationIds().size(), request.getAction());
 
-        List<ApprovalResponse> results = approvalService.processBulkApprovals(request);
-
-        Map<String, Object> response = new HashMap<>();
-        response.put("totalRequested", request.getQuotationIds().size());
-        response.put("successfullyProcessed", results.size());
-        response.put("results", results);
+        BulkApprovalResponse response = bulkApprovalService.processBulkApprovals(request);
 
         logger.info("Bulk approval completed: {} out of {} quotations processed successfully",
-                results.size(), request.getQuotationIds().size());
+                response.getSuccessfullyProcessed(), response.getTotalRequested());
 
         return ResponseEntity.ok(response);
     }
 
-    @Operation(summary = "Get pending approvals", description = "Get paginated list of quotations pending approval")
+    @Operation(summary = "Get pending approvals",
+            description = "Get paginated list of quotations pending approval; sortBy=priority (default) orders by SLA deadline, amount and age. " +
+                    "With priority order, after (the last quotation id of the previous page) continues from that quotation")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Pending approvals retrieved successfully"),
             @ApiResponse(responseCode = "403", description = "Access denied - Account Managers only")
@@ -93,20 +98,72 @@ public class ApprovalController {
     public ResponseEntity<Page<PendingApprovalsResponse>> getPendingApprovals(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "submittedDate") String sortBy,
-            @RequestParam(defaultValue = "asc") String sortDir) {
+            @RequestParam(defaultValue = "priority") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir,
+            @RequestParam(required = false) Long after) {
 
         logger.debug("Fetching pending approvals - page: {}, size: {}", page, size);
 
-        Sort sort = sortDir.equalsIgnoreCase("desc") ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
-        Pageable pageable = PageRequest.of(page, size, sort);
+        // Queue priority order is served unsorted from the approval queue
+        Pageable pageable = "priority".equalsIgnoreCase(sortBy) ? PageRequest.of(page, size)
+                : PageRequest.of(page, size, sortDir.equalsIgnoreCase("desc")
+                        ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending());
 
-        Page<PendingApprovalsResponse> pendingApprovals = approvalService.getPendingApprovals(pageable);
+        Page<PendingApprovalsResponse> pendingApprovals = approvalService.getPendingApprovals(pageable, after);
 
         return ResponseEntity.ok(pendingApprovals);
     }
 
-    @Operation(summary = "Get urgent approvals", description = "Get quotations pending approval for more than 3 days")
+    @Operation(summary = "Claim approvals",
+            description = "Lease the most urgent pending approvals to the current user; other approvers will not be handed them")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Approvals claimed (possibly none)"),
+            @ApiResponse(responseCode = "403", description = "Access denied - Account Managers only")
+    })
+    @PostMapping("/queue/claim")
+    @PreAuthorize("hasAuthority('ACCOUNT_MANAGER') or hasAuthority('SUPER_ADMIN')")
+    public ResponseEntity<List<PendingApprovalsResponse>> claimApprovals(
+            @RequestParam(defaultValue = "0") int max) {
+
+        return ResponseEntity.ok(approvalService.claimApprovals(max));
+    }
+
+    @Operation(summary = "Release approval", description = "Return a claimed approval to the queue")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Approval released"),
+            @ApiResponse(responseCode = "400", description = "Quotation is not claimed by the current user"),
+            @ApiResponse(responseCode = "403", description = "Access denied - Account Managers only")
+    })
+    @PostMapping("/queue/{quotationId}/release")
+    @PreAuthorize("hasAuthority('ACCOUNT_MANAGER') or hasAuthority('SUPER_ADMIN')")
+    public ResponseEntity<Map<String, Object>> releaseApproval(
+            @Parameter(description = "Quotation ID") @PathVariable Long quotationId) {
+        approvalService.releaseApproval(quotationId);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("quotationId", quotationId);
+        response.put("released", true);
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Scroll pending approvals",
+            description = "Cursor-paginated quotations pending approval, oldest submission first")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Pending approvals retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor"),
+            @ApiResponse(responseCode = "403", description = "Access denied - Account Managers only")
+    })
+    @GetMapping("/pending/scroll")
+    @PreAuthorize("hasAuthority('ACCOUNT_MANAGER') or hasAuthority('SUPER_ADMIN')")
+    public ResponseEntity<CursorPage<PendingApprovalsResponse>> scrollPendingApprovals(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+
+        return ResponseEntity.ok(approvalService.getPendingApprovals(cursor, size));
+    }
+
+    @Operation(summary = "Get urgent approvals",
+            description = "Get quotations pending approval past their SLA deadline, most overdue first")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Urgent approvals retrieved successfully"),
             @ApiResponse(responseCode = "403", description = "Access denied - Account Managers only")
@@ -115,14 +172,11 @@ public class ApprovalController {
     @PreAuthorize("hasAuthority('ACCOUNT_MANAGER') or hasAuthority('SUPER_ADMIN')")
     public ResponseEntity<Page<PendingApprovalsResponse>> getUrgentApprovals(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "submittedDate") String sortBy,
-            @RequestParam(defaultValue = "asc") String sortDir) {
+            @RequestParam(defaultValue = "10") int size) {
 
         logger.debug("Fetching urgent approvals - page: {}, size: {}", page, size);
 
-        Sort sort = sortDir.equalsIgnoreCase("desc") ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
-        Pageable pageable = PageRequest.of(page, size, sort);
+        Pageable pageable = PageRequest.of(page, size);
 
         Page<PendingApprovalsResponse> urgentApprovals = approvalService.getUrgentApprovals(pageable);
 
@@ -147,6 +201,24 @@ public class ApprovalController {
         return ResponseEntity.ok(approvalHistory);
     }
 
+    @Operation(summary = "Get approval event log", description = "Get every workflow transition of a quotation, oldest first")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Approval event log retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "Quotation not found"),
+            @ApiResponse(responseCode = "403", description = "Access denied")
+    })
+    @GetMapping("/quotation/{quotationId}/events")
+    @PreAuthorize("hasAuthority('ACCOUNT_MANAGER') or hasAuthority('SUPER_ADMIN') or hasAuthority('PROJECT_MANAGER')")
+    public ResponseEntity<List<ApprovalHistoryResponse>> getApprovalEvents(
+            @Parameter(description = "Quotation ID") @PathVariable Long quotationId) {
+
+        logger.debug("Fetching approval event log for quotation: {}", quotationId);
+
+        List<ApprovalHistoryResponse> events = approvalService.getApprovalEvents(quotationId);
+
+        return ResponseEntity.ok(events);
+    }
+
     @Operation(summary = "Get approval statistics", description = "Get approval statistics for current user or specified approver")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Approval statistics retrieved successfully"),
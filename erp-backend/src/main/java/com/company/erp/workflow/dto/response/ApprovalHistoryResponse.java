@@ -0,0 +1,56 @@
+// ApprovalHistoryResponse.java
+package com.company.erp.workflow.dto.response;
+
+import java.time.LocalDateTime;
+
+public class ApprovalHistoryResponse {
+
+    private Long id; // null while the entry is still buffered
+    private Long quotationId;
+    private String event;
+    private String eventName;
+    private String fromState; // null for the submission that started the workflow
+    private String toState;
+    private Long actorId;
+    private String actorName;
+    private Long approvalId;
+    private String comments; // from the referenced approval record, on its latest decision only
+    private LocalDateTime occurredAt;
+
+    // Constructors
+    public ApprovalHistoryResponse() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getQuotationId() { return quotationId; }
+    public void setQuotationId(Long quotationId) { this.quotationId = quotationId; }
+
+    public String getEvent() { return event; }
+    public void setEvent(String event) { this.event = event; }
+
+    public String getEventName() { return eventName; }
+    public void setEventName(String eventName) { this.eventName = eventName; }
+
+    public String getFromState() { return fromState; }
+    public void setFromState(String fromState) { this.fromState = fromState; }
+
+    public String getToState() { return toState; }
+    public void setToState(String toState) { this.toState = toState; }
+
+    public Long getActorId() { return actorId; }
+    public void setActorId(Long actorId) { this.actorId = actorId; }
+
+    public String getActorName() { return actorName; }
+    public void setActorName(String actorName) { this.actorName = actorName; }
+
+    public Long getApprovalId() { return approvalId; }
+    public void setApprovalId(Long approvalId) { this.approvalId = approvalId; }
+
+    public String getComments() { return comments; }
+    public void setComments(String comments) { this.comments = comments; }
+
+    public LocalDateTime getOccurredAt() { return occurredAt; }
+    public void setOccurredAt(LocalDateTime occurredAt) { this.occurredAt = occurredAt; }
+}
@@ -0,0 +1,88 @@
+// BulkApprovalResponse.java
+package com.company.erp.workflow.dto.response;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BulkApprovalResponse {
+
+    private int totalRequested;
+    private int successfullyProcessed;
+    private int failed;
+    private int chunks; // transactions used; a failed chunk fails all of its items
+    private List<ItemResult> results = new ArrayList<>(); // in request order
+    private long durationMs;
+
+    // Constructors
+    public BulkApprovalResponse() {}
+
+    // Getters and Setters
+    public int getTotalRequested() { return totalRequested; }
+    public void setTotalRequested(int totalRequested) { this.totalRequested = totalRequested; }
+
+    public int getSuccessfullyProcessed() { return successfullyProcessed; }
+    public void setSuccessfullyProcessed(int successfullyProcessed) { this.successfullyProcessed = successfullyProcessed; }
+
+    public int getFailed() { return failed; }
+    public void setFailed(int failed) { this.failed = failed; }
+
+    public int getChunks() { return chunks; }
+    public void setChunks(int chunks) { this.chunks = chunks; }
+
+    public List<ItemResult> getResults() { return results; }
+    public void setResults(List<ItemResult> results) { this.results = results; }
+
+    public long getDurationMs() { return durationMs; }
+    public void setDurationMs(long durationMs) { this.durationMs = durationMs; }
+
+    public static class ItemResult {
+        private Long quotationId;
+        private boolean success;
+        private String quotationStatus; // after the action
+        private String workflowState; // after the action
+        private Long approvalId;
+        private String errorCode;
+        private String message;
+
+        public ItemResult() {}
+
+        public static ItemResult succeeded(Long quotationId, String quotationStatus, String workflowState, Long approvalId) {
+            ItemResult result = new ItemResult();
+            result.quotationId = quotationId;
+            result.success = true;
+            result.quotationStatus = quotationStatus;
+            result.workflowState = workflowState;
+            result.approvalId = approvalId;
+            return result;
+        }
+
+        public static ItemResult failed(Long quotationId, String errorCode, String message) {
+            ItemResult result = new ItemResult();
+            result.quotationId = quotationId;
+            result.errorCode = errorCode;
+            result.message = message;
+            return result;
+        }
+
+        public Long getQuotationId() { return quotationId; }
+        public void setQuotationId(Long quotationId) { this.quotationId = quotationId; }
+
+        public boolean isSuccess() { return success; }
+        public void setSuccess(boolean success) { this.success = success; }
+
+        public String getQuotationStatus() { return quotationStatus; }
+        public void setQuotationStatus(String quotationStatus) { this.quotationStatus = quotationStatus; }
+
+        public String getWorkflowState() { return workflowState; }
+        public void setWorkflowState(String workflowState) { this.workflowState = workflowState; }
+
+        public Long getApprovalId() { return approvalId; }
+        public void setApprovalId(Long approvalId) { this.approvalId = approvalId; }
+
+        public String getErrorCode() { return errorCode; }
+        public void setErrorCode(String errorCode) { this.errorCode = errorCode; }
+
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+    }
+}
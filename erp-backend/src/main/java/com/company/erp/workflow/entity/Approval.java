@@ -1,5 +1,6 @@
 package com.company.erp.workflow.entity;
 
+import com.company.erp.common.annotation.PooledSequence;
 import com.company.erp.common.entity.AuditableEntity;
 import com.company.erp.financial.entity.Quotation;
 import com.company.erp.user.entity.User;
@@ -10,6 +11,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "approvals")
+@PooledSequence
 public class Approval extends AuditableEntity {
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,86 @@
+package com.company.erp.workflow.entity;
+
+import com.company.erp.common.annotation.PooledSequence;
+import com.company.erp.common.entity.TableSequenceIdGenerator;
+import jakarta.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * One committed approval workflow transition. Rows are only ever inserted, in batches by
+ * ApprovalHistoryService, into a table partitioned by month of occurred_at. Event and states are
+ * stored as small codes; comments stay on the approval record referenced by approvalId.
+ */
+@Entity
+@Immutable
+@Table(name = "approval_history")
+@PooledSequence
+public class ApprovalHistory {
+
+    @Id
+    @GeneratedValue(generator = TableSequenceIdGenerator.NAME)
+    @GenericGenerator(name = TableSequenceIdGenerator.NAME, type = TableSequenceIdGenerator.class)
+    private Long id;
+
+    @Column(name = "quotation_id", nullable = false)
+    private Long quotationId;
+
+    @Column(name = "actor_id")
+    private Long actorId;
+
+    @Column(name = "event", nullable = false)
+    private short event;
+
+    @Column(name = "from_state")
+    private Short fromState;
+
+    @Column(name = "to_state", nullable = false)
+    private short toState;
+
+    @Column(name = "approval_id")
+    private Long approvalId;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+
+    // Constructors
+    public ApprovalHistory() {}
+
+    public ApprovalHistory(Long quotationId, Long actorId, WorkflowEvent event, WorkflowState fromState,
+                           WorkflowState toState, LocalDateTime occurredAt) {
+        this.quotationId = quotationId;
+        this.actorId = actorId;
+        this.event = event.getCode();
+        this.fromState = fromState != null ? fromState.getCode() : null;
+        this.toState = toState.getCode();
+        this.occurredAt = occurredAt;
+    }
+
+    // Getters
+    public Long getId() { return id; }
+
+    public Long getQuotationId() { return quotationId; }
+
+    public Long getActorId() { return actorId; }
+
+    public WorkflowEvent getEvent() { return WorkflowEvent.fromCode(event); }
+
+    public WorkflowState getFromState() { return fromState != null ? WorkflowState.fromCode(fromState) : null; }
+
+    public WorkflowState getToState() { return WorkflowState.fromCode(toState); }
+
+    public Long getApprovalId() { return approvalId; }
+
+    public LocalDateTime getOccurredAt() { return occurredAt; }
+
+    /** Set before the row is written, from the approver's approval record. */
+    public void setApprovalId(Long approvalId) { this.approvalId = approvalId; }
+
+    @Override
+    public String toString() {
+        return "ApprovalHistory{quotationId=" + quotationId + ", event=" + getEvent() +
+                ", fromState=" + getFromState() + ", toState=" + getToState() + ", occurredAt=" + occurredAt + "}";
+    }
+}
@@ -0,0 +1,36 @@
+package com.company.erp.workflow.entity;
+
+public enum WorkflowEvent {
+    APPROVE((short) 0, "Approve", "Approve the current stage"),
+    REJECT((short) 1, "Reject", "Reject the quotation"),
+    REQUEST_CHANGES((short) 2, "Request Changes", "Ask for changes; the quotation stays at the current stage"),
+    SUBMIT((short) 3, "Submit", "Submit or resubmit; starts the workflow and is never fired at a stage");
+
+    private static final WorkflowEvent[] BY_CODE = values();
+
+    private final short code; // persisted value in approval history; never renumber
+    private final String displayName;
+    private final String description;
+
+    WorkflowEvent(short code, String displayName, String description) {
+        this.code = code;
+        this.displayName = displayName;
+        this.description = description;
+    }
+
+    public static WorkflowEvent fromCode(short code) {
+        return BY_CODE[code];
+    }
+
+    public short getCode() {
+        return code;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,98 @@
+package com.company.erp.workflow.entity;
+
+import com.company.erp.common.entity.BaseEntity;
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Approval workflow position of one quotation, kept to a few fixed-width columns.
+ * Route and state are stored as small codes; state, version and last actor change only through
+ * the versioned single-row UPDATE in WorkflowInstanceRepository. Instances still under review
+ * double as the approval queue: amount, submission time and SLA deadline order the work, and
+ * claimed_by / lease_expires_at record which approver holds it.
+ */
+@Entity
+@Table(name = "workflow_instances")
+public class WorkflowInstance extends BaseEntity {
+
+    @Column(name = "quotation_id", nullable = false, unique = true)
+    private Long quotationId;
+
+    @Column(name = "route", nullable = false)
+    private short route;
+
+    @Column(name = "state", nullable = false, updatable = false)
+    private short state;
+
+    @Column(name = "version", nullable = false, updatable = false)
+    private int version;
+
+    @Column(name = "last_actor_id", updatable = false)
+    private Long lastActorId;
+
+    @Column(name = "amount", nullable = false, precision = 15, scale = 2, updatable = false)
+    private BigDecimal amount;
+
+    @Column(name = "submitted_date", nullable = false, updatable = false)
+    private LocalDateTime submittedDate;
+
+    @Column(name = "sla_deadline", nullable = false, updatable = false)
+    private LocalDateTime slaDeadline;
+
+    @Column(name = "claimed_by", insertable = false, updatable = false)
+    private Long claimedBy;
+
+    @Column(name = "lease_expires_at", insertable = false, updatable = false)
+    private LocalDateTime leaseExpiresAt;
+
+    @Column(name = "escalated_at", insertable = false, updatable = false)
+    private LocalDateTime escalatedAt;
+
+    // Constructors
+    public WorkflowInstance() {}
+
+    public WorkflowInstance(Long quotationId, WorkflowRoute route, WorkflowState state,
+                            BigDecimal amount, LocalDateTime submittedDate, LocalDateTime slaDeadline) {
+        this.quotationId = quotationId;
+        this.route = route.getCode();
+        this.state = state.getCode();
+        this.amount = amount;
+        this.submittedDate = submittedDate;
+        this.slaDeadline = slaDeadline;
+    }
+
+    // Getters
+    public Long getQuotationId() { return quotationId; }
+
+    public WorkflowRoute getRoute() { return WorkflowRoute.fromCode(route); }
+
+    public WorkflowState getState() { return WorkflowState.fromCode(state); }
+
+    public int getVersion() { return version; }
+
+    public Long getLastActorId() { return lastActorId; }
+
+    public BigDecimal getAmount() { return amount; }
+
+    public LocalDateTime getSubmittedDate() { return submittedDate; }
+
+    public LocalDateTime getSlaDeadline() { return slaDeadline; }
+
+    public Long getClaimedBy() { return claimedBy; }
+
+    public LocalDateTime getLeaseExpiresAt() { return leaseExpiresAt; }
+
+    public LocalDateTime getEscalatedAt() { return escalatedAt; }
+
+    @Override
+    public String toString() {
+        return "WorkflowInstance{" +
+                "quotationId=" + quotationId +
+                ", route=" + getRoute() +
+                ", state=" + getState() +
+                ", version=" + version +
+                '}';
+    }
+}
@@ -0,0 +1,35 @@
+package com.company.erp.workflow.entity;
+
+public enum WorkflowRoute {
+    AUTO((short) 0, "Auto Approval", "At or below the auto-approval limit; approved on submission"),
+    STANDARD((short) 1, "Standard", "Single account manager approval"),
+    HIGH_VALUE((short) 2, "High Value", "Account manager approval followed by final approval");
+
+    private static final WorkflowRoute[] BY_CODE = values();
+
+    private final short code; // persisted value; never renumber
+    private final String displayName;
+    private final String description;
+
+    WorkflowRoute(short code, String displayName, String description) {
+        this.code = code;
+        this.displayName = displayName;
+        this.description = description;
+    }
+
+    public static WorkflowRoute fromCode(short code) {
+        return BY_CODE[code];
+    }
+
+    public short getCode() {
+        return code;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,40 @@
+package com.company.erp.workflow.entity;
+
+public enum WorkflowState {
+    MANAGER_REVIEW((short) 0, "Manager Review", "Awaiting account manager approval"),
+    FINAL_REVIEW((short) 1, "Final Review", "Awaiting final approval for high-value quotations"),
+    APPROVED((short) 2, "Approved", "All approval stages completed"),
+    REJECTED((short) 3, "Rejected", "Rejected at one of the approval stages");
+
+    private static final WorkflowState[] BY_CODE = values();
+
+    private final short code; // persisted value; never renumber
+    private final String displayName;
+    private final String description;
+
+    WorkflowState(short code, String displayName, String description) {
+        this.code = code;
+        this.displayName = displayName;
+        this.description = description;
+    }
+
+    public static WorkflowState fromCode(short code) {
+        return BY_CODE[code];
+    }
+
+    public short getCode() {
+        return code;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public boolean isFinal() {
+        return this == APPROVED || this == REJECTED;
+    }
+}
@@ -0,0 +1,21 @@
+package com.company.erp.workflow.repository;
+
+import com.company.erp.workflow.entity.ApprovalHistory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ApprovalHistoryRepository extends JpaRepository<ApprovalHistory, Long> {
+
+    // Served by idx_approval_history_quotation (quotation_id, occurred_at) in each partition
+    List<ApprovalHistory> findByQuotationIdOrderByOccurredAtAscIdAsc(Long quotationId);
+
+    // Creates the monthly partition starting at the given month if missing; true if created (see V20)
+    @Query(value = "SELECT create_approval_history_partition(CAST(:month AS DATE))", nativeQuery = true)
+    Boolean createPartition(@Param("month") LocalDate month);
+}
@@ -10,6 +10,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,6 +22,12 @@ public interface ApprovalRepository extends JpaRepository<Approval, Long> {
 
     Optional<Approval> findByQuotationIdAndApproverId(Long quotationId, Long approverId);
 
+    List<Approval> findByApproverIdAndQuotationIdIn(Long approverId, Collection<Long> quotationIds);
+
+    // [approval id, quotation id, approver id] rows, to reference approval records from history
+    @Query("SELECT a.id, a.quotation.id, a.approver.id FROM Approval a WHERE a.quotation.id IN :quotationIds")
+    List<Object[]> findIdsByQuotationIdIn(@Param("quotationIds") Collection<Long> quotationIds);
+
     // Find approvals by approver
     List<Approval> findByApproverIdAndActiveTrue(Long approverId);
 
@@ -41,6 +48,10 @@ public interface ApprovalRepository extends JpaRepository<Approval, Long> {
     @Query("SELECT COUNT(a) FROM Approval a WHERE a.status = :status AND a.active = true")
     long countByStatus(@Param("status") ApprovalStatus status);
 
+    // (approverId, status, count) for every active approval in one pass
+    @Query("SELECT a.approver.id, a.status, COUNT(a) FROM Approval a WHERE a.active = true GROUP BY a.approver.id, a.status")
+    List<Object[]> countByApproverAndStatus();
+
     // Find pending approvals for a specific approver
     @Query("SELECT a FROM Approval a LEFT JOIN FETCH a.quotation LEFT JOIN FETCH a.quotation.project " +
             "WHERE a.approver.id = :approverId AND a.status = 'PENDING' AND a.active = true " +
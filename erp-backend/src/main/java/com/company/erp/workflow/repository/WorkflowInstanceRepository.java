@@ -0,0 +1,128 @@
+package com.company.erp.workflow.repository;
+
+import com.company.erp.workflow.entity.WorkflowInstance;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WorkflowInstanceRepository extends JpaRepository<WorkflowInstance, Long> {
+
+    Optional<WorkflowInstance> findByQuotationId(Long quotationId);
+
+    List<WorkflowInstance> findByQuotationIdIn(Collection<Long> quotationIds);
+
+    // Approval queue rows as scalars: quotation id, state, amount, submitted date, SLA deadline,
+    // last actor, claimed by, lease expiry. Scalars are read from the row even when the caller's
+    // persistence context holds the instance, which the bulk UPDATEs below leave stale.
+    @Query("SELECT w.quotationId, w.state, w.amount, w.submittedDate, w.slaDeadline, w.lastActorId, " +
+            "w.claimedBy, w.leaseExpiresAt FROM WorkflowInstance w WHERE w.state IN :states")
+    List<Object[]> findQueueRowsByStates(@Param("states") Collection<Short> states);
+
+    @Query("SELECT w.quotationId, w.state, w.amount, w.submittedDate, w.slaDeadline, w.lastActorId, " +
+            "w.claimedBy, w.leaseExpiresAt FROM WorkflowInstance w WHERE w.quotationId IN :quotationIds")
+    List<Object[]> findQueueRowsByQuotationIdIn(@Param("quotationIds") Collection<Long> quotationIds);
+
+    // Rows inserted, moved, claimed or released since the given time, in any state, for the
+    // incremental queue reconcile. Served by idx_workflow_instances_modified.
+    @Query("SELECT w.quotationId, w.state, w.amount, w.submittedDate, w.slaDeadline, w.lastActorId, " +
+            "w.claimedBy, w.leaseExpiresAt FROM WorkflowInstance w WHERE w.lastModifiedDate >= :since")
+    List<Object[]> findQueueRowsModifiedSince(@Param("since") LocalDateTime since);
+
+    // SLA schedule rows as scalars: quotation id, state, SLA deadline, escalated at
+    @Query("SELECT w.quotationId, w.state, w.slaDeadline, w.escalatedAt " +
+            "FROM WorkflowInstance w WHERE w.quotationId IN :quotationIds")
+    List<Object[]> findDeadlinesByQuotationIdIn(@Param("quotationIds") Collection<Long> quotationIds);
+
+    // Due SLA deadlines not yet escalated, most overdue first, as scalars: quotation id, SLA deadline.
+    // Served by idx_workflow_instances_sla_due.
+    @Query("SELECT w.quotationId, w.slaDeadline FROM WorkflowInstance w " +
+            "WHERE w.state IN :states AND w.escalatedAt IS NULL AND w.slaDeadline <= :now ORDER BY w.slaDeadline")
+    List<Object[]> findDueUnescalated(@Param("states") Collection<Short> states,
+                                      @Param("now") LocalDateTime now,
+                                      Pageable pageable);
+
+    // SLA deadlines still to escalate
+    @Query("SELECT w FROM WorkflowInstance w WHERE w.state IN :states AND w.escalatedAt IS NULL")
+    List<WorkflowInstance> findUnescalatedByStates(@Param("states") Collection<Short> states);
+
+    // Step transition: applies only if nobody moved the instance since it was read and no other
+    // approver holds a live claim on it. Any claim ends with the step.
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE WorkflowInstance w SET w.state = :toState, w.version = w.version + 1, " +
+            "w.lastActorId = :lastActorId, w.claimedBy = NULL, w.leaseExpiresAt = NULL, w.lastModifiedDate = :now " +
+            "WHERE w.id = :instanceId AND w.version = :expectedVersion AND w.state = :fromState " +
+            "AND (w.claimedBy IS NULL OR w.claimedBy = :actorId OR w.leaseExpiresAt < :now)")
+    int transition(@Param("instanceId") Long instanceId,
+                   @Param("expectedVersion") int expectedVersion,
+                   @Param("fromState") short fromState,
+                   @Param("toState") short toState,
+                   @Param("actorId") Long actorId,
+                   @Param("lastActorId") Long lastActorId,
+                   @Param("now") LocalDateTime now);
+
+    // Resubmission re-routes the instance (the amount may have changed)
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE WorkflowInstance w SET w.route = :route, w.state = :state, w.version = w.version + 1, " +
+            "w.lastActorId = NULL, w.amount = :amount, w.submittedDate = :submittedDate, " +
+            "w.slaDeadline = :slaDeadline, w.claimedBy = NULL, w.leaseExpiresAt = NULL, w.escalatedAt = NULL, " +
+            "w.lastModifiedDate = :now " +
+            "WHERE w.id = :instanceId AND w.version = :expectedVersion")
+    int restart(@Param("instanceId") Long instanceId,
+                @Param("expectedVersion") int expectedVersion,
+                @Param("route") short route,
+                @Param("state") short state,
+                @Param("amount") BigDecimal amount,
+                @Param("submittedDate") LocalDateTime submittedDate,
+                @Param("slaDeadline") LocalDateTime slaDeadline,
+                @Param("now") LocalDateTime now);
+
+    // Lock the claimable rows among the candidates in queue order, skipping rows another approver
+    // is claiming right now (PostgreSQL). Served by the quotation_id unique index.
+    @Query(value = "SELECT w.quotation_id FROM workflow_instances w " +
+            "WHERE w.quotation_id IN (:quotationIds) AND w.state IN (:states) " +
+            "AND (w.claimed_by IS NULL OR w.claimed_by = :approverId OR w.lease_expires_at < :now) " +
+            "AND (w.last_actor_id IS NULL OR w.last_actor_id <> :approverId) " +
+            "ORDER BY w.sla_deadline, w.amount DESC, w.submitted_date, w.quotation_id " +
+            "LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<Long> lockClaimable(@Param("quotationIds") Collection<Long> quotationIds,
+                             @Param("states") Collection<Short> states,
+                             @Param("approverId") Long approverId,
+                             @Param("now") LocalDateTime now,
+                             @Param("limit") int limit);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE WorkflowInstance w SET w.claimedBy = :approverId, w.leaseExpiresAt = :leaseExpiresAt, " +
+            "w.lastModifiedDate = :now WHERE w.quotationId IN :quotationIds")
+    int claim(@Param("quotationIds") Collection<Long> quotationIds,
+              @Param("approverId") Long approverId,
+              @Param("leaseExpiresAt") LocalDateTime leaseExpiresAt,
+              @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE WorkflowInstance w SET w.claimedBy = NULL, w.leaseExpiresAt = NULL, w.lastModifiedDate = :now " +
+            "WHERE w.quotationId = :quotationId AND w.claimedBy = :approverId")
+    int release(@Param("quotationId") Long quotationId,
+                @Param("approverId") Long approverId,
+                @Param("now") LocalDateTime now);
+
+    // Record an SLA breach once: only the first caller for this deadline gets 1
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE WorkflowInstance w SET w.escalatedAt = :now " +
+            "WHERE w.quotationId = :quotationId AND w.slaDeadline = :slaDeadline AND w.escalatedAt IS NULL " +
+            "AND w.state IN :states")
+    int markEscalated(@Param("quotationId") Long quotationId,
+                      @Param("slaDeadline") LocalDateTime slaDeadline,
+                      @Param("states") Collection<Short> states,
+                      @Param("now") LocalDateTime now);
+}
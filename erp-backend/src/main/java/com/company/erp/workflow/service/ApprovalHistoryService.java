@@ -0,0 +1,224 @@
+package com.company.erp.workflow.service;
+
+import com.company.erp.common.event.WorkflowTransitionEvent;
+import com.company.erp.workflow.entity.ApprovalHistory;
+import com.company.erp.workflow.entity.WorkflowEvent;
+import com.company.erp.workflow.repository.ApprovalHistoryRepository;
+import com.company.erp.workflow.repository.ApprovalRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.support.CronTrigger;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append-only approval history log.
+ *
+ * Committed workflow transitions are buffered in memory and written off the request path in
+ * JDBC-batched inserts (pooled ids) every five seconds, so recording history costs a decision only
+ * a queue offer after its commit. Should the buffer fill up, the committing thread writes its own
+ * entry rather than drop it. The table is partitioned by month; partitions are created ahead of
+ * time here, and a default partition catches anything outside them.
+ */
+@Service
+public class ApprovalHistoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApprovalHistoryService.class);
+
+    private static final Comparator<ApprovalHistory> CHRONOLOGICAL = Comparator
+            .comparing(ApprovalHistory::getOccurredAt)
+            .thenComparing(h -> h.getId() != null ? h.getId() : Long.MAX_VALUE);
+
+    private final ApprovalHistoryRepository approvalHistoryRepository;
+    private final ApprovalRepository approvalRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskScheduler scheduler;
+    private final List<ScheduledFuture<?>> tasks = new ArrayList<>();
+    private final LinkedBlockingQueue<ApprovalHistory> buffer;
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final int batchSize;
+    private final int partitionMonthsAhead;
+
+    public ApprovalHistoryService(ApprovalHistoryRepository approvalHistoryRepository,
+                                  ApprovalRepository approvalRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Qualifier("approvalHistoryScheduler") TaskScheduler scheduler,
+                                  @Value("${app.business.approval.history.buffer-capacity:10000}") int bufferCapacity,
+                                  @Value("${app.business.approval.history.batch-size:500}") int batchSize,
+                                  @Value("${app.business.approval.history.partition-months-ahead:3}") int partitionMonthsAhead) {
+        this.approvalHistoryRepository = approvalHistoryRepository;
+        this.approvalRepository = approvalRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Inline writes run after the caller's commit, where its transaction can no longer be joined
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.scheduler = scheduler;
+        this.buffer = new LinkedBlockingQueue<>(Math.max(1, bufferCapacity));
+        this.batchSize = Math.max(1, batchSize);
+        this.partitionMonthsAhead = Math.max(0, partitionMonthsAhead);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        createPartitions();
+        tasks.add(scheduler.schedule(this::flush, new CronTrigger("*/5 * * * * ?"))); // Every 5 seconds
+        tasks.add(scheduler.schedule(this::createPartitions, new CronTrigger("0 30 1 * * ?"))); // Daily at 1:30 AM
+    }
+
+    @PreDestroy
+    public void stop() {
+        tasks.forEach(task -> task.cancel(false));
+        flushLock.lock(); // Wait for a scheduled flush in progress, then write the rest
+        try {
+            flush();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onWorkflowTransition(WorkflowTransitionEvent event) {
+        ApprovalHistory entry = new ApprovalHistory(event.getQuotationId(), event.getActorId(), event.getEvent(),
+                event.getFrom(), event.getTo(), event.getOccurredAt());
+        if (!buffer.offer(entry)) {
+            logger.warn("Approval history buffer full; writing entry for quotation {} inline", event.getQuotationId());
+            write(new ArrayList<>(List.of(entry)));
+        }
+    }
+
+    /**
+     * History of one quotation, oldest first, including entries not yet written.
+     */
+    public List<ApprovalHistory> getHistory(Long quotationId) {
+        List<ApprovalHistory> history = new ArrayList<>(
+                approvalHistoryRepository.findByQuotationIdOrderByOccurredAtAscIdAsc(quotationId));
+        for (ApprovalHistory pending : buffer) {
+            if (pending.getQuotationId().equals(quotationId)) {
+                history.add(pending);
+            }
+        }
+        history.sort(CHRONOLOGICAL);
+        return history;
+    }
+
+    /**
+     * Write everything buffered so far in batches; returns the number of entries written.
+     */
+    public int flush() {
+        if (!flushLock.tryLock()) {
+            return 0; // Another thread is already flushing
+        }
+        try {
+            int written = 0;
+            List<ApprovalHistory> batch = new ArrayList<>(batchSize);
+            while (buffer.drainTo(batch, batchSize) > 0) {
+                if (!write(batch)) {
+                    requeue(batch);
+                    break;
+                }
+                written += batch.size();
+                batch.clear();
+            }
+            if (written > 0) {
+                logger.debug("Wrote {} approval history entries", written);
+            }
+            return written;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public void createPartitions() {
+        LocalDate month = LocalDate.now().withDayOfMonth(1);
+        for (int i = 0; i <= partitionMonthsAhead; i++, month = month.plusMonths(1)) {
+            LocalDate start = month;
+            try {
+                if (Boolean.TRUE.equals(transactionTemplate.execute(status -> approvalHistoryRepository.createPartition(start)))) {
+                    logger.info("Created approval history partition for {}", start);
+                }
+            } catch (RuntimeException e) {
+                logger.error("Failed to create approval history partition for {}: {}", start, e.getMessage());
+            }
+        }
+    }
+
+    public int getBufferedCount() {
+        return buffer.size();
+    }
+
+    // Helper methods
+
+    private boolean write(List<ApprovalHistory> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                linkApprovals(batch);
+                approvalHistoryRepository.saveAll(batch);
+            });
+            return true;
+        } catch (RuntimeException e) {
+            logger.error("Failed to write {} approval history entries: {}", batch.size(), e.getMessage(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Point each decision at the approver's approval record, which holds the comments.
+     */
+    private void linkApprovals(List<ApprovalHistory> batch) {
+        Set<Long> quotationIds = new HashSet<>();
+        for (ApprovalHistory entry : batch) {
+            if (entry.getEvent() != WorkflowEvent.SUBMIT && entry.getActorId() != null) {
+                quotationIds.add(entry.getQuotationId());
+            }
+        }
+        if (quotationIds.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Map<Long, Long>> approvalIds = new HashMap<>();
+        for (Object[] row : approvalRepository.findIdsByQuotationIdIn(quotationIds)) {
+            approvalIds.computeIfAbsent((Long) row[1], id -> new HashMap<>()).put((Long) row[2], (Long) row[0]);
+        }
+        for (ApprovalHistory entry : batch) {
+            Map<Long, Long> byApprover = approvalIds.get(entry.getQuotationId());
+            if (byApprover != null && entry.getEvent() != WorkflowEvent.SUBMIT) {
+                entry.setApprovalId(byApprover.get(entry.getActorId()));
+            }
+        }
+    }
+
+    private void requeue(List<ApprovalHistory> batch) {
+        int lost = 0;
+        for (ApprovalHistory entry : batch) {
+            // Fresh copies: the failed persist may already have assigned ids
+            if (!buffer.offer(new ApprovalHistory(entry.getQuotationId(), entry.getActorId(), entry.getEvent(),
+                    entry.getFromState(), entry.getToState(), entry.getOccurredAt()))) {
+                lost++;
+            }
+        }
+        if (lost > 0) {
+            logger.error("Dropped {} approval history entries after a failed write", lost);
+        }
+    }
+}
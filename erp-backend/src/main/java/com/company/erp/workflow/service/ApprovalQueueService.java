@@ -0,0 +1,437 @@
+package com.company.erp.workflow.service;
+
+import com.company.erp.common.event.WorkflowChangedEvent;
+import com.company.erp.common.exception.UnauthorizedAccessException;
+import com.company.erp.common.security.UserPrincipal;
+import com.company.erp.workflow.entity.WorkflowState;
+import com.company.erp.workflow.repository.WorkflowInstanceRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.support.CronTrigger;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Approval work queue: quotations under review, ordered by SLA deadline, then amount (largest
+ * first), then age.
+ *
+ * The order is kept in an in-memory index mirroring the workflow_instances rows under review,
+ * with one sorted set per review state. It is loaded on first use and patched after each
+ * committed workflow change on this node. Every minute it also picks up the rows other nodes
+ * modified, by last_modified_date, and it is reloaded in full hourly. Listing the queue never
+ * queries the database, and a page that follows a known quotation is read from the tail view
+ * past it rather than by skipping the rows before it. Claiming picks candidates from the index
+ * and locks them with SELECT ... FOR UPDATE SKIP LOCKED on their primary keys, so approvers
+ * claiming at the same time get disjoint work without waiting on each other. A claim is a lease:
+ * it ends with the approver's decision, an explicit release, or lease expiry.
+ */
+@Service
+public class ApprovalQueueService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApprovalQueueService.class);
+
+    // Index candidates read per requested item, covering rows claimed concurrently
+    private static final int CANDIDATE_FACTOR = 4;
+
+    // Each reconcile re-reads rows stamped this long before the previous pass started, so a
+    // transaction that stamped its rows before that pass and committed after it is not missed
+    private static final Duration RECONCILE_OVERLAP = Duration.ofMinutes(2);
+
+    private final WorkflowInstanceRepository workflowInstanceRepository;
+    private final WorkflowEngine workflowEngine;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int leaseMinutes;
+    private final int maxClaim;
+    private final TaskScheduler scheduler;
+    private final Object lock = new Object();
+    private final List<ScheduledFuture<?>> tasks = new ArrayList<>();
+    private volatile QueueIndex index;
+    private LocalDateTime loadedUpTo; // Start of the last load or reconcile pass; guarded by lock
+
+    public ApprovalQueueService(WorkflowInstanceRepository workflowInstanceRepository,
+                                WorkflowEngine workflowEngine,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${app.business.approval.queue.lease-minutes:30}") int leaseMinutes,
+                                @Value("${app.business.approval.queue.max-claim:20}") int maxClaim,
+                                @Qualifier("approvalQueueScheduler") TaskScheduler scheduler) {
+        this.workflowInstanceRepository = workflowInstanceRepository;
+        this.workflowEngine = workflowEngine;
+        this.eventPublisher = eventPublisher;
+        this.leaseMinutes = leaseMinutes;
+        this.maxClaim = Math.max(1, maxClaim);
+        this.scheduler = scheduler;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        tasks.add(scheduler.schedule(this::reconcile, new CronTrigger("0 * * * * ?"))); // Every minute
+        tasks.add(scheduler.schedule(this::reload, new CronTrigger("0 30 * * * ?"))); // Hourly
+    }
+
+    @PreDestroy
+    public void stop() {
+        tasks.forEach(task -> task.cancel(false));
+    }
+
+    /**
+     * One page of the quotation ids the user can act on, in queue order, claimed or not.
+     */
+    public Page<Long> getQueue(UserPrincipal user, Pageable pageable) {
+        return getQueue(user, pageable, null);
+    }
+
+    /**
+     * One page of the quotation ids the user can act on, in queue order. When after is the last
+     * quotation of the previous page and still queued, the page starts right past it; otherwise
+     * it starts at the page offset.
+     */
+    public Page<Long> getQueue(UserPrincipal user, Pageable pageable, Long after) {
+        Set<WorkflowState> states = workflowEngine.actionableStates(user);
+        QueueIndex current = current();
+        NavigableSet<Entry> entries = current.ordered(states);
+
+        Entry last = after != null ? current.byQuotation.get(after) : null;
+        List<Long> page = last != null
+                ? page(entries.tailSet(last, false), states, 0, pageable.getPageSize())
+                : page(entries, states, pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(page, pageable, current.size(states));
+    }
+
+    /**
+     * One page of the quotation ids the user can act on whose SLA deadline has passed. The queue
+     * is ordered by deadline first, so these are its head.
+     */
+    public Page<Long> getOverdue(UserPrincipal user, Pageable pageable) {
+        Set<WorkflowState> states = workflowEngine.actionableStates(user);
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> page = new ArrayList<>(pageable.getPageSize());
+        long total = 0;
+
+        for (Entry entry : current().ordered(states)) {
+            if (!entry.slaDeadline.isBefore(now)) {
+                break;
+            }
+            if (states.contains(entry.state)) {
+                if (total >= pageable.getOffset() && page.size() < pageable.getPageSize()) {
+                    page.add(entry.quotationId);
+                }
+                total++;
+            }
+        }
+        return new PageImpl<>(page, pageable, total);
+    }
+
+    /**
+     * Claim up to max quotations for the user, most urgent first, and return their ids in queue
+     * order. May return fewer than available when other approvers claimed the same candidates
+     * concurrently; claiming again picks up the next ones.
+     */
+    @Transactional
+    public List<Long> claim(UserPrincipal approver, int max) {
+        Set<WorkflowState> states = workflowEngine.actionableStates(approver);
+        if (states.isEmpty()) {
+            throw new UnauthorizedAccessException("Only Account Managers can claim approvals");
+        }
+
+        int limit = max > 0 ? Math.min(max, maxClaim) : maxClaim;
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> candidates = current().candidates(approver.getId(), states, now, limit * CANDIDATE_FACTOR);
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+
+        List<Short> stateCodes = new ArrayList<>(states.size());
+        for (WorkflowState state : states) {
+            stateCodes.add(state.getCode());
+        }
+
+        List<Long> claimed = workflowInstanceRepository.lockClaimable(candidates, stateCodes, approver.getId(), now, limit);
+        if (!claimed.isEmpty()) {
+            workflowInstanceRepository.claim(claimed, approver.getId(), now.plusMinutes(leaseMinutes), now);
+            eventPublisher.publishEvent(new WorkflowChangedEvent(claimed));
+        }
+
+        logger.info("User {} claimed {} of {} candidate approvals", approver.getId(), claimed.size(), candidates.size());
+        return claimed;
+    }
+
+    /**
+     * Hand a claimed quotation back to the queue. Returns false if the user did not hold it.
+     */
+    @Transactional
+    public boolean release(Long quotationId, UserPrincipal approver) {
+        if (workflowInstanceRepository.release(quotationId, approver.getId(), LocalDateTime.now()) == 0) {
+            return false;
+        }
+
+        eventPublisher.publishEvent(new WorkflowChangedEvent(quotationId));
+        logger.info("User {} released approval of quotation {}", approver.getId(), quotationId);
+        return true;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onWorkflowChanged(WorkflowChangedEvent event) {
+        refresh(event.getQuotationIds());
+    }
+
+    /**
+     * Re-read the given quotations' workflow rows and patch the index (insert, replace or remove).
+     * Reads scalar columns, not entities: after commit the caller's persistence context may still
+     * hold instances the claim and transition UPDATEs bypassed.
+     */
+    public void refresh(Collection<Long> quotationIds) {
+        synchronized (lock) {
+            QueueIndex current = index;
+            if (current == null) {
+                return; // Built from scratch on next read
+            }
+
+            Set<Long> missing = new HashSet<>(quotationIds);
+            for (Object[] row : workflowInstanceRepository.findQueueRowsByQuotationIdIn(quotationIds)) {
+                missing.remove(current.apply(new Entry(row)));
+            }
+            for (Long quotationId : missing) {
+                current.remove(quotationId);
+            }
+        }
+    }
+
+    /**
+     * Patch the index with the rows modified since the previous pass, including changes committed
+     * on other nodes. Rows deleted outright, or stamped more than RECONCILE_OVERLAP before their
+     * transaction committed, wait for the hourly reload.
+     */
+    public void reconcile() {
+        synchronized (lock) {
+            QueueIndex current = index;
+            if (current == null) {
+                return; // Built from scratch on next read
+            }
+
+            LocalDateTime startedAt = LocalDateTime.now();
+            List<Object[]> rows = workflowInstanceRepository.findQueueRowsModifiedSince(loadedUpTo.minus(RECONCILE_OVERLAP));
+            for (Object[] row : rows) {
+                current.apply(new Entry(row));
+            }
+            loadedUpTo = startedAt;
+            logger.debug("Reconciled approval queue with {} modified rows", rows.size());
+        }
+    }
+
+    /**
+     * Rebuild the index from every row under review.
+     */
+    public void reload() {
+        synchronized (lock) {
+            index = load();
+        }
+    }
+
+    // Helper methods
+
+    private QueueIndex current() {
+        QueueIndex current = index;
+        if (current != null) {
+            return current;
+        }
+
+        synchronized (lock) {
+            if (index == null) {
+                index = load();
+            }
+            return index;
+        }
+    }
+
+    private QueueIndex load() {
+        long startTime = System.currentTimeMillis();
+        loadedUpTo = LocalDateTime.now();
+        QueueIndex loaded = new QueueIndex();
+        for (Object[] row : workflowInstanceRepository.findQueueRowsByStates(WorkflowEngine.reviewStateCodes())) {
+            loaded.put(new Entry(row));
+        }
+
+        logger.debug("Loaded approval queue: {} quotations in {}ms",
+                loaded.byQuotation.size(), System.currentTimeMillis() - startTime);
+        return loaded;
+    }
+
+    /**
+     * Up to size quotation ids of the given states, after skipping the first skip of them.
+     */
+    private static List<Long> page(Iterable<Entry> entries, Set<WorkflowState> states, long skip, int size) {
+        List<Long> page = new ArrayList<>(size);
+        long skipped = 0;
+        for (Entry entry : entries) {
+            if (page.size() >= size) {
+                break;
+            }
+            if (!states.contains(entry.state)) {
+                continue;
+            }
+            if (skipped < skip) {
+                skipped++;
+            } else {
+                page.add(entry.quotationId);
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Queue order overall and per review state, plus a lookup by quotation. Writers hold the
+     * service lock; readers iterate the skip lists and read the sizes without locking.
+     */
+    private static final class QueueIndex {
+        private final NavigableSet<Entry> ordered = new ConcurrentSkipListSet<>(Entry.QUEUE_ORDER);
+        private final Map<WorkflowState, NavigableSet<Entry>> byState = new EnumMap<>(WorkflowState.class);
+        private final Map<WorkflowState, Integer> sizes = new ConcurrentHashMap<>();
+        private final Map<Long, Entry> byQuotation = new ConcurrentHashMap<>();
+
+        private QueueIndex() {
+            for (WorkflowState state : WorkflowState.values()) {
+                if (!state.isFinal()) {
+                    byState.put(state, new ConcurrentSkipListSet<>(Entry.QUEUE_ORDER));
+                    sizes.put(state, 0);
+                }
+            }
+        }
+
+        /**
+         * Entries in queue order covering the given states: that state's own set when there is
+         * one, otherwise the whole index, which the caller filters.
+         */
+        private NavigableSet<Entry> ordered(Set<WorkflowState> states) {
+            if (states.size() == 1) {
+                NavigableSet<Entry> entries = byState.get(states.iterator().next());
+                return entries != null ? entries : Collections.emptyNavigableSet();
+            }
+            return ordered;
+        }
+
+        private long size(Set<WorkflowState> states) {
+            long size = 0;
+            for (WorkflowState state : states) {
+                size += sizes.getOrDefault(state, 0);
+            }
+            return size;
+        }
+
+        /**
+         * Insert, replace or (for a decided row) remove the entry's quotation; returns its id.
+         */
+        private Long apply(Entry entry) {
+            if (entry.state.isFinal()) {
+                remove(entry.quotationId);
+            } else {
+                put(entry);
+            }
+            return entry.quotationId;
+        }
+
+        private void put(Entry entry) {
+            Entry previous = byQuotation.put(entry.quotationId, entry);
+            if (previous != null) {
+                unlink(previous);
+            }
+            ordered.add(entry);
+            byState.get(entry.state).add(entry);
+            sizes.merge(entry.state, 1, Integer::sum);
+        }
+
+        private void remove(Long quotationId) {
+            Entry previous = byQuotation.remove(quotationId);
+            if (previous != null) {
+                unlink(previous);
+            }
+        }
+
+        private void unlink(Entry entry) {
+            ordered.remove(entry);
+            byState.get(entry.state).remove(entry);
+            sizes.merge(entry.state, -1, Integer::sum);
+        }
+
+        private List<Long> candidates(Long approverId, Set<WorkflowState> states, LocalDateTime now, int limit) {
+            List<Long> candidates = new ArrayList<>(limit);
+            for (Entry entry : ordered(states)) {
+                if (entry.claimableBy(approverId, states, now)) {
+                    candidates.add(entry.quotationId);
+                    if (candidates.size() >= limit) {
+                        break;
+                    }
+                }
+            }
+            return candidates;
+        }
+    }
+
+    /**
+     * Immutable snapshot of one queued workflow row.
+     */
+    private static final class Entry {
+        private static final Comparator<Entry> QUEUE_ORDER = Comparator
+                .comparing((Entry e) -> e.slaDeadline)
+                .thenComparing((Entry e) -> e.amount, Comparator.reverseOrder())
+                .thenComparing((Entry e) -> e.submittedDate)
+                .thenComparing((Entry e) -> e.quotationId);
+
+        private final Long quotationId;
+        private final WorkflowState state;
+        private final BigDecimal amount;
+        private final LocalDateTime submittedDate;
+        private final LocalDateTime slaDeadline;
+        private final Long lastActorId;
+        private final Long claimedBy;
+        private final LocalDateTime leaseExpiresAt;
+
+        // Columns of WorkflowInstanceRepository.findQueueRowsBy*
+        private Entry(Object[] row) {
+            this.quotationId = (Long) row[0];
+            this.state = WorkflowState.fromCode((Short) row[1]);
+            this.amount = (BigDecimal) row[2];
+            this.submittedDate = (LocalDateTime) row[3];
+            this.slaDeadline = (LocalDateTime) row[4];
+            this.lastActorId = (Long) row[5];
+            this.claimedBy = (Long) row[6];
+            this.leaseExpiresAt = (LocalDateTime) row[7];
+        }
+
+        private boolean claimableBy(Long approverId, Set<WorkflowState> states, LocalDateTime now) {
+            if (!states.contains(state) || approverId.equals(lastActorId)) {
+                return false;
+            }
+            return claimedBy == null || claimedBy.equals(approverId)
+                    || (leaseExpiresAt != null && leaseExpiresAt.isBefore(now));
+        }
+    }
+}
@@ -1,26 +1,42 @@
 package com.company.erp.workflow.service;
 
+import com.company.erp.common.dto.CursorPage;
+import com.company.erp.common.event.DashboardDataChangedEvent;
 import com.company.erp.common.exception.BusinessException;
 import com.company.erp.common.exception.ResourceNotFoundException;
 import com.company.erp.common.exception.UnauthorizedAccessException;
 import com.company.erp.common.security.UserPrincipal;
+import com.company.erp.common.service.StatusCounterService;
+import com.company.erp.common.service.StatusCounterService.StatusCounters;
+import com.company.erp.common.util.KeysetCursor;
+import com.company.erp.financial.entity.BudgetHold;
 import com.company.erp.financial.entity.Quotation;
 import com.company.erp.financial.entity.QuotationStatus;
 import com.company.erp.financial.repository.QuotationRepository;
+import com.company.erp.financial.service.BudgetReservationService;
 import com.company.erp.user.entity.User;
 import com.company.erp.user.repository.UserRepository;
 import com.company.erp.workflow.dto.request.ApprovalRequest;
 import com.company.erp.workflow.dto.request.BulkApprovalRequest;
+import com.company.erp.workflow.dto.response.ApprovalHistoryResponse;
 import com.company.erp.workflow.dto.response.ApprovalResponse;
+import com.company.erp.workflow.dto.response.BulkApprovalResponse.ItemResult;
 import com.company.erp.workflow.dto.response.PendingApprovalsResponse;
 import com.company.erp.workflow.entity.Approval;
+import com.company.erp.workflow.entity.ApprovalHistory;
 import com.company.erp.workflow.entity.ApprovalStatus;
+import com.company.erp.workflow.entity.WorkflowEvent;
+import com.company.erp.workflow.entity.WorkflowInstance;
 import com.company.erp.workflow.repository.ApprovalRepository;
+import com.company.erp.workflow.service.WorkflowEngine.Step;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
@@ -29,7 +45,12 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -47,6 +68,24 @@ public class ApprovalService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private StatusCounterService statusCounterService;
+
+    @Autowired
+    private BudgetReservationService budgetReservationService;
+
+    @Autowired
+    private WorkflowEngine workflowEngine;
+
+    @Autowired
+    private ApprovalQueueService approvalQueueService;
+
+    @Autowired
+    private ApprovalHistoryService approvalHistoryService;
+
     /**
      * Process single approval decision
      */
@@ -73,35 +112,23 @@ public class ApprovalService {
                         request.getQuotationId(), currentUser.getId())
                 .orElse(new Approval(quotation, approver));
 
-        // Process the approval action
-        switch (request.getAction().toUpperCase()) {
-            case "APPROVE":
-                approval.approve(request.getComments());
-                quotation.approve(approver);
-                updateProjectBudget(quotation);
-                logger.info("Quotation {} approved by {}", quotation.getId(), approver.getFullName());
-                break;
+        // Advance the workflow stage; the quotation itself only changes on a final decision
+        Step step = workflowEngine.fire(quotation, toWorkflowEvent(request.getAction()), currentUser);
+        approval.setLevelOrder(step.getStage());
 
-            case "REJECT":
-                approval.reject(request.getComments());
-                quotation.reject(approver, request.getComments());
-                logger.info("Quotation {} rejected by {}", quotation.getId(), approver.getFullName());
-                break;
-
-            case "CHANGES_REQUESTED":
-                approval.requestChanges(request.getComments());
-                quotation.setStatus(QuotationStatus.UNDER_REVIEW);
-                logger.info("Changes requested for quotation {} by {}", quotation.getId(), approver.getFullName());
-                break;
-
-            default:
-                throw new BusinessException("INVALID_APPROVAL_ACTION",
-                        "Invalid approval action: " + request.getAction());
+        applyDecision(step, approval, quotation, approver, request.getComments());
+        if (step.isApproved()) {
+            budgetReservationService.convert(quotation);
+        } else if (step.isRejected()) {
+            budgetReservationService.release(quotation);
         }
 
         approvalRepository.save(approval);
         quotationRepository.save(quotation);
 
+        eventPublisher.publishEvent(new DashboardDataChangedEvent(DashboardDataChangedEvent.Source.QUOTATION,
+                quotation.getProject().getId(), quotation.getCreator().getId(), request.getAction().toUpperCase()));
+
         // TODO: Send notification to project manager
         logger.info("Notification would be sent to project manager for quotation {}", quotation.getId());
 
@@ -109,49 +136,109 @@ public class ApprovalService {
     }
 
     /**
-     * Process bulk approval decisions
+     * Apply one action to a chunk of quotations in a single transaction (see BulkApprovalService).
+     * Quotations, approval records, workflow instances and budget holds are read with one IN
+     * query each; approval records are inserted in JDBC batches at commit. An item that fails a
+     * check is reported and leaves nothing behind; a failure after budget was already spent for
+     * an item rolls the whole chunk back.
      */
-    public List<ApprovalResponse> processBulkApprovals(BulkApprovalRequest request) {
-        logger.info("Processing bulk approval for {} quotations with action: {}",
-                request.getQuotationIds().size(), request.getAction());
+    public List<ItemResult> processApprovalChunk(UserPrincipal currentUser, List<Long> quotationIds,
+                                                 WorkflowEvent event, BulkApprovalRequest request) {
+        User approver = getUserById(currentUser.getId());
 
-        UserPrincipal currentUser = getCurrentUser();
-        validateApprovalAccess(currentUser);
+        Map<Long, Quotation> quotations = quotationRepository.findAllWithProjectAndCreatorByIdIn(quotationIds).stream()
+                .collect(Collectors.toMap(Quotation::getId, Function.identity()));
+        Map<Long, Approval> approvals = approvalRepository.findByApproverIdAndQuotationIdIn(approver.getId(), quotationIds)
+                .stream().collect(Collectors.toMap(a -> a.getQuotation().getId(), Function.identity(), (a, b) -> a));
+        Map<Long, WorkflowInstance> instances = workflowEngine.instancesFor(quotations.values());
+        Map<Long, BudgetHold> holds = budgetReservationService.openHolds(quotations.keySet());
+
+        List<ItemResult> results = new ArrayList<>(quotationIds.size());
+        List<Approval> changed = new ArrayList<>(quotationIds.size());
+        Map<Long, Set<Long>> creatorsByProject = new HashMap<>();
+
+        for (Long quotationId : quotationIds) {
+            Quotation quotation = quotations.get(quotationId);
+            if (quotation == null) {
+                results.add(ItemResult.failed(quotationId, "RESOURCE_NOT_FOUND", "Quotation not found"));
+                continue;
+            }
 
-        List<ApprovalResponse> results = new ArrayList<>();
-        List<String> errors = new ArrayList<>();
+            String skipReason = bulkSkipReason(quotation, request);
+            if (skipReason != null) {
+                results.add(ItemResult.failed(quotationId, "QUOTATION_SKIPPED", skipReason));
+                continue;
+            }
 
-        for (Long quotationId : request.getQuotationIds()) {
+            Step step;
+            WorkflowInstance instance = instances.get(quotationId);
             try {
-                ApprovalRequest singleRequest = new ApprovalRequest(quotationId, request.getAction(), request.getComments());
-                ApprovalResponse result = processApproval(singleRequest);
-                results.add(result);
-            } catch (Exception e) {
-                logger.warn("Failed to process approval for quotation {}: {}", quotationId, e.getMessage());
-                errors.add("Quotation " + quotationId + ": " + e.getMessage());
+                step = workflowEngine.plan(instance, event, currentUser);
+                if (step.isApproved()) {
+                    budgetReservationService.convert(quotation, holds.get(quotationId));
+                }
+            } catch (BusinessException e) {
+                results.add(ItemResult.failed(quotationId, e.getErrorCode(), e.getMessage()));
+                continue;
+            } catch (UnauthorizedAccessException e) {
+                results.add(ItemResult.failed(quotationId, "ACCESS_DENIED", e.getMessage()));
+                continue;
+            }
+
+            // Budget may already be spent from here on; a conflict now aborts the chunk
+            workflowEngine.apply(instance, step, currentUser);
+
+            Approval approval = approvals.get(quotationId);
+            if (approval == null) {
+                approval = new Approval(quotation, approver);
             }
+            approval.setLevelOrder(step.getStage());
+            applyDecision(step, approval, quotation, approver, request.getComments());
+            if (step.isRejected()) {
+                budgetReservationService.release(quotation, holds.get(quotationId));
+            }
+
+            changed.add(approval);
+            creatorsByProject.computeIfAbsent(quotation.getProject().getId(), id -> new HashSet<>())
+                    .add(quotation.getCreator().getId());
+            results.add(ItemResult.succeeded(quotationId, quotation.getStatus().name(), step.getTo().name(), null));
         }
 
-        if (!errors.isEmpty()) {
-            logger.warn("Bulk approval completed with {} errors out of {} requests",
-                    errors.size(), request.getQuotationIds().size());
-            // Could throw partial success exception or return error details
+        approvalRepository.saveAll(changed);
+        for (int i = 0, a = 0; i < results.size(); i++) {
+            if (results.get(i).isSuccess()) {
+                results.get(i).setApprovalId(changed.get(a++).getId());
+            }
         }
 
-        logger.info("Bulk approval completed successfully for {} out of {} quotations",
-                results.size(), request.getQuotationIds().size());
+        // One event per project and quotation creator, as the single-approval path publishes
+        for (Map.Entry<Long, Set<Long>> project : creatorsByProject.entrySet()) {
+            for (Long creatorId : project.getValue()) {
+                eventPublisher.publishEvent(new DashboardDataChangedEvent(DashboardDataChangedEvent.Source.QUOTATION,
+                        project.getKey(), creatorId, request.getAction().toUpperCase()));
+            }
+        }
 
+        logger.info("Bulk approval chunk: {} of {} quotations processed by {}",
+                changed.size(), quotationIds.size(), approver.getFullName());
         return results;
     }
 
     /**
-     * Get pending approvals for current user
+     * Get pending approvals for current user. Unsorted requests are served in approval queue
+     * order (SLA deadline, amount, age) from the in-memory queue, starting right past the
+     * quotation given as after when it is still queued.
      */
     @Transactional(readOnly = true)
-    public Page<PendingApprovalsResponse> getPendingApprovals(Pageable pageable) {
+    public Page<PendingApprovalsResponse> getPendingApprovals(Pageable pageable, Long after) {
         UserPrincipal currentUser = getCurrentUser();
         validateApprovalAccess(currentUser);
 
+        if (pageable.getSort().isUnsorted()) {
+            Page<Long> queued = approvalQueueService.getQueue(currentUser, pageable, after);
+            return new PageImpl<>(loadInOrder(queued.getContent()), pageable, queued.getTotalElements());
+        }
+
         Page<Quotation> pendingQuotations = quotationRepository.findByStatusWithProject(
                 QuotationStatus.SUBMITTED, pageable);
 
@@ -159,22 +246,54 @@ public class ApprovalService {
     }
 
     /**
-     * Get approval history for a quotation
+     * Get pending approvals oldest submission first, keyset-paginated
      */
     @Transactional(readOnly = true)
-    public List<ApprovalResponse> getApprovalHistory(Long quotationId) {
+    public CursorPage<PendingApprovalsResponse> getPendingApprovals(String cursor, int size) {
         UserPrincipal currentUser = getCurrentUser();
+        validateApprovalAccess(currentUser);
 
-        // Validate access to quotation
-        Quotation quotation = quotationRepository.findByIdWithProjectAndItems(quotationId)
-                .orElseThrow(() -> new ResourceNotFoundException("Quotation", "id", quotationId));
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Slice<Quotation> pendingQuotations = after == null
+                ? quotationRepository.findByStatusFirstPage(QuotationStatus.SUBMITTED, CursorPage.request(size))
+                : quotationRepository.findByStatusAfterCursor(QuotationStatus.SUBMITTED,
+                        after.getSortKey(), after.getId(), CursorPage.request(size));
 
-        // Project managers can see history of their own quotations
-        // Account managers can see all histories
-        if (!currentUser.hasAnyRole("SUPER_ADMIN", "ACCOUNT_MANAGER") &&
-                !quotation.getCreatedBy().getId().equals(currentUser.getId())) {
-            throw new UnauthorizedAccessException("You don't have access to this quotation's approval history");
+        return CursorPage.from(pendingQuotations, this::convertToPendingApprovalResponse,
+                q -> KeysetCursor.of(q.getSubmittedDate(), q.getId()));
+    }
+
+    /**
+     * Claim the most urgent pending approvals for the current user
+     */
+    public List<PendingApprovalsResponse> claimApprovals(int max) {
+        UserPrincipal currentUser = getCurrentUser();
+        validateApprovalAccess(currentUser);
+
+        return loadInOrder(approvalQueueService.claim(currentUser, max));
+    }
+
+    /**
+     * Return a claimed approval to the queue
+     */
+    public void releaseApproval(Long quotationId) {
+        UserPrincipal currentUser = getCurrentUser();
+        validateApprovalAccess(currentUser);
+
+        if (!approvalQueueService.release(quotationId, currentUser)) {
+            throw new BusinessException("APPROVAL_NOT_CLAIMED",
+                    "Quotation " + quotationId + " is not claimed by you");
         }
+    }
+
+    /**
+     * Get approval history for a quotation
+     */
+    @Transactional(readOnly = true)
+    public List<ApprovalResponse> getApprovalHistory(Long quotationId) {
+        UserPrincipal currentUser = getCurrentUser();
+
+        validateHistoryAccess(currentUser, quotationId);
 
         List<Approval> approvals = approvalRepository.findByQuotationIdOrderByCreatedDateDesc(quotationId);
 
@@ -183,6 +302,56 @@ public class ApprovalService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Get the approval event log of a quotation, oldest first
+     */
+    @Transactional(readOnly = true)
+    public List<ApprovalHistoryResponse> getApprovalEvents(Long quotationId) {
+        UserPrincipal currentUser = getCurrentUser();
+        validateHistoryAccess(currentUser, quotationId);
+
+        List<ApprovalHistory> history = approvalHistoryService.getHistory(quotationId);
+
+        Set<Long> actorIds = new HashSet<>();
+        // The approvals row is reused by the approver's later decisions on the quotation, so its
+        // comment belongs to the last entry referencing it
+        Map<Long, ApprovalHistory> latestByApproval = new HashMap<>();
+        for (ApprovalHistory entry : history) {
+            if (entry.getActorId() != null) {
+                actorIds.add(entry.getActorId());
+            }
+            if (entry.getApprovalId() != null) {
+                latestByApproval.put(entry.getApprovalId(), entry);
+            }
+        }
+        Map<Long, String> actorNames = userRepository.findAllById(actorIds).stream()
+                .collect(Collectors.toMap(User::getId, User::getFullName));
+        Map<Long, String> comments = new HashMap<>();
+        for (Approval approval : approvalRepository.findAllById(latestByApproval.keySet())) {
+            comments.put(approval.getId(), approval.getComments());
+        }
+
+        List<ApprovalHistoryResponse> responses = new ArrayList<>(history.size());
+        for (ApprovalHistory entry : history) {
+            ApprovalHistoryResponse response = new ApprovalHistoryResponse();
+            response.setId(entry.getId());
+            response.setQuotationId(entry.getQuotationId());
+            response.setEvent(entry.getEvent().name());
+            response.setEventName(entry.getEvent().getDisplayName());
+            response.setFromState(entry.getFromState() != null ? entry.getFromState().name() : null);
+            response.setToState(entry.getToState().name());
+            response.setActorId(entry.getActorId());
+            response.setActorName(actorNames.get(entry.getActorId()));
+            response.setApprovalId(entry.getApprovalId());
+            if (entry.getApprovalId() != null && latestByApproval.get(entry.getApprovalId()) == entry) {
+                response.setComments(comments.get(entry.getApprovalId()));
+            }
+            response.setOccurredAt(entry.getOccurredAt());
+            responses.add(response);
+        }
+        return responses;
+    }
+
     /**
      * Get approval statistics
      */
@@ -199,11 +368,13 @@ public class ApprovalService {
             approverId = currentUser.getId();
         }
 
+        StatusCounters<ApprovalStatus> counters = statusCounterService.approvalsBy(approverId);
+
         ApprovalStatistics stats = new ApprovalStatistics();
-        stats.setPendingApprovals(approvalRepository.countByApproverIdAndStatus(approverId, ApprovalStatus.PENDING));
-        stats.setApprovedCount(approvalRepository.countByApproverIdAndStatus(approverId, ApprovalStatus.APPROVED));
-        stats.setRejectedCount(approvalRepository.countByApproverIdAndStatus(approverId, ApprovalStatus.REJECTED));
-        stats.setChangesRequestedCount(approvalRepository.countByApproverIdAndStatus(approverId, ApprovalStatus.CHANGES_REQUESTED));
+        stats.setPendingApprovals(counters.count(ApprovalStatus.PENDING));
+        stats.setApprovedCount(counters.count(ApprovalStatus.APPROVED));
+        stats.setRejectedCount(counters.count(ApprovalStatus.REJECTED));
+        stats.setChangesRequestedCount(counters.count(ApprovalStatus.CHANGES_REQUESTED));
 
         // Calculate average processing time
         stats.setAverageProcessingDays(approvalRepository.getAverageProcessingDays(approverId));
@@ -212,24 +383,20 @@ public class ApprovalService {
     }
 
     /**
-     * Get urgent approvals (pending more than 3 days)
+     * Get urgent approvals (past their SLA deadline), most overdue first, from the approval queue
      */
     @Transactional(readOnly = true)
     public Page<PendingApprovalsResponse> getUrgentApprovals(Pageable pageable) {
         UserPrincipal currentUser = getCurrentUser();
         validateApprovalAccess(currentUser);
 
-        LocalDateTime urgentThreshold = LocalDateTime.now().minusDays(3);
-
-        Page<Quotation> urgentQuotations = quotationRepository.findByStatusAndSubmittedDateBeforeWithProject(
-                QuotationStatus.SUBMITTED, urgentThreshold, pageable);
-
-        return urgentQuotations.map(quotation -> {
-            PendingApprovalsResponse response = convertToPendingApprovalResponse(quotation);
+        Page<Long> overdue = approvalQueueService.getOverdue(currentUser, pageable);
+        List<PendingApprovalsResponse> responses = loadInOrder(overdue.getContent());
+        for (PendingApprovalsResponse response : responses) {
             response.setIsUrgent(true);
             response.setPriority("HIGH");
-            return response;
-        });
+        }
+        return new PageImpl<>(responses, pageable, overdue.getTotalElements());
     }
 
     // Private helper methods
@@ -240,10 +407,75 @@ public class ApprovalService {
         }
     }
 
-    private void updateProjectBudget(Quotation quotation) {
-        // Update project spent amount when quotation is approved
-        quotation.getProject().setSpentAmount(
-                quotation.getProject().getSpentAmount().add(quotation.getTotalAmount()));
+    private List<PendingApprovalsResponse> loadInOrder(List<Long> quotationIds) {
+        if (quotationIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Quotation> quotations = quotationRepository.findAllWithProjectAndCreatorByIdIn(quotationIds).stream()
+                .collect(Collectors.toMap(Quotation::getId, Function.identity()));
+
+        List<PendingApprovalsResponse> responses = new ArrayList<>(quotationIds.size());
+        for (Long quotationId : quotationIds) {
+            Quotation quotation = quotations.get(quotationId);
+            if (quotation != null) {
+                responses.add(convertToPendingApprovalResponse(quotation));
+            }
+        }
+        return responses;
+    }
+
+    private void applyDecision(Step step, Approval approval, Quotation quotation, User approver, String comments) {
+        switch (step.getTo()) {
+            case APPROVED:
+                approval.approve(comments);
+                quotation.approve(approver);
+                logger.info("Quotation {} approved by {}", quotation.getId(), approver.getFullName());
+                break;
+
+            case REJECTED:
+                approval.reject(comments);
+                quotation.reject(approver, comments);
+                logger.info("Quotation {} rejected by {}", quotation.getId(), approver.getFullName());
+                break;
+
+            default:
+                if (step.getTo() == step.getFrom()) {
+                    approval.requestChanges(comments);
+                    quotation.setStatus(QuotationStatus.UNDER_REVIEW);
+                    logger.info("Changes requested for quotation {} by {}", quotation.getId(), approver.getFullName());
+                } else {
+                    approval.approve(comments);
+                    logger.info("Quotation {} passed {} by {}, now at {}",
+                            quotation.getId(), step.getFrom(), approver.getFullName(), step.getTo());
+                }
+        }
+    }
+
+    private String bulkSkipReason(Quotation quotation, BulkApprovalRequest request) {
+        if (!quotation.isSubmitted()) {
+            return "Quotation cannot be processed in " + quotation.getStatus() + " status";
+        }
+        if (request.getProjectId() != null && !request.getProjectId().equals(quotation.getProject().getId())) {
+            return "Quotation does not belong to project " + request.getProjectId();
+        }
+        if (request.getMaxAmount() != null && quotation.getTotalAmount().compareTo(request.getMaxAmount()) > 0) {
+            return "Quotation amount exceeds " + request.getMaxAmount();
+        }
+        return null;
+    }
+
+    static WorkflowEvent toWorkflowEvent(String action) {
+        switch (action.toUpperCase()) {
+            case "APPROVE":
+                return WorkflowEvent.APPROVE;
+            case "REJECT":
+                return WorkflowEvent.REJECT;
+            case "CHANGES_REQUESTED":
+                return WorkflowEvent.REQUEST_CHANGES;
+            default:
+                throw new BusinessException("INVALID_APPROVAL_ACTION", "Invalid approval action: " + action);
+        }
     }
 
     private UserPrincipal getCurrentUser() {
@@ -255,6 +487,18 @@ public class ApprovalService {
         return (UserPrincipal) authentication.getPrincipal();
     }
 
+    private void validateHistoryAccess(UserPrincipal currentUser, Long quotationId) {
+        Quotation quotation = quotationRepository.findByIdWithProjectAndItems(quotationId)
+                .orElseThrow(() -> new ResourceNotFoundException("Quotation", "id", quotationId));
+
+        // Project managers can see history of their own quotations
+        // Account managers can see all histories
+        if (!currentUser.hasAnyRole("SUPER_ADMIN", "ACCOUNT_MANAGER") &&
+                (quotation.getCreator() == null || !quotation.getCreator().getId().equals(currentUser.getId()))) {
+            throw new UnauthorizedAccessException("You don't have access to this quotation's approval history");
+        }
+    }
+
     private User getUserById(Long userId) {
         return userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
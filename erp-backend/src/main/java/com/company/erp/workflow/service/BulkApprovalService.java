@@ -0,0 +1,175 @@
+package com.company.erp.workflow.service;
+
+import com.company.erp.common.exception.BusinessException;
+import com.company.erp.common.exception.UnauthorizedAccessException;
+import com.company.erp.common.security.UserPrincipal;
+import com.company.erp.financial.repository.QuotationRepository;
+import com.company.erp.workflow.dto.request.BulkApprovalRequest;
+import com.company.erp.workflow.dto.response.BulkApprovalResponse;
+import com.company.erp.workflow.dto.response.BulkApprovalResponse.ItemResult;
+import com.company.erp.workflow.entity.WorkflowEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Bulk approval decisions, processed in chunks of chunk-size quotations with one transaction per
+ * chunk (ApprovalService.processApprovalChunk), so a late failure only costs its own chunk.
+ *
+ * Quotations are split into lanes by project and the lanes run in parallel on the shared, bounded
+ * bulkApprovalExecutor; within a lane chunks run in order. Every budget update locks the
+ * quotation's project row, and all quotations of a project share one lane, so lanes never wait on
+ * each other's row locks. When the executor is saturated the request thread runs the lane itself.
+ * The result lists every requested quotation with its own outcome.
+ */
+@Service
+public class BulkApprovalService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkApprovalService.class);
+
+    private final ApprovalService approvalService;
+    private final QuotationRepository quotationRepository;
+    private final Executor chunkExecutor;
+    private final int chunkSize;
+    private final int parallelism;
+
+    public BulkApprovalService(ApprovalService approvalService,
+                               QuotationRepository quotationRepository,
+                               @Qualifier("bulkApprovalExecutor") Executor bulkApprovalExecutor,
+                               @Value("${app.business.approval.bulk.chunk-size:100}") int chunkSize,
+                               @Value("${app.business.approval.bulk.parallelism:4}") int parallelism) {
+        this.approvalService = approvalService;
+        this.quotationRepository = quotationRepository;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.parallelism = Math.max(1, parallelism);
+        // Chunks run as the requesting user, so auditing sees the right principal
+        this.chunkExecutor = new DelegatingSecurityContextExecutor(bulkApprovalExecutor);
+    }
+
+    /**
+     * Apply the request's action to all its quotations and report each one.
+     */
+    public BulkApprovalResponse processBulkApprovals(BulkApprovalRequest request) {
+        UserPrincipal currentUser = getCurrentUser();
+        if (!currentUser.hasAnyRole("SUPER_ADMIN", "ACCOUNT_MANAGER")) {
+            throw new UnauthorizedAccessException("Only Account Managers can process approvals");
+        }
+        WorkflowEvent event = ApprovalService.toWorkflowEvent(request.getAction());
+
+        long startTime = System.currentTimeMillis();
+        List<Long> quotationIds = new ArrayList<>(new LinkedHashSet<>(request.getQuotationIds()));
+        List<List<List<Long>>> lanes = planLanes(quotationIds);
+
+        List<CompletableFuture<List<ItemResult>>> running = new ArrayList<>(lanes.size());
+        for (List<List<Long>> lane : lanes) {
+            running.add(CompletableFuture.supplyAsync(() -> runLane(lane, currentUser, event, request), chunkExecutor));
+        }
+
+        Map<Long, ItemResult> byQuotation = new HashMap<>();
+        for (CompletableFuture<List<ItemResult>> lane : running) {
+            for (ItemResult result : lane.join()) {
+                byQuotation.put(result.getQuotationId(), result);
+            }
+        }
+
+        BulkApprovalResponse response = new BulkApprovalResponse();
+        for (Long quotationId : quotationIds) {
+            ItemResult result = byQuotation.get(quotationId);
+            response.getResults().add(result);
+            if (result.isSuccess()) {
+                response.setSuccessfullyProcessed(response.getSuccessfullyProcessed() + 1);
+            } else {
+                response.setFailed(response.getFailed() + 1);
+            }
+        }
+        response.setTotalRequested(quotationIds.size());
+        response.setChunks(lanes.stream().mapToInt(List::size).sum());
+        response.setDurationMs(System.currentTimeMillis() - startTime);
+
+        logger.info("Bulk {} by user {}: {} of {} quotations processed in {} chunks, {}ms",
+                event, currentUser.getId(), response.getSuccessfullyProcessed(), response.getTotalRequested(),
+                response.getChunks(), response.getDurationMs());
+        return response;
+    }
+
+    // Helper methods
+
+    /**
+     * Group quotations into at most parallelism lanes by project, ordered by project then id so
+     * row locks are always taken in the same order, and cut each lane into chunks.
+     */
+    private List<List<List<Long>>> planLanes(List<Long> quotationIds) {
+        Map<Long, Long> projectByQuotation = new HashMap<>();
+        for (Object[] row : quotationRepository.findProjectIdsByIdIn(quotationIds)) {
+            projectByQuotation.put((Long) row[0], (Long) row[1]);
+        }
+
+        List<List<Long>> laneIds = new ArrayList<>(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+            laneIds.add(new ArrayList<>());
+        }
+        for (Long quotationId : quotationIds) {
+            // Unknown quotations go to the first lane and are reported as not found
+            Long projectId = projectByQuotation.getOrDefault(quotationId, 0L);
+            laneIds.get(Math.floorMod(projectId.hashCode(), parallelism)).add(quotationId);
+        }
+
+        Comparator<Long> lockOrder = Comparator.comparing((Long id) -> projectByQuotation.getOrDefault(id, 0L))
+                .thenComparing(Comparator.naturalOrder());
+
+        List<List<List<Long>>> lanes = new ArrayList<>();
+        for (List<Long> ids : laneIds) {
+            if (ids.isEmpty()) {
+                continue;
+            }
+            ids.sort(lockOrder);
+            List<List<Long>> chunks = new ArrayList<>();
+            for (int from = 0; from < ids.size(); from += chunkSize) {
+                chunks.add(ids.subList(from, Math.min(from + chunkSize, ids.size())));
+            }
+            lanes.add(chunks);
+        }
+        return lanes;
+    }
+
+    private List<ItemResult> runLane(List<List<Long>> chunks, UserPrincipal currentUser,
+                                     WorkflowEvent event, BulkApprovalRequest request) {
+        List<ItemResult> results = new ArrayList<>();
+        for (List<Long> chunk : chunks) {
+            try {
+                results.addAll(approvalService.processApprovalChunk(currentUser, chunk, event, request));
+            } catch (RuntimeException e) {
+                // The chunk's transaction rolled back: none of its items were applied
+                logger.warn("Bulk approval chunk of {} quotations rolled back: {}", chunk.size(), e.getMessage());
+                String errorCode = e instanceof BusinessException ? ((BusinessException) e).getErrorCode() : "CHUNK_FAILED";
+                for (Long quotationId : chunk) {
+                    results.add(ItemResult.failed(quotationId, errorCode, "Chunk rolled back: " + e.getMessage()));
+                }
+            }
+        }
+        return results;
+    }
+
+    private UserPrincipal getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() ||
+                !(authentication.getPrincipal() instanceof UserPrincipal)) {
+            throw new BusinessException("NO_AUTHENTICATED_USER", "No authenticated user found");
+        }
+        return (UserPrincipal) authentication.getPrincipal();
+    }
+}
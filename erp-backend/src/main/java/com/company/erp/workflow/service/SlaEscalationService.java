@@ -0,0 +1,243 @@
+package com.company.erp.workflow.service;
+
+import com.company.erp.common.event.WorkflowChangedEvent;
+import com.company.erp.notification.entity.NotificationPriority;
+import com.company.erp.notification.entity.NotificationType;
+import com.company.erp.notification.service.NotificationService;
+import com.company.erp.user.entity.User;
+import com.company.erp.user.repository.UserRepository;
+import com.company.erp.workflow.entity.WorkflowInstance;
+import com.company.erp.workflow.entity.WorkflowState;
+import com.company.erp.workflow.repository.WorkflowInstanceRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Escalates quotations whose approval SLA deadline passes without a final decision.
+ *
+ * Deadlines of the workflow instances under review are loaded once at startup into a DelayQueue;
+ * a single worker thread sleeps until the earliest one is due, so escalations fire on time without
+ * polling. Submissions, decisions and resubmissions reschedule through {@link WorkflowChangedEvent}
+ * after commit; superseded queue entries are skipped when they come due. Those events only reach
+ * the node that committed, so the worker also polls every sla-poll-seconds for rows already past
+ * their deadline with no escalated_at, such as deadlines scheduled on a node that has since gone
+ * down. Each breach is recorded on the instance (escalated_at) with a conditional UPDATE, so it
+ * is notified once even across restarts or several application nodes.
+ */
+@Service
+public class SlaEscalationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlaEscalationService.class);
+
+    // Due rows escalated per poll; the next poll picks up the rest
+    private static final int POLL_BATCH_SIZE = 100;
+
+    private final WorkflowInstanceRepository workflowInstanceRepository;
+    private final UserRepository userRepository;
+    private final NotificationService notificationService;
+    private final TransactionTemplate transactionTemplate;
+    private final long pollIntervalMillis;
+    private final DelayQueue<Deadline> deadlines = new DelayQueue<>();
+    private final Map<Long, Deadline> scheduled = new ConcurrentHashMap<>();
+    private volatile Thread worker;
+
+    public SlaEscalationService(WorkflowInstanceRepository workflowInstanceRepository,
+                                UserRepository userRepository,
+                                NotificationService notificationService,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.business.approval.sla-poll-seconds:60}") int pollSeconds) {
+        this.workflowInstanceRepository = workflowInstanceRepository;
+        this.userRepository = userRepository;
+        this.notificationService = notificationService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.pollIntervalMillis = TimeUnit.SECONDS.toMillis(Math.max(1, pollSeconds));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        long startTime = System.currentTimeMillis();
+        List<WorkflowInstance> pending = workflowInstanceRepository.findUnescalatedByStates(WorkflowEngine.reviewStateCodes());
+        for (WorkflowInstance instance : pending) {
+            schedule(instance.getQuotationId(), instance.getSlaDeadline());
+        }
+
+        Thread thread = new Thread(this::run, "sla-escalation");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+
+        logger.info("Scheduled {} approval SLA deadlines in {}ms", pending.size(), System.currentTimeMillis() - startTime);
+    }
+
+    @PreDestroy
+    public void stop() {
+        Thread thread = worker;
+        worker = null;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onWorkflowChanged(WorkflowChangedEvent event) {
+        reschedule(event.getQuotationIds());
+    }
+
+    /**
+     * Re-read the given quotations' workflow rows and schedule or cancel their deadlines. Reads
+     * scalar columns, so instances left stale in the caller's persistence context by the bulk
+     * UPDATEs are not used.
+     */
+    public void reschedule(Collection<Long> quotationIds) {
+        Set<Long> missing = new HashSet<>(quotationIds);
+        for (Object[] row : workflowInstanceRepository.findDeadlinesByQuotationIdIn(quotationIds)) {
+            Long quotationId = (Long) row[0];
+            missing.remove(quotationId);
+            if (WorkflowState.fromCode((Short) row[1]).isFinal() || row[3] != null) {
+                scheduled.remove(quotationId);
+            } else {
+                schedule(quotationId, (LocalDateTime) row[2]);
+            }
+        }
+        for (Long quotationId : missing) {
+            scheduled.remove(quotationId);
+        }
+    }
+
+    public int getScheduledCount() {
+        return scheduled.size();
+    }
+
+    // Helper methods
+
+    private void schedule(Long quotationId, LocalDateTime slaDeadline) {
+        Deadline deadline = new Deadline(quotationId, slaDeadline);
+        Deadline previous = scheduled.put(quotationId, deadline);
+        if (previous != null && previous.slaDeadline.equals(slaDeadline)) {
+            scheduled.replace(quotationId, deadline, previous); // Unchanged; keep the queued entry
+            return;
+        }
+        deadlines.add(deadline);
+    }
+
+    private void run() {
+        long nextPollAt = System.currentTimeMillis() + pollIntervalMillis;
+        while (worker == Thread.currentThread()) {
+            try {
+                Deadline due = deadlines.poll(Math.max(0, nextPollAt - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                // Skip entries cancelled or superseded since they were queued
+                if (due != null && scheduled.remove(due.quotationId, due)) {
+                    escalate(due);
+                }
+                if (System.currentTimeMillis() >= nextPollAt) {
+                    nextPollAt = System.currentTimeMillis() + pollIntervalMillis;
+                    escalateMissed();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Approval SLA escalation failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Escalate due rows the in-memory schedule does not cover. A row this node also has queued
+     * for the same deadline is taken off the schedule so it is not attempted twice.
+     */
+    private void escalateMissed() {
+        List<Object[]> due = workflowInstanceRepository.findDueUnescalated(WorkflowEngine.reviewStateCodes(),
+                LocalDateTime.now(), PageRequest.of(0, POLL_BATCH_SIZE));
+        for (Object[] row : due) {
+            Deadline deadline = new Deadline((Long) row[0], (LocalDateTime) row[1]);
+            Deadline queued = scheduled.get(deadline.quotationId);
+            if (queued != null && queued.slaDeadline.equals(deadline.slaDeadline)) {
+                scheduled.remove(deadline.quotationId, queued);
+            }
+            try {
+                escalate(deadline);
+            } catch (RuntimeException e) {
+                logger.error("Approval SLA escalation of quotation {} failed: {}", deadline.quotationId, e.getMessage(), e);
+            }
+        }
+    }
+
+    private void escalate(Deadline due) {
+        WorkflowInstance instance = transactionTemplate.execute(status -> {
+            if (workflowInstanceRepository.markEscalated(due.quotationId, due.slaDeadline,
+                    WorkflowEngine.reviewStateCodes(), LocalDateTime.now()) == 0) {
+                return null; // Decided, rescheduled or escalated elsewhere
+            }
+            return workflowInstanceRepository.findByQuotationId(due.quotationId).orElse(null);
+        });
+        if (instance == null) {
+            return;
+        }
+
+        String title = "Approval overdue: quotation #" + due.quotationId;
+        String message = String.format("Quotation #%d (SAR %.2f) submitted on %s is still at %s and passed its approval deadline of %s.",
+                due.quotationId, instance.getAmount().doubleValue(), instance.getSubmittedDate().toLocalDate(),
+                instance.getState().getDisplayName(), due.slaDeadline);
+
+        Set<Long> recipients = new LinkedHashSet<>();
+        if (instance.getClaimedBy() != null) {
+            recipients.add(instance.getClaimedBy());
+        }
+        for (User admin : userRepository.findByRoleName("SUPER_ADMIN")) {
+            recipients.add(admin.getId());
+        }
+        for (Long userId : recipients) {
+            notificationService.createNotification(userId, title, message,
+                    NotificationType.APPROVAL_ESCALATED.name(), NotificationPriority.HIGH);
+        }
+
+        logger.info("Escalated quotation {} past its {} approval SLA to {} users",
+                due.quotationId, due.slaDeadline, recipients.size());
+    }
+
+    private static final class Deadline implements Delayed {
+        private final Long quotationId;
+        private final LocalDateTime slaDeadline;
+        private final long dueAtMillis;
+
+        private Deadline(Long quotationId, LocalDateTime slaDeadline) {
+            this.quotationId = quotationId;
+            this.slaDeadline = slaDeadline;
+            this.dueAtMillis = slaDeadline.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueAtMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueAtMillis, ((Deadline) other).dueAtMillis);
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package com.company.erp.workflow.service;
+
+import com.company.erp.common.event.WorkflowChangedEvent;
+import com.company.erp.common.event.WorkflowTransitionEvent;
+import com.company.erp.common.exception.BusinessException;
+import com.company.erp.common.exception.UnauthorizedAccessException;
+import com.company.erp.common.security.UserPrincipal;
+import com.company.erp.financial.entity.Quotation;
+import com.company.erp.workflow.entity.WorkflowEvent;
+import com.company.erp.workflow.entity.WorkflowInstance;
+import com.company.erp.workflow.entity.WorkflowRoute;
+import com.company.erp.workflow.entity.WorkflowState;
+import com.company.erp.workflow.repository.WorkflowInstanceRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Multi-stage quotation approval workflow.
+ *
+ * Each route is an ordered list of review stages; at startup the routes are compiled into a flat
+ * transition table indexed by (route, state, event), so firing an event is an array lookup plus
+ * one versioned single-row UPDATE. The route is chosen from the quotation amount: up to the
+ * auto-approval limit it is approved on submission, above require-approval-above it needs a
+ * second, final review by a different approver. Every change is announced with a
+ * {@link WorkflowChangedEvent} so the approval queue can follow it after commit, and every
+ * transition with a {@link WorkflowTransitionEvent} for the approval history log.
+ */
+@Service
+public class WorkflowEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkflowEngine.class);
+
+    private static final Map<WorkflowRoute, List<WorkflowState>> ROUTES = new EnumMap<>(Map.of(
+            WorkflowRoute.AUTO, List.of(),
+            WorkflowRoute.STANDARD, List.of(WorkflowState.MANAGER_REVIEW),
+            WorkflowRoute.HIGH_VALUE, List.of(WorkflowState.MANAGER_REVIEW, WorkflowState.FINAL_REVIEW)));
+
+    private static final Map<WorkflowState, String[]> STAGE_ROLES = new EnumMap<>(Map.of(
+            WorkflowState.MANAGER_REVIEW, new String[]{"ACCOUNT_MANAGER", "SUPER_ADMIN"},
+            WorkflowState.FINAL_REVIEW, new String[]{"SUPER_ADMIN"}));
+
+    private final WorkflowInstanceRepository workflowInstanceRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BigDecimal autoApprovalLimit;
+    private final BigDecimal requireApprovalAbove;
+    private final int slaHours;
+    private final TransitionTable transitions = TransitionTable.compile(ROUTES);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public WorkflowEngine(WorkflowInstanceRepository workflowInstanceRepository,
+                          ApplicationEventPublisher eventPublisher,
+                          @Value("${app.business.budget.auto-approval-limit:1000.00}") BigDecimal autoApprovalLimit,
+                          @Value("${app.business.quotation.require-approval-above:5000.00}") BigDecimal requireApprovalAbove,
+                          @Value("${app.business.approval.sla-hours:72}") int slaHours) {
+        this.workflowInstanceRepository = workflowInstanceRepository;
+        this.eventPublisher = eventPublisher;
+        this.autoApprovalLimit = autoApprovalLimit;
+        this.requireApprovalAbove = requireApprovalAbove;
+        this.slaHours = slaHours;
+    }
+
+    /**
+     * Route a freshly submitted quotation and return its first state; APPROVED means auto-approved.
+     * A resubmitted quotation is re-routed, since its amount may have changed.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public WorkflowState start(Quotation quotation) {
+        WorkflowRoute route = routeFor(quotation.getTotalAmount());
+        WorkflowState initial = transitions.initial(route);
+
+        WorkflowInstance existing = workflowInstanceRepository.findByQuotationId(quotation.getId()).orElse(null);
+        if (existing == null) {
+            workflowInstanceRepository.save(newInstance(quotation, route));
+        } else if (workflowInstanceRepository.restart(existing.getId(), existing.getVersion(), route.getCode(),
+                initial.getCode(), quotation.getTotalAmount(), submittedDate(quotation),
+                slaDeadline(quotation), LocalDateTime.now()) == 0) {
+            throw conflict(quotation.getId());
+        } else {
+            refreshIfManaged(existing);
+        }
+
+        Long submitterId = quotation.getCreator() != null ? quotation.getCreator().getId() : null;
+        eventPublisher.publishEvent(new WorkflowChangedEvent(quotation.getId()));
+        eventPublisher.publishEvent(new WorkflowTransitionEvent(quotation.getId(), submitterId,
+                WorkflowEvent.SUBMIT, null, initial, LocalDateTime.now()));
+        logger.debug("Quotation {} routed {} starting at {}", quotation.getId(), route, initial);
+        return initial;
+    }
+
+    /**
+     * Apply an approver's decision to the quotation's current stage. Quotations submitted before
+     * the engine existed are started on first use. Failed checks change nothing, so they do not
+     * doom the caller's transaction.
+     */
+    @Transactional(propagation = Propagation.MANDATORY,
+            noRollbackFor = {BusinessException.class, UnauthorizedAccessException.class})
+    public Step fire(Quotation quotation, WorkflowEvent event, UserPrincipal actor) {
+        WorkflowInstance instance = workflowInstanceRepository.findByQuotationId(quotation.getId())
+                .orElseGet(() -> workflowInstanceRepository.save(
+                        newInstance(quotation, routeFor(quotation.getTotalAmount()))));
+
+        Step step = plan(instance, event, actor);
+        apply(instance, step, actor);
+        return step;
+    }
+
+    /**
+     * Workflow instances of the given quotations in one query, starting any that are missing.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Map<Long, WorkflowInstance> instancesFor(Collection<Quotation> quotations) {
+        List<Long> quotationIds = new ArrayList<>(quotations.size());
+        for (Quotation quotation : quotations) {
+            quotationIds.add(quotation.getId());
+        }
+
+        Map<Long, WorkflowInstance> instances = new HashMap<>();
+        for (WorkflowInstance instance : workflowInstanceRepository.findByQuotationIdIn(quotationIds)) {
+            instances.put(instance.getQuotationId(), instance);
+        }
+        for (Quotation quotation : quotations) {
+            instances.computeIfAbsent(quotation.getId(), id -> workflowInstanceRepository.save(
+                    newInstance(quotation, routeFor(quotation.getTotalAmount()))));
+        }
+        return instances;
+    }
+
+    /**
+     * Check an event against the instance as read and work out the step, without writing anything.
+     */
+    public Step plan(WorkflowInstance instance, WorkflowEvent event, UserPrincipal actor) {
+        WorkflowRoute route = instance.getRoute();
+        WorkflowState from = instance.getState();
+        if (from.isFinal()) {
+            throw new BusinessException("WORKFLOW_COMPLETED",
+                    "Approval workflow for quotation " + instance.getQuotationId() + " is already " + from);
+        }
+
+        if (!actor.hasAnyRole(STAGE_ROLES.get(from))) {
+            throw new UnauthorizedAccessException("You are not allowed to act on the " + from.getDisplayName() + " stage");
+        }
+
+        WorkflowState to = transitions.next(route, from, event);
+        if (to == null) {
+            throw new BusinessException("INVALID_WORKFLOW_TRANSITION",
+                    "Cannot " + event + " quotation " + instance.getQuotationId() + " at " + from);
+        }
+
+        // Four-eyes: a later stage cannot be approved by whoever approved the previous one
+        if (event == WorkflowEvent.APPROVE && from != transitions.initial(route)
+                && actor.getId().equals(instance.getLastActorId())) {
+            throw new BusinessException("WORKFLOW_SAME_APPROVER",
+                    "The " + from.getDisplayName() + " stage must be approved by a different approver");
+        }
+
+        if (instance.getClaimedBy() != null && !instance.getClaimedBy().equals(actor.getId())
+                && instance.getLeaseExpiresAt() != null && instance.getLeaseExpiresAt().isAfter(LocalDateTime.now())) {
+            throw new BusinessException("APPROVAL_CLAIMED",
+                    "Quotation " + instance.getQuotationId() + " is claimed by another approver");
+        }
+
+        return new Step(route, event, from, to);
+    }
+
+    /**
+     * Persist a planned step with one versioned single-row UPDATE; fails with WORKFLOW_CONFLICT,
+     * changing nothing, if the instance moved since it was read. On success the given instance is
+     * refreshed, so it shows the new state and version.
+     */
+    @Transactional(propagation = Propagation.MANDATORY, noRollbackFor = BusinessException.class)
+    public void apply(WorkflowInstance instance, Step step, UserPrincipal actor) {
+        // Self-loops (changes requested) keep the last approver for the four-eyes check
+        Long lastActorId = step.to == step.from ? instance.getLastActorId() : actor.getId();
+        if (workflowInstanceRepository.transition(instance.getId(), instance.getVersion(),
+                step.from.getCode(), step.to.getCode(), actor.getId(), lastActorId, LocalDateTime.now()) == 0) {
+            throw conflict(instance.getQuotationId());
+        }
+        refreshIfManaged(instance);
+
+        eventPublisher.publishEvent(new WorkflowChangedEvent(instance.getQuotationId()));
+        eventPublisher.publishEvent(new WorkflowTransitionEvent(instance.getQuotationId(), actor.getId(),
+                step.event, step.from, step.to, LocalDateTime.now()));
+        logger.debug("Quotation {} workflow {} -> {} by user {}", instance.getQuotationId(), step.from, step.to, actor.getId());
+    }
+
+    public WorkflowRoute routeFor(BigDecimal amount) {
+        if (autoApprovalLimit.signum() > 0 && amount.compareTo(autoApprovalLimit) <= 0) {
+            return WorkflowRoute.AUTO;
+        }
+        return amount.compareTo(requireApprovalAbove) > 0 ? WorkflowRoute.HIGH_VALUE : WorkflowRoute.STANDARD;
+    }
+
+    /**
+     * Review stages the user is allowed to act on.
+     */
+    public Set<WorkflowState> actionableStates(UserPrincipal user) {
+        Set<WorkflowState> states = EnumSet.noneOf(WorkflowState.class);
+        for (Map.Entry<WorkflowState, String[]> stage : STAGE_ROLES.entrySet()) {
+            if (user.hasAnyRole(stage.getValue())) {
+                states.add(stage.getKey());
+            }
+        }
+        return states;
+    }
+
+    /**
+     * Persisted codes of the states that still await a decision.
+     */
+    public static List<Short> reviewStateCodes() {
+        List<Short> codes = new ArrayList<>();
+        for (WorkflowState state : WorkflowState.values()) {
+            if (!state.isFinal()) {
+                codes.add(state.getCode());
+            }
+        }
+        return codes;
+    }
+
+    // Helper methods
+
+    private WorkflowInstance newInstance(Quotation quotation, WorkflowRoute route) {
+        return new WorkflowInstance(quotation.getId(), route, transitions.initial(route),
+                quotation.getTotalAmount(), submittedDate(quotation), slaDeadline(quotation));
+    }
+
+    /**
+     * State, version and last actor change only through the bulk UPDATEs, which bypass the
+     * persistence context; re-read the instance the caller holds so a later step in the same
+     * transaction plans against the row as written, without detaching anything else.
+     */
+    private void refreshIfManaged(WorkflowInstance instance) {
+        if (entityManager.contains(instance)) {
+            entityManager.refresh(instance);
+        }
+    }
+
+    private LocalDateTime submittedDate(Quotation quotation) {
+        return quotation.getSubmittedDate() != null ? quotation.getSubmittedDate() : LocalDateTime.now();
+    }
+
+    private LocalDateTime slaDeadline(Quotation quotation) {
+        return submittedDate(quotation).plusHours(slaHours);
+    }
+
+    private BusinessException conflict(Long quotationId) {
+        return new BusinessException("WORKFLOW_CONFLICT",
+                "Quotation " + quotationId + " is claimed by another approver or being processed concurrently");
+    }
+
+    /**
+     * Outcome of one fired event.
+     */
+    public static final class Step {
+        private final WorkflowRoute route;
+        private final WorkflowEvent event;
+        private final WorkflowState from;
+        private final WorkflowState to;
+
+        private Step(WorkflowRoute route, WorkflowEvent event, WorkflowState from, WorkflowState to) {
+            this.route = route;
+            this.event = event;
+            this.from = from;
+            this.to = to;
+        }
+
+        public WorkflowRoute getRoute() { return route; }
+
+        public WorkflowEvent getEvent() { return event; }
+
+        public WorkflowState getFrom() { return from; }
+
+        public WorkflowState getTo() { return to; }
+
+        public boolean isApproved() { return to == WorkflowState.APPROVED; }
+
+        public boolean isRejected() { return to == WorkflowState.REJECTED; }
+
+        /** 1-based number of the stage the event was fired at, for the approval level. */
+        public int getStage() { return from.getCode() + 1; }
+    }
+
+    /**
+     * Route definitions flattened into next-state codes; -1 marks a transition that is not allowed.
+     */
+    private static final class TransitionTable {
+        private static final int STATES = WorkflowState.values().length;
+        private static final int EVENTS = WorkflowEvent.values().length;
+
+        private final short[] next;
+        private final WorkflowState[] initial;
+
+        private TransitionTable(short[] next, WorkflowState[] initial) {
+            this.next = next;
+            this.initial = initial;
+        }
+
+        private static TransitionTable compile(Map<WorkflowRoute, List<WorkflowState>> routes) {
+            short[] next = new short[WorkflowRoute.values().length * STATES * EVENTS];
+            Arrays.fill(next, (short) -1);
+            WorkflowState[] initial = new WorkflowState[WorkflowRoute.values().length];
+
+            for (Map.Entry<WorkflowRoute, List<WorkflowState>> entry : routes.entrySet()) {
+                WorkflowRoute route = entry.getKey();
+                List<WorkflowState> stages = entry.getValue();
+                initial[route.getCode()] = stages.isEmpty() ? WorkflowState.APPROVED : stages.get(0);
+
+                for (int i = 0; i < stages.size(); i++) {
+                    WorkflowState stage = stages.get(i);
+                    WorkflowState approved = i + 1 < stages.size() ? stages.get(i + 1) : WorkflowState.APPROVED;
+                    next[index(route, stage, WorkflowEvent.APPROVE)] = approved.getCode();
+                    next[index(route, stage, WorkflowEvent.REJECT)] = WorkflowState.REJECTED.getCode();
+                    next[index(route, stage, WorkflowEvent.REQUEST_CHANGES)] = stage.getCode();
+                }
+            }
+            return new TransitionTable(next, initial);
+        }
+
+        private WorkflowState initial(WorkflowRoute route) {
+            return initial[route.getCode()];
+        }
+
+        private WorkflowState next(WorkflowRoute route, WorkflowState state, WorkflowEvent event) {
+            short code = next[index(route, state, event)];
+            return code < 0 ? null : WorkflowState.fromCode(code);
+        }
+
+        private static int index(WorkflowRoute route, WorkflowState state, WorkflowEvent event) {
+            return (route.getCode() * STATES + state.getCode()) * EVENTS + event.ordinal();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+-- V10__Add_project_budget_ledger.sql
+-- Running per-project budget ledger (balance + posting counter) maintained by atomic row updates;
+-- budget_tracking itself comes from the earlier schema migrations
+
+CREATE INDEX IF NOT EXISTS idx_budget_tracking_project_date ON budget_tracking(project_id, transaction_date) WHERE active = TRUE;
+
+ALTER TABLE projects
+    ADD COLUMN IF NOT EXISTS ledger_balance DECIMAL(15,2) NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS ledger_version BIGINT NOT NULL DEFAULT 0;
+
+-- Seed the running balance from existing history (same signs as BudgetLedgerService)
+UPDATE projects p
+SET ledger_balance = COALESCE((
+    SELECT SUM(CASE
+                   WHEN bt.tracking_type IN ('REFUND', 'BUDGET_DECREASE') THEN -bt.amount
+                   WHEN bt.tracking_type = 'ADJUSTMENT' THEN 0
+                   ELSE bt.amount END)
+    FROM budget_tracking bt
+    WHERE bt.project_id = p.id AND bt.active = TRUE), 0);
+
+COMMENT ON COLUMN projects.ledger_balance IS 'Running budget ledger balance, updated in O(1) per budget tracking entry';
+COMMENT ON COLUMN projects.ledger_version IS 'Number of ledger postings applied to the running balance';
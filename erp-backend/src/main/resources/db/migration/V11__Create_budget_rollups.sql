@@ -0,0 +1,29 @@
+-- V11__Create_budget_rollups.sql
+-- Incrementally maintained project x category x type x day budget totals; weeks, months and
+-- quarters are summed from the day buckets at read time, so a posting touches a single row
+
+CREATE TABLE IF NOT EXISTS budget_rollups (
+                                              id BIGSERIAL PRIMARY KEY,
+                                              project_id BIGINT NOT NULL REFERENCES projects(id),
+    category VARCHAR(50) NOT NULL,
+    tracking_type VARCHAR(30) NOT NULL,
+    rollup_date DATE NOT NULL,
+    transaction_count BIGINT NOT NULL DEFAULT 0,
+    total_amount DECIMAL(18,2) NOT NULL DEFAULT 0,
+    created_date TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_modified_date TIMESTAMP,
+    CONSTRAINT uk_budget_rollups_bucket UNIQUE (project_id, category, tracking_type, rollup_date)
+    );
+
+CREATE INDEX IF NOT EXISTS idx_budget_rollups_date ON budget_rollups(rollup_date);
+
+-- Initial fill from the existing ledger
+INSERT INTO budget_rollups (project_id, category, tracking_type, rollup_date, transaction_count, total_amount)
+SELECT project_id, COALESCE(category, 'UNCATEGORIZED'), tracking_type,
+       CAST(COALESCE(transaction_date, created_date) AS DATE), COUNT(*), SUM(amount)
+FROM budget_tracking
+WHERE active = TRUE
+GROUP BY project_id, COALESCE(category, 'UNCATEGORIZED'), tracking_type,
+         CAST(COALESCE(transaction_date, created_date) AS DATE);
+
+COMMENT ON TABLE budget_rollups IS 'Budget tracking totals per project, category, type and day; maintained with each ledger write';
@@ -0,0 +1,29 @@
+-- V12__Use_pooled_sequences_for_batched_inserts.sql
+-- High-volume entities now take ids from their BIGSERIAL sequence in blocks of 50 (pooled-lo)
+-- instead of IDENTITY, which lets Hibernate batch their inserts. The increment must match
+-- @PooledSequence(allocationSize) on the entity. Column defaults keep working for raw inserts:
+-- each nextval claims a whole block, so they never collide with ids handed out by the application.
+-- A missing sequence must fail the migration, not be skipped, or the application would hand out
+-- ids from a sequence the database does not have.
+
+-- BIGSERIAL tables created by earlier migrations in this directory
+ALTER SEQUENCE quotation_items_id_seq INCREMENT BY 50;
+ALTER SEQUENCE payments_id_seq INCREMENT BY 50;
+ALTER SEQUENCE audit_logs_id_seq INCREMENT BY 50;
+
+-- Tables created outside these migrations (ddl-auto update in development): make sure the sequence
+-- the generator uses exists, and when the table already has rows start it past them, since a
+-- sequence created here starts at 1 and its first blocks would collide with existing ids
+DO $$
+DECLARE
+    target TEXT;
+BEGIN
+    FOREACH target IN ARRAY ARRAY['budget_tracking', 'notifications', 'email_logs'] LOOP
+        EXECUTE format('CREATE SEQUENCE IF NOT EXISTS %I', target || '_id_seq');
+        EXECUTE format('ALTER SEQUENCE %I INCREMENT BY 50', target || '_id_seq');
+        IF to_regclass(target) IS NOT NULL THEN
+            EXECUTE format('SELECT setval(%L, COALESCE((SELECT MAX(id) FROM %I), 0) + 1, false)',
+                           target || '_id_seq', target);
+        END IF;
+    END LOOP;
+END $$;
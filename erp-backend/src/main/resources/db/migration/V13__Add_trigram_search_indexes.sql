@@ -0,0 +1,10 @@
+-- V13__Add_trigram_search_indexes.sql
+-- Trigram GIN indexes for quotation and project text search. They serve both ILIKE '%term%'
+-- and the word-similarity operator (<%), so search no longer scans the whole table.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_quotations_description_trgm ON quotations USING GIN (description gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_quotation_items_vendor_name_trgm ON quotation_items USING GIN (vendor_name gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_projects_name_trgm ON projects USING GIN (name gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_projects_location_trgm ON projects USING GIN (location gin_trgm_ops);
@@ -0,0 +1,16 @@
+-- V14__Add_keyset_pagination_indexes.sql
+-- Composite (filter, sort key, id) indexes backing the cursor-paginated list endpoints. Each
+-- page is an index range scan starting at the cursor, so cost stays flat at any depth.
+
+-- GET /quotations/my/scroll (all quotations, and per creator)
+CREATE INDEX IF NOT EXISTS idx_quotations_keyset_created ON quotations(created_date DESC, id DESC) WHERE active = TRUE;
+CREATE INDEX IF NOT EXISTS idx_quotations_keyset_creator ON quotations(created_by, created_date DESC, id DESC) WHERE active = TRUE;
+
+-- GET /quotations/pending/scroll and /approvals/pending/scroll
+CREATE INDEX IF NOT EXISTS idx_quotations_keyset_status_submitted ON quotations(status, submitted_date, id) WHERE active = TRUE;
+
+-- GET /payments/ready-for-processing/scroll and /payments/by-status/{status}/scroll (scanned in both directions)
+CREATE INDEX IF NOT EXISTS idx_payments_keyset_status_created ON payments(status, created_date, id) WHERE active = TRUE;
+
+-- GET /financial/budget-tracking/project/{id}/scroll
+CREATE INDEX IF NOT EXISTS idx_budget_tracking_keyset_project ON budget_tracking(project_id, transaction_date DESC, id DESC) WHERE active = TRUE;
@@ -0,0 +1,36 @@
+-- V15__Add_budget_holds.sql
+-- Budget reservations for submitted quotations, placed and settled with conditional single-row updates.
+-- A hold lasts until the quotation is approved or rejected, so approval never re-checks budget it reserved.
+
+CREATE TABLE IF NOT EXISTS budget_holds (
+                                            id BIGSERIAL PRIMARY KEY,
+                                            project_id BIGINT NOT NULL REFERENCES projects(id),
+    quotation_id BIGINT NOT NULL REFERENCES quotations(id),
+    amount DECIMAL(15,2) NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'HELD',
+    settled_date TIMESTAMP,
+    created_date TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_modified_date TIMESTAMP,
+    CHECK (status IN ('HELD', 'CONVERTED', 'RELEASED')),
+    CHECK (amount >= 0)
+    );
+
+-- At most one open hold per quotation
+CREATE UNIQUE INDEX IF NOT EXISTS uk_budget_holds_open_quotation ON budget_holds(quotation_id) WHERE status = 'HELD';
+
+ALTER TABLE projects
+    ADD COLUMN IF NOT EXISTS held_amount DECIMAL(15,2) NOT NULL DEFAULT 0;
+
+-- Hold quotations already awaiting approval
+INSERT INTO budget_holds (project_id, quotation_id, amount, status)
+SELECT q.project_id, q.id, q.total_amount, 'HELD'
+FROM quotations q
+WHERE q.active = TRUE AND q.status IN ('SUBMITTED', 'UNDER_REVIEW');
+
+UPDATE projects p
+SET held_amount = COALESCE((
+    SELECT SUM(h.amount)
+    FROM budget_holds h
+    WHERE h.project_id = p.id AND h.status = 'HELD'), 0);
+
+COMMENT ON COLUMN projects.held_amount IS 'Budget reserved by submitted quotations (sum of HELD budget_holds)';
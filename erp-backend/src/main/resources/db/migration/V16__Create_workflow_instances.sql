@@ -0,0 +1,18 @@
+-- V16__Create_workflow_instances.sql
+-- Approval workflow position per quotation: small-integer route/state codes plus an optimistic version
+
+CREATE TABLE IF NOT EXISTS workflow_instances (
+                                                  id BIGSERIAL PRIMARY KEY,
+                                                  quotation_id BIGINT NOT NULL UNIQUE REFERENCES quotations(id),
+    route SMALLINT NOT NULL, -- WorkflowRoute code: 0 AUTO, 1 STANDARD, 2 HIGH_VALUE
+    state SMALLINT NOT NULL, -- WorkflowState code: 0 MANAGER_REVIEW, 1 FINAL_REVIEW, 2 APPROVED, 3 REJECTED
+    version INTEGER NOT NULL DEFAULT 0,
+    last_actor_id BIGINT REFERENCES users(id),
+    created_date TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_modified_date TIMESTAMP,
+    CHECK (route BETWEEN 0 AND 2),
+    CHECK (state BETWEEN 0 AND 3)
+    );
+
+-- Quotations awaiting approval without an instance are started on first use by WorkflowEngine
+COMMENT ON TABLE workflow_instances IS 'Quotation approval workflow state; transitions are versioned single-row updates';
@@ -0,0 +1,43 @@
+-- V17__Add_approval_queue_columns.sql
+-- Workflow instances under review double as the approval work queue: ordering columns plus a claim lease
+
+ALTER TABLE workflow_instances
+    ADD COLUMN IF NOT EXISTS amount DECIMAL(15,2),
+    ADD COLUMN IF NOT EXISTS submitted_date TIMESTAMP,
+    ADD COLUMN IF NOT EXISTS sla_deadline TIMESTAMP,
+    ADD COLUMN IF NOT EXISTS claimed_by BIGINT REFERENCES users(id),
+    ADD COLUMN IF NOT EXISTS lease_expires_at TIMESTAMP;
+
+UPDATE workflow_instances w
+SET amount = q.total_amount,
+    submitted_date = COALESCE(q.submitted_date, w.created_date),
+    sla_deadline = COALESCE(q.submitted_date, w.created_date) + INTERVAL '72 hours'
+FROM quotations q
+WHERE q.id = w.quotation_id;
+
+-- Quotations awaiting approval that have no instance yet, routed with the default thresholds
+-- (above 5000.00 SAR needs a final review); app.business.approval.sla-hours defaults to 72
+INSERT INTO workflow_instances (quotation_id, route, state, amount, submitted_date, sla_deadline)
+SELECT q.id,
+       CASE WHEN q.total_amount > 5000.00 THEN 2 ELSE 1 END,
+       0,
+       q.total_amount,
+       COALESCE(q.submitted_date, q.created_date),
+       COALESCE(q.submitted_date, q.created_date) + INTERVAL '72 hours'
+FROM quotations q
+WHERE q.active = TRUE AND q.status IN ('SUBMITTED', 'UNDER_REVIEW')
+  AND NOT EXISTS (SELECT 1 FROM workflow_instances w WHERE w.quotation_id = q.id);
+
+ALTER TABLE workflow_instances
+    ALTER COLUMN amount SET NOT NULL,
+    ALTER COLUMN submitted_date SET NOT NULL,
+    ALTER COLUMN sla_deadline SET NOT NULL;
+
+-- Queue reload reads only the rows still under review
+CREATE INDEX IF NOT EXISTS idx_workflow_instances_queue
+    ON workflow_instances(sla_deadline, amount DESC, submitted_date, quotation_id)
+    WHERE state IN (0, 1);
+
+-- The incremental queue reconcile reads rows modified since its last pass; claim and release
+-- UPDATEs stamp last_modified_date like transitions do
+CREATE INDEX IF NOT EXISTS idx_workflow_instances_modified ON workflow_instances(last_modified_date);
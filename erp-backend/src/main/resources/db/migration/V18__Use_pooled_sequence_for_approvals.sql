@@ -0,0 +1,5 @@
+-- V18__Use_pooled_sequence_for_approvals.sql
+-- Bulk approvals insert approval records in JDBC batches; ids come in blocks of 50 like V12
+-- (must match @PooledSequence on Approval)
+
+ALTER SEQUENCE approvals_id_seq INCREMENT BY 50;
@@ -0,0 +1,11 @@
+-- V19__Add_workflow_escalation.sql
+-- When the approval SLA breach of a workflow instance was escalated; reset on resubmission.
+-- Instances already past their deadline are escalated once on the first start after this release.
+
+ALTER TABLE workflow_instances
+    ADD COLUMN IF NOT EXISTS escalated_at TIMESTAMP;
+
+-- Every node polls for due, unescalated deadlines as a fallback to its in-memory schedule
+CREATE INDEX IF NOT EXISTS idx_workflow_instances_sla_due
+    ON workflow_instances(sla_deadline)
+    WHERE escalated_at IS NULL AND state IN (0, 1);
@@ -0,0 +1,50 @@
+-- V20__Create_approval_history.sql
+-- Append-only approval workflow event log, range-partitioned by month of occurred_at.
+-- Only ids, small codes and a timestamp per row. The comment is not copied: approval_id references
+-- the approvals row holding it, which the approver's later decisions on the quotation overwrite.
+-- No foreign keys: ApprovalHistoryService buffers committed transitions and inserts them in
+-- batches a few seconds later, outside the deciding transaction; rows are never updated.
+
+CREATE TABLE IF NOT EXISTS approval_history (
+    id BIGSERIAL,
+    quotation_id BIGINT NOT NULL,
+    actor_id BIGINT, -- user who submitted or decided
+    event SMALLINT NOT NULL, -- WorkflowEvent code: 0 APPROVE, 1 REJECT, 2 REQUEST_CHANGES, 3 SUBMIT
+    from_state SMALLINT, -- WorkflowState code; NULL when the workflow starts
+    to_state SMALLINT NOT NULL,
+    approval_id BIGINT, -- comment reference: the approver's approvals row; NULL for SUBMIT
+    occurred_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (id, occurred_at),
+    CHECK (event BETWEEN 0 AND 3),
+    CHECK (to_state BETWEEN 0 AND 3)
+    ) PARTITION BY RANGE (occurred_at);
+
+-- Ids are handed out in blocks of 50 for batched inserts (must match @PooledSequence on ApprovalHistory)
+ALTER SEQUENCE approval_history_id_seq INCREMENT BY 50;
+
+-- Created on each partition; history of one quotation is an index range scan per month
+CREATE INDEX IF NOT EXISTS idx_approval_history_quotation ON approval_history(quotation_id, occurred_at);
+
+-- Catches rows outside the monthly partitions so inserts never fail
+CREATE TABLE IF NOT EXISTS approval_history_default PARTITION OF approval_history DEFAULT;
+
+-- Creates the partition for the month starting at month_start if missing; true if created.
+-- Called by ApprovalHistoryService at startup and daily for the coming months.
+CREATE OR REPLACE FUNCTION create_approval_history_partition(month_start DATE) RETURNS BOOLEAN AS $$
+DECLARE
+    from_date DATE := date_trunc('month', month_start)::DATE;
+    partition_name TEXT := 'approval_history_' || to_char(from_date, 'YYYY_MM');
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+    EXECUTE format('CREATE TABLE %I PARTITION OF approval_history FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, from_date, (from_date + INTERVAL '1 month')::DATE);
+    RETURN TRUE;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT create_approval_history_partition((CURRENT_DATE + (n || ' month')::INTERVAL)::DATE)
+FROM generate_series(0, 3) AS n;
+
+COMMENT ON TABLE approval_history IS 'Append-only approval workflow transitions, partitioned by month';
@@ -0,0 +1,9 @@
+-- V21__Add_payment_batch_file_format.sql
+-- Bank file format chosen per payment batch: Excel workbook or fixed-width SARIE / SWIFT MT text.
+
+ALTER TABLE payment_batches
+    ADD COLUMN IF NOT EXISTS file_format VARCHAR(10) NOT NULL DEFAULT 'EXCEL';
+
+ALTER TABLE payment_batches
+    DROP CONSTRAINT IF EXISTS chk_payment_batches_file_format,
+    ADD CONSTRAINT chk_payment_batches_file_format CHECK (file_format IN ('EXCEL', 'SARIE', 'SWIFT'));
@@ -0,0 +1,24 @@
+-- V25__Create_report_jobs.sql
+-- Background report jobs: status survives restarts, and a job whose node stopped heartbeating is failed
+
+CREATE TABLE IF NOT EXISTS report_jobs (
+                                           id VARCHAR(36) PRIMARY KEY,
+                                           owner_id BIGINT NOT NULL REFERENCES users(id),
+    report_type VARCHAR(50) NOT NULL,
+    format VARCHAR(20) NOT NULL,
+    dedup_key VARCHAR(64) NOT NULL, -- SHA-256 of owner, format and canonical request
+    status VARCHAR(20) NOT NULL DEFAULT 'QUEUED',
+    file_name VARCHAR(100),
+    error_message VARCHAR(1000),
+    submitted_at TIMESTAMP NOT NULL,
+    started_at TIMESTAMP,
+    completed_at TIMESTAMP,
+    heartbeat_at TIMESTAMP NOT NULL,
+    CHECK (status IN ('QUEUED', 'RUNNING', 'COMPLETED', 'FAILED', 'CANCELLED'))
+    );
+
+CREATE INDEX IF NOT EXISTS idx_report_jobs_in_flight ON report_jobs(dedup_key) WHERE status IN ('QUEUED', 'RUNNING');
+CREATE INDEX IF NOT EXISTS idx_report_jobs_heartbeat ON report_jobs(heartbeat_at) WHERE status IN ('QUEUED', 'RUNNING');
+CREATE INDEX IF NOT EXISTS idx_report_jobs_completed ON report_jobs(completed_at) WHERE status IN ('COMPLETED', 'FAILED', 'CANCELLED');
+
+COMMENT ON TABLE report_jobs IS 'Financial report jobs; output files live under upload-dir/reports named by job id';
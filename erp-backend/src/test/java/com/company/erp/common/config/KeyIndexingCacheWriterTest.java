@@ -0,0 +1,72 @@
+package com.company.erp.common.config;
+
+import com.company.erp.common.constants.ApplicationConstants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class KeyIndexingCacheWriterTest {
+
+    private static final String DASHBOARD = ApplicationConstants.Cache.DASHBOARD_DATA;
+    private static final Duration TTL = Duration.ofMinutes(10);
+
+    private RedisCacheWriter delegate;
+    private List<String> indexed;
+    private KeyIndexingCacheWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(RedisCacheWriter.class);
+        indexed = new ArrayList<>();
+        writer = new KeyIndexingCacheWriter(delegate, Set.of(DASHBOARD), indexed::add);
+    }
+
+    @Test
+    void putIndexesTheCacheKeyWithoutItsPrefix() {
+        writer.put(DASHBOARD, bytes(DASHBOARD + "::global|k1"), bytes("value"), TTL);
+
+        assertThat(indexed).containsExactly("global|k1");
+    }
+
+    @Test
+    void hitsAreNotIndexed() {
+        when(delegate.get(DASHBOARD, bytes(DASHBOARD + "::global|k1"))).thenReturn(bytes("value"));
+
+        writer.get(DASHBOARD, bytes(DASHBOARD + "::global|k1"));
+
+        assertThat(indexed).isEmpty();
+    }
+
+    @Test
+    void putIfAbsentIndexesOnlyWhenItStored() {
+        when(delegate.putIfAbsent(any(), any(), any(), any())).thenReturn(bytes("existing"));
+        writer.putIfAbsent(DASHBOARD, bytes(DASHBOARD + "::global|k1"), bytes("value"), TTL);
+        assertThat(indexed).isEmpty();
+
+        when(delegate.putIfAbsent(any(), any(), any(), any())).thenReturn(null);
+        writer.putIfAbsent(DASHBOARD, bytes(DASHBOARD + "::global|k1"), bytes("value"), TTL);
+        assertThat(indexed).containsExactly("global|k1");
+    }
+
+    @Test
+    void otherCachesAreNotIndexed() {
+        writer.put("user-profiles", bytes("user-profiles::7"), bytes("value"), TTL);
+
+        assertThat(indexed).isEmpty();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
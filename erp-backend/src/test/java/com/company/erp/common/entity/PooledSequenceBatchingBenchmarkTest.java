@@ -0,0 +1,84 @@
+package com.company.erp.common.entity;
+
+import com.company.erp.common.repository.AuditLogRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Inserting audit rows through the pooled sequence (JDBC-batched, one nextval per 50 ids) against
+ * the previous IDENTITY behaviour, one INSERT ... RETURNING round trip per row.
+ *
+ * Needs the PostgreSQL database of the active profile; run with
+ * {@code mvn test -Dbenchmark=true -Dtest=PooledSequenceBatchingBenchmarkTest}.
+ */
+@SpringBootTest
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class PooledSequenceBatchingBenchmarkTest {
+
+    private static final int ROWS = 10_000;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void pooledSequenceBatchesInserts() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        long identityStart = System.nanoTime();
+        tx.executeWithoutResult(status -> {
+            for (int i = 0; i < ROWS; i++) {
+                jdbcTemplate.queryForObject("INSERT INTO audit_logs (action_type, entity_type, entity_id, description, " +
+                        "created_date) VALUES ('CREATE', 'BENCHMARK', ?, 'identity', CURRENT_TIMESTAMP) RETURNING id",
+                        Long.class, (long) i);
+            }
+        });
+        double identityRate = ROWS / ((System.nanoTime() - identityStart) / 1e9);
+
+        statistics.clear();
+        long pooledStart = System.nanoTime();
+        tx.executeWithoutResult(status -> {
+            List<AuditLog> rows = new ArrayList<>(ROWS);
+            for (int i = 0; i < ROWS; i++) {
+                rows.add(new AuditLog(null, "CREATE", "BENCHMARK", (long) i, "pooled"));
+            }
+            auditLogRepository.saveAll(rows);
+        });
+        double pooledRate = ROWS / ((System.nanoTime() - pooledStart) / 1e9);
+        long statements = statistics.getPrepareStatementCount();
+
+        System.out.printf("Audit inserts, %d rows: pooled+batched %.0f rows/s (%d statements), " +
+                        "identity %.0f rows/s (%d statements), %.1fx%n",
+                ROWS, pooledRate, statements, identityRate, ROWS, pooledRate / identityRate);
+
+        // One nextval per 50 ids plus one statement per JDBC batch, instead of one per row
+        assertThat(statements).isLessThan(ROWS / 10);
+
+        jdbcTemplate.update("DELETE FROM audit_logs WHERE entity_type = 'BENCHMARK'");
+    }
+}
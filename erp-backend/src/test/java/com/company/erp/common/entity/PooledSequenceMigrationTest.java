@@ -0,0 +1,65 @@
+package com.company.erp.common.entity;
+
+import com.company.erp.common.annotation.PooledSequence;
+import jakarta.persistence.Table;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The increment of every pooled sequence must be set by a migration that fails when the
+ * sequence is missing, and must match the entity's allocation size.
+ */
+class PooledSequenceMigrationTest {
+
+    private static String migrations;
+    private static List<Class<?>> pooledEntities;
+
+    @BeforeAll
+    static void load() throws IOException, ClassNotFoundException {
+        StringBuilder sql = new StringBuilder();
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources("classpath:db/migration/*.sql")) {
+            sql.append(new String(resource.getInputStream().readAllBytes(), StandardCharsets.UTF_8)).append('\n');
+        }
+        migrations = sql.toString();
+
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(PooledSequence.class));
+        pooledEntities = new ArrayList<>();
+        Set<BeanDefinition> candidates = scanner.findCandidateComponents("com.company.erp");
+        for (BeanDefinition candidate : candidates) {
+            pooledEntities.add(Class.forName(candidate.getBeanClassName()));
+        }
+    }
+
+    @Test
+    void everyPooledSequenceIncrementMatchesItsEntity() {
+        assertThat(pooledEntities).isNotEmpty();
+
+        for (Class<?> entity : pooledEntities) {
+            String table = entity.getAnnotation(Table.class).name();
+            int allocationSize = entity.getAnnotation(PooledSequence.class).allocationSize();
+
+            assertThat(migrations)
+                    .as("increment for %s", entity.getSimpleName())
+                    .contains("ALTER SEQUENCE " + table + "_id_seq INCREMENT BY " + allocationSize + ";");
+        }
+    }
+
+    @Test
+    void sequenceChangesNeverSkipMissingSequences() {
+        assertThat(migrations).doesNotContain("ALTER SEQUENCE IF EXISTS");
+    }
+}
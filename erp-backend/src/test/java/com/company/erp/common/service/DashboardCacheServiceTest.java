@@ -0,0 +1,109 @@
+package com.company.erp.common.service;
+
+import com.company.erp.common.constants.ApplicationConstants;
+import com.company.erp.common.event.DashboardDataChangedEvent;
+import com.company.erp.project.repository.ProjectRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DashboardCacheServiceTest {
+
+    private static final String GLOBAL_INDEX = "erp:cache-keys:global";
+    private static final String MANAGER_INDEX = "erp:cache-keys:user:5";
+    private static final String CREATOR_INDEX = "erp:cache-keys:user:9";
+    private static final String OTHER_MANAGER_INDEX = "erp:cache-keys:user:6";
+
+    private Cache dashboardCache;
+    private Cache summaryCache;
+    private SetOperations<String, String> setOperations;
+    private ProjectRepository projectRepository;
+    private DashboardCacheService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        dashboardCache = mock(Cache.class);
+        summaryCache = mock(Cache.class);
+        CacheManager cacheManager = mock(CacheManager.class);
+        when(cacheManager.getCache(ApplicationConstants.Cache.DASHBOARD_DATA)).thenReturn(dashboardCache);
+        when(cacheManager.getCache(ApplicationConstants.Cache.PROJECT_SUMMARIES)).thenReturn(summaryCache);
+
+        setOperations = mock(SetOperations.class);
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+
+        projectRepository = mock(ProjectRepository.class);
+        service = new DashboardCacheService(cacheManager, redisTemplate, projectRepository, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void quotationChangeEvictsGlobalManagerAndCreatorKeysOnly() {
+        when(projectRepository.findManagerIdById(3L)).thenReturn(Optional.of(5L));
+        indexed(GLOBAL_INDEX, "FinancialReportService.getFinancialDashboard:ROLE_ADMIN:1:[null, null, 1]");
+        indexed(MANAGER_INDEX, "FinancialReportService.getProjectManagerDashboard:ROLE_PM:5:[null, null, 5]");
+        indexed(CREATOR_INDEX, "DashboardService.getUserDashboard:ROLE_PM:9:[9]");
+
+        service.onDashboardDataChanged(new DashboardDataChangedEvent(
+                DashboardDataChangedEvent.Source.QUOTATION, 3L, 9L, "SUBMITTED"));
+
+        verify(dashboardCache).evict("FinancialReportService.getFinancialDashboard:ROLE_ADMIN:1:[null, null, 1]");
+        verify(dashboardCache).evict("FinancialReportService.getProjectManagerDashboard:ROLE_PM:5:[null, null, 5]");
+        verify(dashboardCache).evict("DashboardService.getUserDashboard:ROLE_PM:9:[9]");
+        verify(summaryCache).evict("FinancialReportService.getFinancialDashboard:ROLE_ADMIN:1:[null, null, 1]");
+        verify(setOperations, never()).size(OTHER_MANAGER_INDEX);
+        verify(dashboardCache, never()).clear();
+        verify(summaryCache, never()).clear();
+    }
+
+    @Test
+    void paymentChangeLeavesTheSummariesAlone() {
+        indexed(GLOBAL_INDEX, "DashboardService.getMainDashboard:ROLE_ADMIN:1:[1]");
+
+        service.onDashboardDataChanged(new DashboardDataChangedEvent(
+                DashboardDataChangedEvent.Source.PAYMENT, null, "PAID"));
+
+        verify(dashboardCache).evict("DashboardService.getMainDashboard:ROLE_ADMIN:1:[1]");
+        verify(summaryCache, never()).evict(anyString());
+        verify(projectRepository, never()).findManagerIdById(anyLong());
+    }
+
+    @Test
+    void nothingIndexedEvictsNothing() {
+        service.onDashboardDataChanged(new DashboardDataChangedEvent(
+                DashboardDataChangedEvent.Source.BUDGET_TRACKING, null, "CREATED"));
+
+        verify(dashboardCache, never()).evict(anyString());
+        verify(summaryCache, never()).evict(anyString());
+    }
+
+    @Test
+    void storedKeyIsIndexedUnderItsScope() {
+        String key = DashboardCacheService.scopedKey(DashboardCacheService.userScope(5L), "k1");
+
+        service.registerKey(key);
+
+        assertThat(key).isEqualTo("user:5|k1");
+        verify(setOperations).add(MANAGER_INDEX, "user:5|k1");
+    }
+
+    private void indexed(String index, String key) {
+        when(setOperations.size(index)).thenReturn(1L);
+        when(setOperations.pop(index, 1L)).thenReturn(List.of(key));
+    }
+}
@@ -0,0 +1,74 @@
+package com.company.erp.common.service;
+
+import com.company.erp.common.service.PageCountService.CountMode;
+import com.company.erp.common.service.PageCountService.CountQuery;
+import com.company.erp.financial.entity.Quotation;
+import com.company.erp.financial.entity.QuotationStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PageCountServiceTest {
+
+    private EntityManager entityManager;
+    private PageCountService pageCountService;
+
+    @BeforeEach
+    void setUp() {
+        entityManager = mock(EntityManager.class);
+        pageCountService = new PageCountService();
+        ReflectionTestUtils.setField(pageCountService, "entityManager", entityManager);
+        ReflectionTestUtils.setField(pageCountService, "countCacheSeconds", 30L);
+    }
+
+    @Test
+    void jpqlAndEstimateSqlComeFromTheSameFilters() {
+        CountQuery<Quotation> query = CountQuery.of(Quotation.class, "quotations")
+                .fetch("project")
+                .equal("active", "active", true)
+                .equal("creator.id", "created_by", null)
+                .equal("status", "status", QuotationStatus.SUBMITTED)
+                .contains("description", "description", "steel");
+
+        assertThat(query.selectJpql()).isEqualTo("SELECT e FROM Quotation e LEFT JOIN FETCH e.project "
+                + "WHERE e.active = :p0 AND e.status = :p1 AND LOWER(e.description) LIKE LOWER(:p2)");
+        assertThat(query.countJpql()).isEqualTo("SELECT COUNT(e) FROM Quotation e "
+                + "WHERE e.active = :p0 AND e.status = :p1 AND LOWER(e.description) LIKE LOWER(:p2)");
+        assertThat(query.estimateSql()).isEqualTo("SELECT 1 FROM quotations "
+                + "WHERE active = ? AND status = ? AND LOWER(description) LIKE LOWER(?)");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void noneModeReadsOneExtraRowInsteadOfCounting() {
+        TypedQuery<Quotation> rows = mock(TypedQuery.class);
+        when(entityManager.createQuery(anyString(), eq(Quotation.class))).thenReturn(rows);
+        when(rows.setParameter(anyString(), org.mockito.ArgumentMatchers.any())).thenReturn(rows);
+        when(rows.setFirstResult(anyInt())).thenReturn(rows);
+        when(rows.setMaxResults(anyInt())).thenReturn(rows);
+        when(rows.getResultList()).thenReturn(Arrays.asList(new Quotation(), new Quotation(), new Quotation()));
+
+        Page<Quotation> page = pageCountService.page(CountMode.NONE, PageRequest.of(1, 2),
+                CountQuery.of(Quotation.class, "quotations").equal("active", "active", true));
+
+        assertThat(page.getContent()).hasSize(2);
+        assertThat(page.getTotalElements()).isEqualTo(5L);
+        verify(rows).setMaxResults(3);
+        verify(entityManager, never()).createQuery(anyString(), eq(Long.class));
+    }
+}
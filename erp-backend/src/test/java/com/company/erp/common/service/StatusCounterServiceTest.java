@@ -0,0 +1,174 @@
+package com.company.erp.common.service;
+
+import com.company.erp.common.service.StatusCounterService.Changes;
+import com.company.erp.common.service.StatusCounterService.Tally;
+import com.company.erp.financial.entity.QuotationStatus;
+import com.company.erp.financial.repository.QuotationRepository;
+import com.company.erp.payment.repository.PaymentRepository;
+import com.company.erp.workflow.repository.ApprovalRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.listener.Topic;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StatusCounterServiceTest {
+
+    private QuotationRepository quotationRepository;
+    private PaymentRepository paymentRepository;
+    private ApprovalRepository approvalRepository;
+    private List<Object[]> quotationRows;
+
+    @BeforeEach
+    void setUp() {
+        quotationRepository = mock(QuotationRepository.class);
+        paymentRepository = mock(PaymentRepository.class);
+        approvalRepository = mock(ApprovalRepository.class);
+        quotationRows = new ArrayList<>();
+        quotationRows.add(new Object[]{7L, QuotationStatus.SUBMITTED, 3L, new BigDecimal("150.00")});
+        quotationRows.add(new Object[]{8L, QuotationStatus.APPROVED, 2L, new BigDecimal("40.00")});
+        when(quotationRepository.countAndSumByCreatorAndStatus()).thenAnswer(invocation -> new ArrayList<>(quotationRows));
+        when(paymentRepository.countAndSumByStatus()).thenReturn(List.of());
+        when(approvalRepository.countByApproverAndStatus()).thenReturn(List.of());
+    }
+
+    @Test
+    void countersAreLoadedOnFirstUse() {
+        Node node = new Node();
+
+        StatusCounterService.StatusCounters<QuotationStatus> counters = node.service.quotations();
+
+        assertThat(counters.count(QuotationStatus.SUBMITTED)).isEqualTo(3L);
+        assertThat(counters.amount(QuotationStatus.SUBMITTED)).isEqualByComparingTo("150.00");
+        assertThat(counters.total()).isEqualTo(5L);
+        assertThat(node.service.quotationsCreatedBy(8L).count(QuotationStatus.APPROVED)).isEqualTo(2L);
+    }
+
+    @Test
+    void committedChangesMoveTheCountersWithoutAnyQuery() {
+        Node node = new Node();
+        node.service.quotations();
+
+        node.service.apply(submittedToApproved(7L, "10.00"));
+
+        assertThat(node.service.quotations().count(QuotationStatus.SUBMITTED)).isEqualTo(2L);
+        assertThat(node.service.quotations().count(QuotationStatus.APPROVED)).isEqualTo(3L);
+        assertThat(node.service.quotations().amount(QuotationStatus.APPROVED)).isEqualByComparingTo("50.00");
+        assertThat(node.service.quotationsCreatedBy(7L).count(QuotationStatus.APPROVED)).isEqualTo(1L);
+        verify(quotationRepository).countAndSumByCreatorAndStatus(); // Only the first load
+    }
+
+    @Test
+    void changesArePublishedToOtherNodesAndIgnoredByTheirSender() {
+        Node sender = new Node();
+        Node receiver = new Node();
+        sender.service.quotations();
+        receiver.service.quotations();
+
+        sender.service.apply(submittedToApproved(7L, "10.00"));
+        String published = sender.published();
+        sender.deliver(published);
+        receiver.deliver(published);
+
+        assertThat(sender.service.quotations().count(QuotationStatus.APPROVED)).isEqualTo(3L);
+        assertThat(receiver.service.quotations().count(QuotationStatus.APPROVED)).isEqualTo(3L);
+        assertThat(receiver.service.quotationsCreatedBy(7L).count(QuotationStatus.SUBMITTED)).isEqualTo(2L);
+    }
+
+    @Test
+    void reconcileCorrectsDriftAsADelta() {
+        Node node = new Node();
+        node.service.quotations();
+
+        // A bulk JPQL update approved one more quotation without going through the listener
+        quotationRows.set(1, new Object[]{8L, QuotationStatus.APPROVED, 3L, new BigDecimal("60.00")});
+        node.service.reconcile();
+
+        assertThat(node.service.quotations().count(QuotationStatus.APPROVED)).isEqualTo(3L);
+        assertThat(node.service.quotations().amount(QuotationStatus.APPROVED)).isEqualByComparingTo("60.00");
+    }
+
+    @Test
+    void counterMovedDuringTheScanIsLeftToTheNextPass() {
+        Node node = new Node();
+        node.service.quotations();
+
+        // The scan sees the old rows while a commit moves the counters
+        when(quotationRepository.countAndSumByCreatorAndStatus()).thenAnswer(invocation -> {
+            List<Object[]> rows = new ArrayList<>(quotationRows);
+            node.service.apply(submittedToApproved(7L, "10.00"));
+            return rows;
+        });
+        node.service.reconcile();
+
+        assertThat(node.service.quotations().count(QuotationStatus.SUBMITTED)).isEqualTo(2L);
+        assertThat(node.service.quotations().count(QuotationStatus.APPROVED)).isEqualTo(3L);
+    }
+
+    @Test
+    void changesThatCancelOutPublishNothing() {
+        Node node = new Node();
+
+        Changes changes = new Changes();
+        Tally<QuotationStatus> draft = Tally.of(7L, QuotationStatus.DRAFT, new BigDecimal("10.00"));
+        changes.quotationChanged(null, draft);
+        changes.quotationChanged(draft, null);
+        node.service.apply(changes);
+
+        verify(node.redisTemplate, never()).convertAndSend(anyString(), anyString());
+    }
+
+    private static Changes submittedToApproved(Long creatorId, String amount) {
+        Changes changes = new Changes();
+        changes.quotationChanged(Tally.of(creatorId, QuotationStatus.SUBMITTED, new BigDecimal(amount)),
+                Tally.of(creatorId, QuotationStatus.APPROVED, new BigDecimal(amount)));
+        return changes;
+    }
+
+    /**
+     * One application node: its own service, Redis template and subscription.
+     */
+    private final class Node {
+        private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        private final MessageListener listener;
+        private final StatusCounterService service;
+
+        private Node() {
+            RedisMessageListenerContainer container = mock(RedisMessageListenerContainer.class);
+            service = new StatusCounterService(quotationRepository, paymentRepository, approvalRepository,
+                    redisTemplate, container, mock(TaskScheduler.class));
+            ArgumentCaptor<MessageListener> captor = ArgumentCaptor.forClass(MessageListener.class);
+            verify(container).addMessageListener(captor.capture(), any(Topic.class));
+            listener = captor.getValue();
+        }
+
+        private String published() {
+            ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+            verify(redisTemplate).convertAndSend(eq(StatusCounterService.CHANGES_CHANNEL), message.capture());
+            return message.getValue();
+        }
+
+        private void deliver(String message) {
+            listener.onMessage(new DefaultMessage(StatusCounterService.CHANGES_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                    message.getBytes(StandardCharsets.UTF_8)), null);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.company.erp.common.service;
+
+import com.company.erp.report.enums.ExportFormat;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StreamingExportServiceTest {
+
+    private final StreamingExportService service = new StreamingExportService(100);
+
+    @Test
+    void textStartingWithAFormulaTriggerIsWrittenAsText() throws IOException {
+        String csv = csvOf("=HYPERLINK(\"http://x\")", "+1", "-2", "@SUM(A1)", "\tcmd", "\rcmd");
+
+        assertThat(csv).isEqualTo("Value\r\n"
+                + "\"'=HYPERLINK(\"\"http://x\"\")\"\r\n"
+                + "'+1\r\n"
+                + "'-2\r\n"
+                + "'@SUM(A1)\r\n"
+                + "'\tcmd\r\n"
+                + "\"'\rcmd\"\r\n");
+    }
+
+    @Test
+    void numbersAndPlainTextAreUnchanged() throws IOException {
+        String csv = csvOf(new BigDecimal("-5.00"), -3L, "Project A", "");
+
+        assertThat(csv).isEqualTo("Value\r\n-5.00\r\n-3\r\nProject A\r\n\r\n");
+    }
+
+    private String csvOf(Object... values) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.write(ExportFormat.CSV, out, "Sheet", List.of("Value"), Stream.of(values),
+                (Function<Object, Object[]>) value -> new Object[]{value});
+        String csv = out.toString(StandardCharsets.UTF_8);
+        return csv.substring(1); // BOM
+    }
+}
@@ -0,0 +1,138 @@
+package com.company.erp.common.service;
+
+import com.company.erp.common.exception.BusinessException;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StreamingImportServiceTest {
+
+    private final StreamingImportService service = new StreamingImportService(20, 4);
+
+    @Test
+    void quotedCsvFieldsKeepCommasQuotesAndLineBreaks() throws IOException {
+        List<List<String>> rows = readCsv("ref,description\r\n"
+                + "Q-1,\"Cement, grade 42\"\r\n"
+                + "Q-2,\"The \"\"best\"\" bricks\"\r\n"
+                + "Q-3,\"line one\nline two\"\n"
+                + "Q-4,\"\"\r\n");
+
+        assertThat(rows).containsExactly(
+                List.of("ref", "description"),
+                List.of("Q-1", "Cement, grade 42"),
+                List.of("Q-2", "The \"best\" bricks"),
+                List.of("Q-3", "line one\nline two"),
+                List.of("Q-4", ""));
+    }
+
+    @Test
+    void csvRowNumbersCountPhysicalRowsAndSkipBlankLines() throws IOException {
+        List<Long> rowNumbers = new ArrayList<>();
+        service.read(csv("\uFEFFref\r\n\r\nQ-1\r\nQ-2"), (rowNumber, cells) -> rowNumbers.add(rowNumber));
+
+        assertThat(rowNumbers).containsExactly(1L, 3L, 4L);
+    }
+
+    @Test
+    void unterminatedQuoteFailsTheFile() {
+        assertThatThrownBy(() -> readCsv("ref\r\n\"Q-1\r\n"))
+                .isInstanceOf(BusinessException.class)
+                .hasFieldOrPropertyWithValue("errorCode", "INVALID_IMPORT_FILE");
+    }
+
+    @Test
+    void csvCellAndRowLimitsFailTheFile() {
+        assertThatThrownBy(() -> readCsv("ref\r\n\"" + "x".repeat(21) + "\"\r\n"))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("row 2");
+        assertThatThrownBy(() -> readCsv("a,b,c,d,e\r\n"))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("more than 4 columns");
+    }
+
+    @Test
+    void sharedStringCellsAreRead() throws IOException {
+        List<List<String>> rows = readExcel(new XSSFWorkbook());
+
+        assertThat(rows).containsExactly(
+                List.of("ref", "amount"),
+                List.of("Q-1", "1250.5"),
+                List.of("", "7"));
+    }
+
+    @Test
+    void inlineStringCellsAreRead() throws IOException {
+        // SXSSF writes inline strings unless told to use the shared strings table
+        List<List<String>> rows = readExcel(new SXSSFWorkbook());
+
+        assertThat(rows).containsExactly(
+                List.of("ref", "amount"),
+                List.of("Q-1", "1250.5"),
+                List.of("", "7"));
+    }
+
+    @Test
+    void excelCellAndRowLimitsFailTheFile() throws IOException {
+        Workbook longCell = new XSSFWorkbook();
+        longCell.createSheet().createRow(0).createCell(0).setCellValue("x".repeat(21));
+        assertThatThrownBy(() -> service.read(xlsx(longCell), (rowNumber, cells) -> { }))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("row 1");
+
+        Workbook wideRow = new SXSSFWorkbook();
+        wideRow.createSheet().createRow(0).createCell(4).setCellValue("e");
+        assertThatThrownBy(() -> service.read(xlsx(wideRow), (rowNumber, cells) -> { }))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("more than 4 columns");
+    }
+
+    private List<List<String>> readCsv(String content) throws IOException {
+        List<List<String>> rows = new ArrayList<>();
+        service.read(csv(content), (rowNumber, cells) -> rows.add(cells));
+        return rows;
+    }
+
+    private List<List<String>> readExcel(Workbook workbook) throws IOException {
+        Sheet sheet = workbook.createSheet("Import");
+        Row header = sheet.createRow(0);
+        header.createCell(0).setCellValue("ref");
+        header.createCell(1).setCellValue("amount");
+        Row first = sheet.createRow(1);
+        first.createCell(0).setCellValue("Q-1");
+        first.createCell(1).setCellValue(1250.5);
+        sheet.createRow(2).createCell(1).setCellValue(7); // Missing first cell
+
+        List<List<String>> rows = new ArrayList<>();
+        service.read(xlsx(workbook), (rowNumber, cells) -> rows.add(cells));
+        return rows;
+    }
+
+    private static MockMultipartFile csv(String content) {
+        return new MockMultipartFile("file", "import.csv", "text/csv", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static MockMultipartFile xlsx(Workbook workbook) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (workbook) {
+            workbook.write(out);
+        }
+        if (workbook instanceof SXSSFWorkbook streaming) {
+            streaming.dispose();
+        }
+        return new MockMultipartFile("file", "import.xlsx",
+                "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", out.toByteArray());
+    }
+}
@@ -0,0 +1,41 @@
+package com.company.erp.common.util;
+
+import com.company.erp.common.exception.BusinessException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTest {
+
+    @Test
+    void encodedCursorDecodesToTheSamePosition() {
+        LocalDateTime sortKey = LocalDateTime.of(2024, 5, 1, 10, 15, 30, 123_000_000);
+
+        KeysetCursor decoded = KeysetCursor.decode(KeysetCursor.of(sortKey, 42L).encode());
+
+        assertThat(decoded.getSortKey()).isEqualTo(sortKey);
+        assertThat(decoded.getId()).isEqualTo(42L);
+    }
+
+    @Test
+    void blankTokenMeansFirstPage() {
+        assertThat(KeysetCursor.decode(null)).isNull();
+        assertThat(KeysetCursor.decode(" ")).isNull();
+    }
+
+    @Test
+    void malformedTokenIsRejected() {
+        assertThatThrownBy(() -> KeysetCursor.decode("not-a-cursor"))
+                .isInstanceOf(BusinessException.class)
+                .hasFieldOrPropertyWithValue("errorCode", "INVALID_CURSOR");
+    }
+
+    @Test
+    void cursorWithoutSortKeyCannotBeCreated() {
+        assertThatThrownBy(() -> KeysetCursor.of(null, 1L))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,107 @@
+package com.company.erp.common.util;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH: per-project utilization plus portfolio totals and overall variance, as computed by the
+ * report services.
+ *
+ * bigDecimal is the previous code (divide with scale and {@code new BigDecimal("100")} per
+ * project, BigDecimal sums); minorUnits is the Money path over primitive columns. The GC
+ * profiler reports the allocation rate (gc.alloc.rate.norm) next to throughput. Run with
+ * {@code mvn test -Dbenchmark=true -Dtest=MoneyBenchmarkTest}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class MoneyBenchmarkTest {
+
+    @Param({"10000"})
+    public int projects;
+
+    private BigDecimal[] allocatedAmounts;
+    private BigDecimal[] spentAmounts;
+    private long[] allocatedMinor;
+    private long[] spentMinor;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        allocatedAmounts = new BigDecimal[projects];
+        spentAmounts = new BigDecimal[projects];
+        allocatedMinor = new long[projects];
+        spentMinor = new long[projects];
+
+        for (int i = 0; i < projects; i++) {
+            long allocated = 100_000 + random.nextInt(100_000_000);
+            long spent = (long) (allocated * random.nextDouble() * 1.2);
+            allocatedAmounts[i] = BigDecimal.valueOf(allocated, 2);
+            spentAmounts[i] = BigDecimal.valueOf(spent, 2);
+            allocatedMinor[i] = allocated;
+            spentMinor[i] = spent;
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimal(Blackhole blackhole) {
+        BigDecimal totalAllocated = BigDecimal.ZERO;
+        BigDecimal totalSpent = BigDecimal.ZERO;
+        for (int i = 0; i < projects; i++) {
+            BigDecimal utilization = spentAmounts[i].divide(allocatedAmounts[i], 4, RoundingMode.HALF_UP)
+                    .multiply(new BigDecimal("100"));
+            blackhole.consume(utilization);
+            totalAllocated = totalAllocated.add(allocatedAmounts[i]);
+            totalSpent = totalSpent.add(spentAmounts[i]);
+        }
+        return totalSpent.subtract(totalAllocated).divide(totalAllocated, 4, RoundingMode.HALF_UP)
+                .multiply(new BigDecimal("100"));
+    }
+
+    @Benchmark
+    public BigDecimal minorUnits(Blackhole blackhole) {
+        long totalAllocated = 0;
+        long totalSpent = 0;
+        for (int i = 0; i < projects; i++) {
+            blackhole.consume(Money.percentage(spentMinor[i], allocatedMinor[i]));
+            totalAllocated = Math.addExact(totalAllocated, allocatedMinor[i]);
+            totalSpent = Math.addExact(totalSpent, spentMinor[i]);
+        }
+        return Money.percentage(totalSpent - totalAllocated, totalAllocated);
+    }
+
+    @Test
+    void runBenchmarks() throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MoneyBenchmarkTest.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
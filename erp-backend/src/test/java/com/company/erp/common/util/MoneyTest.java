@@ -0,0 +1,65 @@
+package com.company.erp.common.util;
+
+import com.company.erp.common.exception.BusinessException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    @Test
+    void amountsAreRoundedHalfUpToMinorUnits() {
+        assertThat(Money.toMinorUnits(new BigDecimal("10.005"))).isEqualTo(1001L);
+        assertThat(Money.toMinorUnits(new BigDecimal("-10.005"))).isEqualTo(-1001L);
+        assertThat(Money.toMinorUnits(null)).isEqualTo(0L);
+        assertThat(Money.fromMinorUnits(1001L)).isEqualTo(new BigDecimal("10.01"));
+    }
+
+    @Test
+    void percentageMatchesBigDecimalDivision() {
+        long[][] cases = {{1, 3}, {2, 3}, {5, 8}, {12345, 67890}, {-1, 3}, {99999, 100000}, {100, 100}, {250, 100}};
+        for (long[] c : cases) {
+            BigDecimal expected = BigDecimal.valueOf(c[0]).multiply(BigDecimal.valueOf(100))
+                    .divide(BigDecimal.valueOf(c[1]), 2, RoundingMode.HALF_UP);
+            assertThat(Money.percentage(c[0], c[1])).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void percentageOfNonPositiveWholeIsZero() {
+        assertThat(Money.percentage(100, 0)).isEqualByComparingTo("0");
+        assertThat(Money.percentage(100, -5)).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void percentageFallsBackToBigDecimalBeyondTheFastPath() {
+        long part = Long.MAX_VALUE / 2;
+        BigDecimal expected = BigDecimal.valueOf(part).multiply(BigDecimal.valueOf(100))
+                .divide(BigDecimal.valueOf(Long.MAX_VALUE), 2, RoundingMode.HALF_UP);
+
+        assertThat(Money.percentage(part, Long.MAX_VALUE)).isEqualTo(expected);
+    }
+
+    @Test
+    void divisionRoundsHalfUp() {
+        assertThat(Money.ofMinor(5).dividedBy(2).getMinorUnits()).isEqualTo(3L);
+        assertThat(Money.ofMinor(-5).dividedBy(2).getMinorUnits()).isEqualTo(-3L);
+        assertThat(Money.ofMinor(10).dividedBy(3).getMinorUnits()).isEqualTo(3L);
+    }
+
+    @Test
+    void overflowThrowsInsteadOfWrapping() {
+        assertThatThrownBy(() -> Money.ofMinor(Long.MAX_VALUE).plus(Money.ofMinor(1)))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void mixingCurrenciesIsRejected() {
+        assertThatThrownBy(() -> Money.ofMinor(100, "SAR").plus(Money.ofMinor(100, "USD")))
+                .isInstanceOf(BusinessException.class);
+    }
+}
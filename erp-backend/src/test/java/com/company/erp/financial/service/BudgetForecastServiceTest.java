@@ -0,0 +1,143 @@
+package com.company.erp.financial.service;
+
+import com.company.erp.financial.entity.BudgetRollupPeriod;
+import com.company.erp.project.entity.ProjectStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BudgetForecastServiceTest {
+
+    private BudgetRollupService budgetRollupService;
+    private ProjectFinanceSnapshotService projectFinanceSnapshotService;
+    private BudgetForecastService service;
+
+    @BeforeEach
+    void setUp() {
+        budgetRollupService = mock(BudgetRollupService.class);
+        projectFinanceSnapshotService = mock(ProjectFinanceSnapshotService.class);
+        service = new BudgetForecastService(budgetRollupService, projectFinanceSnapshotService, 12, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void emptyHistoryForecastsNothing() {
+        BudgetForecastService.ProjectForecast forecast = BudgetForecastService.fit(new double[6], 3);
+
+        assertThat(forecast.observations).isZero();
+        assertThat(forecast.linear.projectedSpend).isZero();
+        assertThat(forecast.exponential.projectedSpend).isZero();
+    }
+
+    @Test
+    void singleObservationProjectsItFlat() {
+        double[] series = {0, 0, 0, 0, 0, 120};
+
+        BudgetForecastService.ModelFit linear = BudgetForecastService.fitLinear(series, 5, 3);
+        BudgetForecastService.ModelFit exponential = BudgetForecastService.fitExponential(series, 5, 3);
+
+        assertThat(linear.projectedSpend).isCloseTo(360, within(1e-9));
+        assertThat(linear.rmse).isZero();
+        assertThat(exponential.projectedSpend).isCloseTo(360, within(1e-9));
+        assertThat(exponential.nextMonth).isCloseTo(120, within(1e-9));
+    }
+
+    @Test
+    void noObservationsAreHandledByEachModel() {
+        double[] series = {0, 0, 0};
+
+        assertThat(BudgetForecastService.fitLinear(series, 3, 2).projectedSpend).isZero();
+        assertThat(BudgetForecastService.fitExponential(series, 3, 2).projectedSpend).isZero();
+    }
+
+    @Test
+    void constantSeriesHasZeroSlopeAndNoError() {
+        double[] series = {50, 50, 50, 50};
+
+        BudgetForecastService.ModelFit linear = BudgetForecastService.fitLinear(series, 0, 2);
+        BudgetForecastService.ModelFit exponential = BudgetForecastService.fitExponential(series, 0, 2);
+
+        assertThat(linear.projectedSpend).isCloseTo(100, within(1e-9));
+        assertThat(linear.rmse).isCloseTo(0, within(1e-9));
+        assertThat(exponential.projectedSpend).isCloseTo(100, within(1e-9));
+        assertThat(exponential.rmse).isCloseTo(0, within(1e-9));
+    }
+
+    @Test
+    void linearTrendIsRecovered() {
+        double[] series = {10, 20, 30, 40};
+
+        BudgetForecastService.ModelFit linear = BudgetForecastService.fitLinear(series, 0, 2);
+
+        assertThat(linear.nextMonth).isCloseTo(50, within(1e-9));
+        assertThat(linear.projectedSpend).isCloseTo(50 + 60, within(1e-9));
+    }
+
+    @Test
+    void declineToZeroOrBelowNeverProjectsNegativeSpend() {
+        double[] series = {90, 60, 30, 0, -30};
+
+        BudgetForecastService.ModelFit linear = BudgetForecastService.fitLinear(series, 0, 4);
+        BudgetForecastService.ModelFit exponential = BudgetForecastService.fitExponential(series, 0, 4);
+
+        assertThat(linear.projectedSpend).isZero();
+        assertThat(linear.nextMonth).isZero();
+        assertThat(exponential.projectedSpend).isGreaterThanOrEqualTo(0).isFinite();
+        assertThat(exponential.nextMonth).isGreaterThanOrEqualTo(0).isFinite();
+    }
+
+    @Test
+    void explicitProjectsAreLimitedToActiveOnesAndReadInChunks() {
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = 1; id <= 1200; id++) {
+            rows.add(snapshotRow(id));
+        }
+        when(projectFinanceSnapshotService.current()).thenReturn(ProjectFinanceSnapshotService.Snapshot.of(rows));
+        when(budgetRollupService.getSpendingSeries(any(), eq(BudgetRollupPeriod.MONTH), any())).thenReturn(List.of());
+
+        List<Long> requested = new ArrayList<>();
+        for (long id = 1200; id >= 1; id--) {
+            requested.add(id);
+        }
+        requested.add(5000L); // inactive or unknown
+        requested.add(7L); // duplicate
+
+        List<Map<String, Object>> forecasts = service.forecastProjects(requested, 3, "LINEAR");
+
+        assertThat(forecasts).hasSize(1200);
+        assertThat(forecasts.get(0).get("projectId")).isEqualTo(1L);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Long>> chunks = ArgumentCaptor.forClass(Collection.class);
+        verify(budgetRollupService, times(3)).getSpendingSeries(any(), eq(BudgetRollupPeriod.MONTH), chunks.capture());
+        assertThat(chunks.getAllValues()).allSatisfy(chunk -> assertThat(chunk).hasSizeLessThanOrEqualTo(500));
+        assertThat(chunks.getAllValues().stream().mapToInt(Collection::size).sum()).isEqualTo(1200);
+    }
+
+    private static Object[] snapshotRow(long id) {
+        return new Object[]{id, "Project " + id, new BigDecimal("1000.00"), new BigDecimal("100.00"),
+                ProjectStatus.ACTIVE, LocalDate.of(2029, 1, 1), LocalDate.of(2030, 1, 1),
+                LocalDateTime.of(2028, 6, 1, 9, 0)};
+    }
+}
@@ -0,0 +1,136 @@
+package com.company.erp.financial.service;
+
+import com.company.erp.financial.entity.BudgetTracking;
+import com.company.erp.financial.entity.BudgetTrackingType;
+import com.company.erp.financial.repository.BudgetTrackingRepository;
+import com.company.erp.project.entity.Project;
+import com.company.erp.project.repository.ProjectRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.LongConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 64 concurrent writers on one project: the running ledger against the previous path, which read
+ * the balance as a SUM over the project's history before every entry.
+ *
+ * Needs the PostgreSQL database of the active profile; run with
+ * {@code mvn test -Dbenchmark=true -Dtest=BudgetLedgerConcurrencyBenchmarkTest}.
+ */
+@SpringBootTest
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BudgetLedgerConcurrencyBenchmarkTest {
+
+    private static final int WRITERS = 64;
+    private static final int ENTRIES_PER_WRITER = 50;
+    private static final BigDecimal AMOUNT = new BigDecimal("10.00");
+
+    @Autowired
+    private BudgetLedgerService budgetLedgerService;
+
+    @Autowired
+    private BudgetTrackingRepository budgetTrackingRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void ledgerLosesNoUpdatesAndOutpacesHistorySum() throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        BigDecimal expected = AMOUNT.multiply(BigDecimal.valueOf((long) WRITERS * ENTRIES_PER_WRITER));
+
+        Long ledgerProject = createProject("ledger");
+        double ledgerRate = run(projectId -> tx.executeWithoutResult(status -> {
+            BudgetLedgerService.LedgerPosting posting = budgetLedgerService.post(projectId, BudgetTrackingType.EXPENSE, AMOUNT);
+            record(projectId, posting.getPreviousBalance(), posting.getNewBalance());
+        }), ledgerProject);
+
+        Long sumProject = createProject("history-sum");
+        double sumRate = run(projectId -> tx.executeWithoutResult(status -> {
+            BigDecimal previous = budgetTrackingRepository.getCurrentBalance(projectId);
+            projectRepository.applyBudgetDelta(projectId, AMOUNT, BigDecimal.ZERO);
+            record(projectId, previous, previous.add(AMOUNT));
+        }), sumProject);
+
+        System.out.printf("Budget ledger, %d writers x %d entries: ledger %.0f entries/s, history SUM %.0f entries/s (%.1fx)%n",
+                WRITERS, ENTRIES_PER_WRITER, ledgerRate, sumRate, ledgerRate / sumRate);
+
+        // No lost updates: every posting reached the balance and the spent amount...
+        List<Object[]> ledger = projectRepository.getLedgerSnapshot(ledgerProject);
+        assertThat((BigDecimal) ledger.get(0)[0]).isEqualByComparingTo(expected);
+        assertThat(projectRepository.findById(ledgerProject).orElseThrow().getSpentAmount()).isEqualByComparingTo(expected);
+
+        // ...and the writers were serialized: each entry saw a different running balance
+        Set<BigDecimal> balances = new HashSet<>();
+        for (BudgetTracking entry : budgetTrackingRepository
+                .findByProjectIdAndActiveTrueOrderByTransactionDateDesc(ledgerProject, Pageable.unpaged())) {
+            assertThat(balances.add(entry.getNewBalance().stripTrailingZeros())).isTrue();
+        }
+        assertThat(balances).hasSize(WRITERS * ENTRIES_PER_WRITER);
+    }
+
+    // Helper methods
+
+    private double run(LongConsumer writeEntry, Long projectId) throws Exception {
+        ExecutorService writers = Executors.newFixedThreadPool(WRITERS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> done = new ArrayList<>(WRITERS);
+            for (int i = 0; i < WRITERS; i++) {
+                done.add(writers.submit(() -> {
+                    start.await();
+                    for (int n = 0; n < ENTRIES_PER_WRITER; n++) {
+                        writeEntry.accept(projectId);
+                    }
+                    return null;
+                }));
+            }
+
+            long startTime = System.nanoTime();
+            start.countDown();
+            for (Future<?> writer : done) {
+                writer.get();
+            }
+            double seconds = (System.nanoTime() - startTime) / 1e9;
+            return WRITERS * ENTRIES_PER_WRITER / seconds;
+        } finally {
+            writers.shutdownNow();
+        }
+    }
+
+    private void record(Long projectId, BigDecimal previousBalance, BigDecimal newBalance) {
+        BudgetTracking entry = new BudgetTracking(projectRepository.getReferenceById(projectId),
+                BudgetTrackingType.EXPENSE, AMOUNT);
+        entry.setDescription("Ledger benchmark");
+        entry.setPreviousBalance(previousBalance);
+        entry.setNewBalance(newBalance);
+        budgetTrackingRepository.save(entry);
+    }
+
+    private Long createProject(String path) {
+        Project project = new Project("ledger-benchmark-" + path + "-" + System.nanoTime(),
+                "Budget ledger benchmark", new BigDecimal("100000000.00"));
+        return projectRepository.save(project).getId();
+    }
+}
@@ -0,0 +1,103 @@
+package com.company.erp.financial.service;
+
+import com.company.erp.common.exception.ResourceNotFoundException;
+import com.company.erp.financial.entity.BudgetTrackingType;
+import com.company.erp.financial.repository.BudgetTrackingRepository;
+import com.company.erp.project.entity.Project;
+import com.company.erp.project.repository.ProjectRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BudgetLedgerServiceTest {
+
+    private static final Long PROJECT_ID = 7L;
+
+    private ProjectRepository projectRepository;
+    private BudgetTrackingRepository budgetTrackingRepository;
+    private EntityManager entityManager;
+    private BudgetLedgerService service;
+
+    @BeforeEach
+    void setUp() {
+        projectRepository = mock(ProjectRepository.class);
+        budgetTrackingRepository = mock(BudgetTrackingRepository.class);
+        entityManager = mock(EntityManager.class);
+        when(entityManager.getReference(Project.class, PROJECT_ID)).thenReturn(new Project());
+
+        service = new BudgetLedgerService(projectRepository, budgetTrackingRepository);
+        ReflectionTestUtils.setField(service, "entityManager", entityManager);
+    }
+
+    @Test
+    void postAppliesOneAtomicUpdateAndReadsBackTheBalance() {
+        when(projectRepository.applyLedgerPosting(eq(PROJECT_ID), any(), any(), any())).thenReturn(1);
+        when(projectRepository.getLedgerSnapshot(PROJECT_ID)).thenReturn(snapshot("1250.00", 12));
+
+        BudgetLedgerService.LedgerPosting posting = service.post(PROJECT_ID, BudgetTrackingType.EXPENSE, new BigDecimal("250.00"));
+
+        assertThat(posting.getPreviousBalance()).isEqualByComparingTo("1000.00");
+        assertThat(posting.getNewBalance()).isEqualByComparingTo("1250.00");
+        assertThat(posting.getVersion()).isEqualTo(12);
+        verify(projectRepository).applyLedgerPosting(PROJECT_ID, new BigDecimal("250.00"),
+                new BigDecimal("250.00"), BigDecimal.ZERO);
+        // The loaded project is refreshed in place rather than the persistence context cleared
+        verify(entityManager).refresh(any(Project.class));
+        verify(entityManager, never()).clear();
+    }
+
+    @Test
+    void repostAppliesOnlyTheDifference() {
+        when(projectRepository.applyLedgerPosting(eq(PROJECT_ID), any(), any(), any())).thenReturn(1);
+        when(projectRepository.getLedgerSnapshot(PROJECT_ID)).thenReturn(snapshot("900.00", 3));
+
+        BudgetLedgerService.LedgerPosting posting = service.repost(PROJECT_ID,
+                BudgetTrackingType.EXPENSE, new BigDecimal("300.00"),
+                BudgetTrackingType.REFUND, new BigDecimal("100.00"));
+
+        assertThat(posting.getPreviousBalance()).isEqualByComparingTo("1300.00");
+        verify(projectRepository).applyLedgerPosting(PROJECT_ID, new BigDecimal("-400.00"),
+                new BigDecimal("-400.00"), BigDecimal.ZERO);
+    }
+
+    @Test
+    void postOnMissingProjectFails() {
+        when(projectRepository.applyLedgerPosting(eq(PROJECT_ID), any(), any(), any())).thenReturn(0);
+
+        assertThatThrownBy(() -> service.post(PROJECT_ID, BudgetTrackingType.EXPENSE, BigDecimal.TEN))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verify(projectRepository, never()).getLedgerSnapshot(any());
+    }
+
+    @Test
+    void rebuildLocksTheRowBeforeSummingHistory() {
+        when(projectRepository.lockLedger(PROJECT_ID)).thenReturn(1);
+        when(budgetTrackingRepository.computeLedgerBalance(PROJECT_ID)).thenReturn(new BigDecimal("42.00"));
+
+        assertThat(service.rebuild(PROJECT_ID)).isEqualByComparingTo("42.00");
+
+        var order = inOrder(projectRepository, budgetTrackingRepository);
+        order.verify(projectRepository).lockLedger(PROJECT_ID);
+        order.verify(budgetTrackingRepository).computeLedgerBalance(PROJECT_ID);
+        order.verify(projectRepository).resetLedgerBalance(PROJECT_ID, new BigDecimal("42.00"));
+    }
+
+    private static List<Object[]> snapshot(String balance, long version) {
+        return Collections.singletonList(new Object[]{new BigDecimal(balance), version});
+    }
+}
@@ -0,0 +1,89 @@
+package com.company.erp.financial.service;
+
+import com.company.erp.financial.entity.BudgetHold;
+import com.company.erp.financial.entity.BudgetHoldStatus;
+import com.company.erp.financial.entity.Quotation;
+import com.company.erp.financial.entity.QuotationStatus;
+import com.company.erp.financial.repository.BudgetHoldRepository;
+import com.company.erp.project.entity.Project;
+import com.company.erp.project.repository.ProjectRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BudgetReservationServiceTest {
+
+    private static final Long PROJECT_ID = 7L;
+    private static final Long QUOTATION_ID = 11L;
+
+    private ProjectRepository projectRepository;
+    private BudgetHoldRepository budgetHoldRepository;
+    private EntityManager entityManager;
+    private Project project;
+    private BudgetReservationService service;
+
+    @BeforeEach
+    void setUp() {
+        projectRepository = mock(ProjectRepository.class);
+        budgetHoldRepository = mock(BudgetHoldRepository.class);
+        entityManager = mock(EntityManager.class);
+        project = new Project();
+        project.setId(PROJECT_ID);
+        when(entityManager.getReference(Project.class, PROJECT_ID)).thenReturn(project);
+
+        service = new BudgetReservationService(projectRepository, budgetHoldRepository, new BigDecimal("0.10"));
+        ReflectionTestUtils.setField(service, "entityManager", entityManager);
+    }
+
+    @Test
+    void convertRefreshesTheLoadedProjectAfterTheBulkUpdate() {
+        BudgetHold hold = new BudgetHold(PROJECT_ID, QUOTATION_ID, new BigDecimal("500.00"));
+        hold.setId(3L);
+        when(budgetHoldRepository.findByQuotationIdAndStatus(QUOTATION_ID, BudgetHoldStatus.HELD))
+                .thenReturn(Optional.of(hold));
+        when(budgetHoldRepository.settle(eq(3L), eq(BudgetHoldStatus.CONVERTED), any())).thenReturn(1);
+
+        service.convert(quotation("500.00"));
+
+        InOrder order = inOrder(projectRepository, entityManager);
+        order.verify(projectRepository).convertBudgetHold(PROJECT_ID, new BigDecimal("500.00"), new BigDecimal("500.00"));
+        order.verify(entityManager).refresh(project);
+    }
+
+    @Test
+    void onlyHoldsOfQuotationsNoLongerUnderReviewAreReleased() {
+        when(budgetHoldRepository.findOrphaned(anyCollection(), any())).thenReturn(Collections.emptyList());
+
+        service.releaseOrphanedHolds();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<QuotationStatus>> statuses = ArgumentCaptor.forClass(Collection.class);
+        verify(budgetHoldRepository).findOrphaned(statuses.capture(), any());
+        assertThat(statuses.getValue()).containsExactlyInAnyOrder(QuotationStatus.SUBMITTED, QuotationStatus.UNDER_REVIEW);
+    }
+
+    private Quotation quotation(String amount) {
+        Quotation quotation = new Quotation();
+        quotation.setId(QUOTATION_ID);
+        quotation.setProject(project);
+        quotation.setTotalAmount(new BigDecimal(amount));
+        return quotation;
+    }
+}
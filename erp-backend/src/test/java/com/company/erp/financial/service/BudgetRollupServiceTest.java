@@ -0,0 +1,159 @@
+package com.company.erp.financial.service;
+
+import com.company.erp.common.exception.BusinessException;
+import com.company.erp.financial.entity.BudgetRollup;
+import com.company.erp.financial.entity.BudgetRollupPeriod;
+import com.company.erp.financial.entity.BudgetTracking;
+import com.company.erp.financial.entity.BudgetTrackingType;
+import com.company.erp.financial.repository.BudgetRollupRepository;
+import com.company.erp.project.entity.Project;
+import com.company.erp.project.repository.ProjectRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.company.erp.financial.service.BudgetRollupService.UNCATEGORIZED;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BudgetRollupServiceTest {
+
+    private BudgetRollupRepository budgetRollupRepository;
+    private ProjectRepository projectRepository;
+    private BudgetRollupService service;
+
+    @BeforeEach
+    void setUp() {
+        budgetRollupRepository = mock(BudgetRollupRepository.class);
+        projectRepository = mock(ProjectRepository.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        service = new BudgetRollupService(budgetRollupRepository, projectRepository, transactionManager);
+    }
+
+    @Test
+    void postingTouchesOnlyItsDayBucket() {
+        when(budgetRollupRepository.applyDelta(anyLong(), anyString(), any(), any(), anyLong(), any())).thenReturn(1);
+
+        service.recordAdded(tracking(LocalDateTime.of(2024, 3, 14, 10, 30)));
+
+        verify(budgetRollupRepository, times(1)).applyDelta(anyLong(), anyString(), any(), any(), anyLong(), any());
+        verify(budgetRollupRepository).applyDelta(eq(7L), eq("Materials"), eq(BudgetTrackingType.EXPENSE),
+                eq(LocalDate.of(2024, 3, 14)), eq(1L), eq(new BigDecimal("250.00")));
+        verify(budgetRollupRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void firstPostingOfTheDayInsertsTheBucket() {
+        when(budgetRollupRepository.applyDelta(anyLong(), anyString(), any(), any(), anyLong(), any())).thenReturn(0);
+
+        service.recordAdded(tracking(LocalDateTime.of(2024, 3, 14, 10, 30)));
+
+        ArgumentCaptor<BudgetRollup> inserted = ArgumentCaptor.forClass(BudgetRollup.class);
+        verify(budgetRollupRepository).saveAndFlush(inserted.capture());
+        assertThat(inserted.getValue().getRollupDate()).isEqualTo(LocalDate.of(2024, 3, 14));
+        assertThat(inserted.getValue().getTransactionCount()).isEqualTo(1L);
+        assertThat(inserted.getValue().getTotalAmount()).isEqualByComparingTo("250.00");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rebuildReplacesBucketsUnderTheProjectLock() {
+        List<Object[]> sums = new ArrayList<>();
+        sums.add(new Object[]{null, "EXPENSE", Date.valueOf("2024-03-14"), 2L, new BigDecimal("100.00")});
+        sums.add(new Object[]{UNCATEGORIZED, "EXPENSE", Date.valueOf("2024-03-14"), 1L, new BigDecimal("50.00")});
+        sums.add(new Object[]{"Materials", "EXPENSE", Date.valueOf("2024-03-14"), 1L, new BigDecimal("25.00")});
+        when(budgetRollupRepository.sumLedgerByBucket(7L)).thenReturn(sums);
+
+        service.rebuild(7L);
+
+        InOrder order = inOrder(projectRepository, budgetRollupRepository);
+        order.verify(projectRepository).lockRow(7L);
+        order.verify(budgetRollupRepository).deleteByProject(7L);
+        ArgumentCaptor<List<BudgetRollup>> saved = ArgumentCaptor.forClass(List.class);
+        order.verify(budgetRollupRepository).saveAll(saved.capture());
+
+        // The null category folds into the explicit UNCATEGORIZED bucket
+        assertThat(saved.getValue()).hasSize(2);
+        BudgetRollup uncategorized = saved.getValue().get(0);
+        assertThat(uncategorized.getCategory()).isEqualTo(UNCATEGORIZED);
+        assertThat(uncategorized.getTransactionCount()).isEqualTo(3L);
+        assertThat(uncategorized.getTotalAmount()).isEqualByComparingTo("150.00");
+    }
+
+    @Test
+    void everyReportPeriodMapsToItsOwnBucket() {
+        assertThat(BudgetRollupPeriod.fromReportPeriod("DAILY")).isEqualTo(BudgetRollupPeriod.DAY);
+        assertThat(BudgetRollupPeriod.fromReportPeriod("WEEKLY")).isEqualTo(BudgetRollupPeriod.WEEK);
+        assertThat(BudgetRollupPeriod.fromReportPeriod("monthly")).isEqualTo(BudgetRollupPeriod.MONTH);
+        assertThat(BudgetRollupPeriod.fromReportPeriod("QUARTERLY")).isEqualTo(BudgetRollupPeriod.QUARTER);
+        assertThat(BudgetRollupPeriod.fromReportPeriod("YEARLY")).isEqualTo(BudgetRollupPeriod.YEAR);
+    }
+
+    @Test
+    void unknownReportPeriodIsRejected() {
+        assertThatThrownBy(() -> BudgetRollupPeriod.fromReportPeriod("FORTNIGHTLY"))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> BudgetRollupPeriod.fromReportPeriod(null))
+                .isInstanceOf(BusinessException.class);
+    }
+
+    @Test
+    void periodStartMatchesDateTrunc() {
+        LocalDate date = LocalDate.of(2024, 8, 15); // Thursday
+
+        assertThat(BudgetRollupPeriod.DAY.startOf(date)).isEqualTo(date);
+        assertThat(BudgetRollupPeriod.WEEK.startOf(date)).isEqualTo(LocalDate.of(2024, 8, 12));
+        assertThat(BudgetRollupPeriod.MONTH.startOf(date)).isEqualTo(LocalDate.of(2024, 8, 1));
+        assertThat(BudgetRollupPeriod.QUARTER.startOf(date)).isEqualTo(LocalDate.of(2024, 7, 1));
+        assertThat(BudgetRollupPeriod.YEAR.startOf(date)).isEqualTo(LocalDate.of(2024, 1, 1));
+    }
+
+    @Test
+    void quarterlyTrendIsSummedFromDayBucketsAndNormalized() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{Date.valueOf("2024-07-01"), new BigDecimal("900.00"), new BigDecimal("3")});
+        when(budgetRollupRepository.getSpendingTrend(eq("quarter"), any(), eq(LocalDate.of(2024, 7, 1)),
+                eq(LocalDate.of(2024, 9, 30)))).thenReturn(rows);
+
+        List<Object[]> trend = service.getSpendingTrend(LocalDateTime.of(2024, 8, 15, 0, 0),
+                LocalDateTime.of(2024, 9, 30, 23, 59), BudgetRollupPeriod.QUARTER, null);
+
+        assertThat(trend).hasSize(1);
+        assertThat(trend.get(0)[0]).isEqualTo(LocalDate.of(2024, 7, 1));
+        assertThat(trend.get(0)[2]).isEqualTo(3L);
+    }
+
+    private BudgetTracking tracking(LocalDateTime transactionDate) {
+        Project project = new Project();
+        project.setId(7L);
+
+        BudgetTracking tracking = new BudgetTracking();
+        tracking.setProject(project);
+        tracking.setCategory("Materials");
+        tracking.setTrackingType(BudgetTrackingType.EXPENSE);
+        tracking.setTransactionDate(transactionDate);
+        tracking.setAmount(new BigDecimal("250.00"));
+        return tracking;
+    }
+}
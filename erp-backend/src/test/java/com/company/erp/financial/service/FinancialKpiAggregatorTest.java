@@ -0,0 +1,98 @@
+package com.company.erp.financial.service;
+
+import com.company.erp.financial.entity.BudgetRollupPeriod;
+import com.company.erp.project.entity.ProjectStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class FinancialKpiAggregatorTest {
+
+    private static final LocalDateTime WINDOW_START = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime WINDOW_END = LocalDateTime.of(2024, 12, 31, 23, 59);
+
+    private ProjectFinanceSnapshotService projectFinanceSnapshotService;
+    private BudgetRollupService budgetRollupService;
+    private FinancialKpiAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        projectFinanceSnapshotService = mock(ProjectFinanceSnapshotService.class);
+        budgetRollupService = mock(BudgetRollupService.class);
+        aggregator = new FinancialKpiAggregator(projectFinanceSnapshotService, budgetRollupService,
+                new BigDecimal("10.00"));
+
+        List<Object[]> rows = new ArrayList<>();
+        // Completed on budget, created in the window
+        rows.add(row(1, "1000.00", "950.00", ProjectStatus.COMPLETED, LocalDate.of(2024, 1, 1),
+                LocalDate.of(2024, 3, 1), LocalDateTime.of(2024, 1, 2, 9, 0)));
+        // Active and over budget, created before the window
+        rows.add(row(2, "1000.00", "1200.00", ProjectStatus.ACTIVE, LocalDate.of(2023, 1, 1),
+                LocalDate.of(2099, 1, 1), LocalDateTime.of(2023, 1, 2, 9, 0)));
+        // Active and overdue
+        rows.add(row(3, "1000.00", "100.00", ProjectStatus.ACTIVE, LocalDate.of(2023, 1, 1),
+                LocalDate.of(2023, 6, 1), LocalDateTime.of(2024, 2, 1, 9, 0)));
+        when(projectFinanceSnapshotService.current()).thenReturn(ProjectFinanceSnapshotService.Snapshot.of(rows));
+        when(budgetRollupService.getSpendingTrend(any(), any(), any(), any())).thenReturn(Collections.emptyList());
+        when(budgetRollupService.getNetSpendingTrend(any(), any(), any())).thenReturn(Collections.emptyList());
+    }
+
+    @Test
+    void projectFiguresComeFromTheSnapshot() {
+        FinancialKpiAggregator.KpiSnapshot kpis = aggregator.aggregate(WINDOW_START, WINDOW_END);
+
+        assertThat(kpis.getProjectCount()).isEqualTo(3L);
+        assertThat(kpis.getCompletedCount()).isEqualTo(1L);
+        assertThat(kpis.getOverdueCount()).isEqualTo(1L);
+        assertThat(kpis.getWindowProjectCount()).isEqualTo(2L);
+        assertThat(kpis.getWindowAllocated()).isEqualByComparingTo("2000.00");
+        assertThat(kpis.getBudgetAlertCount()).isEqualTo(2L);
+        assertThat(kpis.getOverBudgetProjects()).hasSize(1);
+        assertThat(kpis.getProjectSuccessRate()).isEqualByComparingTo("100.00");
+        assertThat(kpis.getBudgetAccuracy()).isEqualByComparingTo("100.00");
+    }
+
+    @Test
+    void spendingFiguresComeFromTheRollups() {
+        LocalDate currentQuarter = LocalDate.now().with(IsoFields.DAY_OF_QUARTER, 1);
+        List<Object[]> quarters = new ArrayList<>();
+        quarters.add(new Object[]{currentQuarter.minusMonths(3), new BigDecimal("400.00")});
+        quarters.add(new Object[]{currentQuarter, new BigDecimal("500.00")});
+        when(budgetRollupService.getNetSpendingTrend(currentQuarter.minusMonths(3),
+                currentQuarter.plusMonths(3).minusDays(1), BudgetRollupPeriod.QUARTER)).thenReturn(quarters);
+
+        Map<String, Object> comparison = aggregator.aggregate(WINDOW_START, WINDOW_END).getQuarterlyComparison();
+
+        assertThat(comparison.get("currentQuarterSpending")).isEqualTo(new BigDecimal("500.00"));
+        assertThat(comparison.get("previousQuarterSpending")).isEqualTo(new BigDecimal("400.00"));
+        assertThat(comparison.get("growthRate")).isEqualTo(new BigDecimal("25.00"));
+        verify(budgetRollupService, times(1)).getSpendingTrend(eq(WINDOW_START), eq(WINDOW_END),
+                eq(BudgetRollupPeriod.MONTH), isNull());
+        verify(budgetRollupService, times(1)).getNetSpendingTrend(any(), any(), any());
+        verifyNoMoreInteractions(budgetRollupService);
+    }
+
+    private static Object[] row(long id, String allocated, String spent, ProjectStatus status, LocalDate startDate,
+                                LocalDate endDate, LocalDateTime createdDate) {
+        return new Object[]{id, "Project " + id, new BigDecimal(allocated), new BigDecimal(spent), status,
+                startDate, endDate, createdDate};
+    }
+}
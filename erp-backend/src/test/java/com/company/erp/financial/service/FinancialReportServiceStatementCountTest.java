@@ -0,0 +1,114 @@
+package com.company.erp.financial.service;
+
+import com.company.erp.common.security.UserPrincipal;
+import com.company.erp.project.entity.Project;
+import com.company.erp.project.repository.ProjectRepository;
+import com.company.erp.user.entity.User;
+import com.company.erp.user.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Statements the project-manager dashboard sends to the database, counted by Hibernate
+ * statistics against H2: they depend on ceil(projects / 500), never on the number of projects.
+ */
+@SpringBootTest
+@ActiveProfiles("h2-test")
+class FinancialReportServiceStatementCountTest {
+
+    @Autowired
+    private FinancialReportService financialReportService;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User manager;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        String username = "manager" + System.nanoTime();
+        manager = userRepository.save(new User(username, username + "@example.com", "hash", "Project Manager"));
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(mock(UserPrincipal.class), null, Collections.emptyList()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        projectRepository.deleteAll(projectRepository.findAll().stream()
+                .filter(project -> project.getManager() != null && manager.getId().equals(project.getManager().getId()))
+                .toList());
+        userRepository.delete(manager);
+    }
+
+    @Test
+    void budgetFiguresAreReadOnceForTotalsAndStatusList() {
+        createProjects(3);
+
+        long statements = dashboardStatements();
+
+        // Status list, quotation counts, recent transactions
+        assertThat(statements).isEqualTo(3);
+    }
+
+    @Test
+    void statementCountGrowsWithChunksNotProjects() {
+        createProjects(1200);
+
+        long statements = dashboardStatements();
+
+        // The status list, then quotation counts and recent transactions per 500 ids
+        assertThat(statements).isEqualTo(1 + 2 * 3);
+    }
+
+    @Test
+    void noManagedProjectsIssuesOnlyTheStatusQuery() {
+        long statements = dashboardStatements();
+
+        assertThat(statements).isEqualTo(1);
+    }
+
+    private long dashboardStatements() {
+        statistics.clear();
+        financialReportService.getProjectManagerDashboard(null, null, manager.getId());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void createProjects(int count) {
+        List<Project> projects = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Project project = new Project("Project " + i, null, new BigDecimal("1000.00"));
+            project.setManager(manager);
+            projects.add(project);
+        }
+        projectRepository.saveAll(projects);
+    }
+}
@@ -0,0 +1,89 @@
+package com.company.erp.financial.service;
+
+import com.company.erp.common.security.UserPrincipal;
+import com.company.erp.common.service.StreamingExportService;
+import com.company.erp.financial.repository.BudgetTrackingRepository;
+import com.company.erp.financial.repository.QuotationRepository;
+import com.company.erp.project.repository.ProjectRepository;
+import com.company.erp.report.dto.request.ReportRequest;
+import com.company.erp.report.enums.ExportFormat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.stream.Stream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Export checks; the dashboard statement counts are in FinancialReportServiceStatementCountTest.
+ */
+class FinancialReportServiceTest {
+
+    private ProjectRepository projectRepository;
+    private QuotationRepository quotationRepository;
+    private BudgetTrackingRepository budgetTrackingRepository;
+    private StreamingExportService streamingExportService;
+    private FinancialReportService service;
+
+    @BeforeEach
+    void setUp() {
+        projectRepository = mock(ProjectRepository.class);
+        quotationRepository = mock(QuotationRepository.class);
+        budgetTrackingRepository = mock(BudgetTrackingRepository.class);
+        streamingExportService = mock(StreamingExportService.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+
+        service = new FinancialReportService();
+        ReflectionTestUtils.setField(service, "projectRepository", projectRepository);
+        ReflectionTestUtils.setField(service, "quotationRepository", quotationRepository);
+        ReflectionTestUtils.setField(service, "budgetTrackingRepository", budgetTrackingRepository);
+        ReflectionTestUtils.setField(service, "streamingExportService", streamingExportService);
+        ReflectionTestUtils.setField(service, "transactionManager", transactionManager);
+
+        UserPrincipal principal = mock(UserPrincipal.class);
+        when(principal.hasAnyRole("SUPER_ADMIN", "ACCOUNT_MANAGER")).thenReturn(true);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, Collections.emptyList()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void exportReadsProjectsThroughTheCursorOnlyWhenTheBodyIsWritten() throws Exception {
+        Stream<Object[]> rows = Stream.<Object[]>of(new Object[]{1L, "Project 1", "Manager", new BigDecimal("1000.00"),
+                new BigDecimal("250.00"), new BigDecimal("750.00"), "ACTIVE"});
+        when(projectRepository.streamFinancialSummaryRows()).thenReturn(rows);
+
+        StreamingResponseBody body = service.exportFinancialReport(new ReportRequest("FINANCIAL_SUMMARY"), ExportFormat.CSV);
+        verify(projectRepository, never()).streamFinancialSummaryRows();
+
+        body.writeTo(new ByteArrayOutputStream());
+
+        verify(projectRepository, times(1)).streamFinancialSummaryRows();
+        verify(streamingExportService, times(1)).write(eq(ExportFormat.CSV), any(), anyString(), anyList(), any(), any());
+        verifyNoMoreInteractions(projectRepository);
+    }
+}
@@ -0,0 +1,99 @@
+package com.company.erp.financial.service;
+
+import com.company.erp.project.entity.ProjectStatus;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH: applying a burst of committed project changes to a 100k-project snapshot.
+ *
+ * perCommitCopy is the previous path, one full copy of the columns per commit;
+ * batchedMerge is the current background pass, one merge for all projects changed since the
+ * last pass. Run with {@code mvn test -Dbenchmark=true -Dtest=ProjectFinanceSnapshotBenchmarkTest}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class ProjectFinanceSnapshotBenchmarkTest {
+
+    @Param({"100000"})
+    public int projects;
+
+    @Param({"1", "10", "100"})
+    public int changesPerPass;
+
+    private ProjectFinanceSnapshotService.Snapshot snapshot;
+    private long[] changedIds;
+    private List<Object[]> changedRows;
+
+    @Setup
+    public void setUp() {
+        List<Object[]> rows = new ArrayList<>(projects);
+        for (long id = 1; id <= projects; id++) {
+            rows.add(row(id, id % 1000));
+        }
+        snapshot = ProjectFinanceSnapshotService.Snapshot.of(rows);
+
+        Random random = new Random(42);
+        changedIds = random.longs(changesPerPass, 1, projects + 1).sorted().distinct().toArray();
+        changedRows = new ArrayList<>(changedIds.length);
+        for (long id : changedIds) {
+            changedRows.add(row(id, 2000));
+        }
+    }
+
+    @Benchmark
+    public ProjectFinanceSnapshotService.Snapshot perCommitCopy() {
+        ProjectFinanceSnapshotService.Snapshot current = snapshot;
+        for (int i = 0; i < changedIds.length; i++) {
+            current = current.merge(new long[]{changedIds[i]}, List.<Object[]>of(changedRows.get(i)));
+        }
+        return current;
+    }
+
+    @Benchmark
+    public ProjectFinanceSnapshotService.Snapshot batchedMerge() {
+        return snapshot.merge(changedIds, changedRows);
+    }
+
+    @Test
+    void runBenchmarks() throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProjectFinanceSnapshotBenchmarkTest.class.getSimpleName())
+                .build()).run();
+    }
+
+    private static Object[] row(long id, long spent) {
+        return new Object[]{id, "Project " + id, new BigDecimal("10000.00"), BigDecimal.valueOf(spent, 0),
+                ProjectStatus.ACTIVE, LocalDate.of(2029, 1, 1), LocalDate.of(2030, 1, 1),
+                LocalDateTime.of(2028, 6, 1, 9, 0)};
+    }
+}
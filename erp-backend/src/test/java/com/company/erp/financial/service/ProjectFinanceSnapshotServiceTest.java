@@ -0,0 +1,192 @@
+package com.company.erp.financial.service;
+
+import com.company.erp.common.event.DashboardDataChangedEvent;
+import com.company.erp.project.entity.ProjectStatus;
+import com.company.erp.project.repository.ProjectRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.listener.Topic;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProjectFinanceSnapshotServiceTest {
+
+    private ProjectRepository projectRepository;
+    private StringRedisTemplate redisTemplate;
+    private RedisMessageListenerContainer listenerContainer;
+    private ProjectFinanceSnapshotService service;
+
+    @BeforeEach
+    void setUp() {
+        projectRepository = mock(ProjectRepository.class);
+        redisTemplate = mock(StringRedisTemplate.class);
+        listenerContainer = mock(RedisMessageListenerContainer.class);
+        when(projectRepository.findFinanceSnapshotRows()).thenReturn(rows(10, 20, 30, 40));
+        service = newService();
+        service.current();
+    }
+
+    @Test
+    void commitOnlyMarksTheProjectDirty() {
+        service.onDashboardDataChanged(event(20L));
+        service.onDashboardDataChanged(event(20L));
+
+        verify(projectRepository, never()).findFinanceSnapshotRowsByIds(anyCollection());
+        assertThat(service.current().getSpentAmount(1)).isEqualByComparingTo("200.00");
+    }
+
+    @Test
+    void dirtyProjectsAreMergedInOnePass() {
+        List<Object[]> changed = new ArrayList<>();
+        changed.add(row(15, "300.00"));  // new project
+        changed.add(row(20, "999.00"));  // updated
+        // 40 has no row: deactivated
+        when(projectRepository.findFinanceSnapshotRowsByIds(anyCollection())).thenReturn(changed);
+
+        service.onDashboardDataChanged(event(40L));
+        service.onDashboardDataChanged(event(20L));
+        service.onDashboardDataChanged(event(15L));
+        service.refreshDirtyProjects();
+
+        verify(projectRepository, times(1)).findFinanceSnapshotRowsByIds(anyCollection());
+        ProjectFinanceSnapshotService.Snapshot snapshot = service.current();
+        assertThat(snapshot.size()).isEqualTo(4);
+        assertThat(snapshot.getId(0)).isEqualTo(10L);
+        assertThat(snapshot.getId(1)).isEqualTo(15L);
+        assertThat(snapshot.getId(2)).isEqualTo(20L);
+        assertThat(snapshot.getId(3)).isEqualTo(30L);
+        assertThat(snapshot.getSpentAmount(1)).isEqualByComparingTo("300.00");
+        assertThat(snapshot.getSpentAmount(2)).isEqualByComparingTo("999.00");
+        assertThat(snapshot.getSpentAmount(3)).isEqualByComparingTo("300.00");
+    }
+
+    @Test
+    void passWithoutChangesIssuesNoQuery() {
+        service.refreshDirtyProjects();
+
+        verify(projectRepository, never()).findFinanceSnapshotRowsByIds(anyCollection());
+    }
+
+    @Test
+    void changesBeforeFirstLoadWaitForTheLoadedSnapshot() {
+        ProjectFinanceSnapshotService fresh = newService();
+        fresh.onDashboardDataChanged(event(20L));
+        fresh.refreshDirtyProjects();
+        verify(projectRepository, never()).findFinanceSnapshotRowsByIds(anyCollection());
+
+        when(projectRepository.findFinanceSnapshotRowsByIds(anyCollection())).thenReturn(List.<Object[]>of(row(20, "5.00")));
+        fresh.current();
+        fresh.refreshDirtyProjects();
+
+        assertThat(fresh.current().getSpentAmount(1)).isEqualByComparingTo("5.00");
+    }
+
+    @Test
+    void failedRefreshKeepsTheProjectsDirty() {
+        when(projectRepository.findFinanceSnapshotRowsByIds(anyCollection()))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(List.<Object[]>of(row(20, "777.00")));
+
+        service.onDashboardDataChanged(event(20L));
+        service.refreshDirtyProjects();
+        assertThat(service.current().getSpentAmount(1)).isEqualByComparingTo("200.00");
+
+        service.refreshDirtyProjects();
+
+        verify(projectRepository, times(2)).findFinanceSnapshotRowsByIds(anyCollection());
+        assertThat(service.current().getSpentAmount(1)).isEqualByComparingTo("777.00");
+    }
+
+    @Test
+    void localChangesAreAnnouncedOncePerPass() {
+        when(projectRepository.findFinanceSnapshotRowsByIds(anyCollection())).thenReturn(List.of());
+
+        service.onDashboardDataChanged(event(30L));
+        service.onDashboardDataChanged(event(20L));
+        service.refreshDirtyProjects();
+        service.refreshDirtyProjects();
+
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate, times(1)).convertAndSend(eq(ProjectFinanceSnapshotService.CHANGES_CHANNEL), message.capture());
+        assertThat(message.getValue()).endsWith(":20,30");
+    }
+
+    @Test
+    void changesAnnouncedByOtherNodesAreMerged() {
+        when(projectRepository.findFinanceSnapshotRowsByIds(anyCollection())).thenReturn(List.<Object[]>of(row(30, "42.00")));
+
+        receive("other-node:30");
+        service.refreshDirtyProjects();
+
+        assertThat(service.current().getSpentAmount(2)).isEqualByComparingTo("42.00");
+        verify(redisTemplate, never()).convertAndSend(anyString(), any());
+    }
+
+    @Test
+    void ownAnnouncementsAreIgnored() {
+        when(projectRepository.findFinanceSnapshotRowsByIds(anyCollection())).thenReturn(List.of());
+        service.onDashboardDataChanged(event(30L));
+        service.refreshDirtyProjects();
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(ProjectFinanceSnapshotService.CHANGES_CHANNEL), message.capture());
+
+        receive(message.getValue());
+        service.refreshDirtyProjects();
+
+        verify(projectRepository, times(1)).findFinanceSnapshotRowsByIds(anyCollection());
+    }
+
+    private ProjectFinanceSnapshotService newService() {
+        return new ProjectFinanceSnapshotService(projectRepository, redisTemplate, listenerContainer,
+                mock(TaskScheduler.class));
+    }
+
+    private void receive(String body) {
+        ArgumentCaptor<MessageListener> listener = ArgumentCaptor.forClass(MessageListener.class);
+        verify(listenerContainer).addMessageListener(listener.capture(), any(Topic.class));
+        listener.getValue().onMessage(new DefaultMessage(
+                ProjectFinanceSnapshotService.CHANGES_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8)), null);
+    }
+
+    private static DashboardDataChangedEvent event(Long projectId) {
+        return new DashboardDataChangedEvent(DashboardDataChangedEvent.Source.BUDGET_TRACKING, projectId, "UPDATED");
+    }
+
+    private static List<Object[]> rows(long... ids) {
+        List<Object[]> rows = new ArrayList<>();
+        for (long id : ids) {
+            rows.add(row(id, BigDecimal.valueOf(id * 10).setScale(2).toPlainString()));
+        }
+        return rows;
+    }
+
+    private static Object[] row(long id, String spent) {
+        return new Object[]{id, "Project " + id, new BigDecimal("1000.00"), new BigDecimal(spent),
+                ProjectStatus.ACTIVE, LocalDate.of(2029, 1, 1), LocalDate.of(2030, 1, 1),
+                LocalDateTime.of(2028, 6, 1, 9, 0)};
+    }
+}
@@ -0,0 +1,228 @@
+package com.company.erp.financial.service;
+
+import com.company.erp.common.exception.BusinessException;
+import com.company.erp.common.exception.UnauthorizedAccessException;
+import com.company.erp.common.security.UserPrincipal;
+import com.company.erp.common.service.StreamingExportService;
+import com.company.erp.financial.dto.response.ReportJobResponse;
+import com.company.erp.financial.entity.ReportJob;
+import com.company.erp.financial.entity.ReportJobStatus;
+import com.company.erp.financial.repository.ReportJobRepository;
+import com.company.erp.report.dto.request.ReportRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReportJobServiceTest {
+
+    @TempDir
+    Path uploadDir;
+
+    private List<Runnable> queued;
+    private Map<String, ReportJob> rows;
+    private ReportJobRepository reportJobRepository;
+
+    @BeforeEach
+    void setUp() {
+        queued = new ArrayList<>();
+        rows = new HashMap<>();
+        reportJobRepository = tableBackedRepository(rows);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void identicalRequestFromSameUserJoinsTheInFlightJob() {
+        ReportJobService service = service(queued::add);
+        signIn(1L);
+
+        ReportJobResponse first = service.submit(new ReportRequest("FINANCIAL_SUMMARY"), "csv");
+        ReportJobResponse second = service.submit(new ReportRequest("FINANCIAL_SUMMARY"), "CSV");
+
+        assertThat(second.getJobId()).isEqualTo(first.getJobId());
+        assertThat(second.isCoalesced()).isTrue();
+        assertThat(queued).hasSize(1);
+        assertThat(rows).hasSize(1);
+    }
+
+    @Test
+    void identicalRequestFromAnotherUserGetsItsOwnJob() {
+        ReportJobService service = service(queued::add);
+        signIn(1L);
+        ReportJobResponse first = service.submit(new ReportRequest("FINANCIAL_SUMMARY"), "CSV");
+
+        signIn(2L);
+        ReportJobResponse second = service.submit(new ReportRequest("FINANCIAL_SUMMARY"), "CSV");
+
+        assertThat(second.getJobId()).isNotEqualTo(first.getJobId());
+        assertThat(second.isCoalesced()).isFalse();
+        assertThat(queued).hasSize(2);
+        assertThatThrownBy(() -> service.getStatus(first.getJobId()))
+                .isInstanceOf(UnauthorizedAccessException.class);
+    }
+
+    @Test
+    void saturatedExecutorRejectsTheSubmission() {
+        ReportJobService service = service(task -> {
+            throw new RejectedExecutionException("full");
+        });
+        signIn(1L);
+
+        assertThatThrownBy(() -> service.submit(new ReportRequest("FINANCIAL_SUMMARY"), "CSV"))
+                .isInstanceOf(BusinessException.class)
+                .hasFieldOrPropertyWithValue("errorCode", "REPORT_QUEUE_FULL");
+        assertThat(rows.values()).allMatch(job -> job.getStatus() == ReportJobStatus.FAILED);
+    }
+
+    @Test
+    void rejectedJobCanBeResubmittedOnceCapacityFrees() {
+        boolean[] saturated = {true};
+        ReportJobService service = service(task -> {
+            if (saturated[0]) {
+                throw new RejectedExecutionException("full");
+            }
+            queued.add(task);
+        });
+        signIn(1L);
+
+        assertThatThrownBy(() -> service.submit(new ReportRequest("FINANCIAL_SUMMARY"), "CSV"))
+                .isInstanceOf(BusinessException.class);
+
+        saturated[0] = false;
+        ReportJobResponse retry = service.submit(new ReportRequest("FINANCIAL_SUMMARY"), "CSV");
+
+        assertThat(retry.isCoalesced()).isFalse();
+        assertThat(queued).hasSize(1);
+    }
+
+    @Test
+    void jobStateSurvivesARestart() {
+        signIn(1L);
+        ReportJobResponse submitted = service(queued::add).submit(new ReportRequest("FINANCIAL_SUMMARY"), "CSV");
+
+        ReportJobService restarted = service(queued::add);
+
+        assertThat(restarted.getStatus(submitted.getJobId()).getStatus()).isEqualTo("QUEUED");
+        ReportJobResponse again = restarted.submit(new ReportRequest("FINANCIAL_SUMMARY"), "CSV");
+        assertThat(again.getJobId()).isEqualTo(submitted.getJobId());
+        assertThat(again.isCoalesced()).isTrue();
+    }
+
+    @Test
+    void jsonFormatIsRejectedBeforeQueueing() {
+        ReportJobService service = service(queued::add);
+        signIn(1L);
+
+        assertThatThrownBy(() -> service.submit(new ReportRequest("FINANCIAL_SUMMARY"), "JSON"))
+                .isInstanceOf(BusinessException.class)
+                .hasFieldOrPropertyWithValue("errorCode", "INVALID_FORMAT");
+        assertThat(rows).isEmpty();
+        assertThat(queued).isEmpty();
+    }
+
+    @Test
+    void purgeDeletesReportFilesNoJobOwns() throws IOException {
+        Path reports = Files.createDirectories(uploadDir.resolve("reports"));
+        ReportJob completed = job("completed", ReportJobStatus.COMPLETED, "completed.csv");
+        ReportJob failed = job("failed", ReportJobStatus.FAILED, null);
+        ReportJob running = job("running", ReportJobStatus.RUNNING, null);
+        Path result = Files.createFile(reports.resolve("completed.csv"));
+        Path failedPart = Files.createFile(reports.resolve("failed.part"));
+        Path runningPart = Files.createFile(reports.resolve("running.part"));
+        Path unknown = Files.createFile(reports.resolve("unknown.xlsx"));
+
+        service(queued::add).purgeExpiredJobs();
+
+        assertThat(Files.exists(result)).isTrue();
+        assertThat(Files.exists(runningPart)).isTrue();
+        assertThat(Files.exists(failedPart)).isFalse();
+        assertThat(Files.exists(unknown)).isFalse();
+        assertThat(rows).containsKey(completed.getId()).containsKey(failed.getId()).containsKey(running.getId());
+    }
+
+    private ReportJobService service(Executor executor) {
+        return new ReportJobService(mock(FinancialReportService.class), new StreamingExportService(100),
+                reportJobRepository, mock(PlatformTransactionManager.class), executor, mock(TaskScheduler.class),
+                uploadDir.toString(), 24);
+    }
+
+    private ReportJob job(String id, ReportJobStatus status, String fileName) {
+        ReportJob job = new ReportJob(id, 1L, "FINANCIAL_SUMMARY", "CSV", id, LocalDateTime.now());
+        job.setStatus(status);
+        job.setFileName(fileName);
+        if (status.isFinished()) {
+            job.setCompletedAt(LocalDateTime.now());
+        }
+        rows.put(id, job);
+        return job;
+    }
+
+    private void signIn(Long userId) {
+        UserPrincipal principal = mock(UserPrincipal.class);
+        when(principal.getId()).thenReturn(userId);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, Collections.emptyList()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ReportJobRepository tableBackedRepository(Map<String, ReportJob> rows) {
+        ReportJobRepository repository = mock(ReportJobRepository.class);
+        when(repository.save(any())).thenAnswer(invocation -> {
+            ReportJob job = invocation.getArgument(0);
+            rows.put(job.getId(), job);
+            return job;
+        });
+        when(repository.findById(any())).thenAnswer(invocation -> Optional.ofNullable(rows.get(invocation.getArgument(0))));
+        when(repository.findAllById(any())).thenAnswer(invocation -> {
+            List<ReportJob> found = new ArrayList<>();
+            for (String id : (Iterable<String>) invocation.getArgument(0)) {
+                if (rows.containsKey(id)) {
+                    found.add(rows.get(id));
+                }
+            }
+            return found;
+        });
+        when(repository.findFirstByDedupKeyAndStatusIn(any(), any())).thenAnswer(invocation -> rows.values().stream()
+                .filter(job -> job.getDedupKey().equals(invocation.getArgument(0)) && !job.getStatus().isFinished())
+                .findFirst());
+        when(repository.findFinishedBefore(any())).thenReturn(List.of());
+        when(repository.finish(any(), any(), any(), any())).thenAnswer(invocation -> {
+            ReportJob job = rows.get(invocation.getArgument(0));
+            if (job == null || job.getStatus().isFinished()) {
+                return 0;
+            }
+            job.setStatus(invocation.getArgument(1));
+            job.setErrorMessage(invocation.getArgument(2));
+            job.setCompletedAt(invocation.getArgument(3));
+            return 1;
+        });
+        return repository;
+    }
+}
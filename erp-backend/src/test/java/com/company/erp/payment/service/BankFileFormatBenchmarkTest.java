@@ -0,0 +1,111 @@
+package com.company.erp.payment.service;
+
+import com.company.erp.payment.entity.BankFileFormat;
+import com.company.erp.payment.repository.PaymentRepository;
+import com.company.erp.payment.service.SaudiBankFileGenerator.BankFileContent;
+import com.company.erp.payment.service.SaudiBankFileGenerator.BankFileRow;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * JMH: one batch written as an SXSSF workbook through POI against the fixed-width SARIE and
+ * SWIFT MT writers, from the same rows to a discarding channel.
+ *
+ * excel is the POI path bank files used before the text formats; sarie and swift encode into one
+ * reused direct buffer. The GC profiler reports the allocation per file (gc.alloc.rate.norm) next
+ * to the time. Run with {@code mvn test -Dbenchmark=true -Dtest=BankFileFormatBenchmarkTest}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class BankFileFormatBenchmarkTest {
+
+    @Param({"10000"})
+    public int payments;
+
+    private SaudiBankFileGenerator generator;
+    private FixedWidthBankFileWriter fixedWidthWriter;
+    private List<BankFileRow> rows;
+    private BigDecimal totalAmount;
+
+    @Setup
+    public void setUp() {
+        generator = new SaudiBankFileGenerator(mock(PaymentRepository.class),
+                mock(PlatformTransactionManager.class), 100);
+        fixedWidthWriter = new FixedWidthBankFileWriter("SENDER000001", "RJHI", "0001");
+
+        rows = new ArrayList<>(payments);
+        totalAmount = BigDecimal.ZERO;
+        for (long id = 1; id <= payments; id++) {
+            BigDecimal amount = BigDecimal.valueOf(10_000 + id % 1000, 2);
+            totalAmount = totalAmount.add(amount);
+            rows.add(new BankFileRow(id, "Al Rajhi Bank", String.format("%012d", id),
+                    String.format("SA03800000%014d", id), amount, "Project: Riyadh Metro - Phase " + id % 7,
+                    "Payee " + id, String.format("1%09d", id), ""));
+        }
+    }
+
+    @Benchmark
+    public void excel() throws IOException {
+        generator.write(content(BankFileFormat.EXCEL), discard());
+    }
+
+    @Benchmark
+    public void sarie() throws IOException {
+        fixedWidthWriter.write(content(BankFileFormat.SARIE), discard());
+    }
+
+    @Benchmark
+    public void swift() throws IOException {
+        fixedWidthWriter.write(content(BankFileFormat.SWIFT), discard());
+    }
+
+    private BankFileContent content(BankFileFormat format) {
+        return new BankFileContent("BATCH-BENCHMARK", "Al Rajhi Bank", "SAR", totalAmount, format, payments, rows);
+    }
+
+    private static WritableByteChannel discard() {
+        return Channels.newChannel(OutputStream.nullOutputStream());
+    }
+
+    @Test
+    void runBenchmarks() throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BankFileFormatBenchmarkTest.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,221 @@
+package com.company.erp.payment.service;
+
+import com.company.erp.payment.entity.BankFileFormat;
+import com.company.erp.payment.entity.Payment;
+import com.company.erp.payment.entity.PaymentBatch;
+import com.company.erp.payment.repository.PaymentRepository;
+import com.company.erp.payment.service.SaudiBankFileGenerator.BankFileContent;
+import com.company.erp.payment.service.SaudiBankFileGenerator.BankFileRow;
+import com.company.erp.user.entity.User;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Live heap and wall time of writing a 100k-payment batch: rows read a chunk at a time by
+ * {@link SaudiBankFileGenerator#prepare} against the same rows materialized in one list up front,
+ * as prepare used to do. The repository is stubbed to build each chunk of payments on demand.
+ * Run with {@code mvn test -Dbenchmark=true -Dtest=BankFileStreamingBenchmarkTest}.
+ */
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BankFileStreamingBenchmarkTest {
+
+    private static final int PAYMENTS = 100_000;
+    private static final long BATCH_ID = 1L;
+    private static final int SARIE_LINE_LENGTH = 162;
+
+    private final PaymentRepository paymentRepository = mock(PaymentRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final SaudiBankFileGenerator generator =
+            new SaudiBankFileGenerator(paymentRepository, transactionManager, 100);
+    private final FixedWidthBankFileWriter fixedWidthWriter =
+            new FixedWidthBankFileWriter("SENDER000001", "RJHI", "0001");
+
+    @Test
+    void excelStreamsRowsInBoundedHeap() throws IOException {
+        assertThat(compare(BankFileFormat.EXCEL)).isPositive();
+    }
+
+    @Test
+    void sarieStreamsRowsInBoundedHeap() throws IOException {
+        long size = compare(BankFileFormat.SARIE);
+        // Header, every payment and the trailer
+        assertThat(size).isEqualTo((long) (PAYMENTS + 2) * SARIE_LINE_LENGTH);
+    }
+
+    private long compare(BankFileFormat format) throws IOException {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(paymentRepository.findBankFileChunk(eq(BATCH_ID), anyLong(), any(Pageable.class)))
+                .thenAnswer(invocation -> paymentsAfter(invocation.getArgument(1),
+                        invocation.<Pageable>getArgument(2).getPageSize()));
+        PaymentBatch batch = batch(format);
+
+        Run materialized = run(format, () -> materialized(batch, format));
+        Run streamed = run(format, () -> generator.prepare(batch));
+
+        System.out.printf("%s bank file, %d payments: materialized %d ms, live heap +%d KB; " +
+                        "streamed %d ms, live heap +%d KB (%d bytes)%n",
+                format, PAYMENTS, materialized.millis, materialized.liveHeapBytes >> 10,
+                streamed.millis, streamed.liveHeapBytes >> 10, streamed.size);
+
+        // One chunk of rows against all of them
+        assertThat(streamed.liveHeapBytes).isLessThan(materialized.liveHeapBytes / 4);
+        return streamed.size;
+    }
+
+    private Run run(BankFileFormat format, ContentSource source) throws IOException {
+        Path file = Files.createTempFile("bank-file-benchmark", format.getExtension());
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long baseline = memory.getHeapMemoryUsage().getUsed();
+
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            BankFileContent content = source.get();
+            LiveHeapProbe probe = new LiveHeapProbe(content.getRows(), PAYMENTS / 2, memory);
+            BankFileContent probed = new BankFileContent(content.getBatchNumber(), content.getBankName(),
+                    content.getCurrency(), content.getTotalAmount(), format, content.getPaymentCount(), probe);
+            if (format.isText()) {
+                fixedWidthWriter.write(probed, channel);
+            } else {
+                generator.write(probed, channel);
+            }
+            long millis = (System.nanoTime() - start - probe.gcNanos) / 1_000_000;
+            return new Run(millis, Math.max(0, probe.liveHeapBytes - baseline), channel.size());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private BankFileContent materialized(PaymentBatch batch, BankFileFormat format) {
+        List<BankFileRow> rows = new ArrayList<>(PAYMENTS);
+        for (Payment payment : paymentsAfter(0L, PAYMENTS)) {
+            rows.add(new BankFileRow(payment.getId(), payment.getBankName(), payment.getAccountNumber(),
+                    payment.getIban(), payment.getAmount(), "Project Payment", payment.getPayee().getFullName(),
+                    payment.getPayee().getNationalId(), ""));
+        }
+        return new BankFileContent(batch.getBatchNumber(), batch.getBankName(), batch.getCurrency(),
+                batch.getTotalAmount(), format, PAYMENTS, rows);
+    }
+
+    private PaymentBatch batch(BankFileFormat format) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 1; i <= PAYMENTS; i++) {
+            total = total.add(amount(i));
+        }
+        PaymentBatch batch = new PaymentBatch();
+        batch.setId(BATCH_ID);
+        batch.setBatchNumber("BATCH-BENCHMARK");
+        batch.setBankName("Al Rajhi Bank");
+        batch.setFileFormat(format);
+        batch.setTotalAmount(total);
+        batch.setPaymentCount(PAYMENTS);
+        return batch;
+    }
+
+    private List<Payment> paymentsAfter(long afterId, int limit) {
+        List<Payment> payments = new ArrayList<>(limit);
+        for (long id = afterId + 1; id <= Math.min(afterId + limit, PAYMENTS); id++) {
+            User payee = new User();
+            payee.setFullName("Payee " + id);
+            payee.setNationalId(String.format("1%09d", id));
+
+            Payment payment = new Payment();
+            payment.setId(id);
+            payment.setPayee(payee);
+            payment.setAmount(amount(id));
+            payment.setBankName("Al Rajhi Bank");
+            payment.setAccountNumber(String.format("%012d", id));
+            payment.setIban(String.format("SA03800000%014d", id));
+            payments.add(payment);
+        }
+        return payments;
+    }
+
+    private static BigDecimal amount(long id) {
+        return BigDecimal.valueOf(10_000 + id % 1000, 2);
+    }
+
+    @FunctionalInterface
+    private interface ContentSource {
+        BankFileContent get();
+    }
+
+    private static final class Run {
+        private final long millis;
+        private final long liveHeapBytes;
+        private final long size;
+
+        private Run(long millis, long liveHeapBytes, long size) {
+            this.millis = millis;
+            this.liveHeapBytes = liveHeapBytes;
+            this.size = size;
+        }
+    }
+
+    /**
+     * Forces a collection half way through the rows and records the heap still in use: what the
+     * write holds live, without the garbage a peak sample would include. The pause is left out of
+     * the wall time.
+     */
+    private static final class LiveHeapProbe implements Iterable<BankFileRow> {
+        private final Iterable<BankFileRow> rows;
+        private final int probeAt;
+        private final MemoryMXBean memory;
+        private long liveHeapBytes;
+        private long gcNanos;
+
+        private LiveHeapProbe(Iterable<BankFileRow> rows, int probeAt, MemoryMXBean memory) {
+            this.rows = rows;
+            this.probeAt = probeAt;
+            this.memory = memory;
+        }
+
+        @Override
+        public Iterator<BankFileRow> iterator() {
+            Iterator<BankFileRow> iterator = rows.iterator();
+            return new Iterator<>() {
+                private int index;
+
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public BankFileRow next() {
+                    if (++index == probeAt) {
+                        long start = System.nanoTime();
+                        System.gc();
+                        liveHeapBytes = memory.getHeapMemoryUsage().getUsed();
+                        gcNanos = System.nanoTime() - start;
+                    }
+                    return iterator.next();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.company.erp.payment.service;
+
+import com.company.erp.common.exception.BusinessException;
+import com.company.erp.payment.entity.BankFileFormat;
+import com.company.erp.payment.service.SaudiBankFileGenerator.BankFileContent;
+import com.company.erp.payment.service.SaudiBankFileGenerator.BankFileRow;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FixedWidthBankFileWriterTest {
+
+    private final FixedWidthBankFileWriter writer = new FixedWidthBankFileWriter("SENDER000001", "RJHI", "0001");
+
+    @Test
+    void sarieRecordsAreFixedWidthAndPadded() throws IOException {
+        List<BankFileRow> rows = List.of(
+                row(7L, "SA03 8000 0000 6080 1016 7519", "125.50", "Ahmed Ali", "March salary"),
+                row(12L, "sa4420000001234567891234", "0.05", "Sara O'Neil", null));
+
+        String[] records = write(BankFileFormat.SARIE, "125.55", rows).split("\r\n", -1);
+
+        assertThat(records).hasSize(5);
+        assertThat(records[4]).isEmpty(); // The file ends with a line break
+        for (int i = 0; i < 4; i++) {
+            assertThat(records[i]).hasSize(160);
+        }
+        assertThat(records[0]).startsWith("HSENDER000001RJHI0001" + pad("BATCH-7", 20));
+        assertThat(records[0].substring(55, 58)).isEqualTo("SAR");
+        assertThat(records[0].substring(58)).isBlank();
+
+        assertThat(records[1]).isEqualTo(pad("D000001" + "SA0380000000608010167519" + "000000000012550" + "SAR"
+                + pad("Ahmed Ali", 35) + pad("1000000007", 15) + "0000000000000007" + "March salary", 160));
+        assertThat(records[2]).isEqualTo(pad("D000002" + "SA4420000001234567891234" + "000000000000005" + "SAR"
+                + pad("Sara O'Neil", 35) + pad("1000000012", 15) + "0000000000000012", 160));
+        assertThat(records[3]).startsWith("T000002" + "000000000000012555");
+    }
+
+    @Test
+    void sarieTrailerCarriesTheCrc32OfEverythingBeforeIt() throws IOException {
+        String file = write(BankFileFormat.SARIE, "125.50",
+                List.of(row(7L, "SA0380000000608010167519", "125.50", "Ahmed Ali", "March salary")));
+
+        int trailer = file.lastIndexOf("\r\nT") + 2;
+        assertThat(file.substring(trailer + 25, trailer + 33)).isEqualTo(crc32(file.substring(0, trailer), 8));
+        assertThat(file.substring(trailer + 33, file.length() - 2)).isBlank();
+    }
+
+    @Test
+    void swiftMessageEndsWithTheControlTotalAndChecksumAcrossBufferFlushes() throws IOException {
+        // Well past the 64 KB buffer, so the checksum spans several drains and the trailer follows one
+        List<BankFileRow> rows = new ArrayList<>();
+        BigDecimal total = BigDecimal.ZERO;
+        for (long id = 1; id <= 2000; id++) {
+            BigDecimal amount = BigDecimal.valueOf(100_000 + id, 2);
+            total = total.add(amount);
+            rows.add(row(id, "SA0380000000608010167519", amount.toPlainString(), "Payee " + id, "Invoice " + id));
+        }
+
+        String file = write(BankFileFormat.SWIFT, total.toPlainString(), rows);
+
+        assertThat(file).startsWith("{1:F01SENDER000001}{2:I101RJHI       N}{4:\r\n:20:BATCH-7\r\n:28D:1/1\r\n:30:");
+        assertThat(file).contains(":21:2000\r\n:32B:SAR1020,00\r\n:59:/SA0380000000608010167519\r\n"
+                + "Payee 2000\r\n:70:Invoice 2000\r\n");
+        int trailer = file.indexOf("{5:{CHK:");
+        assertThat(file.substring(0, trailer)).endsWith(":19:2020010,00\r\n-}");
+        assertThat(file.substring(trailer)).isEqualTo("{5:{CHK:" + crc32(file.substring(0, trailer), 12) + "}}\r\n");
+    }
+
+    @Test
+    void controlTotalMismatchFailsTheFile() {
+        List<BankFileRow> rows = List.of(row(7L, "SA0380000000608010167519", "125.50", "Ahmed Ali", null));
+
+        for (BankFileFormat format : List.of(BankFileFormat.SARIE, BankFileFormat.SWIFT)) {
+            assertThatThrownBy(() -> write(format, "125.49", rows))
+                    .isInstanceOf(BusinessException.class)
+                    .hasFieldOrPropertyWithValue("errorCode", "BANK_FILE_TOTAL_MISMATCH");
+        }
+    }
+
+    @Test
+    void textOutsideTheSwiftCharacterSetIsRejected() {
+        String arabicName = "\u0623\u062D\u0645\u062F \u0639\u0644\u064A";
+        List<BankFileRow> rows = List.of(row(7L, "SA0380000000608010167519", "125.50", arabicName, null));
+
+        for (BankFileFormat format : List.of(BankFileFormat.SARIE, BankFileFormat.SWIFT)) {
+            assertThatThrownBy(() -> write(format, "125.50", rows))
+                    .isInstanceOf(BusinessException.class)
+                    .hasFieldOrPropertyWithValue("errorCode", "INVALID_BANK_FILE_TEXT");
+        }
+        assertThat(FixedWidthBankFileWriter.isSwiftText("Payment (ref 12/3): O'Neil-Smith, Jr. +1?")).isTrue();
+        assertThat(FixedWidthBankFileWriter.isSwiftText("Caf\u00E9")).isFalse();
+        assertThat(FixedWidthBankFileWriter.isSwiftText("50% advance")).isFalse();
+        assertThat(FixedWidthBankFileWriter.isSwiftText(null)).isTrue();
+    }
+
+    private String write(BankFileFormat format, String totalAmount, List<BankFileRow> rows) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.write(new BankFileContent("BATCH-7", "Al Rajhi Bank", "SAR", new BigDecimal(totalAmount), format,
+                rows.size(), rows), Channels.newChannel(out));
+        return out.toString(StandardCharsets.US_ASCII);
+    }
+
+    private static BankFileRow row(Long paymentId, String iban, String amount, String name, String comments) {
+        return new BankFileRow(paymentId, "Al Rajhi Bank", "608010167519", iban, new BigDecimal(amount), comments,
+                name, String.format("1%09d", paymentId), "");
+    }
+
+    private static String pad(String value, int width) {
+        return String.format("%-" + width + "s", value);
+    }
+
+    private static String crc32(String content, int width) {
+        CRC32 crc = new CRC32();
+        crc.update(content.getBytes(StandardCharsets.US_ASCII));
+        return String.format("%0" + width + "X", crc.getValue());
+    }
+}
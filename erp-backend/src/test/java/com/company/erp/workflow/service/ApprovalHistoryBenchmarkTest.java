@@ -0,0 +1,121 @@
+package com.company.erp.workflow.service;
+
+import com.company.erp.common.event.WorkflowTransitionEvent;
+import com.company.erp.workflow.entity.WorkflowEvent;
+import com.company.erp.workflow.entity.WorkflowState;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cost of recording approval history for the deciding transactions, which only buffer their
+ * transitions after commit, against the same transactions without history; and the time the
+ * background flush then takes to write them in batches.
+ *
+ * Needs the PostgreSQL database of the active profile; run with
+ * {@code mvn test -Dbenchmark=true -Dtest=ApprovalHistoryBenchmarkTest}.
+ */
+@SpringBootTest
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ApprovalHistoryBenchmarkTest {
+
+    private static final int TRANSACTIONS = 50; // Entries stay within the default buffer capacity
+    private static final int TRANSITIONS_PER_TRANSACTION = 100;
+
+    // Synthetic quotations; approval_history has no foreign keys
+    private static final long FIRST_QUOTATION_ID = -1_000_000_000L;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ApprovalHistoryService approvalHistoryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void historyAddsNoStatementsToTheCommit() throws InterruptedException {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        long baselineStart = System.nanoTime();
+        for (int t = 0; t < TRANSACTIONS; t++) {
+            tx.executeWithoutResult(status -> jdbcTemplate.queryForObject("SELECT 1", Integer.class));
+        }
+        long baselineNanos = System.nanoTime() - baselineStart;
+
+        statistics.clear();
+        long historyStart = System.nanoTime();
+        for (int t = 0; t < TRANSACTIONS; t++) {
+            long base = FIRST_QUOTATION_ID + (long) t * TRANSITIONS_PER_TRANSACTION;
+            tx.executeWithoutResult(status -> {
+                jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+                for (int i = 0; i < TRANSITIONS_PER_TRANSACTION; i++) {
+                    eventPublisher.publishEvent(new WorkflowTransitionEvent(base + i, 1L, WorkflowEvent.APPROVE,
+                            WorkflowState.MANAGER_REVIEW, WorkflowState.APPROVED, LocalDateTime.now()));
+                }
+            });
+        }
+        long historyNanos = System.nanoTime() - historyStart;
+        long commitStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        long flushStart = System.nanoTime();
+        while (approvalHistoryService.getBufferedCount() > 0) {
+            approvalHistoryService.flush(); // Returns at once while the scheduled flush holds the lock
+        }
+        long flushNanos = System.nanoTime() - flushStart;
+        long flushStatements = statistics.getPrepareStatementCount();
+
+        int entries = TRANSACTIONS * TRANSITIONS_PER_TRANSACTION;
+        System.out.printf("Approval history, %d transactions x %d transitions: %.3f ms per transaction without history, " +
+                        "%.3f ms with history (+%.1f us per entry, %d statements); flush %.1f ms (%d statements)%n",
+                TRANSACTIONS, TRANSITIONS_PER_TRANSACTION, baselineNanos / 1e6 / TRANSACTIONS,
+                historyNanos / 1e6 / TRANSACTIONS, (historyNanos - baselineNanos) / 1e3 / entries, commitStatements,
+                flushNanos / 1e6, flushStatements);
+
+        assertThat(written(entries)).isEqualTo(entries);
+        // No Hibernate statement runs in the deciding transactions; history is written later
+        assertThat(commitStatements).isZero();
+        // One approval lookup per batch, pooled ids and JDBC batches instead of a round trip per entry
+        assertThat(flushStatements).isLessThan(entries / 10);
+
+        jdbcTemplate.update("DELETE FROM approval_history WHERE quotation_id < ?", FIRST_QUOTATION_ID + entries);
+    }
+
+    // The last batch drained by a concurrent scheduled flush may still be committing
+    private int written(int entries) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        Integer written;
+        do {
+            written = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM approval_history WHERE quotation_id < ?",
+                    Integer.class, FIRST_QUOTATION_ID + entries);
+            if (written < entries) {
+                Thread.sleep(50);
+            }
+        } while (written < entries && System.currentTimeMillis() < deadline);
+        return written;
+    }
+}
@@ -0,0 +1,141 @@
+package com.company.erp.workflow.service;
+
+import com.company.erp.common.event.WorkflowTransitionEvent;
+import com.company.erp.workflow.entity.ApprovalHistory;
+import com.company.erp.workflow.entity.WorkflowEvent;
+import com.company.erp.workflow.entity.WorkflowState;
+import com.company.erp.workflow.repository.ApprovalHistoryRepository;
+import com.company.erp.workflow.repository.ApprovalRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ApprovalHistoryServiceTest {
+
+    private static final Long QUOTATION_ID = 21L;
+    private static final Long SUBMITTER_ID = 4L;
+    private static final Long APPROVER_ID = 5L;
+
+    private ApprovalHistoryRepository approvalHistoryRepository;
+    private ApprovalRepository approvalRepository;
+    private List<List<ApprovalHistory>> written;
+    private AtomicInteger failures;
+
+    @BeforeEach
+    void setUp() {
+        approvalHistoryRepository = mock(ApprovalHistoryRepository.class);
+        approvalRepository = mock(ApprovalRepository.class);
+        written = new ArrayList<>();
+        failures = new AtomicInteger();
+        // Copies each batch: the service reuses its batch list once the write returns
+        when(approvalHistoryRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            if (failures.getAndDecrement() > 0) {
+                throw new DataAccessResourceFailureException("Connection refused");
+            }
+            List<ApprovalHistory> batch = invocation.getArgument(0);
+            written.add(List.copyOf(batch));
+            return batch;
+        });
+        List<Object[]> approvals = new ArrayList<>();
+        approvals.add(new Object[]{70L, QUOTATION_ID, APPROVER_ID});
+        when(approvalRepository.findIdsByQuotationIdIn(anyCollection())).thenReturn(approvals);
+    }
+
+    @Test
+    void committedTransitionsAreBufferedThenWrittenWithTheirApprovalReference() {
+        ApprovalHistoryService service = service(10, 500);
+
+        service.onWorkflowTransition(transition(SUBMITTER_ID, WorkflowEvent.SUBMIT, null, WorkflowState.MANAGER_REVIEW));
+        service.onWorkflowTransition(transition(APPROVER_ID, WorkflowEvent.APPROVE,
+                WorkflowState.MANAGER_REVIEW, WorkflowState.FINAL_REVIEW));
+
+        // Nothing is written on the committing thread; the history already shows both entries
+        assertThat(written).isEmpty();
+        assertThat(service.getHistory(QUOTATION_ID)).hasSize(2);
+
+        assertThat(service.flush()).isEqualTo(2);
+
+        assertThat(written).hasSize(1);
+        ApprovalHistory submit = written.get(0).get(0);
+        assertThat(submit.getEvent()).isEqualTo(WorkflowEvent.SUBMIT);
+        assertThat(submit.getApprovalId()).isNull();
+        ApprovalHistory approve = written.get(0).get(1);
+        assertThat(approve.getApprovalId()).isEqualTo(70L);
+        assertThat(service.getBufferedCount()).isZero();
+    }
+
+    @Test
+    void flushWritesInBatches() {
+        ApprovalHistoryService service = service(10, 2);
+        for (int i = 0; i < 5; i++) {
+            service.onWorkflowTransition(transition(APPROVER_ID, WorkflowEvent.APPROVE,
+                    WorkflowState.MANAGER_REVIEW, WorkflowState.FINAL_REVIEW));
+        }
+
+        assertThat(service.flush()).isEqualTo(5);
+
+        assertThat(written.stream().map(List::size).toList()).containsExactly(2, 2, 1);
+    }
+
+    @Test
+    void fullBufferWritesTheEntryOnTheCommittingThread() {
+        ApprovalHistoryService service = service(1, 500);
+
+        service.onWorkflowTransition(transition(SUBMITTER_ID, WorkflowEvent.SUBMIT, null, WorkflowState.MANAGER_REVIEW));
+        service.onWorkflowTransition(transition(APPROVER_ID, WorkflowEvent.REJECT,
+                WorkflowState.MANAGER_REVIEW, WorkflowState.REJECTED));
+
+        assertThat(written).hasSize(1);
+        assertThat(written.get(0).get(0).getEvent()).isEqualTo(WorkflowEvent.REJECT);
+        assertThat(service.getBufferedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void failedWriteKeepsTheEntriesForTheNextFlush() {
+        ApprovalHistoryService service = service(10, 500);
+        service.onWorkflowTransition(transition(APPROVER_ID, WorkflowEvent.APPROVE,
+                WorkflowState.MANAGER_REVIEW, WorkflowState.FINAL_REVIEW));
+        failures.set(1);
+
+        assertThat(service.flush()).isZero();
+        assertThat(service.getBufferedCount()).isEqualTo(1);
+
+        assertThat(service.flush()).isEqualTo(1);
+        assertThat(written.get(0).get(0).getApprovalId()).isEqualTo(70L);
+    }
+
+    @Test
+    void stopWritesWhatIsStillBuffered() {
+        ApprovalHistoryService service = service(10, 500);
+        service.onWorkflowTransition(transition(APPROVER_ID, WorkflowEvent.APPROVE,
+                WorkflowState.MANAGER_REVIEW, WorkflowState.FINAL_REVIEW));
+
+        service.stop();
+
+        assertThat(written).hasSize(1);
+        assertThat(service.getBufferedCount()).isZero();
+    }
+
+    private ApprovalHistoryService service(int bufferCapacity, int batchSize) {
+        return new ApprovalHistoryService(approvalHistoryRepository, approvalRepository,
+                mock(PlatformTransactionManager.class), mock(TaskScheduler.class), bufferCapacity, batchSize, 3);
+    }
+
+    private static WorkflowTransitionEvent transition(Long actorId, WorkflowEvent event,
+                                                      WorkflowState from, WorkflowState to) {
+        return new WorkflowTransitionEvent(QUOTATION_ID, actorId, event, from, to, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,148 @@
+package com.company.erp.workflow.service;
+
+import com.company.erp.common.security.UserPrincipal;
+import com.company.erp.workflow.entity.WorkflowState;
+import com.company.erp.workflow.repository.WorkflowInstanceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ApprovalQueueServiceTest {
+
+    private static final Long APPROVER_ID = 5L;
+    private static final Long OTHER_APPROVER_ID = 6L;
+
+    private final LocalDateTime now = LocalDateTime.now();
+    private WorkflowInstanceRepository workflowInstanceRepository;
+    private ApprovalQueueService service;
+    private UserPrincipal approver;
+
+    @BeforeEach
+    void setUp() {
+        workflowInstanceRepository = mock(WorkflowInstanceRepository.class);
+        WorkflowEngine workflowEngine = new WorkflowEngine(workflowInstanceRepository, mock(ApplicationEventPublisher.class),
+                new BigDecimal("1000.00"), new BigDecimal("5000.00"), 72);
+        service = new ApprovalQueueService(workflowInstanceRepository, workflowEngine,
+                mock(ApplicationEventPublisher.class), 30, 20, mock(TaskScheduler.class));
+        approver = new UserPrincipal(APPROVER_ID, "manager", "manager@example.com", "Manager", "secret",
+                true, false, false, List.of(new SimpleGrantedAuthority("ACCOUNT_MANAGER")));
+
+        when(workflowInstanceRepository.findQueueRowsByStates(anyCollection())).thenReturn(rows(
+                row(1L, "2000.00", now.plusHours(10), null),
+                row(2L, "9000.00", now.plusHours(10), null),
+                row(3L, "500.00", now.plusHours(2), null)));
+    }
+
+    @Test
+    void queueIsOrderedByDeadlineThenLargestAmount() {
+        assertThat(service.getQueue(approver, PageRequest.of(0, 10)).getContent()).containsExactly(3L, 2L, 1L);
+    }
+
+    @Test
+    void refreshAfterCommitReadsRowsNotManagedInstances() {
+        service.getQueue(approver, PageRequest.of(0, 10));
+
+        // Quotation 3 was claimed by another approver, quotation 2 decided
+        when(workflowInstanceRepository.findQueueRowsByQuotationIdIn(List.of(3L, 2L))).thenReturn(rows(
+                row(3L, "500.00", now.plusHours(2), OTHER_APPROVER_ID),
+                finalRow(2L)));
+        service.refresh(List.of(3L, 2L));
+
+        assertThat(service.getQueue(approver, PageRequest.of(0, 10)).getContent()).containsExactly(3L, 1L);
+        verify(workflowInstanceRepository, never()).findByQuotationIdIn(any());
+
+        when(workflowInstanceRepository.lockClaimable(anyCollection(), anyCollection(), eq(APPROVER_ID), any(), anyInt()))
+                .thenReturn(List.of(1L));
+        service.claim(approver, 5);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Long>> candidates = ArgumentCaptor.forClass(Collection.class);
+        verify(workflowInstanceRepository).lockClaimable(candidates.capture(), anyCollection(), eq(APPROVER_ID), any(), anyInt());
+        assertThat(candidates.getValue()).containsExactly(1L);
+    }
+
+    @Test
+    void pageAfterAKnownQuotationIsReadFromTheTailView() {
+        Page<Long> first = service.getQueue(approver, PageRequest.of(0, 2));
+        assertThat(first.getContent()).containsExactly(3L, 2L);
+        assertThat(first.getTotalElements()).isEqualTo(3L);
+
+        assertThat(service.getQueue(approver, PageRequest.of(1, 2), 2L).getContent()).containsExactly(1L);
+        // Unknown after falls back to the page offset
+        assertThat(service.getQueue(approver, PageRequest.of(1, 2), 99L).getContent()).containsExactly(1L);
+    }
+
+    @Test
+    void finalReviewRowsAreNotListedForAccountManagers() {
+        when(workflowInstanceRepository.findQueueRowsByStates(anyCollection())).thenReturn(rows(
+                row(1L, "2000.00", now.plusHours(10), null),
+                finalReviewRow(4L, now.plusHours(1))));
+
+        Page<Long> queue = service.getQueue(approver, PageRequest.of(0, 10));
+
+        assertThat(queue.getContent()).containsExactly(1L);
+        assertThat(queue.getTotalElements()).isEqualTo(1L);
+    }
+
+    @Test
+    void reconcileAppliesOnlyRowsModifiedSinceThePreviousPass() {
+        service.getQueue(approver, PageRequest.of(0, 10));
+
+        // Another node claimed quotation 3 and decided quotation 1
+        when(workflowInstanceRepository.findQueueRowsModifiedSince(any())).thenReturn(rows(
+                row(3L, "500.00", now.plusHours(2), OTHER_APPROVER_ID),
+                finalRow(1L)));
+        service.reconcile();
+
+        assertThat(service.getQueue(approver, PageRequest.of(0, 10)).getContent()).containsExactly(3L, 2L);
+        verify(workflowInstanceRepository).findQueueRowsByStates(anyCollection()); // Only the first load
+
+        // Each pass reaches back the overlap before the start of the previous one
+        ArgumentCaptor<LocalDateTime> since = ArgumentCaptor.forClass(LocalDateTime.class);
+        service.reconcile();
+        verify(workflowInstanceRepository, times(2)).findQueueRowsModifiedSince(since.capture());
+        assertThat(since.getAllValues().get(0)).isBefore(LocalDateTime.now().minusMinutes(1));
+        assertThat(since.getAllValues().get(1)).isAfterOrEqualTo(since.getAllValues().get(0));
+    }
+
+    private Object[] row(Long quotationId, String amount, LocalDateTime slaDeadline, Long claimedBy) {
+        return new Object[]{quotationId, WorkflowState.MANAGER_REVIEW.getCode(), new BigDecimal(amount),
+                slaDeadline.minusHours(72), slaDeadline, null, claimedBy, claimedBy != null ? now.plusMinutes(30) : null};
+    }
+
+    private Object[] finalReviewRow(Long quotationId, LocalDateTime slaDeadline) {
+        return new Object[]{quotationId, WorkflowState.FINAL_REVIEW.getCode(), new BigDecimal("9000.00"),
+                slaDeadline.minusHours(72), slaDeadline, OTHER_APPROVER_ID, null, null};
+    }
+
+    private Object[] finalRow(Long quotationId) {
+        return new Object[]{quotationId, WorkflowState.APPROVED.getCode(), new BigDecimal("9000.00"),
+                now.minusHours(62), now.plusHours(10), APPROVER_ID, null, null};
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+}
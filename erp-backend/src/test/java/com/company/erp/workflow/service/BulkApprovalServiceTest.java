@@ -0,0 +1,154 @@
+package com.company.erp.workflow.service;
+
+import com.company.erp.common.config.AsyncConfiguration;
+import com.company.erp.common.exception.BusinessException;
+import com.company.erp.common.security.UserPrincipal;
+import com.company.erp.financial.repository.QuotationRepository;
+import com.company.erp.workflow.dto.request.BulkApprovalRequest;
+import com.company.erp.workflow.dto.response.BulkApprovalResponse;
+import com.company.erp.workflow.dto.response.BulkApprovalResponse.ItemResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BulkApprovalServiceTest {
+
+    // Quotation -> project: projects 10 and 12 fall in lane 0 of 2, project 11 in lane 1
+    private static final Map<Long, Long> PROJECTS = Map.of(1L, 10L, 2L, 11L, 3L, 10L, 4L, 12L, 5L, 11L, 6L, 10L);
+
+    private ApprovalService approvalService;
+    private QuotationRepository quotationRepository;
+    private List<List<Long>> chunks;
+
+    @BeforeEach
+    void setUp() {
+        approvalService = mock(ApprovalService.class);
+        quotationRepository = mock(QuotationRepository.class);
+        chunks = new CopyOnWriteArrayList<>();
+        when(quotationRepository.findProjectIdsByIdIn(anyCollection())).thenAnswer(invocation -> {
+            List<Object[]> rows = new ArrayList<>();
+            for (Long quotationId : invocation.<Collection<Long>>getArgument(0)) {
+                if (PROJECTS.containsKey(quotationId)) {
+                    rows.add(new Object[]{quotationId, PROJECTS.get(quotationId)});
+                }
+            }
+            return rows;
+        });
+
+        UserPrincipal approver = new UserPrincipal(5L, "manager", "manager@example.com", "Manager", "secret",
+                true, false, false, List.of(new SimpleGrantedAuthority("ACCOUNT_MANAGER")));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(approver, null, approver.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void quotationsArePartitionedIntoProjectLanesInLockOrder() {
+        when(approvalService.processApprovalChunk(any(), anyList(), any(), any()))
+                .thenAnswer(invocation -> approve(invocation.getArgument(1)));
+
+        BulkApprovalResponse response = service(Runnable::run).processBulkApprovals(request(1L, 2L, 3L, 4L, 5L, 6L, 99L));
+
+        // A project's quotations never span lanes; each lane is sorted by project, then id, and
+        // the unknown quotation sorts first in lane 0
+        assertThat(chunks).containsExactlyInAnyOrder(List.of(99L, 1L), List.of(3L, 6L), List.of(4L), List.of(2L, 5L));
+        assertThat(response.getChunks()).isEqualTo(4);
+        assertThat(response.getResults().stream().map(ItemResult::getQuotationId).toList())
+                .containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 99L);
+        assertThat(response.getSuccessfullyProcessed()).isEqualTo(7);
+    }
+
+    @Test
+    void failedChunkOnlyFailsItsOwnQuotations() {
+        when(approvalService.processApprovalChunk(any(), anyList(), any(), any())).thenAnswer(invocation -> {
+            List<Long> chunk = invocation.getArgument(1);
+            if (chunk.contains(3L)) {
+                throw new BusinessException("WORKFLOW_CONFLICT", "Quotation 3 was moved by another approver");
+            }
+            return approve(chunk);
+        });
+
+        BulkApprovalResponse response = service(Runnable::run).processBulkApprovals(request(1L, 2L, 3L, 4L, 5L, 6L));
+
+        assertThat(response.getFailed()).isEqualTo(2);
+        assertThat(response.getSuccessfullyProcessed()).isEqualTo(4);
+        for (ItemResult result : response.getResults()) {
+            boolean inFailedChunk = result.getQuotationId() == 1L || result.getQuotationId() == 3L;
+            assertThat(result.isSuccess()).isEqualTo(!inFailedChunk);
+            if (inFailedChunk) {
+                assertThat(result.getErrorCode()).isEqualTo("WORKFLOW_CONFLICT");
+            }
+        }
+        // The lane went on with its next chunk
+        assertThat(chunks).contains(List.of(6L, 4L));
+    }
+
+    @Test
+    void saturatedExecutorRunsTheLaneOnTheRequestThread() throws InterruptedException {
+        // One worker and no queue: the second lane is rejected while the first holds the worker
+        ThreadPoolTaskExecutor executor = (ThreadPoolTaskExecutor) new AsyncConfiguration().bulkApprovalExecutor(1, 0);
+        CountDownLatch callerRan = new CountDownLatch(1);
+        List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        when(approvalService.processApprovalChunk(any(), anyList(), any(), any())).thenAnswer(invocation -> {
+            String thread = Thread.currentThread().getName();
+            threads.add(thread);
+            if (thread.startsWith("bulk-approval-")) {
+                assertThat(callerRan.await(5, TimeUnit.SECONDS)).isTrue();
+            } else {
+                callerRan.countDown();
+            }
+            return approve(invocation.getArgument(1));
+        });
+
+        try {
+            BulkApprovalResponse response = service(executor).processBulkApprovals(request(1L, 2L));
+
+            assertThat(response.getSuccessfullyProcessed()).isEqualTo(2);
+            assertThat(threads).hasSize(2).contains(Thread.currentThread().getName());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private BulkApprovalService service(Executor executor) {
+        return new BulkApprovalService(approvalService, quotationRepository, executor, 2, 2);
+    }
+
+    private List<ItemResult> approve(List<Long> chunk) {
+        chunks.add(List.copyOf(chunk));
+        List<ItemResult> results = new ArrayList<>();
+        for (Long quotationId : chunk) {
+            results.add(ItemResult.succeeded(quotationId, "APPROVED", "APPROVED", quotationId + 100));
+        }
+        return results;
+    }
+
+    private static BulkApprovalRequest request(Long... quotationIds) {
+        return new BulkApprovalRequest(List.of(quotationIds), "APPROVE", null);
+    }
+}
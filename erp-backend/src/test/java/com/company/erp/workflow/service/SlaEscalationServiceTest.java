@@ -0,0 +1,138 @@
+package com.company.erp.workflow.service;
+
+import com.company.erp.notification.entity.NotificationPriority;
+import com.company.erp.notification.entity.NotificationType;
+import com.company.erp.notification.service.NotificationService;
+import com.company.erp.user.entity.User;
+import com.company.erp.user.repository.UserRepository;
+import com.company.erp.workflow.entity.WorkflowInstance;
+import com.company.erp.workflow.entity.WorkflowRoute;
+import com.company.erp.workflow.entity.WorkflowState;
+import com.company.erp.workflow.repository.WorkflowInstanceRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SlaEscalationServiceTest {
+
+    private static final Long CLAIMANT_ID = 5L;
+    private static final Long ADMIN_ID = 9L;
+
+    private WorkflowInstanceRepository workflowInstanceRepository;
+    private NotificationService notificationService;
+    private SlaEscalationService service;
+
+    @BeforeEach
+    void setUp() {
+        workflowInstanceRepository = mock(WorkflowInstanceRepository.class);
+        notificationService = mock(NotificationService.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        User admin = new User();
+        admin.setId(ADMIN_ID);
+        when(userRepository.findByRoleName("SUPER_ADMIN")).thenReturn(List.of(admin));
+
+        // Poll every second so the fallback test does not wait a minute
+        service = new SlaEscalationService(workflowInstanceRepository, userRepository, notificationService,
+                mock(PlatformTransactionManager.class), 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.stop();
+    }
+
+    @Test
+    void overdueDeadlineEscalatesToClaimantAndAdminsOnce() {
+        WorkflowInstance overdue = instance(1L, LocalDateTime.now().minusMinutes(1));
+        ReflectionTestUtils.setField(overdue, "claimedBy", CLAIMANT_ID);
+        when(workflowInstanceRepository.findUnescalatedByStates(anyCollection())).thenReturn(List.of(overdue));
+        when(workflowInstanceRepository.markEscalated(eq(1L), eq(overdue.getSlaDeadline()), anyCollection(), any()))
+                .thenReturn(1);
+        when(workflowInstanceRepository.findByQuotationId(1L)).thenReturn(Optional.of(overdue));
+
+        service.start();
+
+        verify(notificationService, timeout(2000)).createNotification(eq(CLAIMANT_ID), anyString(), anyString(),
+                eq(NotificationType.APPROVAL_ESCALATED.name()), eq(NotificationPriority.HIGH));
+        verify(notificationService, timeout(2000)).createNotification(eq(ADMIN_ID), anyString(), anyString(),
+                eq(NotificationType.APPROVAL_ESCALATED.name()), eq(NotificationPriority.HIGH));
+        assertThat(service.getScheduledCount()).isZero();
+    }
+
+    @Test
+    void deadlineAlreadyMarkedElsewhereIsNotNotified() throws Exception {
+        WorkflowInstance overdue = instance(2L, LocalDateTime.now().minusMinutes(1));
+        when(workflowInstanceRepository.findUnescalatedByStates(anyCollection())).thenReturn(List.of(overdue));
+        when(workflowInstanceRepository.markEscalated(eq(2L), any(), anyCollection(), any())).thenReturn(0);
+
+        service.start();
+
+        verify(workflowInstanceRepository, timeout(2000)).markEscalated(eq(2L), any(), anyCollection(), any());
+        verify(workflowInstanceRepository, never()).findByQuotationId(2L);
+        verify(notificationService, never()).createNotification(any(), anyString(), anyString(), anyString(), any());
+    }
+
+    @Test
+    void dueRowScheduledOnAnotherNodeIsEscalatedByThePoll() {
+        // Submitted on a node that went down before the deadline: nothing is queued here
+        WorkflowInstance overdue = instance(3L, LocalDateTime.now().minusMinutes(5));
+        when(workflowInstanceRepository.findUnescalatedByStates(anyCollection())).thenReturn(List.of());
+        when(workflowInstanceRepository.findDueUnescalated(anyCollection(), any(), any())).thenReturn(
+                rows(new Object[]{3L, overdue.getSlaDeadline()}), List.of());
+        when(workflowInstanceRepository.markEscalated(eq(3L), eq(overdue.getSlaDeadline()), anyCollection(), any()))
+                .thenReturn(1);
+        when(workflowInstanceRepository.findByQuotationId(3L)).thenReturn(Optional.of(overdue));
+
+        service.start();
+
+        verify(notificationService, timeout(3000)).createNotification(eq(ADMIN_ID), anyString(), anyString(),
+                eq(NotificationType.APPROVAL_ESCALATED.name()), eq(NotificationPriority.HIGH));
+    }
+
+    @Test
+    void rescheduleFollowsTheCommittedRows() {
+        LocalDateTime later = LocalDateTime.now().plusHours(10);
+        when(workflowInstanceRepository.findUnescalatedByStates(anyCollection())).thenReturn(List.of(
+                instance(1L, later), instance(2L, later), instance(3L, later)));
+        service.start();
+        assertThat(service.getScheduledCount()).isEqualTo(3);
+
+        // 1 decided, 2 escalated on another node, 3 deleted, 4 newly submitted
+        when(workflowInstanceRepository.findDeadlinesByQuotationIdIn(List.of(1L, 2L, 3L, 4L))).thenReturn(rows(
+                new Object[]{1L, WorkflowState.APPROVED.getCode(), later, null},
+                new Object[]{2L, WorkflowState.MANAGER_REVIEW.getCode(), later, LocalDateTime.now()},
+                new Object[]{4L, WorkflowState.MANAGER_REVIEW.getCode(), later.plusHours(1), null}));
+        service.reschedule(List.of(1L, 2L, 3L, 4L));
+
+        assertThat(service.getScheduledCount()).isEqualTo(1);
+        verify(workflowInstanceRepository, never()).findByQuotationIdIn(any());
+    }
+
+    private static WorkflowInstance instance(Long quotationId, LocalDateTime slaDeadline) {
+        return new WorkflowInstance(quotationId, WorkflowRoute.STANDARD, WorkflowState.MANAGER_REVIEW,
+                new BigDecimal("2500.00"), slaDeadline.minusHours(72), slaDeadline);
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+}
@@ -0,0 +1,113 @@
+package com.company.erp.workflow.service;
+
+import com.company.erp.common.exception.BusinessException;
+import com.company.erp.common.security.UserPrincipal;
+import com.company.erp.workflow.entity.WorkflowEvent;
+import com.company.erp.workflow.entity.WorkflowInstance;
+import com.company.erp.workflow.entity.WorkflowRoute;
+import com.company.erp.workflow.entity.WorkflowState;
+import com.company.erp.workflow.repository.WorkflowInstanceRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyShort;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WorkflowEngineTest {
+
+    private static final Long MANAGER_ID = 5L;
+    private static final Long ADMIN_ID = 6L;
+
+    private WorkflowInstanceRepository workflowInstanceRepository;
+    private EntityManager entityManager;
+    private WorkflowEngine engine;
+    private WorkflowInstance instance;
+
+    @BeforeEach
+    void setUp() {
+        workflowInstanceRepository = mock(WorkflowInstanceRepository.class);
+        entityManager = mock(EntityManager.class);
+        engine = new WorkflowEngine(workflowInstanceRepository, mock(ApplicationEventPublisher.class),
+                new BigDecimal("1000.00"), new BigDecimal("5000.00"), 72);
+        ReflectionTestUtils.setField(engine, "entityManager", entityManager);
+
+        LocalDateTime submitted = LocalDateTime.now();
+        instance = new WorkflowInstance(21L, WorkflowRoute.HIGH_VALUE, WorkflowState.MANAGER_REVIEW,
+                new BigDecimal("9000.00"), submitted, submitted.plusHours(72));
+        instance.setId(1L);
+        when(entityManager.contains(instance)).thenReturn(true);
+    }
+
+    @Test
+    void routesByAmountThresholds() {
+        assertThat(engine.routeFor(new BigDecimal("1000.00"))).isEqualTo(WorkflowRoute.AUTO);
+        assertThat(engine.routeFor(new BigDecimal("5000.00"))).isEqualTo(WorkflowRoute.STANDARD);
+        assertThat(engine.routeFor(new BigDecimal("5000.01"))).isEqualTo(WorkflowRoute.HIGH_VALUE);
+    }
+
+    @Test
+    void appliedStepRefreshesTheInstanceForTheNextStage() {
+        when(workflowInstanceRepository.transition(anyLong(), anyInt(), anyShort(), anyShort(), anyLong(), anyLong(), any()))
+                .thenReturn(1);
+        // The bulk UPDATE moved the row; refresh is what brings the managed copy along
+        doAnswer(invocation -> {
+            ReflectionTestUtils.setField(instance, "state", WorkflowState.FINAL_REVIEW.getCode());
+            ReflectionTestUtils.setField(instance, "version", 1);
+            ReflectionTestUtils.setField(instance, "lastActorId", MANAGER_ID);
+            return null;
+        }).when(entityManager).refresh(instance);
+
+        UserPrincipal manager = principal(MANAGER_ID, "ACCOUNT_MANAGER", "SUPER_ADMIN");
+        WorkflowEngine.Step first = engine.plan(instance, WorkflowEvent.APPROVE, manager);
+        engine.apply(instance, first, manager);
+
+        verify(entityManager).refresh(instance);
+        assertThat(instance.getState()).isEqualTo(WorkflowState.FINAL_REVIEW);
+
+        // Four-eyes is checked against the refreshed last actor
+        assertThatThrownBy(() -> engine.plan(instance, WorkflowEvent.APPROVE, manager))
+                .isInstanceOf(BusinessException.class)
+                .extracting("errorCode").isEqualTo("WORKFLOW_SAME_APPROVER");
+
+        WorkflowEngine.Step second = engine.plan(instance, WorkflowEvent.APPROVE, principal(ADMIN_ID, "SUPER_ADMIN"));
+        assertThat(second.getFrom()).isEqualTo(WorkflowState.FINAL_REVIEW);
+        assertThat(second.isApproved()).isTrue();
+    }
+
+    @Test
+    void lostRaceFailsWithoutRefreshing() {
+        when(workflowInstanceRepository.transition(anyLong(), anyInt(), anyShort(), anyShort(), anyLong(), anyLong(), any()))
+                .thenReturn(0);
+        UserPrincipal manager = principal(MANAGER_ID, "ACCOUNT_MANAGER");
+        WorkflowEngine.Step step = engine.plan(instance, WorkflowEvent.APPROVE, manager);
+
+        assertThatThrownBy(() -> engine.apply(instance, step, manager))
+                .isInstanceOf(BusinessException.class)
+                .extracting("errorCode").isEqualTo("WORKFLOW_CONFLICT");
+        verify(entityManager, never()).refresh(any());
+    }
+
+    private static UserPrincipal principal(Long id, String... roles) {
+        List<SimpleGrantedAuthority> authorities = Arrays.stream(roles).map(SimpleGrantedAuthority::new).toList();
+        return new UserPrincipal(id, "user" + id, "user" + id + "@example.com", "User " + id,
+                "secret", true, false, false, authorities);
+    }
+}
@@ -0,0 +1,133 @@
+package com.company.erp.workflow.service;
+
+import com.company.erp.common.security.UserPrincipal;
+import com.company.erp.workflow.entity.WorkflowEvent;
+import com.company.erp.workflow.entity.WorkflowInstance;
+import com.company.erp.workflow.entity.WorkflowRoute;
+import com.company.erp.workflow.entity.WorkflowState;
+import com.company.erp.workflow.repository.WorkflowInstanceRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two-stage approvals through the workflow engine from concurrent approvers: each transaction
+ * approves the manager stage and then the final stage of one high-value quotation, so the second
+ * step plans against the instance refreshed after the first UPDATE.
+ *
+ * Needs the PostgreSQL database of the active profile; run with
+ * {@code mvn test -Dbenchmark=true -Dtest=WorkflowTransitionBenchmarkTest}.
+ */
+@SpringBootTest
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class WorkflowTransitionBenchmarkTest {
+
+    private static final int QUOTATIONS = 5_000;
+    private static final int APPROVERS = 16;
+
+    @Autowired
+    private WorkflowEngine workflowEngine;
+
+    @Autowired
+    private WorkflowInstanceRepository workflowInstanceRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void sustainsThousandsOfTransitionsPerSecond() throws Exception {
+        String tag = "wf-benchmark-" + System.nanoTime();
+        UserPrincipal manager = principal(createUser(tag + "-manager"), "ACCOUNT_MANAGER");
+        UserPrincipal admin = principal(createUser(tag + "-admin"), "SUPER_ADMIN");
+        Long projectId = jdbcTemplate.queryForObject(
+                "INSERT INTO projects (name, allocated_budget) VALUES (?, 100000000.00) RETURNING id", Long.class, tag);
+        List<Long> quotationIds = createQuotations(projectId, manager.getId());
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService approvers = Executors.newFixedThreadPool(APPROVERS);
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int a = 0; a < APPROVERS; a++) {
+                futures.add(approvers.submit(() -> {
+                    for (int i = next.getAndIncrement(); i < quotationIds.size(); i = next.getAndIncrement()) {
+                        Long quotationId = quotationIds.get(i);
+                        tx.executeWithoutResult(status -> {
+                            WorkflowInstance instance = workflowInstanceRepository.findByQuotationId(quotationId).orElseThrow();
+                            workflowEngine.apply(instance, workflowEngine.plan(instance, WorkflowEvent.APPROVE, manager), manager);
+                            workflowEngine.apply(instance, workflowEngine.plan(instance, WorkflowEvent.APPROVE, admin), admin);
+                        });
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            approvers.shutdown();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double rate = 2.0 * QUOTATIONS / seconds;
+
+        System.out.printf("Workflow transitions, %d approvers x %d quotations (2 stages): %.0f transitions/s%n",
+                APPROVERS, QUOTATIONS, rate);
+
+        Integer approved = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM workflow_instances w JOIN quotations q ON q.id = w.quotation_id " +
+                        "WHERE q.project_id = ? AND w.state = ? AND w.version = 2",
+                Integer.class, projectId, WorkflowState.APPROVED.getCode());
+        assertThat(approved).isEqualTo(QUOTATIONS);
+        assertThat(rate).isGreaterThan(1_000);
+
+        jdbcTemplate.update("DELETE FROM approval_history WHERE quotation_id IN " +
+                "(SELECT id FROM quotations WHERE project_id = ?)", projectId);
+        jdbcTemplate.update("DELETE FROM workflow_instances WHERE quotation_id IN " +
+                "(SELECT id FROM quotations WHERE project_id = ?)", projectId);
+        jdbcTemplate.update("DELETE FROM quotations WHERE project_id = ?", projectId);
+        jdbcTemplate.update("DELETE FROM projects WHERE id = ?", projectId);
+        jdbcTemplate.update("DELETE FROM users WHERE username LIKE ?", tag + "%");
+    }
+
+    private List<Long> createQuotations(Long projectId, Long creatorId) {
+        List<Long> ids = jdbcTemplate.queryForList(
+                "INSERT INTO quotations (project_id, created_by, total_amount, status, submitted_date) " +
+                        "SELECT ?, ?, 9000.00, 'SUBMITTED', CURRENT_TIMESTAMP FROM generate_series(1, ?) RETURNING id",
+                Long.class, projectId, creatorId, QUOTATIONS);
+        jdbcTemplate.update("INSERT INTO workflow_instances (quotation_id, route, state, amount, submitted_date, sla_deadline) " +
+                        "SELECT id, ?, ?, total_amount, submitted_date, submitted_date + INTERVAL '72 hours' " +
+                        "FROM quotations WHERE project_id = ?",
+                WorkflowRoute.HIGH_VALUE.getCode(),
+                WorkflowState.MANAGER_REVIEW.getCode(), projectId);
+        return ids;
+    }
+
+    private Long createUser(String username) {
+        return jdbcTemplate.queryForObject("INSERT INTO users (username, email, password_hash, full_name) " +
+                "VALUES (?, ?, 'benchmark', ?) RETURNING id", Long.class, username, username + "@example.com", username);
+    }
+
+    private static UserPrincipal principal(Long id, String role) {
+        return new UserPrincipal(id, "benchmark-" + id, "benchmark-" + id + "@example.com", "Benchmark " + id,
+                "benchmark", true, false, false, List.of(new SimpleGrantedAuthority(role)));
+    }
+}